@@ -0,0 +1,311 @@
+package peppertech.crm.api.Cache.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import peppertech.crm.api.Cache.Hydration.EntityBatchLoader;
+import peppertech.crm.api.Cache.Hydration.IdListCacheManager;
+import peppertech.crm.api.Cache.Loading.CacheLease;
+import peppertech.crm.api.Cache.Loading.CoalescingCacheManager;
+import peppertech.crm.api.Cache.Metrics.CacheStatistics;
+import peppertech.crm.api.Cache.Metrics.InstrumentedCacheManager;
+import peppertech.crm.api.Cache.Resilience.DeferredEvictions;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+import peppertech.crm.api.Cache.Resilience.ResilientCacheManager;
+import peppertech.crm.api.Cache.Serializer.CacheEntryTooLargeException;
+import peppertech.crm.api.Cache.Serializer.CompactCacheSerializer;
+import peppertech.crm.api.Cache.Tags.CacheTagIndex;
+import peppertech.crm.api.Cache.Tags.TaggingCacheManager;
+import peppertech.crm.api.Cache.Tiered.CacheInvalidationBus;
+import peppertech.crm.api.Cache.Tiered.TwoLevelCacheManager;
+import peppertech.crm.api.Cache.Warmup.HotKeyLog;
+import peppertech.crm.api.Cache.Warmup.HotKeyTrackingCacheManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración explícita de las cachés de la aplicación sobre Redis.
+ *
+ * <p>Reemplaza el {@link CacheManager} autoconfigurado, que guardaba los DTOs con serialización de Java y sin
+ * expiración. Cada caché ({@code users}, {@code leads}, {@code boards}, {@code mails} y {@code missing}, la de búsquedas
+ * sin resultado) tiene su propio TTL y tamaño
+ * máximo de entrada, configurables con {@code cache.<nombre>.ttl} y {@code cache.<nombre>.max-entry-size}; las cachés no
+ * listadas usan los valores de {@code cache.default}.</p>
+ *
+ * <p>Los valores se guardan con {@link CompactCacheSerializer} (JSON con compresión LZ4 para los valores grandes) y las
+ * claves llevan el prefijo {@code <version>:<caché>::}. Al cambiar {@code cache.version} en un despliegue, las entradas
+ * escritas con la estructura anterior de las clases simplemente dejan de leerse y expiran por su TTL.</p>
+ *
+ * <p>En Redis, las listas de entidades de las cachés con un {@link EntityBatchLoader} se guardan como listas de IDs
+ * y se reconstruyen con un {@code MGET} de las entradas por ID ({@link IdListCacheManager}).</p>
+ *
+ * <p>Delante de Redis se ubica una caché local en memoria ({@link TwoLevelCacheManager}) con tamaño y TTL propios
+ * ({@code cache.local.*} y {@code cache.<nombre>.local.*}); las escrituras y evicciones se difunden por pub/sub para que
+ * los demás nodos descarten su copia local. Los valores de la caché local son instancias compartidas y no deben
+ * modificarse.</p>
+ *
+ * <p>Por encima de ambas capas, {@link TaggingCacheManager} registra qué entidades contiene cada entrada, de modo que
+ * los servicios invalidan con {@code tag:id:<id>} y {@code tag:lists} todas las claves derivadas ({@code all_*},
+ * {@code email_*}, {@code name_*}, {@code role:*}) sin enumerarlas.</p>
+ *
+ * <p>Los fallos de caché de los métodos {@code @Cacheable(sync = true)} se coalescen con {@link CoalescingCacheManager}:
+ * una sola carga por clave en cada nodo y, con {@code cache.loading.lease.enabled}, en todo el clúster. Las claves
+ * próximas a expirar se recalculan en segundo plano ({@code cache.loading.early-refresh.beta}).</p>
+ *
+ * <p>Los errores de Redis no interrumpen las solicitudes: una lectura fallida se trata como un fallo de caché y una
+ * escritura fallida se descarta. Con {@code cache.resilience.enabled}, cada operación sobre Redis tiene un tiempo
+ * máximo propio y, si Redis falla repetidamente, {@link RedisCircuitBreaker} lo omite por completo y las lecturas se
+ * resuelven con la caché local o con MongoDB ({@link ResilientCacheManager}). Las evicciones que no llegan a Redis se
+ * repiten al recuperarse ({@link DeferredEvictions}).</p>
+ */
+@Slf4j
+@Configuration
+public class CacheConfig implements CachingConfigurer {
+
+    static final List<String> CACHE_NAMES = List.of("users", "leads", "boards", "mails", "missing", "search");
+
+    private final Environment environment;
+
+    @Value("${cache.version:v1}")
+    private String version;
+    @Value("${cache.compression-threshold:2048}")
+    private int compressionThreshold;
+    @Value("${cache.default.ttl:600000}")
+    private long defaultTtl;
+    @Value("${cache.default.max-entry-size:1048576}")
+    private int defaultMaxEntrySize;
+    @Value("${cache.null-values:false}")
+    private boolean cacheNullValues;
+    @Value("${spring.cache.redis.enable-statistics:false}")
+    private boolean statistics;
+    @Value("${cache.local.enabled:true}")
+    private boolean localEnabled;
+    @Value("${cache.local.max-size:10000}")
+    private long localMaxSize;
+    @Value("${cache.local.ttl:30000}")
+    private long localTtl;
+    @Value("${cache.local.invalidation-channel:cache:invalidation}")
+    private String invalidationChannel;
+    @Value("${cache.loading.lease.enabled:false}")
+    private boolean leaseEnabled;
+    @Value("${cache.loading.lease.ttl:5000}")
+    private long leaseTtl;
+    @Value("${cache.loading.lease.wait:2000}")
+    private long leaseWait;
+    @Value("${cache.loading.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+    @Value("${cache.loading.refresh-threads:2}")
+    private int refreshThreads;
+    @Value("${cache.resilience.enabled:true}")
+    private boolean resilienceEnabled;
+    @Value("${cache.resilience.timeout.read:150}")
+    private long readTimeout;
+    @Value("${cache.resilience.timeout.write:300}")
+    private long writeTimeout;
+    @Value("${cache.resilience.threads:16}")
+    private int resilienceThreads;
+    @Value("${cache.resilience.queue-capacity:256}")
+    private int resilienceQueueCapacity;
+
+    private final ObjectProvider<DeferredEvictions> deferredEvictions;
+
+    public CacheConfig(Environment environment, ObjectProvider<DeferredEvictions> deferredEvictions) {
+        this.environment = environment;
+        this.deferredEvictions = deferredEvictions;
+    }
+
+    /**
+     * Crea el {@link RedisCacheManager} con una configuración propia para cada caché conocida.
+     *
+     * @param connectionFactory la conexión a Redis.
+     * @return el gestor de las cachés de Redis (L2).
+     */
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        for (String name : CACHE_NAMES) {
+            configurations.put(name, cacheConfiguration(ttlOf(name),
+                    environment.getProperty("cache." + name + ".max-entry-size", Integer.class, defaultMaxEntrySize)));
+        }
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration(defaultTtl, defaultMaxEntrySize))
+                .withInitialCacheConfigurations(configurations);
+        if (statistics) {
+            builder.enableStatistics();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gestor de cachés de la aplicación: la caché local (L1) delante de Redis (L2), o solo Redis si la caché local
+     * está deshabilitada, con la coalescencia de cargas, el índice de etiquetas, el registro de claves calientes y las
+     * métricas por encima. El acceso a Redis pasa por el circuito y los tiempos máximos de {@link ResilientCacheManager}.
+     *
+     * @param redisCacheManager     el gestor de las cachés de Redis.
+     * @param invalidationBus       el canal de invalidación entre nodos.
+     * @param redisTemplate         el cliente de Redis para el índice de etiquetas y los leases.
+     * @param cacheRefreshExecutor  el ejecutor de los recálculos anticipados.
+     * @param batchLoaders          las cargas por lotes de entidades para reconstruir las listas de IDs.
+     * @param cacheManagers         el propio gestor de cachés, resuelto de forma diferida.
+     * @param hotKeyLog             el registro de las claves más consultadas.
+     * @param statistics            las métricas de uso por caché y prefijo de clave.
+     * @param breaker               el circuito que omite Redis cuando falla.
+     * @param evictions             las evicciones pendientes hasta que Redis se recupere.
+     * @param cacheRedisExecutor    el pool que ejecuta las operaciones sobre Redis con tiempo máximo.
+     * @param meterRegistry         el registro de métricas.
+     * @return el gestor de cachés usado por {@code @Cacheable}.
+     */
+    @Bean
+    @Primary
+    public CacheManager cacheManager(RedisCacheManager redisCacheManager, CacheInvalidationBus invalidationBus,
+                                     StringRedisTemplate redisTemplate, ThreadPoolTaskExecutor cacheRefreshExecutor,
+                                     ObjectProvider<EntityBatchLoader> batchLoaders,
+                                     ObjectProvider<CacheManager> cacheManagers, HotKeyLog hotKeyLog,
+                                     CacheStatistics statistics, RedisCircuitBreaker breaker,
+                                     DeferredEvictions evictions, ThreadPoolTaskExecutor cacheRedisExecutor,
+                                     MeterRegistry meterRegistry) {
+        CacheManager remote = new IdListCacheManager(redisCacheManager, redisTemplate, batchLoaders, cacheManagers::getObject);
+        if (resilienceEnabled) {
+            remote = new ResilientCacheManager(remote, breaker, evictions, cacheRedisExecutor,
+                    Duration.ofMillis(readTimeout), Duration.ofMillis(writeTimeout), meterRegistry);
+        }
+        CacheManager delegate = remote;
+        if (localEnabled) {
+            delegate = new TwoLevelCacheManager(remote, invalidationBus, meterRegistry, name ->
+                    new TwoLevelCacheManager.LocalSpec(
+                            environment.getProperty("cache." + name + ".local.max-size", Long.class, localMaxSize),
+                            Math.min(ttlOf(name),
+                                    environment.getProperty("cache." + name + ".local.ttl", Long.class, localTtl))));
+        }
+        CacheLease lease = leaseEnabled
+                ? new CacheLease(redisTemplate, version, Duration.ofMillis(leaseTtl), breaker)
+                : null;
+        delegate = new CoalescingCacheManager(delegate, lease, Duration.ofMillis(leaseWait), earlyRefreshBeta,
+                cacheRefreshExecutor, meterRegistry, name -> Duration.ofMillis(ttlOf(name)));
+        delegate = new TaggingCacheManager(delegate, new CacheTagIndex(redisTemplate, version, breaker),
+                name -> Duration.ofMillis(ttlOf(name)));
+        delegate = new HotKeyTrackingCacheManager(delegate, hotKeyLog);
+        return new InstrumentedCacheManager(delegate, statistics);
+    }
+
+    /**
+     * Ejecutor acotado para recalcular en segundo plano las claves próximas a expirar; si está saturado, la clave
+     * simplemente expira y se carga en la siguiente solicitud.
+     *
+     * @return el ejecutor de los recálculos anticipados.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshThreads);
+        executor.setMaxPoolSize(refreshThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("Cache-Refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool acotado en el que se ejecutan las operaciones de caché sobre Redis, para poder abandonarlas al vencer su
+     * tiempo máximo; si está saturado, la operación cuenta como un fallo de Redis.
+     *
+     * @return el ejecutor de las operaciones sobre Redis.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRedisExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(resilienceThreads);
+        executor.setMaxPoolSize(resilienceThreads);
+        executor.setQueueCapacity(resilienceQueueCapacity);
+        executor.setThreadNamePrefix("Cache-Redis-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate, RedisCircuitBreaker breaker,
+                                                     ThreadPoolTaskExecutor cacheRedisExecutor) {
+        return new CacheInvalidationBus(redisTemplate, invalidationChannel, breaker, cacheRedisExecutor);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (localEnabled) {
+            container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        }
+        return container;
+    }
+
+    private long ttlOf(String cacheName) {
+        return environment.getProperty("cache." + cacheName + ".ttl", Long.class, defaultTtl);
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(long ttl, int maxEntrySize) {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMillis(ttl))
+                .computePrefixWith(cacheName -> version + ":" + cacheName + "::")
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CompactCacheSerializer(compressionThreshold, maxEntrySize)));
+        return cacheNullValues ? configuration : configuration.disableCachingNullValues();
+    }
+
+    /**
+     * Manejador de errores que degrada las fallas de Redis a fallos de caché en lugar de errores de la solicitud.
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CacheErrorHandler() {
+            @Override
+            public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache get failed for {}::{}, falling back to the database: {}", cache.getName(), key, exception.getMessage());
+            }
+
+            @Override
+            public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                if (exception instanceof CacheEntryTooLargeException) {
+                    log.debug("Skipping cache entry {}::{}: {}", cache.getName(), key, exception.getMessage());
+                    return;
+                }
+                log.warn("Cache put failed for {}::{}: {}", cache.getName(), key, exception.getMessage());
+            }
+
+            @Override
+            public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+                log.warn("Cache evict failed for {}::{}, retrying when Redis recovers: {}", cache.getName(), key, exception.getMessage());
+                deferredEvictions.ifAvailable(evictions -> evictions.add(cache.getName(), key));
+            }
+
+            @Override
+            public void handleCacheClearError(RuntimeException exception, Cache cache) {
+                log.warn("Cache clear failed for {}, retrying when Redis recovers: {}", cache.getName(), exception.getMessage());
+                deferredEvictions.ifAvailable(evictions -> evictions.clear(cache.getName()));
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package peppertech.crm.api.Cache.Hydration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Representación en Redis de una lista de entidades: solo sus IDs, en orden.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedIdList {
+
+    private List<String> ids;
+}
@@ -0,0 +1,25 @@
+package peppertech.crm.api.Cache.Hydration;
+
+import peppertech.crm.api.Cache.Tags.Identifiable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Carga por lotes las entidades de una caché que no se encontraron en Redis al reconstruir una lista de IDs.
+ */
+public interface EntityBatchLoader {
+
+    /**
+     * @return el nombre de la caché de las entidades que carga ({@code users}, {@code leads}, {@code boards}).
+     */
+    String getCacheName();
+
+    /**
+     * Busca en la base de datos, en una sola consulta, las entidades con los IDs indicados.
+     *
+     * @param ids los IDs de las entidades.
+     * @return los DTOs de las entidades encontradas, en cualquier orden; los IDs inexistentes se omiten.
+     */
+    List<? extends Identifiable> findAllByIds(Collection<String> ids);
+}
@@ -0,0 +1,254 @@
+package peppertech.crm.api.Cache.Hydration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import peppertech.crm.api.Cache.Tags.Identifiable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Caché de Redis que guarda las listas de entidades como listas de IDs.
+ * <p>
+ * Las consultas de listas ({@code all_*}, {@code name_*}, {@code role:*}) guardaban una copia completa de cada DTO, de
+ * modo que un mismo usuario se repetía en decenas de entradas. Aquí una colección de {@link Identifiable} se guarda
+ * como {@link CachedIdList} y, al leerla, se reconstruye a partir de las entradas por ID ({@code id_<id>}) con un solo
+ * {@code MGET}. Solo los IDs que no están en Redis se buscan en la base de datos con una consulta por lotes, y se
+ * guardan como entradas por ID para las siguientes lecturas. Los IDs que ya no existen se omiten.
+ * </p>
+ * <p>
+ * La lectura se divide en {@link #read(Object)}, que solo accede a Redis, y {@link #complete(Object, ValueWrapper)},
+ * que consulta la base de datos, para que {@code ResilientCache} acote con su tiempo máximo únicamente la primera. Si
+ * la reconstrucción falla, la lectura se trata como un fallo de caché y el método se ejecuta normalmente.
+ * </p>
+ */
+@Slf4j
+public class IdListCache implements Cache {
+
+    static final String ENTITY_KEY_PREFIX = "id_";
+
+    private final RedisCache delegate;
+    private final StringRedisTemplate redisTemplate;
+    private final EntityBatchLoader loader;
+    private final Supplier<CacheManager> cacheManager;
+
+    /**
+     * @param delegate      la caché de Redis de las entidades.
+     * @param redisTemplate el cliente de Redis para el {@code MGET}.
+     * @param loader        la carga por lotes de las entidades de esta caché.
+     * @param cacheManager  el gestor de cachés de la aplicación, para guardar las entidades cargadas con sus etiquetas.
+     */
+    public IdListCache(RedisCache delegate, StringRedisTemplate redisTemplate, EntityBatchLoader loader,
+                       Supplier<CacheManager> cacheManager) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.loader = loader;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return complete(key, read(key));
+    }
+
+    /**
+     * Primera fase de {@link #get(Object)}: lee la entrada y, si es una lista de IDs, las entidades que ya están en
+     * Redis con un solo {@code MGET}. Solo accede a Redis, de modo que puede acotarse con un tiempo máximo.
+     *
+     * @param key la clave de la entrada.
+     * @return la entrada leída, que debe pasarse a {@link #complete(Object, ValueWrapper)}; {@code null} si no existe.
+     */
+    public ValueWrapper read(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null || !(wrapper.get() instanceof CachedIdList idList)) {
+            return wrapper;
+        }
+        try {
+            return new SimpleValueWrapper(readEntities(idList.getIds()));
+        } catch (RuntimeException e) {
+            log.warn("Could not hydrate cached id list {}::{}, reloading it: {}", getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Segunda fase de {@link #get(Object)}: busca en la base de datos las entidades que no estaban en Redis, las guarda
+     * como entradas por ID y devuelve la lista completa. Cualquier otra entrada se devuelve sin cambios.
+     *
+     * @param key  la clave de la entrada.
+     * @param read el resultado de {@link #read(Object)}.
+     * @return la entrada reconstruida; {@code null} si no existe o no pudo reconstruirse.
+     */
+    public ValueWrapper complete(Object key, ValueWrapper read) {
+        if (read == null || !(read.get() instanceof Hydration hydration)) {
+            return read;
+        }
+        try {
+            return new SimpleValueWrapper(loadMissing(hydration));
+        } catch (RuntimeException e) {
+            log.warn("Could not hydrate cached id list {}::{}, reloading it: {}", getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, toStored(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, toStored(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    /**
+     * Reemplaza una colección de entidades por la lista de sus IDs; cualquier otro valor se guarda sin cambios.
+     */
+    static Object toStored(Object value) {
+        if (!(value instanceof Collection<?> collection) || collection.isEmpty()) {
+            return value;
+        }
+        List<String> ids = new ArrayList<>(collection.size());
+        for (Object element : collection) {
+            if (!(element instanceof Identifiable entity) || entity.getId() == null) {
+                return value;
+            }
+            ids.add(entity.getId());
+        }
+        return new CachedIdList(ids);
+    }
+
+    private Hydration readEntities(List<String> ids) {
+        RedisCacheConfiguration configuration = delegate.getCacheConfiguration();
+        String prefix = configuration.getKeyPrefixFor(getName()) + ENTITY_KEY_PREFIX;
+        byte[][] keys = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            keys[i] = toBytes(configuration.getKeySerializationPair().write(prefix + ids.get(i)));
+        }
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(keys));
+
+        Map<String, Object> entities = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] bytes = values != null && i < values.size() ? values.get(i) : null;
+            Object entity = bytes != null ? configuration.getValueSerializationPair().read(ByteBuffer.wrap(bytes)) : null;
+            if (entity != null) {
+                entities.put(ids.get(i), entity);
+            } else {
+                missing.add(ids.get(i));
+            }
+        }
+        return new Hydration(ids, entities, missing);
+    }
+
+    private List<Object> loadMissing(Hydration hydration) {
+        Map<String, Object> entities = hydration.entities();
+        if (!hydration.missing().isEmpty()) {
+            Cache entityCache = cacheManager.get().getCache(getName());
+            for (Identifiable entity : loader.findAllByIds(hydration.missing())) {
+                entities.put(entity.getId(), entity);
+                if (entityCache != null) {
+                    entityCache.put(ENTITY_KEY_PREFIX + entity.getId(), entity);
+                }
+            }
+            log.debug("Hydrated {}::{} ids, {} loaded from the database.", getName(), hydration.ids().size(),
+                    hydration.missing().size());
+        }
+
+        List<Object> result = new ArrayList<>(hydration.ids().size());
+        for (String id : hydration.ids()) {
+            Object entity = entities.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Lista leída de Redis a la que aún le faltan las entidades que no estaban en caché.
+     *
+     * @param ids      los IDs de la lista, en orden.
+     * @param entities las entidades encontradas en Redis, por ID.
+     * @param missing  los IDs que deben buscarse en la base de datos.
+     */
+    private record Hydration(List<String> ids, Map<String, Object> entities, List<String> missing) {
+    }
+}
@@ -0,0 +1,63 @@
+package peppertech.crm.api.Cache.Hydration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link CacheManager} de Redis que envuelve en una {@link IdListCache} las cachés que tienen un
+ * {@link EntityBatchLoader}; las demás se devuelven sin cambios.
+ * <p>
+ * Los cargadores se resuelven de forma diferida porque los servicios que los implementan dependen a su vez de las
+ * cachés.
+ * </p>
+ */
+public class IdListCacheManager implements CacheManager {
+
+    private final RedisCacheManager delegate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectProvider<EntityBatchLoader> loaders;
+    private final Supplier<CacheManager> cacheManager;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public IdListCacheManager(RedisCacheManager delegate, StringRedisTemplate redisTemplate,
+                              ObjectProvider<EntityBatchLoader> loaders, Supplier<CacheManager> cacheManager) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.loaders = loaders;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (!(target instanceof RedisCache redisCache)) {
+            return target;
+        }
+        EntityBatchLoader loader = loaders.orderedStream()
+                .filter(candidate -> name.equals(candidate.getCacheName()))
+                .findFirst()
+                .orElse(null);
+        if (loader == null) {
+            return target;
+        }
+        return caches.computeIfAbsent(name, n -> new IdListCache(redisCache, redisTemplate, loader, cacheManager));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
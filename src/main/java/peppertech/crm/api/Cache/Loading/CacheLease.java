@@ -0,0 +1,79 @@
+package peppertech.crm.api.Cache.Loading;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lease de corta duración en Redis para que un solo nodo recalcule una clave de caché a la vez.
+ * <p>
+ * El lease es un {@code SET NX PX} con el identificador del nodo y un TTL corto, de modo que si el nodo que lo tiene
+ * se cae la clave vuelve a estar disponible en cuanto expira. Los errores de Redis se tratan como lease obtenido: ante
+ * la duda se prefiere consultar la base de datos a dejar la solicitud esperando.
+ * </p>
+ */
+@Slf4j
+public class CacheLease {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cache_lease_release.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String prefix;
+    private final Duration ttl;
+    private final String owner = UUID.randomUUID().toString();
+    private final RedisCircuitBreaker breaker;
+
+    public CacheLease(StringRedisTemplate redisTemplate, String version, Duration ttl, RedisCircuitBreaker breaker) {
+        this.redisTemplate = redisTemplate;
+        this.prefix = version + ":lease:";
+        this.ttl = ttl;
+        this.breaker = breaker;
+    }
+
+    /**
+     * Intenta obtener el lease de una clave.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave que se va a recalcular.
+     * @return {@code true} si este nodo debe recalcular la clave.
+     */
+    public boolean tryAcquire(String cacheName, Object key) {
+        if (breaker.isOpen()) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), owner, ttl));
+        } catch (RuntimeException e) {
+            log.debug("Could not acquire cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Libera el lease de una clave si sigue perteneciendo a este nodo.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave recalculada.
+     */
+    public void release(String cacheName, Object key) {
+        if (breaker.isOpen()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(cacheName, key)), owner);
+        } catch (RuntimeException e) {
+            log.debug("Could not release cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private String leaseKey(String cacheName, Object key) {
+        return prefix + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,324 @@
+package peppertech.crm.api.Cache.Loading;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Cache} que evita las estampidas al expirar una clave muy consultada.
+ * <p>
+ * Los métodos {@code @Cacheable(sync = true)} llegan a {@link #get(Object, Callable)}. Ante un fallo, solo el primer
+ * hilo de este nodo ejecuta la consulta; los demás esperan el mismo resultado (o la misma excepción). Si hay un
+ * {@link CacheLease}, además solo un nodo del clúster recalcula la clave: el resto espera a que aparezca en Redis
+ * hasta {@code leaseWait} y, si no aparece, consulta la base de datos por su cuenta.
+ * </p>
+ * <p>
+ * Las claves cargadas por este nodo se recalculan en segundo plano antes de expirar, con probabilidad creciente a
+ * medida que se acerca la expiración y proporcional a lo que costó calcularlas (XFetch). Una evicción durante una
+ * carga en curso impide que ese resultado se guarde.
+ * </p>
+ */
+@Slf4j
+public class CoalescingCache implements Cache {
+
+    private static final long POLL_INTERVAL_MILLIS = 25L;
+
+    private final Cache delegate;
+    private final CacheLease lease;
+    private final Duration leaseWait;
+    private final long ttlMillis;
+    private final double beta;
+    private final Executor refreshExecutor;
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, LoadStats> stats;
+
+    private final Timer loadTimer;
+    private final Counter coalesced;
+    private final Counter refreshed;
+
+    public CoalescingCache(Cache delegate, CacheLease lease, Duration leaseWait, Duration ttl, double beta,
+                           Executor refreshExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.lease = lease;
+        this.leaseWait = leaseWait;
+        this.ttlMillis = ttl.toMillis();
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+        this.loadTimer = Timer.builder("cache.load")
+                .description("Time spent computing values on cache misses")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cache.load.coalesced")
+                .description("Cache misses that waited for a load already in progress")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+        this.refreshed = Counter.builder("cache.load.early.refresh")
+                .description("Entries recomputed in the background before expiring")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            refreshIfNearExpiry(key, valueLoader);
+            return (T) wrapper.get();
+        }
+
+        Flight flight = new Flight();
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing, key, valueLoader);
+        }
+        try {
+            Object value = load(key, valueLoader, flight);
+            flight.future.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        invalidateLoads(key);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidateLoads(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidateLoads(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        flights.values().forEach(flight -> flight.invalidated = true);
+        stats.invalidateAll();
+        delegate.clear();
+    }
+
+    /**
+     * Carga una clave como líder de este nodo: vuelve a consultar la caché, negocia el lease del clúster y guarda el
+     * resultado si nadie invalidó la clave mientras tanto.
+     */
+    private Object load(Object key, Callable<?> valueLoader, Flight flight) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            return wrapper.get();
+        }
+
+        boolean leased = lease == null || lease.tryAcquire(getName(), key);
+        if (!leased) {
+            wrapper = awaitRemote(key);
+            if (wrapper != null) {
+                return wrapper.get();
+            }
+        }
+
+        try {
+            long start = System.nanoTime();
+            Object value = call(key, valueLoader);
+            long elapsed = System.nanoTime() - start;
+            loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+            if (value != null && !flight.invalidated) {
+                delegate.put(key, value);
+                stats.put(key, new LoadStats(System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            }
+            return value;
+        } finally {
+            if (leased && lease != null) {
+                lease.release(getName(), key);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el nodo que tiene el lease guarde la clave, consultando la caché a intervalos cortos.
+     */
+    private ValueWrapper awaitRemote(Object key) {
+        long deadline = System.nanoTime() + leaseWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = delegate.get(key);
+            if (wrapper != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    private void refreshIfNearExpiry(Object key, Callable<?> valueLoader) {
+        LoadStats loaded = stats.getIfPresent(key);
+        if (loaded == null || !shouldRefreshEarly(System.currentTimeMillis(), loaded.loadedAt(), loaded.computeMillis(),
+                ttlMillis, beta, ThreadLocalRandom.current().nextDouble())) {
+            return;
+        }
+        Flight flight = new Flight();
+        if (flights.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        stats.invalidate(key);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    flight.future.complete(refresh(key, valueLoader, flight));
+                } catch (RuntimeException e) {
+                    flight.future.completeExceptionally(e);
+                    log.debug("Early refresh of {}::{} failed: {}", getName(), key, e.getMessage());
+                } finally {
+                    flights.remove(key, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flights.remove(key, flight);
+        }
+    }
+
+    private Object refresh(Object key, Callable<?> valueLoader, Flight flight) {
+        if (lease != null && !lease.tryAcquire(getName(), key)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            Object value = call(key, valueLoader);
+            long elapsed = System.nanoTime() - start;
+            loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (value != null && !flight.invalidated) {
+                delegate.put(key, value);
+                stats.put(key, new LoadStats(System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(elapsed)));
+                refreshed.increment();
+            }
+            return value;
+        } finally {
+            if (lease != null) {
+                lease.release(getName(), key);
+            }
+        }
+    }
+
+    private Object await(Flight flight, Object key, Callable<?> valueLoader) {
+        try {
+            return flight.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private Object call(Object key, Callable<?> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (ValueRetrievalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private void invalidateLoads(Object key) {
+        Flight flight = flights.get(key);
+        if (flight != null) {
+            flight.invalidated = true;
+        }
+        stats.invalidate(key);
+    }
+
+    /**
+     * Decide si una entrada debe recalcularse antes de expirar (XFetch).
+     * <p>
+     * La probabilidad crece exponencialmente al acercarse la expiración y es mayor cuanto más costó calcular el valor,
+     * de modo que las claves caras se recalculan con más antelación. Con {@code beta = 0} nunca se adelanta.
+     * </p>
+     *
+     * @param now           el instante actual (ms).
+     * @param loadedAt      el instante (ms) en que se guardó el valor.
+     * @param computeMillis lo que tardó (ms) en calcularse.
+     * @param ttlMillis     el TTL (ms) de la caché.
+     * @param beta          el factor de adelanto; 1.0 es el valor recomendado.
+     * @param random        un número aleatorio en {@code [0, 1)}.
+     * @return {@code true} si se debe recalcular ahora.
+     */
+    static boolean shouldRefreshEarly(long now, long loadedAt, long computeMillis, long ttlMillis, double beta,
+                                      double random) {
+        if (beta <= 0) {
+            return false;
+        }
+        double gap = -Math.max(1L, computeMillis) * beta * Math.log(random);
+        return now + gap >= loadedAt + ttlMillis;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
+    private record LoadStats(long loadedAt, long computeMillis) {
+    }
+}
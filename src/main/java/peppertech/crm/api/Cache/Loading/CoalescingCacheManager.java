@@ -0,0 +1,66 @@
+package peppertech.crm.api.Cache.Loading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * {@link CacheManager} que envuelve cada caché en una {@link CoalescingCache}.
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheLease lease;
+    private final Duration leaseWait;
+    private final double beta;
+    private final Executor refreshExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Function<String, Duration> ttls;
+    private final Map<String, CoalescingCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate        el gestor de las cachés envueltas.
+     * @param lease           el lease del clúster, o {@code null} para coordinar solo dentro de este nodo.
+     * @param leaseWait       cuánto esperar a que otro nodo cargue una clave antes de consultarla directamente.
+     * @param beta            el factor de recálculo anticipado; 0 lo deshabilita.
+     * @param refreshExecutor el ejecutor de los recálculos anticipados.
+     * @param meterRegistry   el registro de métricas.
+     * @param ttls            el TTL de cada caché.
+     */
+    public CoalescingCacheManager(CacheManager delegate, CacheLease lease, Duration leaseWait, double beta,
+                                  Executor refreshExecutor, MeterRegistry meterRegistry, Function<String, Duration> ttls) {
+        this.delegate = delegate;
+        this.lease = lease;
+        this.leaseWait = leaseWait;
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+        this.meterRegistry = meterRegistry;
+        this.ttls = ttls;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        CoalescingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n ->
+                new CoalescingCache(target, lease, leaseWait, ttls.apply(n), beta, refreshExecutor, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
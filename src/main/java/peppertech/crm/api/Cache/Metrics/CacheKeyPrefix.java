@@ -0,0 +1,30 @@
+package peppertech.crm.api.Cache.Metrics;
+
+/**
+ * Agrupa las claves de caché por su prefijo ({@code id_}, {@code email_}, {@code name_}, {@code all_}, {@code role:},
+ * {@code tag:}) para usarlo como etiqueta de las métricas sin disparar su cardinalidad.
+ */
+public final class CacheKeyPrefix {
+
+    static final String OTHER = "other";
+    private static final int MAX_LENGTH = 16;
+
+    private CacheKeyPrefix() {
+    }
+
+    /**
+     * @param key la clave de caché.
+     * @return el texto hasta el primer {@code _} o {@code :} inclusive, o {@value #OTHER} si no tiene un prefijo corto.
+     */
+    public static String of(Object key) {
+        String value = String.valueOf(key);
+        int limit = Math.min(value.length(), MAX_LENGTH);
+        for (int i = 0; i < limit; i++) {
+            char c = value.charAt(i);
+            if (c == '_' || c == ':') {
+                return value.substring(0, i + 1);
+            }
+        }
+        return OTHER;
+    }
+}
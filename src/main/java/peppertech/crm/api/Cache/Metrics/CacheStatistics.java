@@ -0,0 +1,193 @@
+package peppertech.crm.api.Cache.Metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de uso de la caché por nombre de caché y prefijo de clave.
+ * <p>
+ * Registra en Micrometer los aciertos y fallos ({@code cache.keys.gets}), el tiempo de carga ante un fallo
+ * ({@code cache.keys.load}), las escrituras y evicciones ({@code cache.keys.puts}, {@code cache.keys.evictions}) y el
+ * tamaño serializado de los valores ({@code cache.keys.value.size}). Además conserva, por caché, las
+ * {@code cache.metrics.top-k} claves más grandes escritas desde este nodo.
+ * </p>
+ */
+@Component
+public class CacheStatistics {
+
+    private final MeterRegistry meterRegistry;
+    private final int topK;
+    private final Map<String, PrefixMeters> meters = new ConcurrentHashMap<>();
+    private final Map<String, LargestKeys> largest = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CacheStatistics(MeterRegistry meterRegistry, @Value("${cache.metrics.top-k:20}") int topK) {
+        this.meterRegistry = meterRegistry;
+        this.topK = topK;
+    }
+
+    public void recordGet(String cacheName, Object key, boolean hit) {
+        PrefixMeters prefix = meters(cacheName, key);
+        (hit ? prefix.hits() : prefix.misses()).increment();
+    }
+
+    public void recordLoad(String cacheName, Object key, long nanos) {
+        meters(cacheName, key).load().record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param size el tamaño serializado (bytes), o un valor negativo si no se conoce.
+     */
+    public void recordPut(String cacheName, Object key, int size) {
+        PrefixMeters prefix = meters(cacheName, key);
+        prefix.puts().increment();
+        if (size >= 0) {
+            prefix.valueSize().record(size);
+            largest.computeIfAbsent(cacheName, name -> new LargestKeys(topK)).record(key.toString(), size);
+        }
+    }
+
+    public void recordEvict(String cacheName, Object key) {
+        meters(cacheName, key).evictions().increment();
+        LargestKeys keys = largest.get(cacheName);
+        if (keys != null) {
+            keys.remove(key.toString());
+        }
+    }
+
+    public void recordClear(String cacheName) {
+        largest.remove(cacheName);
+    }
+
+    /**
+     * Resume las métricas de una caché por prefijo de clave.
+     *
+     * @param cacheName el nombre de la caché.
+     * @return un mapa con las métricas de cada prefijo y las claves más grandes.
+     */
+    public Map<String, Object> snapshot(String cacheName) {
+        Map<String, Object> prefixes = new TreeMap<>();
+        meters.values().stream()
+                .filter(prefix -> prefix.cacheName().equals(cacheName))
+                .forEach(prefix -> prefixes.put(prefix.prefix(), prefix.summary()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("prefixes", prefixes);
+        LargestKeys keys = largest.get(cacheName);
+        snapshot.put("largestKeys", keys != null ? keys.snapshot() : Map.of());
+        return snapshot;
+    }
+
+    /**
+     * @return los nombres de las cachés con actividad registrada.
+     */
+    public List<String> getCacheNames() {
+        return meters.values().stream().map(PrefixMeters::cacheName).distinct().sorted().toList();
+    }
+
+    private PrefixMeters meters(String cacheName, Object key) {
+        String prefix = CacheKeyPrefix.of(key);
+        return meters.computeIfAbsent(cacheName + "|" + prefix, id -> new PrefixMeters(cacheName, prefix,
+                counter("cache.keys.gets", "Cache lookups by key prefix", cacheName, prefix, "hit"),
+                counter("cache.keys.gets", "Cache lookups by key prefix", cacheName, prefix, "miss"),
+                Timer.builder("cache.keys.load")
+                        .description("Time spent loading values on cache misses by key prefix")
+                        .tags("cache", cacheName, "prefix", prefix)
+                        .register(meterRegistry),
+                counter("cache.keys.puts", "Cache writes by key prefix", cacheName, prefix, null),
+                counter("cache.keys.evictions", "Cache evictions by key prefix", cacheName, prefix, null),
+                DistributionSummary.builder("cache.keys.value.size")
+                        .description("Serialized size of cached values by key prefix")
+                        .baseUnit("bytes")
+                        .tags("cache", cacheName, "prefix", prefix)
+                        .register(meterRegistry)));
+    }
+
+    private Counter counter(String name, String description, String cacheName, String prefix, String result) {
+        Counter.Builder builder = Counter.builder(name)
+                .description(description)
+                .tags("cache", cacheName, "prefix", prefix);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private record PrefixMeters(String cacheName, String prefix, Counter hits, Counter misses, Timer load,
+                                Counter puts, Counter evictions, DistributionSummary valueSize) {
+
+        Map<String, Object> summary() {
+            double lookups = hits.count() + misses.count();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("hits", (long) hits.count());
+            summary.put("misses", (long) misses.count());
+            summary.put("hitRatio", lookups == 0 ? 0.0 : hits.count() / lookups);
+            summary.put("loads", load.count());
+            summary.put("loadMeanMillis", load.mean(TimeUnit.MILLISECONDS));
+            summary.put("loadMaxMillis", load.max(TimeUnit.MILLISECONDS));
+            summary.put("puts", (long) puts.count());
+            summary.put("evictions", (long) evictions.count());
+            summary.put("valueMeanBytes", valueSize.mean());
+            summary.put("valueMaxBytes", valueSize.max());
+            return summary;
+        }
+    }
+
+    /**
+     * Las {@code k} claves con el mayor tamaño serializado. Con {@code k} pequeño basta un recorrido lineal para
+     * encontrar la menor al reemplazarla.
+     */
+    static final class LargestKeys {
+
+        private final int capacity;
+        private final Map<String, Integer> sizes = new HashMap<>();
+
+        LargestKeys(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void record(String key, int size) {
+            if (capacity <= 0) {
+                return;
+            }
+            if (sizes.containsKey(key) || sizes.size() < capacity) {
+                sizes.put(key, size);
+                return;
+            }
+            Map.Entry<String, Integer> smallest = sizes.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .orElseThrow();
+            if (size > smallest.getValue()) {
+                sizes.remove(smallest.getKey());
+                sizes.put(key, size);
+            }
+        }
+
+        synchronized void remove(String key) {
+            sizes.remove(key);
+        }
+
+        synchronized Map<String, Integer> snapshot() {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(sizes.entrySet());
+            entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+            Map<String, Integer> snapshot = new LinkedHashMap<>();
+            entries.forEach(entry -> snapshot.put(entry.getKey(), entry.getValue()));
+            return snapshot;
+        }
+    }
+}
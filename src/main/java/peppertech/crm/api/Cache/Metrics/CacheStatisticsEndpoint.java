@@ -0,0 +1,50 @@
+package peppertech.crm.api.Cache.Metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Cache.Warmup.HotKeyLog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de actuator ({@code /actuator/cachestats}) con las métricas de cada caché por prefijo de clave, sus claves
+ * más grandes (escritas desde este nodo) y las más consultadas (en todo el clúster, según el {@link HotKeyLog}).
+ * <p>
+ * Las claves incluyen correos y nombres, por lo que el endpoint está reservado a administradores.
+ * </p>
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatisticsEndpoint {
+
+    private final CacheStatistics statistics;
+    private final HotKeyLog hotKeyLog;
+    private final int topK;
+
+    @Autowired
+    public CacheStatisticsEndpoint(CacheStatistics statistics, HotKeyLog hotKeyLog,
+                                   @Value("${cache.metrics.top-k:20}") int topK) {
+        this.statistics = statistics;
+        this.hotKeyLog = hotKeyLog;
+        this.topK = topK;
+    }
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        statistics.getCacheNames().forEach(name -> caches.put(name, cache(name)));
+        return caches;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        Map<String, Object> snapshot = new LinkedHashMap<>(statistics.snapshot(name));
+        snapshot.put("hottestKeys", hotKeyLog.topWithCounts(name, topK));
+        return snapshot;
+    }
+}
@@ -0,0 +1,113 @@
+package peppertech.crm.api.Cache.Metrics;
+
+import org.springframework.cache.Cache;
+import peppertech.crm.api.Cache.Serializer.CompactCacheSerializer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Cache} que registra en {@link CacheStatistics} cada lectura, carga, escritura y evicción.
+ * <p>
+ * En {@link #get(Object, Callable)} un fallo se detecta porque se invoca el cargador; las solicitudes que esperan una
+ * carga en curso de otro hilo cuentan como aciertos, ya que no consultan la base de datos. El tamaño de los valores es
+ * el que produjo {@link CompactCacheSerializer} al escribirlos en Redis, registrado en el hilo de la solicitud aunque la
+ * escritura se haya ejecutado en el pool de {@code ResilientCache}.
+ * </p>
+ */
+public class InstrumentedCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheStatistics statistics;
+
+    public InstrumentedCache(Cache delegate, CacheStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        statistics.recordGet(getName(), key, wrapper != null);
+        return wrapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        statistics.recordGet(getName(), key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        CompactCacheSerializer.takeLastSerializedSize();
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                statistics.recordLoad(getName(), key, System.nanoTime() - start);
+            }
+        });
+        statistics.recordGet(getName(), key, !loaded[0]);
+        if (loaded[0] && value != null) {
+            statistics.recordPut(getName(), key, CompactCacheSerializer.takeLastSerializedSize());
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CompactCacheSerializer.takeLastSerializedSize();
+        delegate.put(key, value);
+        statistics.recordPut(getName(), key, CompactCacheSerializer.takeLastSerializedSize());
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CompactCacheSerializer.takeLastSerializedSize();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            statistics.recordPut(getName(), key, CompactCacheSerializer.takeLastSerializedSize());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        statistics.recordEvict(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        statistics.recordEvict(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        statistics.recordClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        statistics.recordClear(getName());
+        return present;
+    }
+}
@@ -0,0 +1,41 @@
+package peppertech.crm.api.Cache.Metrics;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} que envuelve cada caché en una {@link InstrumentedCache}.
+ */
+public class InstrumentedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheStatistics statistics;
+    private final Map<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager delegate, CacheStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new InstrumentedCache(target, statistics));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
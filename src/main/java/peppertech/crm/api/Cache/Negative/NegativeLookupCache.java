@@ -0,0 +1,79 @@
+package peppertech.crm.api.Cache.Negative;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caché de búsquedas sin resultado ("negative caching").
+ * <p>
+ * Las búsquedas por ID o correo que no encuentran la entidad terminan en una excepción, que {@code @Cacheable} no
+ * guarda; sin esta caché, un inicio de sesión fallido o una enumeración de correos repetida llega siempre a MongoDB.
+ * Aquí se registra la clave ausente en la caché {@value #CACHE_NAME}, con un TTL corto propio
+ * ({@code cache.missing.ttl}), usando la misma clave que la caché de la entidad precedida del nombre de la caché
+ * ({@code users:email_<correo>}).
+ * </p>
+ * <p>
+ * Al crear o modificar una entidad, los servicios evictan su clave con
+ * {@code @CacheEvict(value = "missing", key = "'users:email_' + #result.email")}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NegativeLookupCache {
+
+    public static final String CACHE_NAME = "missing";
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public NegativeLookupCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Indica si una búsqueda reciente de la clave no encontró la entidad.
+     *
+     * @param cacheName la caché de la entidad ({@code users}, {@code leads}).
+     * @param key       la clave de la búsqueda en esa caché ({@code id_<id>}, {@code email_<correo>}).
+     * @return {@code true} si se sabe que la entidad no existe y no es necesario consultar la base de datos.
+     */
+    public boolean isMissing(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        try {
+            if (cache == null || cache.get(cacheName + ":" + key) == null) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Negative cache lookup failed for {}:{}: {}", cacheName, key, e.getMessage());
+            return false;
+        }
+        meterRegistry.counter("cache.negative.hits", "cache", cacheName).increment();
+        return true;
+    }
+
+    /**
+     * Registra que la búsqueda de una clave no encontró la entidad.
+     *
+     * @param cacheName la caché de la entidad.
+     * @param key       la clave de la búsqueda en esa caché.
+     * @param exception la excepción que se lanzará al llamador.
+     * @return la misma excepción, para usarla dentro de {@code orElseThrow}.
+     */
+    public <E extends Exception> E markMissing(String cacheName, String key, E exception) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        try {
+            if (cache != null) {
+                cache.put(cacheName + ":" + key, Boolean.TRUE);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Negative cache write failed for {}:{}: {}", cacheName, key, e.getMessage());
+        }
+        return exception;
+    }
+}
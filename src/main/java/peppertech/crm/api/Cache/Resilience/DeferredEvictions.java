@@ -0,0 +1,137 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evicciones que no llegaron a Redis mientras estaba caído o con el circuito abierto.
+ * <p>
+ * Sin ellas, una entidad modificada durante la caída seguiría en Redis con su valor anterior hasta el TTL. Al cerrarse
+ * el circuito se repiten a través del gestor de cachés completo, de modo que también se resuelven las etiquetas y se
+ * avisa a los demás nodos. Si se acumulan más de {@code cache.resilience.max-deferred-evictions}, la caché afectada se
+ * vacía completa en lugar de evictar clave por clave.
+ * </p>
+ */
+@Slf4j
+@Component
+public class DeferredEvictions {
+
+    private final Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+    private final Set<String> clearPending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+
+    @Autowired
+    public DeferredEvictions(RedisCircuitBreaker breaker, ObjectProvider<CacheManager> cacheManagers,
+                             @Qualifier("cacheRefreshExecutor") TaskExecutor executor,
+                             @Value("${cache.resilience.max-deferred-evictions:10000}") int maxSize,
+                             MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        breaker.onRecovery(() -> executor.execute(() -> replay(cacheManagers.getObject())));
+        Gauge.builder("cache.redis.deferred.evictions", size, AtomicInteger::get)
+                .description("Cache evictions waiting for Redis to recover")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra una evicción que no pudo aplicarse en Redis.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave o etiqueta ({@code tag:...}) evictada.
+     */
+    public void add(String cacheName, Object key) {
+        if (clearPending.contains(cacheName)) {
+            return;
+        }
+        if (size.get() >= maxSize) {
+            clear(cacheName);
+            return;
+        }
+        if (pending.computeIfAbsent(cacheName, name -> ConcurrentHashMap.newKeySet()).add(key.toString())) {
+            size.incrementAndGet();
+        }
+    }
+
+    /**
+     * Registra que una caché debe vaciarse completa cuando Redis se recupere.
+     *
+     * @param cacheName el nombre de la caché.
+     */
+    public void clear(String cacheName) {
+        if (clearPending.add(cacheName)) {
+            log.warn("Too many cache evictions pending for {}, it will be cleared when Redis recovers.", cacheName);
+        }
+        Set<String> keys = pending.remove(cacheName);
+        if (keys != null) {
+            size.addAndGet(-keys.size());
+        }
+    }
+
+    /**
+     * @return el número de evicciones pendientes.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Aplica las evicciones pendientes. Las que vuelvan a fallar se registran de nuevo.
+     *
+     * @param cacheManager el gestor de cachés de la aplicación.
+     */
+    void replay(CacheManager cacheManager) {
+        for (String cacheName : Set.copyOf(clearPending)) {
+            clearPending.remove(cacheName);
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                run(() -> cache.clear(), cacheName, "*");
+            }
+        }
+        int replayed = 0;
+        for (String cacheName : Set.copyOf(pending.keySet())) {
+            Set<String> keys = pending.remove(cacheName);
+            if (keys == null) {
+                continue;
+            }
+            size.addAndGet(-keys.size());
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            for (String key : keys) {
+                run(() -> cache.evict(key), cacheName, key);
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} cache evictions deferred while Redis was unavailable.", replayed);
+        }
+    }
+
+    private void run(Runnable eviction, String cacheName, String key) {
+        try {
+            eviction.run();
+        } catch (RuntimeException e) {
+            log.warn("Deferred cache eviction failed for {}::{}: {}", cacheName, key, e.getMessage());
+            if ("*".equals(key)) {
+                clear(cacheName);
+            } else {
+                add(cacheName, key);
+            }
+        }
+    }
+}
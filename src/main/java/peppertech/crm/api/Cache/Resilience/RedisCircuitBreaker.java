@@ -0,0 +1,173 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuito que deja de usar Redis como caché cuando falla repetidamente.
+ * <p>
+ * Tras {@code cache.resilience.breaker.failure-threshold} fallos consecutivos (errores de conexión o tiempos agotados)
+ * el circuito se abre y las operaciones de caché se omiten: las lecturas se tratan como fallos de caché y se resuelven
+ * con la caché local o con MongoDB. Pasado {@code cache.resilience.breaker.open-duration} se deja pasar una sola
+ * operación de prueba; si tiene éxito el circuito se cierra y se avisa a los interesados en la recuperación.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+    private final LongSupplier clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+    private volatile long openedAt;
+
+    @Autowired
+    public RedisCircuitBreaker(@Value("${cache.resilience.breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${cache.resilience.breaker.open-duration:10000}") long openDuration,
+                               MeterRegistry meterRegistry) {
+        this(failureThreshold, openDuration, System::currentTimeMillis, meterRegistry);
+    }
+
+    RedisCircuitBreaker(int failureThreshold, long openDuration, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.clock = clock;
+        for (State target : State.values()) {
+            transitions.put(target, Counter.builder("cache.redis.breaker.transitions")
+                    .description("Redis cache circuit breaker state changes")
+                    .tag("state", target.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("cache.redis.breaker.state", state, s -> s.get().ordinal())
+                .description("Redis cache circuit breaker state (0 closed, 1 half-open, 2 open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si una operación puede ir a Redis. Con el circuito abierto, una vez vencido el tiempo de espera, admite
+     * una única operación de prueba cuyo resultado debe informarse con {@link #onSuccess()} o {@link #onFailure()}.
+     *
+     * @return {@code true} si la operación puede usar Redis.
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDuration || !probing.compareAndSet(false, true)) {
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra una operación exitosa contra Redis; cierra el circuito si estaba en prueba.
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED && transition(State.HALF_OPEN, State.CLOSED)) {
+            probing.set(false);
+            log.info("Redis cache is available again, circuit breaker closed.");
+            recoveryListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Registra un fallo de Redis; abre el circuito al alcanzar el umbral o si falla la operación de prueba.
+     */
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    /**
+     * Registra una operación abandonada sin conocer su resultado, por ejemplo porque se interrumpió el hilo que la
+     * esperaba. No cuenta como fallo; si era la operación de prueba, el circuito vuelve a abierto sin reiniciar su
+     * espera, para que la siguiente operación pueda probar Redis de nuevo.
+     */
+    public void onAbandoned() {
+        if (transition(State.HALF_OPEN, State.OPEN)) {
+            probing.set(false);
+        }
+    }
+
+    /**
+     * @return {@code true} si el circuito está abierto y Redis se está omitiendo.
+     */
+    public boolean isOpen() {
+        return state.get() == State.OPEN;
+    }
+
+    /**
+     * Registra una acción que se ejecuta cada vez que el circuito se cierra tras haber estado abierto.
+     *
+     * @param listener la acción; debe ser breve, se ejecuta en el hilo de la operación de prueba.
+     */
+    public void onRecovery(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return el instante (ms) en que el circuito se abrió por última vez, o {@code 0} si nunca se abrió.
+     */
+    public long getOpenedAt() {
+        return openedAt;
+    }
+
+    private void open(State from) {
+        openedAt = clock.getAsLong();
+        if (transition(from, State.OPEN)) {
+            probing.set(false);
+            log.warn("Redis cache is failing, circuit breaker open for {} ms.", openDuration);
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        transitions.get(to).increment();
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Informa el estado del circuito de Redis en {@code /actuator/health} como {@code redisCircuitBreaker}.
+ * <p>
+ * Con el circuito abierto o en prueba el componente se reporta {@code DEGRADED}: la aplicación sigue respondiendo desde
+ * la caché local y MongoDB, por lo que este estado no cambia el estado general ni las sondas de Kubernetes.
+ * </p>
+ */
+@Component
+public class RedisCircuitBreakerHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Redis cache is bypassed");
+
+    private final RedisCircuitBreaker breaker;
+    private final DeferredEvictions deferredEvictions;
+
+    @Autowired
+    public RedisCircuitBreakerHealthIndicator(RedisCircuitBreaker breaker, DeferredEvictions deferredEvictions) {
+        this.breaker = breaker;
+        this.deferredEvictions = deferredEvictions;
+    }
+
+    @Override
+    public Health health() {
+        RedisCircuitBreaker.State state = breaker.getState();
+        Health.Builder builder = state == RedisCircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        builder.withDetail("state", state.name())
+                .withDetail("consecutiveFailures", breaker.getConsecutiveFailures())
+                .withDetail("deferredEvictions", deferredEvictions.size());
+        if (breaker.getOpenedAt() > 0) {
+            builder.withDetail("lastOpenedAt", Instant.ofEpochMilli(breaker.getOpenedAt()).toString());
+        }
+        return builder.build();
+    }
+}
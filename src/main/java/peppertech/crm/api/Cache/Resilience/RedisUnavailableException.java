@@ -0,0 +1,12 @@
+package peppertech.crm.api.Cache.Resilience;
+
+/**
+ * Se lanza cuando una operación de caché necesita Redis y el circuito está abierto.
+ * El manejador de errores de caché la registra como una evicción pendiente.
+ */
+public class RedisUnavailableException extends RuntimeException {
+
+    public RedisUnavailableException(String message) {
+        super(message);
+    }
+}
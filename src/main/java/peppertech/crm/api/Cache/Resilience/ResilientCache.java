@@ -0,0 +1,252 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import peppertech.crm.api.Cache.Hydration.IdListCache;
+import peppertech.crm.api.Cache.Serializer.CompactCacheSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link Cache} que protege el acceso a Redis con un tiempo máximo por operación y con {@link RedisCircuitBreaker}.
+ * <p>
+ * Cada operación se ejecuta en un pool acotado y se espera como máximo {@code cache.resilience.timeout.read} (lecturas)
+ * o {@code cache.resilience.timeout.write} (escrituras y evicciones), en lugar del tiempo de espera de Lettuce. Un error
+ * de Redis, un tiempo agotado o un pool saturado cuentan como fallo del circuito y no llegan a la solicitud: la lectura
+ * se trata como un fallo de caché, la escritura se descarta y la evicción se guarda en {@link DeferredEvictions}. Con
+ * el circuito abierto las operaciones no llegan a Redis.
+ * </p>
+ * <p>
+ * Las cargas de la base de datos ({@link #get(Object, Callable)}) se ejecutan fuera del tiempo máximo, en el hilo de
+ * la solicitud; solo la lectura previa y la escritura posterior van a Redis. Lo mismo ocurre al reconstruir una lista de
+ * {@link IdListCache}: el {@code GET} y el {@code MGET} van con el tiempo máximo de lectura, y la carga por lotes de las
+ * entidades que faltan y su escritura en Redis se hacen después, en el hilo de la solicitud. Los errores que no son de
+ * Redis, como una entrada demasiado grande, se propagan sin afectar al circuito.
+ * </p>
+ * <p>
+ * Como la serialización ocurre en el pool, las escrituras devuelven el tamaño que midió {@link CompactCacheSerializer}
+ * y lo vuelven a registrar en el hilo de la solicitud, donde lo leen las métricas de la caché.
+ * </p>
+ */
+@Slf4j
+public class ResilientCache implements Cache {
+
+    private static final ThreadLocal<Boolean> IN_POOL = new ThreadLocal<>();
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker breaker;
+    private final DeferredEvictions deferredEvictions;
+    private final AsyncTaskExecutor executor;
+    private final long readTimeout;
+    private final long writeTimeout;
+    private final ResilientCacheManager.Meters meters;
+
+    ResilientCache(Cache delegate, RedisCircuitBreaker breaker, DeferredEvictions deferredEvictions,
+                   AsyncTaskExecutor executor, Duration readTimeout, Duration writeTimeout,
+                   ResilientCacheManager.Meters meters) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.deferredEvictions = deferredEvictions;
+        this.executor = executor;
+        this.readTimeout = readTimeout.toMillis();
+        this.writeTimeout = writeTimeout.toMillis();
+        this.meters = meters;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (delegate instanceof IdListCache idLists) {
+            return idLists.complete(key, call("get", () -> idLists.read(key), readTimeout, null));
+        }
+        return call("get", () -> delegate.get(key), readTimeout, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        if (!(delegate instanceof IdListCache)) {
+            return call("get", () -> delegate.get(key, type), readTimeout, null);
+        }
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Integer size = call("put", () -> {
+            CompactCacheSerializer.takeLastSerializedSize();
+            delegate.put(key, value);
+            return CompactCacheSerializer.takeLastSerializedSize();
+        }, writeTimeout, null);
+        CompactCacheSerializer.restoreLastSerializedSize(size != null ? size : -1);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Written written = call("put", () -> {
+            CompactCacheSerializer.takeLastSerializedSize();
+            ValueWrapper existing = delegate.putIfAbsent(key, value);
+            return new Written(existing, CompactCacheSerializer.takeLastSerializedSize());
+        }, writeTimeout, null);
+        if (written == null) {
+            CompactCacheSerializer.restoreLastSerializedSize(-1);
+            return null;
+        }
+        CompactCacheSerializer.restoreLastSerializedSize(written.size());
+        return written.existing();
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Boolean present = call("evict", () -> delegate.evictIfPresent(key), writeTimeout, null);
+        if (present == null) {
+            deferredEvictions.add(getName(), key);
+            return false;
+        }
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        if (call("clear", () -> {
+            delegate.clear();
+            return Boolean.TRUE;
+        }, writeTimeout, null) == null) {
+            deferredEvictions.clear(getName());
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        Boolean present = call("clear", delegate::invalidate, writeTimeout, null);
+        if (present == null) {
+            deferredEvictions.clear(getName());
+            return false;
+        }
+        return present;
+    }
+
+    private <T> T call(String operation, Callable<T> task, long timeout, T fallback) {
+        if (!breaker.tryAcquire()) {
+            meters.bypassed(operation);
+            return fallback;
+        }
+        if (Boolean.TRUE.equals(IN_POOL.get())) {
+            // Operación anidada dentro de otra que ya corre en el pool: ya está acotada por la externa.
+            return inline(operation, task, fallback);
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                IN_POOL.set(Boolean.TRUE);
+                try {
+                    return task.call();
+                } finally {
+                    IN_POOL.remove();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            return failed(operation, "rejected", e, fallback);
+        }
+        try {
+            T value = future.get(timeout, TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return failed(operation, "timeout", e, fallback);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            breaker.onAbandoned();
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (ExecutionException e) {
+            return handle(operation, e.getCause(), fallback);
+        }
+    }
+
+    private <T> T inline(String operation, Callable<T> task, T fallback) {
+        try {
+            T value = task.call();
+            breaker.onSuccess();
+            return value;
+        } catch (Exception e) {
+            return handle(operation, e, fallback);
+        }
+    }
+
+    private <T> T handle(String operation, Throwable cause, T fallback) {
+        if (cause instanceof DataAccessException) {
+            return failed(operation, "error", cause, fallback);
+        }
+        // Redis respondió; el error es del valor o de su serialización.
+        breaker.onSuccess();
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    private <T> T failed(String operation, String reason, Throwable cause, T fallback) {
+        meters.failed(operation, reason);
+        breaker.onFailure();
+        log.debug("Redis cache {} failed for {} ({}): {}", operation, getName(), reason, cause.getMessage());
+        return fallback;
+    }
+
+    /**
+     * Resultado de un {@link #putIfAbsent(Object, Object)} ejecutado en el pool.
+     *
+     * @param existing el valor que ya existía, o {@code null} si se escribió el nuevo.
+     * @param size     el tamaño serializado del valor escrito, o {@code -1} si no se serializó.
+     */
+    private record Written(ValueWrapper existing, int size) {
+    }
+}
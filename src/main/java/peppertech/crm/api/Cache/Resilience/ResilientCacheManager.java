@@ -0,0 +1,86 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} que envuelve las cachés de Redis en {@link ResilientCache}.
+ */
+public class ResilientCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final RedisCircuitBreaker breaker;
+    private final DeferredEvictions deferredEvictions;
+    private final AsyncTaskExecutor executor;
+    private final Duration readTimeout;
+    private final Duration writeTimeout;
+    private final Meters meters;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ResilientCacheManager(CacheManager delegate, RedisCircuitBreaker breaker, DeferredEvictions deferredEvictions,
+                                 AsyncTaskExecutor executor, Duration readTimeout, Duration writeTimeout,
+                                 MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.deferredEvictions = deferredEvictions;
+        this.executor = executor;
+        this.readTimeout = readTimeout;
+        this.writeTimeout = writeTimeout;
+        this.meters = new Meters(meterRegistry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n ->
+                new ResilientCache(target, breaker, deferredEvictions, executor, readTimeout, writeTimeout, meters));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Contadores compartidos por todas las cachés: operaciones omitidas con el circuito abierto y fallos de Redis.
+     */
+    static class Meters {
+
+        private final MeterRegistry meterRegistry;
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+        Meters(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        void bypassed(String operation) {
+            counters.computeIfAbsent("bypassed:" + operation, k -> Counter.builder("cache.redis.bypassed")
+                    .description("Cache operations that skipped Redis because the circuit breaker was open")
+                    .tag("operation", operation)
+                    .register(meterRegistry)).increment();
+        }
+
+        void failed(String operation, String reason) {
+            counters.computeIfAbsent("failed:" + operation + ":" + reason, k -> Counter.builder("cache.redis.failures")
+                    .description("Cache operations that failed or timed out against Redis")
+                    .tag("operation", operation)
+                    .tag("reason", reason)
+                    .register(meterRegistry)).increment();
+        }
+    }
+}
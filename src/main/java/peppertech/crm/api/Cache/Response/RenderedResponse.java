@@ -0,0 +1,55 @@
+package peppertech.crm.api.Cache.Response;
+
+import lombok.Getter;
+import peppertech.crm.api.Cache.Tags.CacheTags;
+import peppertech.crm.api.Cache.Tags.Tagged;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Respuesta JSON ya serializada de un endpoint de listas, lista para escribirse en la salida sin pasar por Jackson.
+ * <p>
+ * Se guarda en la caché de la entidad propietaria con la etiqueta {@code lists}, por lo que cualquier alta,
+ * modificación o baja que invalide {@code tag:lists} la descarta. {@link
+ * peppertech.crm.api.Cache.Serializer.CompactCacheSerializer} la escribe en Redis en un formato binario propio, sin
+ * convertir el cuerpo a JSON de nuevo. El arreglo del cuerpo es compartido y no debe modificarse.
+ * </p>
+ * <p>
+ * Las cabeceras de paginación ({@code X-Next-Cursor}, {@code X-Page-Limit}, {@code X-Total-Count}) se guardan junto
+ * al cuerpo para repetirlas en los aciertos.
+ * </p>
+ */
+@Getter
+public class RenderedResponse implements Tagged {
+
+    /**
+     * El cuerpo de la respuesta, comprimido con gzip si {@link #gzipped} es verdadero.
+     */
+    private final byte[] body;
+    /**
+     * La ETag débil del cuerpo sin comprimir.
+     */
+    private final String etag;
+    private final boolean gzipped;
+    /**
+     * Las cabeceras de la respuesta que se repiten en los aciertos.
+     */
+    private final Map<String, String> headers;
+
+    public RenderedResponse(byte[] body, String etag, boolean gzipped) {
+        this(body, etag, gzipped, Map.of());
+    }
+
+    public RenderedResponse(byte[] body, String etag, boolean gzipped, Map<String, String> headers) {
+        this.body = body;
+        this.etag = etag;
+        this.gzipped = gzipped;
+        this.headers = Map.copyOf(headers);
+    }
+
+    @Override
+    public Set<String> getCacheTags() {
+        return Set.of(CacheTags.LISTS);
+    }
+}
@@ -0,0 +1,294 @@
+package peppertech.crm.api.Cache.Response;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import peppertech.crm.api.Pagination.CursorPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas ya serializadas para los endpoints GET de listas ({@code /Leads/All}, {@code /Users/All},
+ * {@code /Boards/All}).
+ * <p>
+ * En un acierto el cuerpo JSON guardado se escribe directamente en la salida, sin leer los DTOs de Redis ni volver a
+ * serializarlos con Jackson; si el cliente envía {@code If-None-Match} con la ETag vigente se responde {@code 304}. En
+ * un fallo el controlador responde normalmente y, si la respuesta es un {@code 200} en JSON, su cuerpo se guarda como
+ * {@link RenderedResponse} en la caché de la entidad propietaria bajo la clave {@code response:<ruta>}. Las
+ * invalidaciones de {@code tag:lists} de los servicios la descartan junto con las listas de DTOs.
+ * </p>
+ * <p>
+ * Se ejecuta después de la cadena de Spring Security, por lo que solo se sirven respuestas a solicitudes autenticadas.
+ * Las solicitudes con parámetros no se guardan, para no crear una entrada por cada combinación; así solo se guarda la
+ * primera página, con sus cabeceras de paginación ({@link CursorPage#headers()}). Igual que las listas
+ * de DTOs, una respuesta calculada mientras se modifica una entidad puede quedar desactualizada hasta el TTL de la
+ * caché.
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String KEY_PREFIX = "response:";
+    private static final String GZIP = "gzip";
+    private static final List<String> REPLAYED_HEADERS =
+            List.of(CursorPage.TOTAL_COUNT, CursorPage.NEXT_CURSOR, CursorPage.LIMIT);
+
+    private final CacheManager cacheManager;
+    private final Map<String, String> routes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+
+    @Value("${cache.response.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.response.gzip.min-size:1024}")
+    private int gzipMinSize;
+
+    @Autowired
+    public ResponseCacheFilter(CacheManager cacheManager, MeterRegistry meterRegistry,
+                               @Value("${cache.response.routes:/Leads/All=leads,/Users/All=users,/Boards/All=boards}") String routes) {
+        this.cacheManager = cacheManager;
+        this.routes = parseRoutes(routes);
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.notModified = counter(meterRegistry, "not_modified");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !HttpMethod.GET.matches(request.getMethod())
+                || request.getQueryString() != null
+                || !routes.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String path = path(request);
+        Cache cache = cacheManager.getCache(routes.get(path));
+        String key = KEY_PREFIX + path;
+
+        RenderedResponse cached = lookup(cache, key);
+        if (cached != null) {
+            hits.increment();
+            write(cached, request, response);
+            return;
+        }
+        misses.increment();
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || !isJson(wrapper.getContentType())) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        RenderedResponse rendered = render(wrapper.getContentAsByteArray(), replayedHeaders(wrapper), gzipMinSize);
+        store(cache, key, rendered);
+        write(rendered, request, response);
+    }
+
+    /**
+     * Serializa el cuerpo de una respuesta para guardarlo: calcula su ETag y lo comprime con gzip si alcanza el tamaño
+     * mínimo y la compresión lo reduce.
+     *
+     * @param body        el cuerpo JSON de la respuesta.
+     * @param headers     las cabeceras que se repiten en los aciertos.
+     * @param gzipMinSize el tamaño (bytes) a partir del cual se comprime; {@code 0} desactiva la compresión.
+     * @return la respuesta lista para guardar.
+     */
+    static RenderedResponse render(byte[] body, Map<String, String> headers, int gzipMinSize) {
+        String etag = etagOf(body);
+        if (gzipMinSize > 0 && body.length >= gzipMinSize) {
+            byte[] compressed = gzip(body);
+            if (compressed.length < body.length) {
+                return new RenderedResponse(compressed, etag, true, headers);
+            }
+        }
+        return new RenderedResponse(body, etag, false, headers);
+    }
+
+    /**
+     * Compara una ETag con la cabecera {@code If-None-Match} usando la comparación débil.
+     *
+     * @param ifNoneMatch el valor de la cabecera, o {@code null}.
+     * @param etag        la ETag vigente.
+     * @return {@code true} si el cliente ya tiene esta versión del cuerpo.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value) || opaque.equals(opaque(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RenderedResponse lookup(Cache cache, String key) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(key, RenderedResponse.class);
+        } catch (RuntimeException e) {
+            log.warn("Response cache get failed for {}::{}, rendering the response: {}", cache.getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(Cache cache, String key, RenderedResponse rendered) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.put(key, rendered);
+        } catch (RuntimeException e) {
+            log.debug("Skipping response cache entry {}::{}: {}", cache.getName(), key, e.getMessage());
+        }
+    }
+
+    private void write(RenderedResponse rendered, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, rendered.getEtag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        rendered.getHeaders().forEach(response::setHeader);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), rendered.getEtag())) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        byte[] body = rendered.getBody();
+        if (rendered.isGzipped()) {
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            } else {
+                body = gunzip(body);
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Map<String, String> replayedHeaders(HttpServletResponse response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : REPLAYED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress the response body", e);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static Map<String, String> parseRoutes(String routes) {
+        Map<String, String> parsed = new HashMap<>();
+        for (String route : routes.split(",")) {
+            String[] parts = route.trim().split("=", 2);
+            if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
+                parsed.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.response.requests")
+                .description("Requests to cached list endpoints")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,14 @@
+package peppertech.crm.api.Cache.Serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Se lanza cuando un valor serializado supera el tamaño máximo configurado para su caché.
+ * El manejador de errores de caché la trata como un "no guardar", no como un fallo.
+ */
+public class CacheEntryTooLargeException extends SerializationException {
+
+    public CacheEntryTooLargeException(String message) {
+        super(message);
+    }
+}
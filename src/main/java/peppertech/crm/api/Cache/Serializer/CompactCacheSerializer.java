@@ -0,0 +1,232 @@
+package peppertech.crm.api.Cache.Serializer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import peppertech.crm.api.Cache.Response.RenderedResponse;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializador de valores de caché en JSON con compresión LZ4 opcional.
+ * <p>
+ * El valor se serializa con Jackson (incluyendo el tipo, para poder leer listas y DTOs sin conocer el tipo de
+ * antemano) y se antepone un byte de formato: {@code 0} para JSON sin comprimir y {@code 1} para JSON comprimido con
+ * LZ4, seguido del tamaño original. Solo se comprimen los valores que superan el umbral configurado, como las listas
+ * {@code all_users} o {@code all_leads}; los DTOs individuales se guardan tal cual.
+ * </p>
+ * <p>
+ * Las respuestas ya serializadas ({@link RenderedResponse}) usan el formato {@code 2}: un byte de indicadores (bit 0:
+ * cuerpo comprimido con gzip; bit 1: hay cabeceras), la ETag precedida de su longitud, las cabeceras si las hay (su
+ * número y cada nombre y valor precedidos de su longitud) y el cuerpo tal cual, sin pasar por Jackson.
+ * </p>
+ * <p>
+ * Si el valor final supera el tamaño máximo de la caché se lanza {@link CacheEntryTooLargeException} y la entrada no se
+ * guarda.
+ * </p>
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte RAW = 0;
+    private static final byte LZ4 = 1;
+    private static final byte RENDERED = 2;
+    private static final int LZ4_HEADER = 1 + Integer.BYTES;
+    private static final int RENDERED_HEADER = 2 + Short.BYTES;
+    private static final byte RENDERED_GZIPPED = 1;
+    private static final byte RENDERED_HEADERS = 2;
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestJavaInstance();
+    private static final ThreadLocal<Integer> LAST_SIZE = new ThreadLocal<>();
+
+    private final GenericJackson2JsonRedisSerializer json;
+    private final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4_FACTORY.safeDecompressor();
+    private final int compressionThreshold;
+    private final int maxEntrySize;
+
+    /**
+     * @param compressionThreshold tamaño (bytes) a partir del cual se comprime; {@code 0} desactiva la compresión.
+     * @param maxEntrySize         tamaño máximo (bytes) de una entrada; {@code 0} sin límite.
+     */
+    public CompactCacheSerializer(int compressionThreshold, int maxEntrySize) {
+        this.compressionThreshold = compressionThreshold;
+        this.maxEntrySize = maxEntrySize;
+        this.json = new GenericJackson2JsonRedisSerializer();
+        this.json.configure(mapper -> mapper
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL));
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] encoded;
+        if (value instanceof RenderedResponse rendered) {
+            encoded = encodeRendered(rendered);
+        } else {
+            byte[] raw = json.serialize(value);
+            encoded = compressionThreshold > 0 && raw.length >= compressionThreshold
+                    ? compress(raw)
+                    : withHeader(raw);
+        }
+        if (maxEntrySize > 0 && encoded.length > maxEntrySize) {
+            throw new CacheEntryTooLargeException("Cache entry of " + encoded.length
+                    + " bytes exceeds the maximum of " + maxEntrySize + " bytes.");
+        }
+        LAST_SIZE.set(encoded.length);
+        return encoded;
+    }
+
+    /**
+     * Obtiene y descarta el tamaño del último valor serializado en este hilo. Permite a las métricas de la caché
+     * conocer el tamaño real en Redis de una escritura sin volver a serializar el valor.
+     *
+     * @return el tamaño (bytes), o {@code -1} si no se serializó ningún valor desde la última llamada.
+     */
+    public static int takeLastSerializedSize() {
+        Integer size = LAST_SIZE.get();
+        LAST_SIZE.remove();
+        return size != null ? size : -1;
+    }
+
+    /**
+     * Registra en este hilo el tamaño de un valor serializado en otro, para que las capas que ejecutan la escritura en
+     * un pool propio (como {@code ResilientCache}) lo devuelvan al hilo de la solicitud.
+     *
+     * @param size el tamaño (bytes) obtenido con {@link #takeLastSerializedSize()} en el hilo de la escritura.
+     */
+    public static void restoreLastSerializedSize(int size) {
+        if (size >= 0) {
+            LAST_SIZE.set(size);
+        } else {
+            LAST_SIZE.remove();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case RAW -> json.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case LZ4 -> json.deserialize(decompress(bytes));
+            case RENDERED -> decodeRendered(bytes);
+            default -> throw new SerializationException("Unknown cache entry format: " + bytes[0]);
+        };
+    }
+
+    private byte[] compress(byte[] raw) {
+        byte[] buffer = new byte[LZ4_HEADER + compressor.maxCompressedLength(raw.length)];
+        int length = compressor.compress(raw, 0, raw.length, buffer, LZ4_HEADER);
+        if (LZ4_HEADER + length >= raw.length + 1) {
+            // No compensa: el valor no se reduce al comprimirlo.
+            return withHeader(raw);
+        }
+        ByteBuffer.wrap(buffer).put(LZ4).putInt(raw.length);
+        return Arrays.copyOf(buffer, LZ4_HEADER + length);
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        if (bytes.length < LZ4_HEADER) {
+            throw new SerializationException("Truncated compressed cache entry.");
+        }
+        int originalLength = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        if (originalLength < 0) {
+            throw new SerializationException("Corrupted compressed cache entry.");
+        }
+        byte[] raw = new byte[originalLength];
+        int length;
+        try {
+            length = decompressor.decompress(bytes, LZ4_HEADER, bytes.length - LZ4_HEADER, raw, 0, originalLength);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decompress cache entry.", e);
+        }
+        if (length != originalLength) {
+            throw new SerializationException("Corrupted compressed cache entry.");
+        }
+        return raw;
+    }
+
+    private static byte[] encodeRendered(RenderedResponse rendered) {
+        byte[] etag = rendered.getEtag().getBytes(StandardCharsets.US_ASCII);
+        byte[] body = rendered.getBody();
+        List<byte[]> headers = new ArrayList<>();
+        int headersLength = 0;
+        for (Map.Entry<String, String> header : rendered.getHeaders().entrySet()) {
+            byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = header.getValue().getBytes(StandardCharsets.UTF_8);
+            headers.add(name);
+            headers.add(value);
+            headersLength += 2 * Short.BYTES + name.length + value.length;
+        }
+        byte flags = (byte) ((rendered.isGzipped() ? RENDERED_GZIPPED : 0) | (headers.isEmpty() ? 0 : RENDERED_HEADERS));
+        ByteBuffer buffer = ByteBuffer.allocate(RENDERED_HEADER + etag.length
+                        + (headers.isEmpty() ? 0 : Short.BYTES + headersLength) + body.length)
+                .put(RENDERED)
+                .put(flags)
+                .putShort((short) etag.length)
+                .put(etag);
+        if (!headers.isEmpty()) {
+            buffer.putShort((short) (headers.size() / 2));
+            for (byte[] part : headers) {
+                buffer.putShort((short) part.length).put(part);
+            }
+        }
+        return buffer.put(body).array();
+    }
+
+    private static RenderedResponse decodeRendered(byte[] bytes) {
+        if (bytes.length < RENDERED_HEADER) {
+            throw new SerializationException("Truncated rendered response cache entry.");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            byte flags = buffer.get();
+            String etag = readString(buffer, StandardCharsets.US_ASCII);
+            Map<String, String> headers = new LinkedHashMap<>();
+            if ((flags & RENDERED_HEADERS) != 0) {
+                int count = Short.toUnsignedInt(buffer.getShort());
+                for (int i = 0; i < count; i++) {
+                    headers.put(readString(buffer, StandardCharsets.UTF_8), readString(buffer, StandardCharsets.UTF_8));
+                }
+            }
+            byte[] body = Arrays.copyOfRange(bytes, buffer.position(), bytes.length);
+            return new RenderedResponse(body, etag, (flags & RENDERED_GZIPPED) != 0, headers);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new SerializationException("Corrupted rendered response cache entry.", e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, Charset charset) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new SerializationException("Corrupted rendered response cache entry.");
+        }
+        String value = new String(buffer.array(), buffer.position(), length, charset);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] withHeader(byte[] raw) {
+        byte[] encoded = new byte[raw.length + 1];
+        encoded[0] = RAW;
+        System.arraycopy(raw, 0, encoded, 1, raw.length);
+        return encoded;
+    }
+}
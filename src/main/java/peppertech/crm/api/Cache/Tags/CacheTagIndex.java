@@ -0,0 +1,93 @@
+package peppertech.crm.api.Cache.Tags;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+import peppertech.crm.api.Cache.Resilience.RedisUnavailableException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Índice en Redis de las claves de caché asociadas a cada etiqueta.
+ * <p>
+ * Cada etiqueta es un conjunto ({@code <version>:tags:<caché>:<etiqueta>}) con las claves que la contienen. El conjunto
+ * expira con el TTL de la caché, que se renueva en cada alta, por lo que el índice nunca sobrevive a las entradas que
+ * referencia por más de un TTL. Al invalidar una etiqueta, el conjunto se lee y se elimina con un script, de modo
+ * que una clave etiquetada en paralelo queda en el conjunto o en el resultado, nunca se pierde entre ambos.
+ * </p>
+ */
+@Slf4j
+public class CacheTagIndex {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cache_tag_drain.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String prefix;
+    private final RedisCircuitBreaker breaker;
+
+    public CacheTagIndex(StringRedisTemplate redisTemplate, String version, RedisCircuitBreaker breaker) {
+        this.redisTemplate = redisTemplate;
+        this.prefix = version + ":tags:";
+        this.breaker = breaker;
+    }
+
+    /**
+     * Asocia una clave de caché con sus etiquetas en una sola ida y vuelta a Redis.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave de la entrada.
+     * @param tags      las etiquetas de la entrada.
+     * @param ttl       el TTL de la caché.
+     */
+    public void tag(String cacheName, String key, Collection<String> tags, Duration ttl) {
+        if (tags.isEmpty() || breaker.isOpen()) {
+            // Con el circuito abierto el valor tampoco llega a Redis.
+            return;
+        }
+        byte[] member = key.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String tag : tags) {
+                byte[] tagKey = tagKey(cacheName, tag);
+                connection.setCommands().sAdd(tagKey, member);
+                connection.keyCommands().pExpire(tagKey, ttl.toMillis());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Obtiene y elimina las claves asociadas a una etiqueta en una sola operación atómica.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param tag       la etiqueta.
+     * @return las claves que tenían la etiqueta.
+     * @throws RedisUnavailableException si el circuito de Redis está abierto; la evicción se repite al recuperarse.
+     */
+    public Set<String> drain(String cacheName, String tag) {
+        if (breaker.isOpen()) {
+            throw new RedisUnavailableException("Redis is bypassed, cannot resolve tag " + tag + " of " + cacheName);
+        }
+        String tagKey = new String(tagKey(cacheName, tag), StandardCharsets.UTF_8);
+        List<?> members = redisTemplate.execute(DRAIN_SCRIPT, List.of(tagKey));
+        if (members == null) {
+            return Set.of();
+        }
+        Set<String> keys = new HashSet<>(members.size());
+        members.forEach(member -> keys.add(member.toString()));
+        return keys;
+    }
+
+    private byte[] tagKey(String cacheName, String tag) {
+        return (prefix + cacheName + ":" + tag).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package peppertech.crm.api.Cache.Tags;
+
+/**
+ * Claves especiales para invalidar por etiqueta desde {@code @CacheEvict}.
+ * <p>
+ * Evictar la clave {@code tag:id:<id>} elimina todas las entradas de la caché que contienen la entidad con ese ID
+ * (la entrada por ID, por correo y las listas en las que aparece). Evictar {@code tag:lists} elimina todas las
+ * consultas que devuelven colecciones, que pueden cambiar cuando se crea, modifica o elimina una entidad.
+ * </p>
+ * <pre>
+ * &#64;CacheEvict(value = "users", key = "'tag:id:' + #id")
+ * &#64;CacheEvict(value = "users", key = "'tag:lists'")
+ * </pre>
+ */
+public final class CacheTags {
+
+    public static final String PREFIX = "tag:";
+    public static final String LISTS = "lists";
+    public static final String ID = "id:";
+
+    private CacheTags() {
+    }
+
+    public static boolean isTag(Object key) {
+        return key instanceof String value && value.startsWith(PREFIX);
+    }
+}
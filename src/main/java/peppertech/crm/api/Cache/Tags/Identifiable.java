@@ -0,0 +1,9 @@
+package peppertech.crm.api.Cache.Tags;
+
+/**
+ * DTO con un identificador de entidad; permite asociar los resultados en caché con las entidades que contienen.
+ */
+public interface Identifiable {
+
+    String getId();
+}
@@ -0,0 +1,11 @@
+package peppertech.crm.api.Cache.Tags;
+
+import java.util.Set;
+
+/**
+ * Valor de caché que declara sus propias etiquetas, para los valores que no son DTOs ni colecciones de DTOs.
+ */
+public interface Tagged {
+
+    Set<String> getCacheTags();
+}
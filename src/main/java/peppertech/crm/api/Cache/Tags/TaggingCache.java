@@ -0,0 +1,141 @@
+package peppertech.crm.api.Cache.Tags;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Cache} que registra qué entidades contiene cada entrada y permite invalidarlas por etiqueta.
+ * <p>
+ * Al guardar un valor se calculan sus etiquetas: un DTO {@link Identifiable} se etiqueta con {@code id:<id>} y una
+ * colección con {@code lists} más el {@code id:<id>} de cada elemento. Así, al modificar una entidad basta con evictar
+ * {@code tag:id:<id>} para descartar la entrada por ID, por correo y cualquier lista que la incluya, sin conocer las
+ * claves derivadas. Las demás operaciones se delegan sin cambios.
+ * </p>
+ * <p>
+ * La etiqueta se registra antes de escribir el valor; una lectura de la base de datos que se solape con una
+ * modificación aún puede guardar un valor desactualizado, que vive como máximo el TTL de la caché.
+ * </p>
+ */
+public class TaggingCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheTagIndex index;
+    private final Duration ttl;
+
+    public TaggingCache(Cache delegate, CacheTagIndex index, Duration ttl) {
+        this.delegate = delegate;
+        this.index = index;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, () -> {
+            T value = valueLoader.call();
+            tag(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        tag(key, value);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        tag(key, value);
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (CacheTags.isTag(key)) {
+            evictTag(key);
+            return;
+        }
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        if (CacheTags.isTag(key)) {
+            return evictTag(key) > 0;
+        }
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private int evictTag(Object key) {
+        Set<String> keys = index.drain(getName(), key.toString().substring(CacheTags.PREFIX.length()));
+        keys.forEach(delegate::evict);
+        return keys.size();
+    }
+
+    private void tag(Object key, Object value) {
+        index.tag(getName(), key.toString(), tagsOf(value), ttl);
+    }
+
+    /**
+     * Calcula las etiquetas de un valor de la caché.
+     *
+     * @param value el valor que se va a guardar.
+     * @return las etiquetas {@code id:<id>} de las entidades que contiene y {@code lists} si es una colección, o las
+     * que declara un valor {@link Tagged}.
+     */
+    static Set<String> tagsOf(Object value) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (value instanceof Tagged tagged) {
+            tags.addAll(tagged.getCacheTags());
+        } else if (value instanceof Collection<?> collection) {
+            tags.add(CacheTags.LISTS);
+            for (Object element : collection) {
+                addIdTag(tags, element);
+            }
+        } else {
+            addIdTag(tags, value);
+        }
+        return tags;
+    }
+
+    private static void addIdTag(Set<String> tags, Object value) {
+        if (value instanceof Identifiable entity && entity.getId() != null) {
+            tags.add(CacheTags.ID + entity.getId());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package peppertech.crm.api.Cache.Tags;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link CacheManager} que envuelve cada caché en una {@link TaggingCache}.
+ * <p>
+ * Se ubica por encima de las demás capas (local y Redis) para que la evicción de cada clave etiquetada pase por ellas
+ * y se difunda a los demás nodos como cualquier otra evicción.
+ * </p>
+ */
+public class TaggingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheTagIndex index;
+    private final Function<String, Duration> ttls;
+    private final Map<String, TaggingCache> caches = new ConcurrentHashMap<>();
+
+    public TaggingCacheManager(CacheManager delegate, CacheTagIndex index, Function<String, Duration> ttls) {
+        this.delegate = delegate;
+        this.index = index;
+        this.ttls = ttls;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TaggingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TaggingCache(target, index, ttls.apply(n)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
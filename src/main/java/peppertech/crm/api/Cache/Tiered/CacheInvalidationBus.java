@@ -0,0 +1,94 @@
+package peppertech.crm.api.Cache.Tiered;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Difunde las invalidaciones de la caché local entre nodos mediante pub/sub de Redis.
+ * <p>
+ * Cada mensaje tiene la forma {@code <nodo>|<caché>|<clave>}; una clave vacía indica que se vació la caché completa.
+ * Los mensajes publicados por el propio nodo se ignoran, porque su caché local ya se actualizó.
+ * </p>
+ * <p>
+ * La publicación se hace en el pool acotado de Redis para no bloquear la solicitud, y se omite con el circuito abierto:
+ * las evicciones que no llegaron a Redis se repiten al recuperarse y vuelven a publicarse; mientras tanto, el TTL de la
+ * caché local acota lo que los demás nodos pueden servir desactualizado.
+ * </p>
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    static final String CLEAR = "";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final RedisCircuitBreaker breaker;
+    private final Executor executor;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile BiConsumer<String, String> listener = (cacheName, key) -> {
+    };
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel, RedisCircuitBreaker breaker,
+                                Executor executor) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.breaker = breaker;
+        this.executor = executor;
+    }
+
+    /**
+     * Registra la acción a ejecutar cuando otro nodo invalida una clave.
+     *
+     * @param listener recibe el nombre de la caché y la clave ({@link #CLEAR} para toda la caché).
+     */
+    void onInvalidation(BiConsumer<String, String> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Publica la invalidación de una clave (o de toda la caché) para el resto de nodos.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave, o {@link #CLEAR} para toda la caché.
+     */
+    public void publish(String cacheName, String key) {
+        if (breaker.isOpen()) {
+            return;
+        }
+        try {
+            executor.execute(() -> send(cacheName, key));
+        } catch (TaskRejectedException e) {
+            log.warn("Could not publish cache invalidation for {}::{}: the Redis pool is saturated", cacheName, key);
+        }
+    }
+
+    private void send(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "|" + cacheName + "|" + key);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        listener.accept(parts[1], parts[2]);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
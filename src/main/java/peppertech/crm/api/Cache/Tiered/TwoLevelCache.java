@@ -0,0 +1,170 @@
+package peppertech.crm.api.Cache.Tiered;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Caché de dos niveles: una caché local en memoria (L1) delante de la caché de Redis (L2).
+ * <p>
+ * Las lecturas consultan primero L1 y solo ante un fallo van a Redis, guardando el resultado en L1. Las escrituras y
+ * evicciones se aplican en ambos niveles y se publican en {@link CacheInvalidationBus} para que los demás nodos
+ * descarten su copia local. L1 tiene un TTL corto que acota cualquier carrera entre una lectura y una invalidación.
+ * </p>
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus bus;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote,
+                         CacheInvalidationBus bus, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.bus = bus;
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+        ratio(meterRegistry, "l1", localHits, localMisses);
+        ratio(meterRegistry, "l2", remoteHits, remoteMisses);
+        Gauge.builder("cache.tier.size", local, c -> c.estimatedSize())
+                .description("Entries held in the local tier")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (wrapper.get() != null) {
+            local.put(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        if (value != null) {
+            local.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(key, value);
+        } else {
+            local.invalidate(key);
+        }
+        bus.publish(name, key.toString());
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        bus.publish(name, key.toString());
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(key);
+        bus.publish(name, key.toString());
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        bus.publish(name, CacheInvalidationBus.CLEAR);
+    }
+
+    /**
+     * Descarta la copia local de una clave a pedido de otro nodo.
+     *
+     * @param key la clave, o {@link CacheInvalidationBus#CLEAR} para toda la caché local.
+     */
+    void invalidateLocal(String key) {
+        if (CacheInvalidationBus.CLEAR.equals(key)) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .description("Cache lookups per tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void ratio(MeterRegistry meterRegistry, String tier, Counter hits, Counter misses) {
+        Gauge.builder("cache.tier.hit.ratio", () -> {
+                    double total = hits.count() + misses.count();
+                    return total == 0 ? 0.0 : hits.count() / total;
+                })
+                .description("Hit ratio per cache tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package peppertech.crm.api.Cache.Tiered;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link CacheManager} que envuelve cada caché de Redis en una {@link TwoLevelCache}.
+ * <p>
+ * El tamaño y el TTL de la caché local se resuelven por nombre, de modo que cada caché puede dimensionarse según su
+ * ratio de aciertos en L1.
+ * </p>
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remote;
+    private final CacheInvalidationBus bus;
+    private final MeterRegistry meterRegistry;
+    private final Function<String, LocalSpec> localSpecs;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, CacheInvalidationBus bus, MeterRegistry meterRegistry,
+                                Function<String, LocalSpec> localSpecs) {
+        this.remote = remote;
+        this.bus = bus;
+        this.meterRegistry = meterRegistry;
+        this.localSpecs = localSpecs;
+        bus.onInvalidation((cacheName, key) -> {
+            TwoLevelCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            LocalSpec spec = localSpecs.apply(n);
+            return new TwoLevelCache(n, Caffeine.newBuilder()
+                    .maximumSize(spec.maxSize())
+                    .expireAfterWrite(Duration.ofMillis(spec.ttl()))
+                    .build(), remoteCache, bus, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    /**
+     * Dimensiones de la caché local de una caché.
+     *
+     * @param maxSize número máximo de entradas en memoria.
+     * @param ttl     tiempo de vida (ms) de una entrada en memoria.
+     */
+    public record LocalSpec(long maxSize, long ttl) {
+    }
+}
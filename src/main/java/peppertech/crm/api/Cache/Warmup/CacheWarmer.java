@@ -0,0 +1,209 @@
+package peppertech.crm.api.Cache.Warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precarga de la caché al iniciar y recálculo anticipado de las claves más consultadas.
+ * <p>
+ * Tras un despliegue o un vaciado de Redis, los primeros minutos de tráfico iban todos a MongoDB. Al iniciar, antes
+ * de que la aplicación se declare lista ({@code /actuator/health/readiness}), se cargan las
+ * {@code cache.warmup.top-n} claves más consultadas de cada caché según el {@link HotKeyLog}, en lotes paralelos y con
+ * un tiempo máximo total; Spring Boot ejecuta los {@link ApplicationRunner} antes de aceptar tráfico.
+ * </p>
+ * <p>
+ * Después, una tarea periódica revisa el TTL restante de las claves más calientes y vuelve a cargar las que están por
+ * expirar o ya expiraron, sin bloquear solicitudes. Solo un nodo del clúster la ejecuta en cada intervalo.
+ * </p>
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    private final HotKeyLog hotKeyLog;
+    private final HotKeyLoaders loaders;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker breaker;
+
+    @Value("${cache.version:v1}")
+    private String version;
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled;
+    @Value("${cache.warmup.top-n:200}")
+    private int topN;
+    @Value("${cache.warmup.batch-size:20}")
+    private int batchSize;
+    @Value("${cache.warmup.parallelism:4}")
+    private int parallelism;
+    @Value("${cache.warmup.timeout:30000}")
+    private long timeout;
+    @Value("${cache.warmup.refresh.top:20}")
+    private int refreshTop;
+    @Value("${cache.warmup.refresh.ahead:60000}")
+    private long refreshAhead;
+    @Value("${cache.warmup.refresh.interval:60000}")
+    private long refreshInterval;
+
+    @Autowired
+    public CacheWarmer(HotKeyLog hotKeyLog, HotKeyLoaders loaders, CacheManager cacheManager,
+                       StringRedisTemplate redisTemplate, RedisCircuitBreaker breaker) {
+        this.hotKeyLog = hotKeyLog;
+        this.loaders = loaders;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Carga las claves más consultadas de cada caché en lotes paralelos, hasta agotar el tiempo máximo.
+     *
+     * @return el número de claves cargadas.
+     */
+    public int warmUp() {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout;
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (String cacheName : loaders.getCacheNames()) {
+            for (String key : hotKeyLog.top(cacheName, topN)) {
+                loaders.loaderFor(cacheName, key).ifPresent(loader -> tasks.add(() -> load(cacheName, key, loader)));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "Cache-Warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int loaded = 0;
+        try {
+            for (int from = 0; from < tasks.size(); from += Math.max(1, batchSize)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("Cache warm-up timed out after {} ms; {} hot keys were not loaded.", timeout, tasks.size() - from);
+                    break;
+                }
+                List<Callable<Boolean>> batch = tasks.subList(from, Math.min(tasks.size(), from + Math.max(1, batchSize)));
+                for (Future<Boolean> result : pool.invokeAll(batch, remaining, TimeUnit.MILLISECONDS)) {
+                    if (succeeded(result)) {
+                        loaded++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Cache warm-up loaded {} of {} hot keys in {} ms.", loaded, tasks.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * Vuelve a cargar las claves más consultadas que expiraron o expirarán en menos de
+     * {@code cache.warmup.refresh.ahead} ms.
+     */
+    @Scheduled(fixedDelayString = "${cache.warmup.refresh.interval:60000}",
+            initialDelayString = "${cache.warmup.refresh.interval:60000}")
+    public void refreshHotKeys() {
+        if (!enabled || refreshTop <= 0 || breaker.isOpen()) {
+            return;
+        }
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(version + ":hotkeys:refresh", "1", Duration.ofMillis(refreshInterval));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+            for (String cacheName : loaders.getCacheNames()) {
+                refresh(cacheName);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Hot key refresh skipped: {}", e.getMessage());
+        }
+    }
+
+    private void refresh(String cacheName) {
+        List<String> keys = hotKeyLog.top(cacheName, refreshTop).stream()
+                .filter(key -> loaders.loaderFor(cacheName, key).isPresent())
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        String prefix = version + ":" + cacheName + "::";
+        List<Object> ttls = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pTtl((prefix + key).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        Cache cache = cacheManager.getCache(cacheName);
+        for (int i = 0; i < keys.size(); i++) {
+            long ttl = ttls.get(i) instanceof Long value ? value : -1L;
+            if (ttl == -2L || (ttl >= 0 && ttl < refreshAhead)) {
+                String key = keys.get(i);
+                if (ttl >= 0 && cache != null) {
+                    // Las solicitudes concurrentes esperan esta misma carga gracias a la coalescencia.
+                    cache.evict(key);
+                }
+                loaders.loaderFor(cacheName, key).ifPresent(loader -> load(cacheName, key, loader));
+            }
+        }
+    }
+
+    private boolean load(String cacheName, String key, Callable<?> loader) {
+        try {
+            loader.call();
+            return true;
+        } catch (Exception e) {
+            log.debug("Could not preload {}::{}: {}", cacheName, key, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean succeeded(Future<Boolean> result) {
+        try {
+            return Boolean.TRUE.equals(result.get());
+        } catch (CancellationException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package peppertech.crm.api.Cache.Warmup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Leads.Service.LeadServiceI;
+import peppertech.crm.api.Mails.Service.EmailServiceI;
+import peppertech.crm.api.Tasks.Service.BoardServiceI;
+import peppertech.crm.api.Users.Service.UserServiceI;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Traduce una clave de caché a la llamada del servicio que la genera.
+ * <p>
+ * Las llamadas pasan por el proxy de los servicios, de modo que {@code @Cacheable} guarda el resultado con la misma
+ * clave. Debe mantenerse alineado con las claves de los métodos {@code @Cacheable}.
+ * </p>
+ */
+@Component
+public class HotKeyLoaders {
+
+    private final Map<String, Map<String, Callable<?>>> fixedKeys = new LinkedHashMap<>();
+    private final Map<String, Map<String, Lookup>> prefixedKeys = new LinkedHashMap<>();
+
+    @Autowired
+    public HotKeyLoaders(UserServiceI userService, LeadServiceI leadService, BoardServiceI boardService,
+                         EmailServiceI emailService) {
+        fixedKeys.put("users", Map.of(
+                "all_users", userService::getAllUsers,
+                "all_rols", userService::getAllRoles));
+        fixedKeys.put("leads", Map.of("all_leads", leadService::getAllLeads));
+        fixedKeys.put("boards", Map.of("all_boards", boardService::getAllBoards));
+        fixedKeys.put("mails", Map.of("all_mails", emailService::getAllMails));
+
+        Map<String, Lookup> users = new LinkedHashMap<>();
+        users.put("id_", userService::getUserById);
+        users.put("email_", userService::getUserByEmail);
+        users.put("name_", userService::getUsersByName);
+        users.put("lastname_", userService::getUsersByLastname);
+        users.put("exactname_", userService::getUsersByExactName);
+        users.put("exactlastname_", userService::getUsersByExactLastname);
+        users.put("role:", userService::getUsersByRole);
+        prefixedKeys.put("users", users);
+
+        Map<String, Lookup> leads = new LinkedHashMap<>();
+        leads.put("id_", leadService::getLeadById);
+        leads.put("email_", leadService::getLeadByEmail);
+        leads.put("name_", leadService::getLeadsByName);
+        leads.put("lastname_", leadService::getLeadsByLastname);
+        leads.put("exactname_", leadService::getLeadsByExactName);
+        leads.put("exactlastname_", leadService::getLeadsByExactLastname);
+        prefixedKeys.put("leads", leads);
+
+        prefixedKeys.put("boards", Map.of("id_", boardService::getBoardById));
+    }
+
+    /**
+     * @return las cachés cuyas claves se pueden precargar.
+     */
+    public List<String> getCacheNames() {
+        return List.copyOf(fixedKeys.keySet());
+    }
+
+    /**
+     * Obtiene la llamada que genera una clave de caché.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave.
+     * @return la llamada al servicio, o vacío si la clave no corresponde a ningún método conocido.
+     */
+    public Optional<Callable<?>> loaderFor(String cacheName, String key) {
+        Callable<?> fixed = fixedKeys.getOrDefault(cacheName, Map.of()).get(key);
+        if (fixed != null) {
+            return Optional.of(fixed);
+        }
+        for (Map.Entry<String, Lookup> entry : prefixedKeys.getOrDefault(cacheName, Map.of()).entrySet()) {
+            if (key.startsWith(entry.getKey()) && key.length() > entry.getKey().length()) {
+                String argument = key.substring(entry.getKey().length());
+                return Optional.of(() -> entry.getValue().find(argument));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Object find(String argument) throws Exception;
+    }
+}
@@ -0,0 +1,162 @@
+package peppertech.crm.api.Cache.Warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de las claves de caché más consultadas, compartido entre nodos.
+ * <p>
+ * Cada lectura de la caché incrementa un contador en memoria; periódicamente los contadores se suman en Redis, en
+ * un sorted set por caché ({@code <version>:hotkeys:<caché>}), con un único pipeline. El conjunto se recorta a las
+ * {@code cache.warmup.log.max-keys} claves más consultadas y, una vez por {@code cache.warmup.log.decay-interval} en
+ * todo el clúster, sus puntajes se reducen a la mitad para que las claves que dejan de usarse pierdan prioridad.
+ * </p>
+ */
+@Slf4j
+@Component
+public class HotKeyLog {
+
+    private static final int MAX_PENDING_KEYS = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Map<String, LongAdder>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingKeys = new AtomicInteger();
+
+    @Value("${cache.version:v1}")
+    private String version;
+    @Value("${cache.warmup.log.max-keys:1000}")
+    private long maxKeys;
+    @Value("${cache.warmup.log.decay-interval:86400000}")
+    private long decayInterval;
+
+    @Autowired
+    public HotKeyLog(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Registra una lectura de una clave. Solo incrementa un contador en memoria.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param key       la clave consultada.
+     */
+    public void record(String cacheName, Object key) {
+        Map<String, LongAdder> counts = pending.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        String value = key.toString();
+        LongAdder counter = counts.get(value);
+        if (counter == null) {
+            if (pendingKeys.get() >= MAX_PENDING_KEYS) {
+                return;
+            }
+            counter = counts.computeIfAbsent(value, k -> {
+                pendingKeys.incrementAndGet();
+                return new LongAdder();
+            });
+        }
+        counter.increment();
+    }
+
+    /**
+     * Suma en Redis los contadores acumulados desde la última vez. Las lecturas que llegan durante el volcado pueden
+     * perderse; el registro es aproximado por diseño.
+     */
+    @Scheduled(fixedDelayString = "${cache.warmup.log.flush-interval:10000}")
+    public void flush() {
+        for (String cacheName : List.copyOf(pending.keySet())) {
+            Map<String, LongAdder> counts = pending.remove(cacheName);
+            if (counts == null || counts.isEmpty()) {
+                continue;
+            }
+            pendingKeys.addAndGet(-counts.size());
+            byte[] logKey = logKey(cacheName).getBytes(StandardCharsets.UTF_8);
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    counts.forEach((key, counter) -> connection.zSetCommands()
+                            .zIncrBy(logKey, counter.sum(), key.getBytes(StandardCharsets.UTF_8)));
+                    connection.zSetCommands().zRemRange(logKey, 0, -(maxKeys + 1));
+                    return null;
+                });
+                decay(cacheName);
+            } catch (RuntimeException e) {
+                log.debug("Could not flush the hot key log of {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Obtiene las claves más consultadas de una caché.
+     *
+     * @param cacheName el nombre de la caché.
+     * @param limit     el número máximo de claves.
+     * @return las claves, de la más a la menos consultada.
+     */
+    public List<String> top(String cacheName, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        try {
+            Set<String> keys = redisTemplate.opsForZSet().reverseRange(logKey(cacheName), 0, limit - 1L);
+            return keys != null ? new ArrayList<>(keys) : List.of();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the hot key log of {}: {}", cacheName, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Obtiene las claves más consultadas de una caché con su número de lecturas (reducido por el decaimiento).
+     *
+     * @param cacheName el nombre de la caché.
+     * @param limit     el número máximo de claves.
+     * @return las claves y sus lecturas, de la más a la menos consultada.
+     */
+    public Map<String, Long> topWithCounts(String cacheName, int limit) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (limit <= 0) {
+            return counts;
+        }
+        try {
+            Set<ZSetOperations.TypedTuple<String>> entries =
+                    redisTemplate.opsForZSet().reverseRangeWithScores(logKey(cacheName), 0, limit - 1L);
+            if (entries != null) {
+                entries.forEach(entry -> counts.put(entry.getValue(),
+                        entry.getScore() != null ? Math.round(entry.getScore()) : 0L));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read the hot key log of {}: {}", cacheName, e.getMessage());
+        }
+        return counts;
+    }
+
+    private void decay(String cacheName) {
+        String logKey = logKey(cacheName);
+        Boolean due = redisTemplate.opsForValue()
+                .setIfAbsent(logKey + ":decay", "1", Duration.ofMillis(decayInterval));
+        if (Boolean.TRUE.equals(due)) {
+            redisTemplate.opsForZSet().unionAndStore(logKey, List.of(), logKey, Aggregate.SUM, Weights.of(0.5));
+        }
+    }
+
+    private String logKey(String cacheName) {
+        return version + ":hotkeys:" + cacheName;
+    }
+}
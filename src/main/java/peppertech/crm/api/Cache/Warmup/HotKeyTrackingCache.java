@@ -0,0 +1,77 @@
+package peppertech.crm.api.Cache.Warmup;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Cache} que registra cada lectura en el {@link HotKeyLog}; las demás operaciones se delegan sin cambios.
+ */
+public class HotKeyTrackingCache implements Cache {
+
+    private final Cache delegate;
+    private final HotKeyLog hotKeyLog;
+
+    public HotKeyTrackingCache(Cache delegate, HotKeyLog hotKeyLog) {
+        this.delegate = delegate;
+        this.hotKeyLog = hotKeyLog;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        hotKeyLog.record(getName(), key);
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        hotKeyLog.record(getName(), key);
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        hotKeyLog.record(getName(), key);
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,43 @@
+package peppertech.crm.api.Cache.Warmup;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import peppertech.crm.api.Cache.Negative.NegativeLookupCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} que envuelve cada caché en una {@link HotKeyTrackingCache}. Las búsquedas sin resultado no se
+ * registran: no tiene sentido precargarlas y una enumeración llenaría el registro de claves inútiles.
+ */
+public class HotKeyTrackingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final HotKeyLog hotKeyLog;
+    private final Map<String, HotKeyTrackingCache> caches = new ConcurrentHashMap<>();
+
+    public HotKeyTrackingCacheManager(CacheManager delegate, HotKeyLog hotKeyLog) {
+        this.delegate = delegate;
+        this.hotKeyLog = hotKeyLog;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        HotKeyTrackingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null || NegativeLookupCache.CACHE_NAME.equals(name)) {
+            return target;
+        }
+        return caches.computeIfAbsent(name, n -> new HotKeyTrackingCache(target, hotKeyLog));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
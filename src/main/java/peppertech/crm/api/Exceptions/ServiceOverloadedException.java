@@ -0,0 +1,7 @@
+package peppertech.crm.api.Exceptions;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
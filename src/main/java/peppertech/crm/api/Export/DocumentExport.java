@@ -0,0 +1,52 @@
+package peppertech.crm.api.Export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import peppertech.crm.api.Responses.ErrorResponse;
+
+/**
+ * Exportación lista para enviarse: el cuerpo se escribe cuando el controlador lo devuelve, fuera del hilo de la
+ * solicitud.
+ * <p>
+ * Spring MVC solo escribe el cuerpo de forma asíncrona si el controlador declara
+ * {@code ResponseEntity<StreamingResponseBody>}, por lo que los errores también se envían como
+ * {@link StreamingResponseBody} con {@link #error(HttpStatus, String)}.
+ * </p>
+ *
+ * @param filename    el nombre de archivo sugerido al cliente.
+ * @param contentType el tipo de contenido del cuerpo.
+ * @param body        el cuerpo, que lee la colección con un cursor de MongoDB mientras escribe.
+ */
+public record DocumentExport(String filename, String contentType, StreamingResponseBody body) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * @return la respuesta {@code 200} que descarga la exportación como archivo adjunto.
+     */
+    public ResponseEntity<StreamingResponseBody> response() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
+    }
+
+    /**
+     * Crea una respuesta de error con el cuerpo {@link ErrorResponse} habitual.
+     *
+     * @param status  el código de estado.
+     * @param message el mensaje de error.
+     * @return la respuesta de error.
+     */
+    public static ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> MAPPER.writeValue(output, new ErrorResponse(message, status.value())));
+    }
+}
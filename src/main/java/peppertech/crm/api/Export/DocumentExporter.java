@@ -0,0 +1,199 @@
+package peppertech.crm.api.Export;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación completa de una colección de MongoDB en NDJSON o CSV con memoria constante.
+ * <p>
+ * Los documentos se leen con un cursor del servidor en lotes de {@code export.batch-size}, solo con los campos pedidos
+ * y sin convertirlos a entidades, y cada uno se escribe en la salida en cuanto llega; en memoria solo quedan el lote
+ * actual y el buffer de escritura. Nada pasa por la caché de Redis. El número de exportaciones simultáneas se limita
+ * con {@code export.max-concurrent}, porque cada una ocupa un hilo y un cursor mientras dura la descarga.
+ * </p>
+ */
+@Slf4j
+@Component
+public class DocumentExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ID = "_id";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final int batchSize;
+
+    @Autowired
+    public DocumentExporter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                            @Value("${export.max-concurrent:2}") int maxConcurrent,
+                            @Value("${export.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Prepara la exportación de una colección.
+     *
+     * @param entityClass la clase del documento.
+     * @param exportable  las propiedades que se pueden exportar, en el orden por defecto de las columnas.
+     * @param fields      las propiedades pedidas separadas por comas, o {@code null} para todas las exportables.
+     * @param format      {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip        si el cuerpo se comprime con gzip.
+     * @return la exportación, que se escribe al enviarse.
+     * @throws ValidationException        si el formato o algún campo no son válidos.
+     * @throws ServiceOverloadedException si ya hay {@code export.max-concurrent} exportaciones en curso.
+     */
+    public DocumentExport export(Class<?> entityClass, List<String> exportable, String fields, String format,
+                                 boolean gzip) throws ValidationException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        List<String> columns = columnsOf(exportable, fields);
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entityClass);
+        List<String> documentFields = columns.stream()
+                .map(column -> entity.getRequiredPersistentProperty(column).getFieldName())
+                .toList();
+        String collection = entity.getCollection();
+
+        if (!permits.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many exports in progress, please try again later.");
+        }
+        Counter exported = Counter.builder("export.documents")
+                .description("Documents written by the streaming exports")
+                .tag("collection", collection)
+                .tag("format", exportFormat.getExtension())
+                .register(meterRegistry);
+        String filename = collection + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        String contentType = gzip ? "application/gzip" : exportFormat.getContentType();
+        return new DocumentExport(filename, contentType, output -> {
+            try {
+                long start = System.currentTimeMillis();
+                long count = stream(collection, documentFields, columns, exportFormat, gzip, output);
+                exported.increment(count);
+                log.info("Exported {} documents from {} as {} in {} ms.",
+                        count, collection, filename, System.currentTimeMillis() - start);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Escribe los documentos en la salida con el formato indicado. La salida no se cierra.
+     *
+     * @param documents los documentos, leídos uno a uno.
+     * @param fields    los nombres en MongoDB de los campos a escribir.
+     * @param columns   los nombres de las columnas, en el mismo orden.
+     * @param format    el formato.
+     * @param gzip      si la salida se comprime con gzip.
+     * @param output    la salida.
+     * @return el número de documentos escritos.
+     */
+    static long write(Iterator<Document> documents, List<String> fields, List<String> columns, ExportFormat format,
+                      boolean gzip, OutputStream output) throws IOException {
+        // Con gzip se cierra la cadena para liberar el Deflater; KeepOpen deja abierta la salida del contenedor.
+        OutputStream target = gzip ? new GZIPOutputStream(new KeepOpen(output), BUFFER_SIZE) : output;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count = 0;
+        try {
+            ExportFormat.RowWriter rows = format.open(writer, columns);
+            Object[] values = new Object[fields.size()];
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = document.get(fields.get(i));
+                }
+                rows.write(values);
+                count++;
+            }
+        } finally {
+            if (gzip) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    private long stream(String collection, List<String> fields, List<String> columns, ExportFormat format,
+                        boolean gzip, OutputStream output) throws IOException {
+        Query query = new Query().with(Sort.by(ID)).cursorBatchSize(batchSize);
+        fields.forEach(query.fields()::include);
+        if (!fields.contains(ID)) {
+            query.fields().exclude(ID);
+        }
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            return write(documents.iterator(), fields, columns, format, gzip, output);
+        }
+    }
+
+    private static List<String> columnsOf(List<String> exportable, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return exportable;
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String column = field.trim();
+            if (column.isEmpty()) {
+                continue;
+            }
+            if (!exportable.contains(column)) {
+                throw new ValidationException("Unknown export field '" + column + "'. Exportable fields: " + exportable + ".");
+            }
+            columns.add(column);
+        }
+        if (columns.isEmpty()) {
+            return exportable;
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Evita que {@link GZIPOutputStream} cierre la salida del servidor, que la cierra el contenedor.
+     */
+    private static class KeepOpen extends FilterOutputStream {
+
+        KeepOpen(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package peppertech.crm.api.Export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de las respuestas asíncronas de Spring MVC, usadas por las exportaciones
+ * ({@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}).
+ * <p>
+ * El cuerpo se escribe en un pool propio acotado a {@code export.max-concurrent} hilos en lugar de crear un hilo por
+ * descarga, y el tiempo máximo de la respuesta ({@code export.timeout}) cubre la descarga completa de una colección
+ * grande.
+ * </p>
+ */
+@Configuration
+public class ExportConfig implements WebMvcConfigurer {
+
+    @Value("${export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${export.timeout:3600000}")
+    private long timeout;
+
+    /**
+     * Crea el pool que escribe los cuerpos de las exportaciones.
+     *
+     * @return el ejecutor de las respuestas asíncronas.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, maxConcurrent));
+        executor.setMaxPoolSize(Math.max(1, maxConcurrent));
+        executor.setQueueCapacity(Math.max(1, maxConcurrent));
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor());
+        configurer.setDefaultTimeout(timeout);
+    }
+}
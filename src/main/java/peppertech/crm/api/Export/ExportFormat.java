@@ -0,0 +1,153 @@
+package peppertech.crm.api.Export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import jakarta.validation.ValidationException;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Formatos de exportación: una línea por documento, sin acumular el resultado en memoria.
+ * <p>
+ * Los valores se escriben como texto: los {@link ObjectId} en hexadecimal y las fechas en ISO-8601 (UTC). En CSV los
+ * valores que empiezan por {@code =}, {@code +}, {@code -} o {@code @} se anteponen con {@code '} para que una hoja de
+ * cálculo no los interprete como fórmulas.
+ * </p>
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(Writer writer, List<String> columns) throws IOException {
+            JsonGenerator json = JSON.createGenerator(writer);
+            json.setRootValueSeparator(null);
+            return values -> {
+                json.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    String value = text(values[i]);
+                    if (value == null) {
+                        json.writeNullField(columns.get(i));
+                    } else {
+                        json.writeStringField(columns.get(i), value);
+                    }
+                }
+                json.writeEndObject();
+                json.flush();
+                writer.write('\n');
+            };
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        RowWriter open(Writer writer, List<String> columns) throws IOException {
+            writeCsvRow(writer, columns.toArray());
+            return values -> writeCsvRow(writer, values);
+        }
+    };
+
+    // El generador vuelca cada fila en el Writer con buffer, sin forzar su vaciado a la red.
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+            .build();
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Escribe las filas de un formato en un {@link Writer}.
+     */
+    interface RowWriter {
+
+        /**
+         * @param values los valores de la fila, en el orden de las columnas.
+         */
+        void write(Object[] values) throws IOException;
+    }
+
+    /**
+     * Empieza una exportación: escribe la cabecera si el formato la tiene.
+     *
+     * @param writer  la salida; no se cierra.
+     * @param columns los nombres de las columnas.
+     * @return el escritor de las filas.
+     */
+    abstract RowWriter open(Writer writer, List<String> columns) throws IOException;
+
+    /**
+     * Obtiene el formato pedido por el cliente.
+     *
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @return el formato.
+     * @throws ValidationException si el formato no existe.
+     */
+    public static ExportFormat of(String format) throws ValidationException {
+        if (format == null || format.isBlank()) {
+            return NDJSON;
+        }
+        for (ExportFormat candidate : values()) {
+            if (candidate.extension.equalsIgnoreCase(format.trim())) {
+                return candidate;
+            }
+        }
+        throw new ValidationException("Unsupported export format '" + format + "'. Supported formats: ndjson, csv.");
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof ObjectId id) {
+            return id.toHexString();
+        }
+        if (value instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = text(values[i]);
+            if (value != null) {
+                writeCsvValue(writer, value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
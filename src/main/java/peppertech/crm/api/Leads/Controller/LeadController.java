@@ -13,8 +13,12 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
+import peppertech.crm.api.Export.DocumentExport;
 import peppertech.crm.api.Leads.Model.DTO.LeadDTO;
 import peppertech.crm.api.Leads.Service.LeadServiceI;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Responses.ErrorResponse;
 
 /**
@@ -107,13 +111,25 @@ public class LeadController {
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = LeadDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El cursor, el límite o el orden no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron leads registrados o hubo un error al recuperar los datos.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getAllLeads() {
+    public ResponseEntity<?> getAllLeads(
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página; se limita a pagination.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Clave de orden (id por defecto); con - delante para orden descendente.")
+            @RequestParam(required = false) String sort) {
         try {
-            return new ResponseEntity<>(serviceLead.getAllLeads(), HttpStatus.OK);
+            CursorPage<LeadDTO> page = serviceLead.getLeadsPage(cursor, limit, sort);
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(
                     new ErrorResponse("Error al buscar los leads: " + e.getMessage(), HttpStatus.NOT_FOUND.value()),
@@ -122,6 +138,53 @@ public class LeadController {
         }
     }
 
+    /**
+     * Exporta todos los leads como archivo NDJSON o CSV.
+     * <p>Los documentos se leen de MongoDB con un cursor y se escriben en la respuesta a medida que llegan, por lo que
+     * la memoria usada no depende del tamaño de la colección. La exportación no pasa por la caché.</p>
+     *
+     * @param fields las propiedades a exportar separadas por comas (id, name, lastname, email, createAt); por defecto todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si la descarga se comprime con gzip.
+     * @return Un objeto {@link ResponseEntity} cuyo cuerpo se escribe de forma asíncrona.
+     *
+     * <p><b>Respuestas posibles:</b></p>
+     * <ul>
+     *   <li><b>200 OK</b>: El archivo con los leads.</li>
+     *   <li><b>400 Bad Request</b>: El formato o algún campo no son válidos.</li>
+     *   <li><b>503 Service Unavailable</b>: Hay demasiadas exportaciones en curso.</li>
+     * </ul>
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Exportar leads",
+            description = "Descarga todos los leads en NDJSON o CSV, leídos con un cursor de MongoDB.",
+            responses = {
+                    @ApiResponse(description = "Archivo con los leads",
+                            responseCode = "200",
+                            content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+                    @ApiResponse(responseCode = "400",
+                            description = "El formato o algún campo no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "503",
+                            description = "Hay demasiadas exportaciones en curso.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<StreamingResponseBody> exportLeads(
+            @Parameter(description = "Propiedades a exportar separadas por comas; por defecto todas.")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Formato de salida: ndjson (por defecto) o csv.")
+            @RequestParam(required = false) String format,
+            @Parameter(description = "Comprimir la descarga con gzip.")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            return serviceLead.exportLeads(fields, format, gzip).response();
+        } catch (ValidationException e) {
+            return DocumentExport.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ServiceOverloadedException e) {
+            return DocumentExport.error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
     /**
      * Busca un lead utilizando su ID único.
      * <p>Este método recupera un lead de la base de datos utilizando su identificador único. Si el lead con el ID proporcionado existe, se devolverá un objeto {@link LeadDTO} con la información del lead.</p>
@@ -3,6 +3,7 @@ package peppertech.crm.api.Leads.Model.DTO;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import peppertech.crm.api.Cache.Tags.Identifiable;
 
 import java.io.Serializable;
 
@@ -11,7 +12,7 @@ import java.io.Serializable;
  */
 @Data
 @RequiredArgsConstructor
-public class LeadDTO implements Serializable {
+public class LeadDTO implements Serializable, Identifiable {
 
     @Schema(
             description = "Unique ID of the user, automatically generated by the database.",
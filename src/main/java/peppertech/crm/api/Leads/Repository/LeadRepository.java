@@ -4,44 +4,107 @@ import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import peppertech.crm.api.Leads.Model.Entity.Lead;
+import peppertech.crm.api.Search.SearchKeys;
+import peppertech.crm.api.Search.SearchMode;
 
 import java.util.List;
 
 /**
  * Repository interface for accessing Lead documents in MongoDB.
+ * <p>
+ * Name searches compare the normalized search keys ({@link SearchKeys}) by equality or by a prefix range, so they
+ * ignore case and accents and are answered from the indexes.
+ * </p>
  */
 public interface LeadRepository extends MongoRepository<Lead, ObjectId> {
 
     /**
-     * Searches for a list of leads whose first name matches the provided pattern,
-     * performing a case-insensitive search.
+     * Searches for leads whose normalized first name ({@code name_key}) equals the given key.
      *
-     * @param name The name or pattern to search in the 'name' field of the lead.
-     * @return A list of leads whose name matches the given pattern.
+     * @param nameKey The first name normalized with {@link SearchKeys#normalize(String)}.
+     * @return The leads with that first name.
      */
-    @Query("{ 'name' : { $regex: ?0, $options: 'i' } }")
-    List<Lead> findByName(String name);
+    @Query("{ 'name_key' : ?0 }")
+    List<Lead> findByNameKey(String nameKey);
 
     /**
-     * Searches for a list of leads whose last name matches the provided pattern,
-     * performing a case-insensitive search.
+     * Searches for leads whose normalized first name lies in the range {@code [from, to)}.
      *
-     * @param lastname The last name or pattern to search in the 'lastname' field of the lead.
-     * @return A list of leads whose last name matches the given pattern.
+     * @param from The inclusive lower bound.
+     * @param to   The exclusive upper bound.
+     * @return The leads whose first name is in the range.
      */
-    @Query("{ 'lastname' : { $regex: ?0, $options: 'i' } }")
-    List<Lead> findByLastname(String lastname);
+    @Query("{ 'name_key' : { $gte: ?0, $lt: ?1 } }")
+    List<Lead> findByNameKeyRange(String from, String to);
 
     /**
-     * Searches for a list of leads whose name and last name match the provided patterns,
-     * performing a case-insensitive search.
+     * Searches for leads whose normalized last name ({@code lastname_key}) equals the given key.
      *
-     * @param name     The name or pattern to search in the 'name' field.
-     * @param lastname The last name or pattern to search in the 'lastname' field.
-     * @return A list of leads matching both the name and last name patterns.
+     * @param lastnameKey The last name normalized with {@link SearchKeys#normalize(String)}.
+     * @return The leads with that last name.
      */
-    @Query("{ 'name' : { $regex: ?0, $options: 'i' }, 'lastname' : { $regex: ?1, $options: 'i' } }")
-    List<Lead> findByFullName(String name, String lastname);
+    @Query("{ 'lastname_key' : ?0 }")
+    List<Lead> findByLastnameKey(String lastnameKey);
+
+    /**
+     * Searches for leads whose normalized last name lies in the range {@code [from, to)}.
+     *
+     * @param from The inclusive lower bound.
+     * @param to   The exclusive upper bound.
+     * @return The leads whose last name is in the range.
+     */
+    @Query("{ 'lastname_key' : { $gte: ?0, $lt: ?1 } }")
+    List<Lead> findByLastnameKeyRange(String from, String to);
+
+    /**
+     * Searches for leads by first name, ignoring case and accents, using the {@code name_key} index.
+     *
+     * @param name The first name or its beginning.
+     * @param mode Whether the whole first name must match or only its beginning.
+     * @return The matching leads.
+     */
+    default List<Lead> findByName(String name, SearchMode mode) {
+        String key = SearchKeys.normalize(name);
+        return mode == SearchMode.EXACT ? findByNameKey(key) : findByNameKeyRange(key, SearchKeys.upperBound(key));
+    }
+
+    /**
+     * Searches for leads by last name, ignoring case and accents, using the {@code lastname_key} index.
+     *
+     * @param lastname The last name or its beginning.
+     * @param mode     Whether the whole last name must match or only its beginning.
+     * @return The matching leads.
+     */
+    default List<Lead> findByLastname(String lastname, SearchMode mode) {
+        String key = SearchKeys.normalize(lastname);
+        return mode == SearchMode.EXACT
+                ? findByLastnameKey(key)
+                : findByLastnameKeyRange(key, SearchKeys.upperBound(key));
+    }
+
+    /**
+     * Searches for leads with the given first name whose last name starts with the given text, ignoring case and
+     * accents, using the {@code (name_key, lastname_key)} index.
+     *
+     * @param name     The whole first name.
+     * @param lastname The last name or its beginning.
+     * @return The matching leads.
+     */
+    default List<Lead> findByFullName(String name, String lastname) {
+        String lastnameKey = SearchKeys.normalize(lastname);
+        return findByFullNameKeys(SearchKeys.normalize(name), lastnameKey, SearchKeys.upperBound(lastnameKey));
+    }
+
+    /**
+     * Searches for leads with the given first name key and a last name key in the range {@code [from, to)}.
+     *
+     * @param nameKey The normalized first name.
+     * @param from    The inclusive lower bound of the last name.
+     * @param to      The exclusive upper bound of the last name.
+     * @return The matching leads.
+     */
+    @Query("{ 'name_key' : ?0, 'lastname_key' : { $gte: ?1, $lt: ?2 } }")
+    List<Lead> findByFullNameKeys(String nameKey, String from, String to);
 
     /**
      * Searches for a list of leads whose email exactly matches the provided email.
@@ -9,15 +9,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import peppertech.crm.api.Cache.Hydration.EntityBatchLoader;
+import peppertech.crm.api.Cache.Negative.NegativeLookupCache;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Export.DocumentExporter;
 import peppertech.crm.api.Leads.Mapper.LeadMapper;
 import peppertech.crm.api.Leads.Model.DTO.LeadDTO;
+import peppertech.crm.api.Leads.Model.Entity.Lead;
 import peppertech.crm.api.Leads.Repository.LeadRepository;
 import peppertech.crm.api.Leads.Validator.LeadValidatorI;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.SearchMode;
+import peppertech.crm.api.Search.Service.TypeaheadServiceI;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,26 +41,42 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Data
-@Builder
 @Service
-public class LeadService implements LeadServiceI {
+public class LeadService implements LeadServiceI, EntityBatchLoader {
+
+    private static final List<String> EXPORT_FIELDS = List.of("id", "name", "lastname", "email", "createAt");
 
     private final LeadRepository repositoryLead;
     private final LeadMapper mapperLead;
     private final LeadValidatorI validatorLead;
+    private final NegativeLookupCache negativeLookups;
+    private final EntityPager<Lead> pagerLead;
+    private final DocumentExporter exporterLead;
+    private final TypeaheadServiceI typeaheadLead;
 
     /**
      * Constructor que inyecta las dependencias del servicio.
      *
-     * @param repositoryLead repositorio que maneja las operaciones de base de datos.
-     * @param mapperLead     convertidor que convierte entidades Lead a LeadDTO.
-     * @param validatorLead  validador que valida los datos de lead.
+     * @param repositoryLead  repositorio que maneja las operaciones de base de datos.
+     * @param mapperLead      convertidor que convierte entidades Lead a LeadDTO.
+     * @param validatorLead   validador que valida los datos de lead.
+     * @param negativeLookups caché de las búsquedas por ID o correo que no encontraron el lead.
+     * @param keysetPager     paginador por cursor de las colecciones.
+     * @param exporterLead    exportador de colecciones completas con memoria constante.
+     * @param typeaheadLead   índice en memoria del autocompletado de contactos.
      */
     @Autowired
-    public LeadService(LeadRepository repositoryLead, LeadMapper mapperLead, LeadValidatorI validatorLead) {
+    @Builder
+    public LeadService(LeadRepository repositoryLead, LeadMapper mapperLead, LeadValidatorI validatorLead,
+                       NegativeLookupCache negativeLookups, KeysetPager keysetPager, DocumentExporter exporterLead,
+                       TypeaheadServiceI typeaheadLead) {
         this.repositoryLead = repositoryLead;
         this.mapperLead = mapperLead;
         this.validatorLead = validatorLead;
+        this.negativeLookups = negativeLookups;
+        this.pagerLead = keysetPager.forEntity(Lead.class, "name", "lastname", "email", "createAt");
+        this.exporterLead = exporterLead;
+        this.typeaheadLead = typeaheadLead;
     }
 
     /**
@@ -60,7 +89,12 @@ public class LeadService implements LeadServiceI {
      */
     @Override
     @Transactional
-    @CachePut(value = "leads", key = "#leadDTO.id")
+    @Caching(put = @CachePut(value = "leads", key = "'id_'+#result.id"),
+            evict = {
+                    @CacheEvict(value = "leads", key = "'tag:lists'"),
+                    @CacheEvict(value = "missing", key = "'leads:id_'+#result.id"),
+                    @CacheEvict(value = "missing", key = "'leads:email_'+#result.email")
+            })
     public LeadDTO createLead(LeadDTO leadDTO) throws ValidationException, IllegalStateException {
         return Optional.of(leadDTO)
                 .filter(dto -> !repositoryLead.existsByEmail(dto.getEmail()))
@@ -81,6 +115,7 @@ public class LeadService implements LeadServiceI {
                 .map(mapperLead::toEntity)
                 .map(repositoryLead::save)
                 .map(mapperLead::toDTO)
+                .map(this::indexSuggestion)
                 .orElseThrow(() -> new IllegalStateException("El Lead ya existe"));
     }
 
@@ -91,7 +126,7 @@ public class LeadService implements LeadServiceI {
      * @throws Exception si no se encuentran leads en la base de datos.
      */
     @Override
-    @Cacheable(value = "leads", key = "'all_leads'")
+    @Cacheable(value = "leads", key = "'all_leads'", sync = true)
     public List<LeadDTO> getAllLeads() throws Exception {
         return Optional.of(repositoryLead.findAll())
                 .filter(leads -> !leads.isEmpty())
@@ -101,6 +136,40 @@ public class LeadService implements LeadServiceI {
                 .orElseThrow(() -> new Exception("No existe ningún lead"));
     }
 
+    /**
+     * Obtiene una página de leads ordenada por ID o por una clave secundaria, sin cargar la colección completa.
+     *
+     * @param cursor el cursor de la página anterior, o {@code null} para la primera.
+     * @param limit  el tamaño de página, o {@code null} para el valor por defecto.
+     * @param sort   la clave de orden ({@code name}, {@code lastname}, {@code email}, {@code createAt} o {@code id}), con {@code -} delante para orden descendente.
+     * @return la página de objetos {@link LeadDTO}.
+     * @throws ValidationException si el cursor, el límite o el orden no son válidos.
+     * @throws Exception           si no hay leads registrados.
+     */
+    @Override
+    public CursorPage<LeadDTO> getLeadsPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(pagerLead.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(mapperLead::toDTO))
+                .orElseThrow(() -> new Exception("No existe ningún lead"));
+    }
+
+    /**
+     * Prepara la exportación completa de los leads en NDJSON o CSV, leída con un cursor de MongoDB sin pasar por la
+     * caché.
+     *
+     * @param fields las propiedades a exportar separadas por comas, o {@code null} para todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si el cuerpo se comprime con gzip.
+     * @return la exportación, que se escribe al enviarse.
+     * @throws ValidationException        si el formato o algún campo no son válidos.
+     * @throws ServiceOverloadedException si hay demasiadas exportaciones en curso.
+     */
+    @Override
+    public DocumentExport exportLeads(String fields, String format, boolean gzip) {
+        return exporterLead.export(Lead.class, EXPORT_FIELDS, fields, format, gzip);
+    }
+
     /**
      * Obtiene un lead de la base de datos a partir de su ID.
      *
@@ -110,7 +179,7 @@ public class LeadService implements LeadServiceI {
      * @throws ValidationException si el ID no es válido según las reglas de validación.
      */
     @Override
-    @Cacheable(value = "leads", key = "'id_'+#id")
+    @Cacheable(value = "leads", key = "'id_'+#id", sync = true)
     public LeadDTO getLeadById(String id) throws Exception {
         return Optional.of(id)
                 .map(validId -> {
@@ -121,11 +190,12 @@ public class LeadService implements LeadServiceI {
                     validatorLead.Reset();
                     return new ObjectId(validId);
                 })
+                .filter(objectId -> !negativeLookups.isMissing("leads", "id_" + id))
                 .map(repositoryLead::findById)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .map(mapperLead::toDTO)
-                .orElseThrow(() -> new Exception("El Lead no existe"));
+                .orElseThrow(() -> negativeLookups.markMissing("leads", "id_" + id, new Exception("El Lead no existe")));
     }
 
     /**
@@ -137,7 +207,7 @@ public class LeadService implements LeadServiceI {
      * @throws ValidationException si el correo no es válido según las reglas de validación.
      */
     @Override
-    @Cacheable(value = "leads", key = "'email_'+#email")
+    @Cacheable(value = "leads", key = "'email_'+#email", sync = true)
     public LeadDTO getLeadByEmail(String email) throws Exception {
         return Optional.of(email)
                 .map(validEmail -> {
@@ -148,11 +218,12 @@ public class LeadService implements LeadServiceI {
                     validatorLead.Reset();
                     return validEmail;
                 })
+                .filter(validEmail -> !negativeLookups.isMissing("leads", "email_" + validEmail))
                 .map(repositoryLead::findByEmail)
                 .filter(leads -> !leads.isEmpty())
                 .map(leads -> leads.get(0))
                 .map(mapperLead::toDTO)
-                .orElseThrow(() -> new Exception("El lead no existe"));
+                .orElseThrow(() -> negativeLookups.markMissing("leads", "email_" + email, new Exception("El lead no existe")));
     }
 
     /**
@@ -164,8 +235,26 @@ public class LeadService implements LeadServiceI {
      * @throws ValidationException si el nombre no es válido según las reglas de validación.
      */
     @Override
-    @Cacheable(value = "leads", key = "'name_'+#name")
+    @Cacheable(value = "leads", key = "'name_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#name)", sync = true)
     public List<LeadDTO> getLeadsByName(String name) throws Exception {
+        return findLeadsByName(name, SearchMode.PREFIX);
+    }
+
+    /**
+     * Obtiene los leads cuyo nombre es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param name el nombre completo.
+     * @return una lista de objetos {@link LeadDTO} que representan a los leads encontrados.
+     * @throws Exception           si no existen leads con ese nombre o si no es válido.
+     * @throws ValidationException si el nombre no es válido según las reglas de validación.
+     */
+    @Override
+    @Cacheable(value = "leads", key = "'exactname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#name)", sync = true)
+    public List<LeadDTO> getLeadsByExactName(String name) throws Exception {
+        return findLeadsByName(name, SearchMode.EXACT);
+    }
+
+    private List<LeadDTO> findLeadsByName(String name, SearchMode mode) throws Exception {
         return Optional.of(name)
                 .map(validName -> {
                     validatorLead.validateName(validName);
@@ -175,7 +264,7 @@ public class LeadService implements LeadServiceI {
                     validatorLead.Reset();
                     return validName;
                 })
-                .map(repositoryLead::findByName)
+                .map(valid -> repositoryLead.findByName(valid, mode))
                 .filter(leads -> !leads.isEmpty())
                 .map(leads -> leads.stream()
                         .map(mapperLead::toDTO)
@@ -192,8 +281,26 @@ public class LeadService implements LeadServiceI {
      * @throws ValidationException si el apellido no es válido según las reglas de validación.
      */
     @Override
-    @Cacheable(value = "leads", key = "'lastname_'+#lastname")
+    @Cacheable(value = "leads", key = "'lastname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#lastname)", sync = true)
     public List<LeadDTO> getLeadsByLastname(String lastname) throws Exception {
+        return findLeadsByLastname(lastname, SearchMode.PREFIX);
+    }
+
+    /**
+     * Obtiene los leads cuyo apellido es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param lastname el apellido completo.
+     * @return una lista de objetos {@link LeadDTO} que representan a los leads encontrados.
+     * @throws Exception           si no existen leads con ese apellido o si no es válido.
+     * @throws ValidationException si el apellido no es válido según las reglas de validación.
+     */
+    @Override
+    @Cacheable(value = "leads", key = "'exactlastname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#lastname)", sync = true)
+    public List<LeadDTO> getLeadsByExactLastname(String lastname) throws Exception {
+        return findLeadsByLastname(lastname, SearchMode.EXACT);
+    }
+
+    private List<LeadDTO> findLeadsByLastname(String lastname, SearchMode mode) throws Exception {
         return Optional.of(lastname)
                 .map(validLastname -> {
                     validatorLead.validateLastname(validLastname);
@@ -203,7 +310,7 @@ public class LeadService implements LeadServiceI {
                     validatorLead.Reset();
                     return validLastname;
                 })
-                .map(repositoryLead::findByLastname)
+                .map(valid -> repositoryLead.findByLastname(valid, mode))
                 .filter(leads -> !leads.isEmpty())
                 .map(leads -> leads.stream()
                         .map(mapperLead::toDTO)
@@ -238,7 +345,11 @@ public class LeadService implements LeadServiceI {
      */
     @Override
     @Transactional
-    @CachePut(value = "leads", key = "'id:'+#id")
+    @Caching(evict = {
+            @CacheEvict(value = "leads", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "leads", key = "'tag:lists'"),
+            @CacheEvict(value = "missing", key = "'leads:email_'+#result.email")
+    })
     public LeadDTO updateLead(String id, LeadDTO updatedLead) throws Exception {
         LeadDTO existingLead = getLeadById(id);
         return Optional.of(updatedLead)
@@ -262,6 +373,7 @@ public class LeadService implements LeadServiceI {
                 .map(mapperLead::toEntity)
                 .map(repositoryLead::save)
                 .map(mapperLead::toDTO)
+                .map(this::indexSuggestion)
                 .orElseThrow(() -> new Exception("El lead no se pudo actualizar"));
     }
 
@@ -287,13 +399,41 @@ public class LeadService implements LeadServiceI {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "leads", key = "'id_'+#id")
+    @Caching(evict = {
+            @CacheEvict(value = "leads", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "leads", key = "'tag:lists'")
+    })
     public String deleteLead(String id) throws Exception {
         return Optional.of(getLeadById(id))
                 .map(lead -> {
                     repositoryLead.deleteById(new ObjectId(lead.getId()));
+                    typeaheadLead.remove(SearchType.LEAD, lead.getId());
                     return "El Lead con ID '" + id + "' fue eliminado.";
                 })
                 .orElseThrow(() -> new Exception("El Lead no existe."));
     }
+
+    @Override
+    public String getCacheName() {
+        return "leads";
+    }
+
+    private LeadDTO indexSuggestion(LeadDTO lead) {
+        typeaheadLead.put(SearchType.LEAD, lead.getId(), lead.getName(), lead.getLastname(), lead.getEmail());
+        return lead;
+    }
+
+    /**
+     * Busca varios leads por ID en una sola consulta, para reconstruir las listas guardadas en caché como IDs.
+     *
+     * @param ids los IDs de los leads.
+     * @return los leads encontrados; los IDs inválidos o inexistentes se omiten.
+     */
+    @Override
+    public List<LeadDTO> findAllByIds(Collection<String> ids) {
+        return repositoryLead.findAllById(ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList())
+                .stream()
+                .map(mapperLead::toDTO)
+                .collect(Collectors.toList());
+    }
 }
@@ -2,6 +2,8 @@ package peppertech.crm.api.Leads.Service;
 
 import jakarta.validation.ValidationException;
 import peppertech.crm.api.Leads.Model.DTO.LeadDTO;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Pagination.CursorPage;
 
 import java.util.List;
 
@@ -23,6 +25,27 @@ public interface LeadServiceI {
      */
     List<LeadDTO> getAllLeads() throws Exception;
 
+    /**
+     * Obtiene una página de leads paginada por cursor.
+     *
+     * @param cursor el cursor {@code X-Next-Cursor} de la página anterior, o {@code null} para la primera.
+     * @param limit  el tamaño de página, o {@code null} para el valor por defecto.
+     * @param sort   la clave de orden, con {@code -} delante para orden descendente, o {@code null} para ordenar por ID.
+     * @return la página de objetos {@link LeadDTO}.
+     * @throws Exception si los parámetros no son válidos o no hay leads registrados.
+     */
+    CursorPage<LeadDTO> getLeadsPage(String cursor, Integer limit, String sort) throws Exception;
+
+    /**
+     * Prepara la exportación completa de los leads.
+     *
+     * @param fields las propiedades a exportar separadas por comas, o {@code null} para todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si el cuerpo se comprime con gzip.
+     * @return la exportación, que se escribe al enviarse.
+     */
+    DocumentExport exportLeads(String fields, String format, boolean gzip);
+
     /**
      * Obtiene un lead por su ID.
      *
@@ -42,7 +65,7 @@ public interface LeadServiceI {
     LeadDTO getLeadByEmail(String email) throws Exception;
 
     /**
-     * Obtiene una lista de leads que coinciden con un nombre.
+     * Obtiene una lista de leads cuyo nombre empieza por el texto indicado, sin distinguir mayúsculas ni acentos.
      *
      * @param name el nombre del lead a buscar.
      * @return una lista de objetos {@link LeadDTO} que coinciden con el nombre proporcionado.
@@ -51,7 +74,16 @@ public interface LeadServiceI {
     List<LeadDTO> getLeadsByName(String name) throws Exception;
 
     /**
-     * Obtiene una lista de leads que coinciden con un apellido.
+     * Obtiene una lista de leads cuyo nombre es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param name el nombre completo del lead a buscar.
+     * @return una lista de objetos {@link LeadDTO} con ese nombre.
+     * @throws Exception si no se encuentran leads o si ocurre un error durante la búsqueda.
+     */
+    List<LeadDTO> getLeadsByExactName(String name) throws Exception;
+
+    /**
+     * Obtiene una lista de leads cuyo apellido empieza por el texto indicado, sin distinguir mayúsculas ni acentos.
      *
      * @param lastname el apellido del lead a buscar.
      * @return una lista de objetos {@link LeadDTO} que coinciden con el apellido proporcionado.
@@ -59,6 +91,15 @@ public interface LeadServiceI {
      */
     List<LeadDTO> getLeadsByLastname(String lastname) throws Exception;
 
+    /**
+     * Obtiene una lista de leads cuyo apellido es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param lastname el apellido completo del lead a buscar.
+     * @return una lista de objetos {@link LeadDTO} con ese apellido.
+     * @throws Exception si no se encuentran leads o si ocurre un error durante la búsqueda.
+     */
+    List<LeadDTO> getLeadsByExactLastname(String lastname) throws Exception;
+
     /**
      * Actualiza los datos de un lead.
      *
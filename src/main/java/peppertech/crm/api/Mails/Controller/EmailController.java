@@ -1,17 +1,20 @@
 package peppertech.crm.api.Mails.Controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import peppertech.crm.api.Mails.Model.DTO.EmailDTO;
 import peppertech.crm.api.Mails.Service.EmailServiceI;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Responses.ErrorResponse;
 
 import java.text.SimpleDateFormat;
@@ -62,13 +65,25 @@ public class EmailController {
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = EmailDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El cursor, el límite o el orden no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron correos registrados.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getAllCrops() {
+    public ResponseEntity<?> getAllCrops(
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página; se limita a pagination.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Clave de orden (id por defecto); con - delante para orden descendente.")
+            @RequestParam(required = false) String sort) {
         try {
-            return new ResponseEntity<>(emailServiceI.getAllMails(), HttpStatus.OK);
+            CursorPage<EmailDTO> page = emailServiceI.getMailsPage(cursor, limit, sort);
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
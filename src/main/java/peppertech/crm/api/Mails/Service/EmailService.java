@@ -16,6 +16,9 @@ import peppertech.crm.api.Mails.Mapper.EmailMapper;
 import peppertech.crm.api.Mails.Model.DTO.EmailDTO;
 import peppertech.crm.api.Mails.Model.Entity.EmailDetails;
 import peppertech.crm.api.Mails.Repository.EmailRepository;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
 
 import java.io.File;
 import java.util.Date;
@@ -30,14 +33,16 @@ public class EmailService implements EmailServiceI {
     private final JavaMailSender javaMailSender;
     private final EmailRepository emailRepository;
     private final EmailMapper emailMapper;
+    private final EntityPager<EmailDetails> emailPager;
     @Value("${spring.mail.username}")
     private String sender;
 
     @Autowired
-    public EmailService(JavaMailSender javaMailSender, EmailRepository emailRepository, EmailMapper emailMapper) {
+    public EmailService(JavaMailSender javaMailSender, EmailRepository emailRepository, EmailMapper emailMapper, KeysetPager keysetPager) {
         this.javaMailSender = javaMailSender;
         this.emailRepository = emailRepository;
         this.emailMapper = emailMapper;
+        this.emailPager = keysetPager.forEntity(EmailDetails.class, "subject", "sendDate");
     }
 
     @Override
@@ -119,7 +124,7 @@ public class EmailService implements EmailServiceI {
      * @see EmailMapper
      */
     @Override
-    @Cacheable(value = "mails", key = "'all_mails'")
+    @Cacheable(value = "mails", key = "'all_mails'", sync = true)
     public List<EmailDTO> getAllMails() throws Exception {
         return Optional.of(emailRepository.findAll())
                 .filter(emails -> !emails.isEmpty())
@@ -129,6 +134,14 @@ public class EmailService implements EmailServiceI {
                 .orElseThrow(() -> new Exception("There is no email"));
     }
 
+    @Override
+    public CursorPage<EmailDTO> getMailsPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(emailPager.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(emailMapper::toDTO))
+                .orElseThrow(() -> new Exception("There is no email"));
+    }
+
     @Scheduled(fixedRate = 60000) // Runs every minute
     public void processScheduledEmails() {
         Date now = new Date();
@@ -1,6 +1,7 @@
 package peppertech.crm.api.Mails.Service;
 
 import peppertech.crm.api.Mails.Model.DTO.EmailDTO;
+import peppertech.crm.api.Pagination.CursorPage;
 
 import java.util.List;
 
@@ -12,5 +13,7 @@ public interface EmailServiceI {
 
     List<EmailDTO> getAllMails() throws Exception;
 
+    CursorPage<EmailDTO> getMailsPage(String cursor, Integer limit, String sort) throws Exception;
+
     EmailDTO scheduleEmail(EmailDTO emailDTO);
 }
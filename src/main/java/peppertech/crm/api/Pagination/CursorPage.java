@@ -0,0 +1,51 @@
+package peppertech.crm.api.Pagination;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Una página de resultados paginada por cursor.
+ * <p>
+ * Los controladores devuelven {@link #items()} como cuerpo, igual que antes de paginar, y los metadatos en las
+ * cabeceras de {@link #headers()}: {@value #NEXT_CURSOR} con el token de la página siguiente (ausente en la última),
+ * {@value #LIMIT} con el tamaño de página aplicado y {@value #TOTAL_COUNT} con el total estimado de la colección.
+ * </p>
+ *
+ * @param items          las entidades de la página.
+ * @param nextCursor     el token de la página siguiente, o {@code null} si no hay más.
+ * @param limit          el tamaño de página aplicado.
+ * @param estimatedTotal el número estimado de documentos de la colección.
+ * @param <T>            el tipo de los elementos.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, int limit, long estimatedTotal) {
+
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String LIMIT = "X-Page-Limit";
+    public static final String TOTAL_COUNT = "X-Total-Count";
+
+    /**
+     * Convierte los elementos de la página, p. ej. de entidades a DTOs.
+     *
+     * @param mapper la conversión de cada elemento.
+     * @param <R>    el nuevo tipo de los elementos.
+     * @return la página con los elementos convertidos y los mismos metadatos.
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), nextCursor, limit, estimatedTotal);
+    }
+
+    /**
+     * @return las cabeceras de paginación de la respuesta.
+     */
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TOTAL_COUNT, Long.toString(estimatedTotal));
+        headers.set(LIMIT, Integer.toString(limit));
+        if (nextCursor != null) {
+            headers.set(NEXT_CURSOR, nextCursor);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,137 @@
+package peppertech.crm.api.Pagination;
+
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Paginador por cursor de una entidad, creado con {@link KeysetPager#forEntity(Class, String...)}.
+ * <p>
+ * El parámetro {@code sort} admite {@code id} (por defecto) o una de las claves registradas, con {@code -} delante
+ * para orden descendente. El ID se usa siempre como desempate, por lo que el orden es total y ninguna entidad se repite
+ * ni se pierde entre páginas aunque otras se creen o eliminen mientras tanto. Los valores nulos de la clave secundaria
+ * se ordenan como lo hace MongoDB: primero en orden ascendente y al final en descendente.
+ * </p>
+ *
+ * @param <E> el tipo del documento.
+ */
+@Slf4j
+public class EntityPager<E> {
+
+    static final String ID = "id";
+
+    private final KeysetPager pager;
+    private final MongoTemplate mongoTemplate;
+    private final Class<E> entityClass;
+    private final Set<String> sortKeys;
+
+    EntityPager(KeysetPager pager, MongoTemplate mongoTemplate, Class<E> entityClass, Set<String> sortKeys) {
+        this.pager = pager;
+        this.mongoTemplate = mongoTemplate;
+        this.entityClass = entityClass;
+        this.sortKeys = sortKeys;
+    }
+
+    /**
+     * Lee una página.
+     *
+     * @param cursor el token {@code X-Next-Cursor} de la página anterior, o {@code null} para la primera.
+     * @param limit  el tamaño de página pedido, o {@code null} para el valor por defecto; se acota al máximo.
+     * @param sort   la clave de orden, o {@code null} para ordenar por ID.
+     * @return la página.
+     * @throws ValidationException si el orden, el límite o el cursor no son válidos.
+     */
+    public CursorPage<E> find(String cursor, Integer limit, String sort) throws ValidationException {
+        int size = pager.limitOf(limit);
+        String order = normalize(sort);
+        boolean descending = order.startsWith("-");
+        String field = descending ? order.substring(1) : order;
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        Query query = new Query();
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(after(field, descending, PageCursor.decode(cursor, order)));
+        }
+        query.with(ID.equals(field) ? Sort.by(direction, ID) : Sort.by(direction, field, ID));
+        query.limit(size + 1);
+
+        List<E> rows = mongoTemplate.find(query, entityClass);
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = cursorOf(order, field, rows.get(size - 1));
+        }
+        return new CursorPage<>(rows, next, size, pager.estimatedCount(entityClass));
+    }
+
+    Class<E> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return los nombres en MongoDB de las claves de orden secundarias.
+     */
+    List<String> getSortFields() {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entityClass);
+        return sortKeys.stream()
+                .map(key -> entity.getRequiredPersistentProperty(key).getFieldName())
+                .toList();
+    }
+
+    private String normalize(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID;
+        }
+        String order = sort.trim();
+        String field = order.startsWith("-") ? order.substring(1) : order;
+        if (!ID.equals(field) && !sortKeys.contains(field)) {
+            throw new ValidationException("Unsupported sort key '" + field + "'. Supported keys: "
+                    + new TreeSet<>(sortKeys) + " and id.");
+        }
+        return order;
+    }
+
+    /**
+     * Condición de las entidades posteriores al cursor en el orden {@code (campo, id)}.
+     */
+    static Criteria after(String field, boolean descending, PageCursor cursor) {
+        ObjectId id = cursor.id();
+        Criteria idAfter = descending ? Criteria.where(ID).lt(id) : Criteria.where(ID).gt(id);
+        if (ID.equals(field)) {
+            return idAfter;
+        }
+        Object value = cursor.value();
+        if (value == null) {
+            Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(null), idAfter);
+            return descending ? sameValue : new Criteria().orOperator(sameValue, Criteria.where(field).ne(null));
+        }
+        Criteria valueAfter = descending ? Criteria.where(field).lt(value) : Criteria.where(field).gt(value);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(value), idAfter);
+        return descending
+                ? new Criteria().orOperator(valueAfter, sameValue, Criteria.where(field).is(null))
+                : new Criteria().orOperator(valueAfter, sameValue);
+    }
+
+    private String cursorOf(String order, String field, E last) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entityClass);
+        PersistentPropertyAccessor<E> accessor = entity.getPropertyAccessor(last);
+        if (!(accessor.getProperty(entity.getRequiredPersistentProperty(ID)) instanceof ObjectId id)) {
+            log.debug("Cannot build a page cursor for {} without an ObjectId.", entityClass.getSimpleName());
+            return null;
+        }
+        Object value = ID.equals(field) ? null : accessor.getProperty(entity.getRequiredPersistentProperty(field));
+        return new PageCursor(order, id, value).encode();
+    }
+}
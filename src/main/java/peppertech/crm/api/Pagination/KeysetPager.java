@@ -0,0 +1,110 @@
+package peppertech.crm.api.Pagination;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Paginación por cursor (keyset) de las colecciones de MongoDB.
+ * <p>
+ * En lugar de {@code findAll()}, cada página se lee con un rango sobre el índice: {@code _id > último} (o
+ * {@code (campo, _id) > (último campo, último _id)} si se ordena por una clave secundaria) y un límite. El costo de una
+ * página no depende de su posición ni del tamaño de la colección. El total se informa con el conteo estimado de
+ * MongoDB (metadatos de la colección, sin recorrerla), guardado en memoria durante {@code pagination.count.ttl}.
+ * </p>
+ * <p>
+ * Los servicios registran sus entidades con {@link #forEntity(Class, String...)}; al iniciar, si
+ * {@code pagination.create-indexes} está habilitado, se crean los índices {@code (campo, _id)} de cada clave de orden
+ * secundaria.
+ * </p>
+ */
+@Slf4j
+@Component
+public class KeysetPager implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<Class<?>, Long> counts;
+    private final List<EntityPager<?>> pagers = new CopyOnWriteArrayList<>();
+
+    @Value("${pagination.default-limit:50}")
+    private int defaultLimit;
+    @Value("${pagination.max-limit:200}")
+    private int maxLimit;
+    @Value("${pagination.create-indexes:true}")
+    private boolean createIndexes;
+
+    @Autowired
+    public KeysetPager(MongoTemplate mongoTemplate, @Value("${pagination.count.ttl:30000}") long countTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(countTtl))
+                .build();
+    }
+
+    /**
+     * Registra una entidad paginable.
+     *
+     * @param entityClass la clase del documento.
+     * @param sortKeys    las propiedades por las que se puede ordenar además del ID; deben ser de texto o fechas.
+     * @param <E>         el tipo del documento.
+     * @return el paginador de la entidad.
+     */
+    public <E> EntityPager<E> forEntity(Class<E> entityClass, String... sortKeys) {
+        EntityPager<E> pager = new EntityPager<>(this, mongoTemplate, entityClass, Set.of(sortKeys));
+        pagers.add(pager);
+        return pager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!createIndexes) {
+            return;
+        }
+        for (EntityPager<?> pager : pagers) {
+            for (String field : pager.getSortFields()) {
+                try {
+                    mongoTemplate.indexOps(pager.getEntityClass())
+                            .createIndex(new Index().on(field, Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+                } catch (RuntimeException e) {
+                    log.warn("Could not create the pagination index ({}, _id) on {}: {}",
+                            field, pager.getEntityClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica el límite por defecto y el máximo al tamaño de página pedido.
+     *
+     * @param limit el tamaño pedido, o {@code null}.
+     * @return el tamaño de página a usar.
+     * @throws ValidationException si el tamaño no es positivo.
+     */
+    int limitOf(Integer limit) {
+        if (limit == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        if (limit < 1) {
+            throw new ValidationException("The page limit must be at least 1.");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    long estimatedCount(Class<?> entityClass) {
+        return counts.get(entityClass, mongoTemplate::estimatedCount);
+    }
+}
@@ -0,0 +1,78 @@
+package peppertech.crm.api.Pagination;
+
+import jakarta.validation.ValidationException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Posición de la última entidad de una página: su ID y, si se ordena por otro campo, el valor de ese campo.
+ * <p>
+ * Se entrega al cliente como un token opaco (Base64 URL) que incluye el orden con el que se generó, para rechazar un
+ * cursor usado con otro {@code sort}. Solo se admiten valores de texto y fechas como claves de orden secundarias.
+ * </p>
+ *
+ * @param sort  el orden normalizado de la consulta (p. ej. {@code -name}).
+ * @param id    el ID de la última entidad.
+ * @param value el valor del campo de orden en la última entidad, o {@code null}.
+ */
+record PageCursor(String sort, ObjectId id, Object value) {
+
+    private static final char STRING = 's';
+    private static final char DATE = 'd';
+    private static final char NULL = 'n';
+
+    /**
+     * @return el token opaco que se envía al cliente.
+     */
+    String encode() {
+        StringBuilder payload = new StringBuilder(sort).append('\n').append(id.toHexString()).append('\n');
+        if (value == null) {
+            payload.append(NULL);
+        } else if (value instanceof Date date) {
+            payload.append(DATE).append(date.getTime());
+        } else {
+            payload.append(STRING).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lee un token generado por {@link #encode()}.
+     *
+     * @param token el token recibido del cliente.
+     * @param sort  el orden normalizado de la consulta actual.
+     * @return la posición en la que continúa la página.
+     * @throws ValidationException si el token no es válido o se generó con otro orden.
+     */
+    static PageCursor decode(String token, String sort) throws ValidationException {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+        if (parts.length != 3 || parts[2].isEmpty() || !ObjectId.isValid(parts[1])) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+        if (!parts[0].equals(sort)) {
+            throw new ValidationException("The page cursor was created with a different sort order.");
+        }
+        String encoded = parts[2].substring(1);
+        Object value = switch (parts[2].charAt(0)) {
+            case NULL -> null;
+            case STRING -> encoded;
+            case DATE -> {
+                try {
+                    yield new Date(Long.parseLong(encoded));
+                } catch (NumberFormatException e) {
+                    throw new ValidationException("Invalid page cursor.");
+                }
+            }
+            default -> throw new ValidationException("Invalid page cursor.");
+        };
+        return new PageCursor(parts[0], new ObjectId(parts[1]), value);
+    }
+}
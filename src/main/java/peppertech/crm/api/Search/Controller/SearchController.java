@@ -0,0 +1,136 @@
+package peppertech.crm.api.Search.Controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Responses.ErrorResponse;
+import peppertech.crm.api.Search.Model.DTO.SearchHitDTO;
+import peppertech.crm.api.Search.Model.DTO.SuggestionDTO;
+import peppertech.crm.api.Search.Service.GlobalSearchServiceI;
+import peppertech.crm.api.Search.Service.TypeaheadServiceI;
+
+/**
+ * Controlador REST de la búsqueda global.
+ * <p>Una sola consulta devuelve leads, usuarios, tableros, tarjetas, subtareas y comentarios ordenados por relevancia.
+ * {@code /search/suggest} autocompleta contactos mientras se escribe, sin consultar la base de datos.</p>
+ *
+ * @see GlobalSearchServiceI
+ * @see TypeaheadServiceI
+ */
+@RestController
+@RequestMapping("/search")
+@Tag(name = "Search", description = "Global search across the CRM")
+public class SearchController {
+
+    private final GlobalSearchServiceI serviceSearch;
+    private final TypeaheadServiceI serviceTypeahead;
+
+    @Autowired
+    public SearchController(GlobalSearchServiceI serviceSearch, TypeaheadServiceI serviceTypeahead) {
+        this.serviceSearch = serviceSearch;
+        this.serviceTypeahead = serviceTypeahead;
+    }
+
+    /**
+     * Busca un texto en todas las entidades del CRM.
+     * <p>La búsqueda no distingue mayúsculas ni acentos y encuentra las palabras completas del texto en cualquier orden;
+     * los resultados que coinciden en el nombre o título aparecen antes que los que coinciden en la descripción.</p>
+     * <p>Como en los endpoints {@code /All}, la página siguiente se pide con el cursor de la cabecera {@code X-Next-Cursor}
+     * y {@code X-Total-Count} indica el número de resultados.</p>
+     *
+     * @param q      el texto a buscar.
+     * @param types  los tipos de entidad separados por comas; por defecto todos.
+     * @param limit  el tamaño de página.
+     * @param cursor el cursor de la página anterior.
+     * @return Un objeto {@link ResponseEntity} con la lista de resultados.
+     *
+     * <p><b>Respuestas posibles:</b></p>
+     * <ul>
+     *   <li><b>200 OK</b>: Se retorna una lista de objetos {@link SearchHitDTO}, vacía si no hay coincidencias.<br></li>
+     *   <li><b>400 Bad Request</b>: El texto, los tipos, el límite o el cursor no son válidos.<br></li>
+     * </ul>
+     */
+    @GetMapping
+    @Operation(summary = "Búsqueda global",
+            description = "Busca el texto en leads, usuarios, tableros, tarjetas, subtareas y comentarios, sin distinguir "
+                    + "mayúsculas ni acentos. Los resultados se ordenan por relevancia e incluyen fragmentos resaltados.",
+            responses = {
+                    @ApiResponse(description = "Resultados de la búsqueda",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = SearchHitDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El texto, los tipos, el límite o el cursor no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<?> search(
+            @Parameter(description = "Texto a buscar.", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Tipos separados por comas: lead, user, board, card, subtask, comment. Por defecto todos.")
+            @RequestParam(required = false) String types,
+            @Parameter(description = "Tamaño de página; se limita a search.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPage<SearchHitDTO> page = serviceSearch.search(q, types, limit, cursor).toPage();
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Sugiere contactos (leads y usuarios) para el texto tecleado hasta ahora, p. ej. en los selectores de contactos.
+     * <p>Cada palabra del texto debe ser el comienzo de una palabra del nombre, el apellido o el correo, sin distinguir
+     * mayúsculas ni acentos: "ju pe" sugiere a "Juan Pérez". Las coincidencias en el nombre aparecen antes que las del
+     * apellido y las del correo. La respuesta sale de un índice en memoria, sin consultar la base de datos.</p>
+     *
+     * @param q     el texto tecleado.
+     * @param types los tipos separados por comas ({@code lead}, {@code user}); por defecto ambos.
+     * @param limit el número máximo de sugerencias.
+     * @return Un objeto {@link ResponseEntity} con la lista de sugerencias.
+     *
+     * <p><b>Respuestas posibles:</b></p>
+     * <ul>
+     *   <li><b>200 OK</b>: Se retorna una lista de objetos {@link SuggestionDTO}, vacía si no hay coincidencias.<br></li>
+     *   <li><b>400 Bad Request</b>: El texto, los tipos o el límite no son válidos.<br></li>
+     * </ul>
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocompletar contactos",
+            description = "Sugiere leads y usuarios cuyo nombre, apellido o correo empiezan por las palabras tecleadas, "
+                    + "sin distinguir mayúsculas ni acentos. Pensado para llamarse en cada pulsación.",
+            responses = {
+                    @ApiResponse(description = "Contactos sugeridos",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = SuggestionDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El texto, los tipos o el límite no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<?> suggest(
+            @Parameter(description = "Texto tecleado.", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Tipos separados por comas: lead, user. Por defecto ambos.")
+            @RequestParam(required = false) String types,
+            @Parameter(description = "Número máximo de sugerencias; se limita a search.suggest.max-limit.")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(serviceTypeahead.suggest(q, types, limit));
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
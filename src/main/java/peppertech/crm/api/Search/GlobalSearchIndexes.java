@@ -0,0 +1,127 @@
+package peppertech.crm.api.Search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Search.Model.Entity.SearchEntry;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * Prepara la búsqueda global al iniciar: crea el índice de texto de {@code search_entries} y, si la colección está
+ * vacía o {@code search.global.rebuild} está habilitado, la reconstruye a partir de las entidades.
+ * <p>
+ * El índice de texto pondera el título ({@code search.global.weights.title}) por encima del subtítulo y del cuerpo, y
+ * usa el idioma {@code search.global.language} ({@code none} por defecto: sin palabras vacías ni raíces, adecuado para
+ * nombres y textos en varios idiomas). La reconstrucción recorre cada colección con un cursor, escribe las entradas en
+ * lotes de {@code search.global.batch-size} y elimina después las entradas que no se actualizaron.
+ * </p>
+ */
+@Slf4j
+@Component
+public class GlobalSearchIndexes implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${search.create-indexes:true}")
+    private boolean createIndexes;
+    @Value("${search.global.rebuild:false}")
+    private boolean rebuild;
+    @Value("${search.global.batch-size:1000}")
+    private int batchSize;
+    @Value("${search.global.language:none}")
+    private String language;
+    @Value("${search.global.weights.title:10}")
+    private float titleWeight;
+    @Value("${search.global.weights.subtitle:5}")
+    private float subtitleWeight;
+    @Value("${search.global.weights.body:1}")
+    private float bodyWeight;
+
+    @Autowired
+    public GlobalSearchIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (createIndexes) {
+                mongoTemplate.indexOps(SearchEntry.class).createIndex(TextIndexDefinition.builder()
+                        .named("search_text")
+                        .withDefaultLanguage(language)
+                        .onField(SearchEntry.TITLE, titleWeight)
+                        .onField(SearchEntry.SUBTITLE, subtitleWeight)
+                        .onField(SearchEntry.BODY, bodyWeight)
+                        .build());
+                mongoTemplate.indexOps(SearchEntry.class).createIndex(new Index()
+                        .on("type", Sort.Direction.ASC)
+                        .on("ref", Sort.Direction.ASC));
+            }
+            if (rebuild || mongoTemplate.estimatedCount(SearchEntry.class) == 0) {
+                for (SearchType type : SearchType.values()) {
+                    long indexed = rebuild(type);
+                    if (indexed > 0) {
+                        log.info("Indexed {} {} documents for the global search.", indexed, type);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not prepare the global search index: {}", e.getMessage());
+        }
+    }
+
+    private long rebuild(SearchType type) {
+        Date startedAt = new Date();
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include(type.getSourceFields());
+        long indexed = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type.getEntity()))) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                SearchEntry entry = type.toEntry(document);
+                if (entry == null) {
+                    continue;
+                }
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SearchEntry.class);
+                }
+                bulk.upsert(Query.query(Criteria.where("_id").is(entry.getId())), new Update()
+                        .set("type", entry.getType())
+                        .set("ref", entry.getRef())
+                        .set(SearchEntry.TITLE, entry.getTitle())
+                        .set(SearchEntry.SUBTITLE, entry.getSubtitle())
+                        .set(SearchEntry.BODY, entry.getBody())
+                        .set("indexed_at", entry.getIndexedAt()));
+                indexed++;
+                if (++pending == batchSize) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("type").is(type).and("indexed_at").lt(startedAt)),
+                SearchEntry.class);
+        return indexed;
+    }
+}
@@ -0,0 +1,39 @@
+package peppertech.crm.api.Search.Model.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for one result of the global search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO implements Serializable {
+
+    @Schema(description = "Type of the entity found.", example = "lead",
+            allowableValues = {"lead", "user", "board", "card", "subtask", "comment"})
+    private String type;
+
+    @Schema(description = "ID of the entity found.", example = "676ae2a9b909de5f9607fcb6")
+    private String id;
+
+    @Schema(description = "Name or title of the entity.", example = "Juan Pérez")
+    private String title;
+
+    @Schema(description = "Secondary text of the entity, such as the email of leads and users.", example = "juan@example.com")
+    private String subtitle;
+
+    @Schema(description = "Relevance of the result; higher scores are returned first.", example = "10.5")
+    private double score;
+
+    @Schema(description = "HTML-escaped fragments of the matching fields (title, subtitle, body) with the matched words wrapped in <em>.",
+            example = "{\"title\": \"<em>Juan</em> Pérez\"}")
+    private Map<String, String> highlights = new LinkedHashMap<>();
+}
@@ -0,0 +1,36 @@
+package peppertech.crm.api.Search.Model.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Data Transfer Object for one contact suggested while typing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO implements Serializable {
+
+    @Schema(description = "Type of the contact.", example = "lead", allowableValues = {"lead", "user"})
+    private String type;
+
+    @Schema(description = "ID of the contact.", example = "676ae2a9b909de5f9607fcb6")
+    private String id;
+
+    @Schema(description = "Name of the contact.", example = "Juan")
+    private String name;
+
+    @Schema(description = "Last name of the contact.", example = "Pérez")
+    private String lastname;
+
+    @Schema(description = "Email of the contact.", example = "juan@example.com")
+    private String email;
+
+    @Schema(description = "Match score: each typed word adds 3 when it starts a word of the name, 2 of the last name and 1 of the email.",
+            example = "5")
+    private int score;
+}
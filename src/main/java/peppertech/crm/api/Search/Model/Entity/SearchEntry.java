@@ -0,0 +1,68 @@
+package peppertech.crm.api.Search.Model.Entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Entrada de la búsqueda global: el texto de un lead, usuario, tablero, tarjeta, subtarea o comentario.
+ * <p>
+ * Todas las entidades se buscan sobre la colección {@code search_entries}, con un único índice de texto sobre
+ * {@code title}, {@code subtitle} y {@code body}, de modo que una sola consulta devuelve resultados de todos los tipos
+ * ordenados por relevancia. El ID es {@code <tipo>:<id de la entidad>}, por lo que reindexar una entidad reemplaza
+ * su entrada.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "search_entries")
+public class SearchEntry {
+
+    public static final String TITLE = "title";
+    public static final String SUBTITLE = "subtitle";
+    public static final String BODY = "body";
+
+    @Id
+    private String id;
+
+    @Field("type")
+    private SearchType type;
+
+    @Field("ref")
+    private ObjectId ref;
+
+    @Field(TITLE)
+    private String title;
+
+    @Field(SUBTITLE)
+    private String subtitle;
+
+    @Field(BODY)
+    private String body;
+
+    @Field("indexed_at")
+    private Date indexedAt;
+
+    /**
+     * @param type el tipo de la entidad.
+     * @param ref  el ID de la entidad.
+     * @return el ID de su entrada de búsqueda.
+     */
+    public static String idOf(SearchType type, ObjectId ref) {
+        return type.name().toLowerCase(Locale.ROOT) + ":" + ref.toHexString();
+    }
+
+    static SearchEntry of(SearchType type, ObjectId ref, String title, String subtitle, String body) {
+        return new SearchEntry(idOf(type, ref), type, ref, title, subtitle, body, new Date());
+    }
+}
@@ -0,0 +1,132 @@
+package peppertech.crm.api.Search.Model.Entity;
+
+import jakarta.validation.ValidationException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import peppertech.crm.api.Comments.Model.Entity.Comment;
+import peppertech.crm.api.Leads.Model.Entity.Lead;
+import peppertech.crm.api.Tasks.Model.Entity.Board;
+import peppertech.crm.api.Tasks.Model.Entity.Card;
+import peppertech.crm.api.Tasks.Model.Entity.Subtask;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tipos de entidad incluidos en la búsqueda global y los campos de texto que aporta cada uno.
+ * <p>
+ * Cada tipo indica qué campos del documento de MongoDB forman el título, el subtítulo y el cuerpo de su
+ * {@link SearchEntry}. La contraseña y los demás campos que no son texto visible nunca se indexan.
+ * </p>
+ */
+public enum SearchType {
+
+    LEAD(Lead.class, new String[]{"name", "lastname"}, "email", null),
+    USER(User.class, new String[]{"name", "lastname"}, "email", null),
+    BOARD(Board.class, new String[]{"name"}, null, "description"),
+    CARD(Card.class, new String[]{"title"}, null, "description"),
+    SUBTASK(Subtask.class, new String[]{"title"}, null, null),
+    COMMENT(Comment.class, new String[]{"title"}, null, "body");
+
+    private final Class<?> entity;
+    private final String[] titleFields;
+    private final String subtitleField;
+    private final String bodyField;
+
+    SearchType(Class<?> entity, String[] titleFields, String subtitleField, String bodyField) {
+        this.entity = entity;
+        this.titleFields = titleFields;
+        this.subtitleField = subtitleField;
+        this.bodyField = bodyField;
+    }
+
+    /**
+     * @return la clase de la entidad indexada.
+     */
+    public Class<?> getEntity() {
+        return entity;
+    }
+
+    /**
+     * @return los campos del documento que se leen para indexarlo.
+     */
+    public String[] getSourceFields() {
+        Set<String> fields = new LinkedHashSet<>(List.of(titleFields));
+        if (subtitleField != null) {
+            fields.add(subtitleField);
+        }
+        if (bodyField != null) {
+            fields.add(bodyField);
+        }
+        return fields.toArray(String[]::new);
+    }
+
+    /**
+     * Construye la entrada de búsqueda de un documento.
+     *
+     * @param document el documento de MongoDB de la entidad, con su {@code _id}.
+     * @return la entrada, o {@code null} si el documento no tiene un {@code _id} o texto que indexar.
+     */
+    public SearchEntry toEntry(Document document) {
+        StringBuilder title = new StringBuilder();
+        for (String field : titleFields) {
+            if (document.get(field) instanceof String value && !value.isBlank()) {
+                if (!title.isEmpty()) {
+                    title.append(' ');
+                }
+                title.append(value.trim());
+            }
+        }
+        String subtitle = subtitleField != null && document.get(subtitleField) instanceof String value ? value : null;
+        String body = bodyField != null && document.get(bodyField) instanceof String value ? value : null;
+        if (!(document.get("_id") instanceof ObjectId id) || (title.isEmpty() && subtitle == null && body == null)) {
+            return null;
+        }
+        return SearchEntry.of(this, id, title.toString(), subtitle, body);
+    }
+
+    /**
+     * Obtiene el tipo de una entidad.
+     *
+     * @param entity la clase de la entidad.
+     * @return el tipo, o {@code null} si la entidad no se indexa.
+     */
+    public static SearchType of(Class<?> entity) {
+        for (SearchType type : values()) {
+            if (type.entity.equals(entity)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee el filtro de tipos pedido por el cliente.
+     *
+     * @param types los tipos separados por comas (p. ej. {@code lead,card}); vacío o {@code null} para todos.
+     * @return los tipos elegidos.
+     * @throws ValidationException si algún tipo no existe.
+     */
+    public static Set<SearchType> parse(String types) throws ValidationException {
+        if (types == null || types.isBlank()) {
+            return EnumSet.allOf(SearchType.class);
+        }
+        Set<SearchType> selected = EnumSet.noneOf(SearchType.class);
+        for (String name : types.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                selected.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unsupported search type '" + name.trim()
+                        + "'. Supported types: lead, user, board, card, subtask, comment.");
+            }
+        }
+        return selected.isEmpty() ? EnumSet.allOf(SearchType.class) : selected;
+    }
+}
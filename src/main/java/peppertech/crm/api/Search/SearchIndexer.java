@@ -0,0 +1,121 @@
+package peppertech.crm.api.Search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Cache.Resilience.DeferredEvictions;
+import peppertech.crm.api.Cache.Tags.CacheTags;
+import peppertech.crm.api.Search.Model.Entity.SearchEntry;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+/**
+ * Mantiene la colección de la búsqueda global ({@link SearchEntry}) al día con las entidades indexadas.
+ * <p>
+ * Cada guardado de un lead, usuario, tablero, tarjeta, subtarea o comentario reemplaza su entrada y cada borrado por
+ * ID la elimina. Las actualizaciones parciales que no pasan por {@code save} llaman a {@link #index(Object)}. Tras
+ * cualquier cambio se descartan los resultados en caché ({@value #CACHE_NAME}); si Redis no está disponible, esa
+ * evicción se guarda en {@link DeferredEvictions} y se repite al recuperarse. Un fallo al indexar no interrumpe la
+ * operación original: se registra y la entrada se corrige en la siguiente reconstrucción
+ * ({@link GlobalSearchIndexes}).
+ * </p>
+ */
+@Slf4j
+@Component
+public class SearchIndexer extends AbstractMongoEventListener<Object> {
+
+    public static final String CACHE_NAME = "search";
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final DeferredEvictions deferredEvictions;
+
+    @Autowired
+    public SearchIndexer(MongoTemplate mongoTemplate, CacheManager cacheManager, DeferredEvictions deferredEvictions) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.deferredEvictions = deferredEvictions;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        SearchType type = SearchType.of(event.getSource().getClass());
+        if (type != null && event.getDocument() != null) {
+            index(type, event.getDocument());
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        SearchType type = event.getType() != null ? SearchType.of(event.getType()) : null;
+        if (type == null || event.getSource() == null) {
+            return;
+        }
+        Document filter = event.getSource();
+        try {
+            if (filter.get("_id") instanceof ObjectId id) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(SearchEntry.idOf(type, id))), SearchEntry.class);
+            } else if (filter.isEmpty()) {
+                mongoTemplate.remove(Query.query(Criteria.where("type").is(type)), SearchEntry.class);
+            } else {
+                log.debug("Search entries of {} not removed for delete filter {}", type, filter.toJson());
+                return;
+            }
+            evictResults();
+        } catch (RuntimeException e) {
+            log.warn("Could not remove the search entries of {} {}: {}", type, filter.toJson(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reindexa una entidad modificada sin {@code save}, p. ej. con {@code findAndModify}.
+     *
+     * @param entity la entidad con sus valores actuales.
+     */
+    public void index(Object entity) {
+        SearchType type = entity != null ? SearchType.of(entity.getClass()) : null;
+        if (type == null) {
+            return;
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        index(type, document);
+    }
+
+    private void index(SearchType type, Document document) {
+        try {
+            SearchEntry entry = type.toEntry(document);
+            if (entry != null) {
+                mongoTemplate.save(entry);
+            } else if (document.get("_id") instanceof ObjectId id) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(SearchEntry.idOf(type, id))), SearchEntry.class);
+            }
+            evictResults();
+        } catch (RuntimeException e) {
+            log.warn("Could not index {} {}: {}", type, document.get("_id"), e.getMessage());
+        }
+    }
+
+    private void evictResults() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        String key = CacheTags.PREFIX + CacheTags.LISTS;
+        try {
+            cache.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Cache evict failed for {}::{}, retrying when Redis recovers: {}", CACHE_NAME, key, e.getMessage());
+            deferredEvictions.add(CACHE_NAME, key);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package peppertech.crm.api.Search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Leads.Model.Entity.Lead;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Prepara las búsquedas por nombre al iniciar: crea los índices de las claves de búsqueda y calcula las claves de los
+ * documentos guardados antes de que existieran.
+ * <p>
+ * El índice {@code (name_key, lastname_key)} resuelve las búsquedas por nombre y por nombre completo, y
+ * {@code (lastname_key)} las búsquedas por apellido. El cálculo de claves pendientes recorre solo los documentos sin
+ * {@value SearchKeys#NAME} y las escribe en lotes de {@code search.keys.batch-size}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SearchKeyIndexes implements ApplicationRunner {
+
+    private static final List<Class<?>> ENTITIES = List.of(User.class, Lead.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${search.keys.backfill:true}")
+    private boolean backfill;
+    @Value("${search.keys.batch-size:1000}")
+    private int batchSize;
+    @Value("${search.create-indexes:true}")
+    private boolean createIndexes;
+
+    @Autowired
+    public SearchKeyIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (Class<?> entity : ENTITIES) {
+            try {
+                if (createIndexes) {
+                    mongoTemplate.indexOps(entity).createIndex(new Index()
+                            .on(SearchKeys.NAME, Sort.Direction.ASC)
+                            .on(SearchKeys.LASTNAME, Sort.Direction.ASC));
+                    mongoTemplate.indexOps(entity).createIndex(new Index().on(SearchKeys.LASTNAME, Sort.Direction.ASC));
+                }
+                if (backfill) {
+                    long updated = backfill(mongoTemplate.getCollectionName(entity));
+                    if (updated > 0) {
+                        log.info("Computed the search keys of {} {} documents.", updated, entity.getSimpleName());
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not prepare the search keys of {}: {}", entity.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private long backfill(String collection) {
+        Query query = Query.query(Criteria.where(SearchKeys.NAME).exists(false)).cursorBatchSize(batchSize);
+        query.fields().include("name", "lastname");
+        long updated = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                Document keys = new Document();
+                keys.put("name", document.getString("name"));
+                keys.put("lastname", document.getString("lastname"));
+                SearchKeys.apply(keys);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(document.get("_id"))), new Update()
+                        .set(SearchKeys.NAME, keys.get(SearchKeys.NAME))
+                        .set(SearchKeys.LASTNAME, keys.get(SearchKeys.LASTNAME)));
+                if (++pending == batchSize) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,22 @@
+package peppertech.crm.api.Search;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Leads.Model.Entity.Lead;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+/**
+ * Escribe las claves de búsqueda ({@link SearchKeys}) de usuarios y leads en cada guardado, sin añadirlas a las
+ * entidades ni a los DTOs. Las actualizaciones parciales las añaden en el repositorio.
+ */
+@Component
+public class SearchKeyListener extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Object> event) {
+        if ((event.getSource() instanceof User || event.getSource() instanceof Lead) && event.getDocument() != null) {
+            SearchKeys.apply(event.getDocument());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package peppertech.crm.api.Search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Claves de búsqueda normalizadas de nombres y apellidos.
+ * <p>
+ * Junto a {@code name} y {@code lastname}, los usuarios y leads guardan {@value #NAME} y {@value #LASTNAME}: el valor
+ * en minúsculas y sin acentos. Las búsquedas por nombre comparan esas claves con la entrada normalizada de la misma
+ * forma, por lo que usan los índices en lugar de recorrer la colección con un {@code $regex} insensible a mayúsculas.
+ * La normalización cubre las letras que admiten los validadores ({@code Á-Ö}, {@code Ø-ö}, {@code ø-ÿ}): se eliminan
+ * los diacríticos y las letras sin descomposición se sustituyen por su equivalente sin acento ({@code ø → o},
+ * {@code æ → ae}, {@code ð → d}, {@code þ → th}, {@code ß → ss}).
+ * </p>
+ */
+public final class SearchKeys {
+
+    /**
+     * Campo con el nombre normalizado.
+     */
+    public static final String NAME = "name_key";
+    /**
+     * Campo con el apellido normalizado.
+     */
+    public static final String LASTNAME = "lastname_key";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKeys() {
+    }
+
+    /**
+     * Normaliza un nombre o una búsqueda: minúsculas y sin acentos.
+     *
+     * @param value el texto, o {@code null}.
+     * @return la clave de búsqueda, o {@code null} si el texto es {@code null}.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder key = new StringBuilder(folded.length());
+        for (char c : folded.toLowerCase(Locale.ROOT).toCharArray()) {
+            switch (c) {
+                case 'ø' -> key.append('o');
+                case 'æ' -> key.append("ae");
+                case 'ð' -> key.append('d');
+                case 'þ' -> key.append("th");
+                case 'ß' -> key.append("ss");
+                default -> key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Límite superior exclusivo de las claves que empiezan por un prefijo, para buscarlas con un rango
+     * ({@code $gte prefijo, $lt límite}) que MongoDB resuelve con el índice.
+     *
+     * @param prefix el prefijo normalizado.
+     * @return el límite superior.
+     */
+    public static String upperBound(String prefix) {
+        return prefix + Character.MAX_VALUE;
+    }
+
+    /**
+     * Añade las claves de búsqueda de los campos {@code name} y {@code lastname} presentes en un documento o en los
+     * campos de una actualización.
+     *
+     * @param fields el documento o los campos a modificar.
+     */
+    public static void apply(Map<String, Object> fields) {
+        if (fields.get("name") instanceof String name) {
+            fields.put(NAME, normalize(name));
+        }
+        if (fields.get("lastname") instanceof String lastname) {
+            fields.put(LASTNAME, normalize(lastname));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package peppertech.crm.api.Search;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Modo de comparación de las búsquedas por nombre o apellido.
+ */
+public enum SearchMode {
+
+    /**
+     * El nombre empieza por el texto buscado.
+     */
+    PREFIX,
+    /**
+     * El nombre es igual al texto buscado.
+     */
+    EXACT;
+
+    /**
+     * Obtiene el modo pedido por el cliente.
+     *
+     * @param match {@code prefix} (por defecto) o {@code exact}.
+     * @return el modo.
+     * @throws ValidationException si el modo no existe.
+     */
+    public static SearchMode of(String match) throws ValidationException {
+        if (match == null || match.isBlank()) {
+            return PREFIX;
+        }
+        for (SearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(match.trim())) {
+                return mode;
+            }
+        }
+        throw new ValidationException("Unsupported match mode '" + match + "'. Supported modes: prefix, exact.");
+    }
+}
@@ -0,0 +1,138 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.stereotype.Service;
+import peppertech.crm.api.Search.Model.DTO.SearchHitDTO;
+import peppertech.crm.api.Search.Model.Entity.SearchEntry;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementación de la búsqueda global sobre la colección {@code search_entries}.
+ * <p>
+ * Cada página es una agregación: {@code $text} sobre el índice de texto, filtro por tipo, la relevancia
+ * ({@code textScore}) como campo, el rango del cursor {@code (score, _id)}, orden y límite. El total de resultados se
+ * cuenta solo en la primera página y viaja en el cursor. Los fragmentos resaltados se calculan en la aplicación
+ * ({@link SearchHighlighter}), ya que MongoDB no los devuelve. Las páginas se guardan en la caché {@code search} con
+ * la consulta normalizada como clave.
+ * </p>
+ */
+@Service
+public class GlobalSearchService implements GlobalSearchServiceI {
+
+    private final MongoTemplate mongoTemplate;
+    private final String collection;
+
+    @Value("${search.default-limit:20}")
+    private int defaultLimit;
+    @Value("${search.max-limit:100}")
+    private int maxLimit;
+    @Value("${search.highlight.fragment-size:160}")
+    private int fragmentSize;
+
+    @Autowired
+    public GlobalSearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = mongoTemplate.getCollectionName(SearchEntry.class);
+    }
+
+    @Override
+    @Cacheable(value = "search",
+            key = "T(peppertech.crm.api.Search.Service.SearchQuery).keyOf(#text, #types, #limit, #cursor)", sync = true)
+    public SearchResults search(String text, String types, Integer limit, String cursor) throws ValidationException {
+        SearchQuery query = SearchQuery.of(text, types, limit, cursor, defaultLimit, maxLimit);
+        SearchCursor after = query.cursor() != null ? SearchCursor.decode(query.cursor(), query) : null;
+        long total = after != null ? after.total() : count(query);
+
+        List<Document> documents = find(query, after, query.limit() + 1);
+        List<SearchHitDTO> hits = new ArrayList<>(Math.min(documents.size(), query.limit()));
+        for (Document document : documents.subList(0, Math.min(documents.size(), query.limit()))) {
+            hits.add(toHit(document, query.terms()));
+        }
+        String nextCursor = null;
+        if (documents.size() > query.limit()) {
+            Document last = documents.get(query.limit() - 1);
+            nextCursor = new SearchCursor(query.fingerprint(), scoreOf(last), last.getString("_id"), total).encode();
+        }
+        return new SearchResults(hits, nextCursor, query.limit(), total);
+    }
+
+    @Override
+    public List<ObjectId> findIds(SearchType type, String text) throws ValidationException {
+        SearchQuery query = SearchQuery.of(text, type.name(), maxLimit, null, maxLimit, maxLimit);
+        List<ObjectId> ids = new ArrayList<>();
+        for (Document document : find(query, null, query.limit())) {
+            ids.add(document.getObjectId("ref"));
+        }
+        return ids;
+    }
+
+    private List<Document> find(SearchQuery query, SearchCursor after, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(textCriteria(query)));
+        if (!query.types().equals(EnumSet.allOf(SearchType.class))) {
+            stages.add(Aggregation.match(Criteria.where("type").in(typeNames(query))));
+        }
+        stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        if (after != null) {
+            stages.add(Aggregation.match(new Criteria().orOperator(
+                    Criteria.where("score").lt(after.score()),
+                    Criteria.where("score").is(after.score()).and("_id").gt(after.id()))));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.asc("_id"))));
+        stages.add(Aggregation.limit(limit));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), collection, Document.class).getMappedResults();
+    }
+
+    private long count(SearchQuery query) {
+        Query count = Query.query(textCriteria(query));
+        if (!query.types().equals(EnumSet.allOf(SearchType.class))) {
+            count.addCriteria(Criteria.where("type").in(typeNames(query)));
+        }
+        return mongoTemplate.count(count, collection);
+    }
+
+    private static TextCriteria textCriteria(SearchQuery query) {
+        return TextCriteria.forDefaultLanguage().matching(query.text());
+    }
+
+    private static List<String> typeNames(SearchQuery query) {
+        return query.types().stream().map(Enum::name).toList();
+    }
+
+    private SearchHitDTO toHit(Document document, List<String> terms) {
+        SearchHitDTO hit = new SearchHitDTO();
+        hit.setType(document.getString("type").toLowerCase(Locale.ROOT));
+        hit.setId(document.getObjectId("ref").toHexString());
+        hit.setTitle(document.getString(SearchEntry.TITLE));
+        hit.setSubtitle(document.getString(SearchEntry.SUBTITLE));
+        hit.setScore(scoreOf(document));
+        for (String field : List.of(SearchEntry.TITLE, SearchEntry.SUBTITLE, SearchEntry.BODY)) {
+            String fragment = SearchHighlighter.highlight(document.getString(field), terms, fragmentSize);
+            if (fragment != null) {
+                hit.getHighlights().put(field, fragment);
+            }
+        }
+        return hit;
+    }
+
+    private static double scoreOf(Document document) {
+        return document.get("score") instanceof Number score ? score.doubleValue() : 0;
+    }
+}
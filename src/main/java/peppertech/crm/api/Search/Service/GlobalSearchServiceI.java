@@ -0,0 +1,35 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import org.bson.types.ObjectId;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.List;
+
+/**
+ * Búsqueda de texto sobre leads, usuarios, tableros, tarjetas, subtareas y comentarios.
+ */
+public interface GlobalSearchServiceI {
+
+    /**
+     * Busca en todos los tipos de entidad pedidos con una sola consulta.
+     *
+     * @param text   el texto buscado; no distingue mayúsculas ni acentos.
+     * @param types  los tipos separados por comas (lead, user, board, card, subtask, comment), o {@code null} para todos.
+     * @param limit  el tamaño de página, o {@code null} para el valor por defecto.
+     * @param cursor el cursor {@code X-Next-Cursor} de la página anterior, o {@code null} para la primera.
+     * @return los resultados ordenados por relevancia, con fragmentos resaltados.
+     * @throws ValidationException si el texto, los tipos, el límite o el cursor no son válidos.
+     */
+    SearchResults search(String text, String types, Integer limit, String cursor) throws ValidationException;
+
+    /**
+     * Busca las entidades de un tipo, p. ej. los tableros por título.
+     *
+     * @param type el tipo de entidad.
+     * @param text el texto buscado.
+     * @return los IDs de las entidades encontradas ordenados por relevancia, como máximo {@code search.max-limit}.
+     * @throws ValidationException si el texto no es válido.
+     */
+    List<ObjectId> findIds(SearchType type, String text) throws ValidationException;
+}
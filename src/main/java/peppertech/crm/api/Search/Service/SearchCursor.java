@@ -0,0 +1,60 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición del último resultado de una página de la búsqueda global: su relevancia y el ID de su entrada.
+ * <p>
+ * Los resultados se ordenan por {@code (score desc, _id asc)}, así que la página siguiente empieza en los resultados
+ * de menor relevancia o de igual relevancia y mayor ID, como en la paginación por cursor de los endpoints
+ * {@code /All}. El token incluye además el total calculado en la primera página, que no se vuelve a contar, y la huella
+ * de la consulta para rechazar un cursor usado con otra búsqueda.
+ * </p>
+ *
+ * @param fingerprint la huella de la consulta ({@link SearchQuery#fingerprint()}).
+ * @param score       la relevancia del último resultado.
+ * @param id          el ID de la entrada del último resultado.
+ * @param total       el número de resultados de la búsqueda.
+ */
+record SearchCursor(String fingerprint, double score, String id, long total) {
+
+    /**
+     * @return el token opaco que se envía al cliente.
+     */
+    String encode() {
+        String payload = Integer.toHexString(fingerprint.hashCode()) + "\n" + Double.toHexString(score) + "\n" + total
+                + "\n" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lee un token generado por {@link #encode()}.
+     *
+     * @param token la cadena recibida del cliente.
+     * @param query la consulta actual.
+     * @return la posición en la que continúa la página.
+     * @throws ValidationException si el token no es válido o se generó con otra búsqueda.
+     */
+    static SearchCursor decode(String token, SearchQuery query) throws ValidationException {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 4);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+        if (parts.length != 4 || parts[3].isEmpty()) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+        if (!parts[0].equals(Integer.toHexString(query.fingerprint().hashCode()))) {
+            throw new ValidationException("The page cursor was created for a different search.");
+        }
+        try {
+            return new SearchCursor(query.fingerprint(), Double.parseDouble(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+    }
+}
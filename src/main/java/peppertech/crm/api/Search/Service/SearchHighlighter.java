@@ -0,0 +1,110 @@
+package peppertech.crm.api.Search.Service;
+
+import peppertech.crm.api.Search.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resalta en un texto las palabras que coinciden con una búsqueda.
+ * <p>
+ * Cada palabra del texto se normaliza igual que la consulta ({@link SearchKeys#normalize(String)}) y se resalta si es
+ * igual a un término buscado o empieza por él, lo que cubre las variaciones de mayúsculas y acentos y los plurales
+ * simples que el índice de texto también encuentra. El resultado es un fragmento HTML escapado con las coincidencias
+ * entre {@value #PRE_TAG} y {@value #POST_TAG}; los textos largos se recortan alrededor de la primera coincidencia.
+ * </p>
+ */
+final class SearchHighlighter {
+
+    static final String PRE_TAG = "<em>";
+    static final String POST_TAG = "</em>";
+    static final String ELLIPSIS = "…";
+
+    private SearchHighlighter() {
+    }
+
+    /**
+     * @param text         el texto del campo, o {@code null}.
+     * @param terms        los términos normalizados de la búsqueda.
+     * @param fragmentSize el número máximo de caracteres del texto original que se devuelven.
+     * @return el fragmento resaltado, o {@code null} si ninguna palabra coincide.
+     */
+    static String highlight(String text, List<String> terms, int fragmentSize) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        List<int[]> matches = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                if (matches(SearchKeys.normalize(text.substring(start, i)), terms)) {
+                    matches.add(new int[]{start, i});
+                }
+                start = -1;
+            }
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        int from = 0;
+        int to = text.length();
+        if (to > fragmentSize) {
+            from = Math.max(0, matches.get(0)[0] - fragmentSize / 4);
+            while (from > 0 && !Character.isWhitespace(text.charAt(from - 1))) {
+                from--;
+            }
+            to = Math.min(text.length(), from + fragmentSize);
+            while (to < text.length() && to > matches.get(0)[1] && Character.isLetterOrDigit(text.charAt(to))) {
+                to--;
+            }
+        }
+
+        StringBuilder fragment = new StringBuilder();
+        if (from > 0) {
+            fragment.append(ELLIPSIS);
+        }
+        int position = from;
+        for (int[] match : matches) {
+            if (match[0] < from || match[1] > to) {
+                continue;
+            }
+            escape(text, position, match[0], fragment);
+            fragment.append(PRE_TAG);
+            escape(text, match[0], match[1], fragment);
+            fragment.append(POST_TAG);
+            position = match[1];
+        }
+        escape(text, position, to, fragment);
+        if (to < text.length()) {
+            fragment.append(ELLIPSIS);
+        }
+        return fragment.toString();
+    }
+
+    private static boolean matches(String word, List<String> terms) {
+        for (String term : terms) {
+            if (word.startsWith(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consulta de la búsqueda global ya validada y normalizada.
+ * <p>
+ * El texto se reduce a sus palabras en minúsculas y sin acentos ({@link SearchKeys#normalize(String)}), sin
+ * operadores de {@code $text} (frases, negaciones), de modo que "José  PÉREZ" y "jose perez" son la misma consulta y
+ * comparten la entrada de la caché ({@link #keyOf(String, String, Integer, String)}).
+ * </p>
+ *
+ * @param terms  las palabras buscadas, normalizadas y sin repetir.
+ * @param types  los tipos de entidad incluidos.
+ * @param limit  el número máximo de resultados de la página.
+ * @param cursor el cursor de la página anterior, o {@code null} para la primera.
+ */
+public record SearchQuery(List<String> terms, Set<SearchType> types, int limit, String cursor) {
+
+    static final int MAX_TERMS = 16;
+    static final int MAX_LENGTH = 256;
+
+    /**
+     * Valida y normaliza los parámetros de una búsqueda.
+     *
+     * @param text         el texto buscado.
+     * @param types        los tipos separados por comas, o {@code null} para todos.
+     * @param limit        el tamaño de página pedido, o {@code null}.
+     * @param cursor       el cursor de la página anterior, o {@code null}.
+     * @param defaultLimit el tamaño de página por defecto.
+     * @param maxLimit     el tamaño de página máximo.
+     * @return la consulta.
+     * @throws ValidationException si el texto está vacío o es demasiado largo, o si algún tipo o el límite no son válidos.
+     */
+    public static SearchQuery of(String text, String types, Integer limit, String cursor, int defaultLimit, int maxLimit)
+            throws ValidationException {
+        if (text == null || text.isBlank()) {
+            throw new ValidationException("The search text cannot be empty.");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new ValidationException("The search text cannot exceed " + MAX_LENGTH + " characters.");
+        }
+        if (limit != null && limit < 1) {
+            throw new ValidationException("The page limit must be greater than 0.");
+        }
+        List<String> terms = termsOf(text);
+        if (terms.isEmpty()) {
+            throw new ValidationException("The search text must contain letters or digits.");
+        }
+        return new SearchQuery(terms, SearchType.parse(types),
+                limit == null ? defaultLimit : Math.min(limit, maxLimit),
+                cursor == null || cursor.isBlank() ? null : cursor);
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas.
+     *
+     * @param text el texto.
+     * @return las palabras sin repetir, en orden y como máximo {@value #MAX_TERMS}.
+     */
+    static List<String> termsOf(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        String normalized = SearchKeys.normalize(text);
+        for (int i = 0; i <= normalized.length() && terms.size() < MAX_TERMS; i++) {
+            if (i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i))) {
+                word.append(normalized.charAt(i));
+            } else if (!word.isEmpty()) {
+                terms.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * @return el texto que se envía a {@code $text}: las palabras separadas por espacios.
+     */
+    public String text() {
+        return String.join(" ", terms);
+    }
+
+    /**
+     * @return la huella de la consulta sin la página, para rechazar cursores de otra búsqueda.
+     */
+    String fingerprint() {
+        return types.stream().map(Enum::name).sorted().collect(Collectors.joining(",")) + "|" + text();
+    }
+
+    /**
+     * Calcula la clave de la caché de una búsqueda a partir de los parámetros recibidos, sin validarlos, para usarla
+     * en {@code @Cacheable}: tipos, límite, cursor y texto normalizado.
+     *
+     * @param text   el texto buscado.
+     * @param types  los tipos separados por comas, o {@code null}.
+     * @param limit  el tamaño de página, o {@code null}.
+     * @param cursor el cursor, o {@code null}.
+     * @return la clave.
+     */
+    public static String keyOf(String text, String types, Integer limit, String cursor) {
+        String typeKey = types == null ? "" : Arrays.stream(types.split(","))
+                .map(type -> type.trim().toUpperCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+        return "q:" + typeKey + "|" + (limit == null ? "" : limit) + "|" + (cursor == null ? "" : cursor.trim()) + "|"
+                + (text == null ? "" : String.join(" ", termsOf(text)));
+    }
+}
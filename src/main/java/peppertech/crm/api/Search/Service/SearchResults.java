@@ -0,0 +1,45 @@
+package peppertech.crm.api.Search.Service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import peppertech.crm.api.Cache.Tags.CacheTags;
+import peppertech.crm.api.Cache.Tags.Tagged;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Search.Model.DTO.SearchHitDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Una página de la búsqueda global tal como se guarda en la caché {@code search}.
+ * <p>
+ * Se etiqueta con {@code lists}, de modo que {@link peppertech.crm.api.Search.SearchIndexer} descarta todas las
+ * búsquedas en caché al indexar cualquier cambio.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResults implements Tagged {
+
+    private List<SearchHitDTO> hits = new ArrayList<>();
+    private String nextCursor;
+    private int limit;
+    private long total;
+
+    /**
+     * @return la página con las cabeceras de paginación ({@code X-Total-Count} es el número de resultados).
+     */
+    public CursorPage<SearchHitDTO> toPage() {
+        return new CursorPage<>(hits, nextCursor, limit, total);
+    }
+
+    @Override
+    @JsonIgnore
+    public Set<String> getCacheTags() {
+        return Set.of(CacheTags.LISTS);
+    }
+}
@@ -0,0 +1,191 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import peppertech.crm.api.Search.Model.DTO.SuggestionDTO;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.Typeahead.Suggestion;
+import peppertech.crm.api.Search.Typeahead.TypeaheadIndex;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del autocompletado de contactos con un {@link TypeaheadIndex} en memoria.
+ * <p>
+ * El índice se construye al iniciar recorriendo {@code leads} y {@code users} con un cursor (solo nombre, apellido y
+ * correo) y se mantiene al día con las escrituras de {@code LeadService} y {@code UserService}, que llaman a
+ * {@link #put} y {@link #remove}. Como cada instancia tiene su propio índice y no ve las escrituras de las demás, se
+ * reconstruye cada {@code search.suggest.rebuild-interval}; la reconstrucción llena un índice nuevo y lo sustituye al
+ * terminar, sin bloquear las consultas. Las escrituras que llegan mientras tanto se aplican a los dos índices y el
+ * cursor ya no sobrescribe esos contactos.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TypeaheadService implements TypeaheadServiceI, ApplicationRunner {
+
+    private static final Set<SearchType> CONTACTS = EnumSet.of(SearchType.LEAD, SearchType.USER);
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object writes = new Object();
+    private volatile TypeaheadIndex index = new TypeaheadIndex();
+    private TypeaheadIndex building;
+    private Set<ObjectId> written;
+
+    @Value("${search.suggest.enabled:true}")
+    private boolean enabled;
+    @Value("${search.suggest.default-limit:10}")
+    private int defaultLimit;
+    @Value("${search.suggest.max-limit:50}")
+    private int maxLimit;
+    @Value("${search.suggest.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public TypeaheadService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice periódicamente para incorporar las escrituras hechas en otras instancias.
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.rebuild-interval:600000}",
+            initialDelayString = "${search.suggest.rebuild-interval:600000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String text, String types, Integer limit) throws ValidationException {
+        if (text == null || text.isBlank()) {
+            throw new ValidationException("The suggest text cannot be empty.");
+        }
+        if (text.length() > SearchQuery.MAX_LENGTH) {
+            throw new ValidationException("The suggest text cannot exceed " + SearchQuery.MAX_LENGTH + " characters.");
+        }
+        if (limit != null && limit < 1) {
+            throw new ValidationException("The limit must be greater than 0.");
+        }
+        Set<SearchType> selected = types == null || types.isBlank() ? CONTACTS : SearchType.parse(types);
+        if (!CONTACTS.containsAll(selected)) {
+            throw new ValidationException("Suggestions only support the types lead and user.");
+        }
+        return index.suggest(text, selected, limit == null ? defaultLimit : Math.min(limit, maxLimit)).stream()
+                .map(TypeaheadService::toDTO)
+                .toList();
+    }
+
+    @Override
+    public void put(SearchType type, String id, String name, String lastname, String email) {
+        if (!enabled || id == null || !ObjectId.isValid(id)) {
+            return;
+        }
+        ObjectId objectId = new ObjectId(id);
+        synchronized (writes) {
+            index.put(type, objectId, name, lastname, email);
+            if (building != null) {
+                building.put(type, objectId, name, lastname, email);
+                written.add(objectId);
+            }
+        }
+    }
+
+    @Override
+    public void remove(SearchType type, String id) {
+        if (!enabled || id == null || !ObjectId.isValid(id)) {
+            return;
+        }
+        ObjectId objectId = new ObjectId(id);
+        synchronized (writes) {
+            index.remove(objectId);
+            if (building != null) {
+                building.remove(objectId);
+                written.add(objectId);
+            }
+        }
+    }
+
+    private void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            long expected = 0;
+            for (SearchType type : CONTACTS) {
+                expected += mongoTemplate.estimatedCount(type.getEntity());
+            }
+            TypeaheadIndex fresh = new TypeaheadIndex((int) Math.min(expected + expected / 8, Integer.MAX_VALUE - 8));
+            synchronized (writes) {
+                building = fresh;
+                written = new HashSet<>();
+            }
+            for (SearchType type : CONTACTS) {
+                load(type, fresh);
+            }
+            synchronized (writes) {
+                index = fresh;
+            }
+            log.info("Indexed {} contacts for suggestions in {} ms.", fresh.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the suggestion index: {}", e.getMessage());
+        } finally {
+            synchronized (writes) {
+                building = null;
+                written = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private void load(SearchType type, TypeaheadIndex fresh) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include("name", "lastname", "email");
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type.getEntity()))) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (!(document.get("_id") instanceof ObjectId id)) {
+                    continue;
+                }
+                synchronized (writes) {
+                    if (!written.contains(id)) {
+                        fresh.put(type, id, stringOf(document, "name"), stringOf(document, "lastname"),
+                                stringOf(document, "email"));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String stringOf(Document document, String field) {
+        return document.get(field) instanceof String value ? value : null;
+    }
+
+    private static SuggestionDTO toDTO(Suggestion suggestion) {
+        return new SuggestionDTO(suggestion.type().name().toLowerCase(Locale.ROOT), suggestion.id().toHexString(),
+                suggestion.name(), suggestion.lastname(), suggestion.email(), suggestion.score());
+    }
+}
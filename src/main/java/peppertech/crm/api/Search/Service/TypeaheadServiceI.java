@@ -0,0 +1,43 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import peppertech.crm.api.Search.Model.DTO.SuggestionDTO;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.List;
+
+/**
+ * Autocompletado de contactos (leads y usuarios) desde un índice en memoria.
+ */
+public interface TypeaheadServiceI {
+
+    /**
+     * Sugiere los contactos que coinciden con lo tecleado hasta ahora.
+     *
+     * @param text  el texto tecleado; cada palabra debe ser el comienzo del nombre, el apellido o el correo.
+     * @param types los tipos separados por comas ({@code lead}, {@code user}), o {@code null} para ambos.
+     * @param limit el número máximo de sugerencias, o {@code null} para el valor por defecto.
+     * @return las sugerencias de mejor a peor.
+     * @throws ValidationException si el texto, los tipos o el límite no son válidos.
+     */
+    List<SuggestionDTO> suggest(String text, String types, Integer limit) throws ValidationException;
+
+    /**
+     * Añade o actualiza un contacto en el índice tras escribirlo en la base de datos.
+     *
+     * @param type     {@link SearchType#LEAD} o {@link SearchType#USER}.
+     * @param id       el ID del contacto.
+     * @param name     el nombre.
+     * @param lastname el apellido.
+     * @param email    el correo electrónico.
+     */
+    void put(SearchType type, String id, String name, String lastname, String email);
+
+    /**
+     * Quita un contacto del índice tras eliminarlo de la base de datos.
+     *
+     * @param type {@link SearchType#LEAD} o {@link SearchType#USER}.
+     * @param id   el ID del contacto.
+     */
+    void remove(SearchType type, String id);
+}
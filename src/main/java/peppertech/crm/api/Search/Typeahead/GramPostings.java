@@ -0,0 +1,141 @@
+package peppertech.crm.api.Search.Typeahead;
+
+import java.util.Arrays;
+
+/**
+ * Listas de contactos por n-grama, sin objetos por entrada.
+ * <p>
+ * Es una tabla hash de direccionamiento abierto (sondeo lineal) con claves {@code long} (el n-grama empaquetado por
+ * {@link TypeaheadIndex}) y, para cada una, un {@code int[]} ordenado con los slots de los contactos que lo contienen.
+ * Las listas ordenadas permiten intersecarlas con búsqueda binaria. La clave {@code 0} marca una posición libre; las
+ * claves no se eliminan, solo se vacían sus listas.
+ * </p>
+ * <p>
+ * No es segura para hilos: {@link TypeaheadIndex} la protege con su candado.
+ * </p>
+ */
+final class GramPostings {
+
+    private static final int[] EMPTY = new int[0];
+
+    private long[] keys;
+    private int[][] lists;
+    private int[] sizes;
+    private int used;
+
+    GramPostings(int capacity) {
+        int length = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        keys = new long[length];
+        lists = new int[length][];
+        sizes = new int[length];
+    }
+
+    /**
+     * Añade un slot a la lista de un n-grama; no hace nada si ya estaba.
+     */
+    void add(long key, int slot) {
+        if ((used + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        int i = probe(key);
+        if (keys[i] == 0) {
+            keys[i] = key;
+            lists[i] = EMPTY;
+            used++;
+        }
+        int[] list = lists[i];
+        int size = sizes[i];
+        int position = Arrays.binarySearch(list, 0, size, slot);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == list.length) {
+            list = lists[i] = Arrays.copyOf(list, size + (size >> 1) + 2);
+        }
+        System.arraycopy(list, position, list, position + 1, size - position);
+        list[position] = slot;
+        sizes[i] = size + 1;
+    }
+
+    /**
+     * Quita un slot de la lista de un n-grama; no hace nada si no estaba.
+     */
+    void remove(long key, int slot) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return;
+        }
+        int[] list = lists[i];
+        int size = sizes[i];
+        int position = Arrays.binarySearch(list, 0, size, slot);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(list, position + 1, list, position, size - position - 1);
+        sizes[i] = --size;
+        if (size == 0) {
+            lists[i] = EMPTY;
+        } else if (list.length > 16 && size < list.length >> 2) {
+            lists[i] = Arrays.copyOf(list, size << 1);
+        }
+    }
+
+    /**
+     * @return la posición del n-grama en la tabla, o {@code -1} si no tiene lista.
+     */
+    int indexOf(long key) {
+        int i = probe(key);
+        return keys[i] == key && sizes[i] > 0 ? i : -1;
+    }
+
+    /**
+     * @return la lista ordenada de la posición {@code i}; solo son válidos sus primeros {@link #size(int)} elementos.
+     */
+    int[] list(int i) {
+        return lists[i];
+    }
+
+    int size(int i) {
+        return sizes[i];
+    }
+
+    /**
+     * @return el número de slots del n-grama, o {@code 0}.
+     */
+    int sizeOf(long key) {
+        int i = indexOf(key);
+        return i < 0 ? 0 : sizes[i];
+    }
+
+    private int probe(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize(int length) {
+        long[] oldKeys = keys;
+        int[][] oldLists = lists;
+        int[] oldSizes = sizes;
+        keys = new long[length];
+        lists = new int[length][];
+        sizes = new int[length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = probe(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                lists[j] = oldLists[i];
+                sizes[j] = oldSizes[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
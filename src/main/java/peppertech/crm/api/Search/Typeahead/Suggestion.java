@@ -0,0 +1,17 @@
+package peppertech.crm.api.Search.Typeahead;
+
+import org.bson.types.ObjectId;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+/**
+ * Contacto sugerido por {@link TypeaheadIndex}.
+ *
+ * @param type     el tipo de contacto, {@link SearchType#LEAD} o {@link SearchType#USER}.
+ * @param id       el ID del contacto.
+ * @param name     el nombre tal como se indexó, o {@code null}.
+ * @param lastname el apellido, o {@code null}.
+ * @param email    el correo electrónico, o {@code null}.
+ * @param score    la puntuación de la coincidencia; mayor es mejor.
+ */
+public record Suggestion(SearchType type, ObjectId id, String name, String lastname, String email, int score) {
+}
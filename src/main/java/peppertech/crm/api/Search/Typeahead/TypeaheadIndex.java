@@ -0,0 +1,757 @@
+package peppertech.crm.api.Search.Typeahead;
+
+import org.bson.types.ObjectId;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.SearchKeys;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+
+/**
+ * Índice en memoria para autocompletar contactos (leads y usuarios) por nombre, apellido y correo electrónico.
+ * <p>
+ * Cada contacto ocupa un slot en arrays paralelos (ID como tres {@code int}, tipo como {@code byte}, texto visible y
+ * clave normalizada); los IDs se resuelven con una tabla de direccionamiento abierto de {@code int} y los n-gramas
+ * apuntan a listas ordenadas de slots ({@link GramPostings}). No hay un objeto por contacto ni por entrada del índice.
+ * </p>
+ * <p>
+ * El texto se normaliza como en el resto de la búsqueda ({@link SearchKeys#normalize(String)}) y se separa en palabras;
+ * el correo se parte por sus símbolos, de modo que "ana.lopez@acme.com" tiene las palabras "ana", "lopez", "acme" y
+ * "com". De cada palabra se indexan sus prefijos de uno a tres caracteres, con el campo ("a", "an", "ana" en el nombre),
+ * y el resto de sus trigramas, sin campo ("ope", "pez"). Una búsqueda encuentra los contactos en los que cada palabra
+ * buscada es el comienzo de alguna palabra del contacto, y los puntúa sumando por cada palabra el peso del mejor campo
+ * en el que aparece (nombre 3, apellido 2, correo 1); a igual puntuación gana el texto más corto:
+ * </p>
+ * <ul>
+ *   <li>Si alguna lista es corta (hasta {@value #SPARSE_LIMIT} slots), se parte de ella y se interseca avanzando por las
+ *   demás listas ordenadas.</li>
+ *   <li>Si todas son largas, se intersecan como mapas de bits; y si la búsqueda es una sola palabra de hasta tres
+ *   caracteres, se toman directamente las coincidencias del nombre, luego del apellido y luego del correo hasta
+ *   completar el límite.</li>
+ *   <li>Los candidatos se ordenan con una cota de su puntuación sacada de las listas por campo, y solo se lee la clave
+ *   de los que todavía pueden entrar entre los mejores.</li>
+ * </ul>
+ * <p>
+ * Es seguro para hilos: las consultas comparten un candado de lectura y las escrituras toman el de escritura.
+ * </p>
+ */
+public final class TypeaheadIndex {
+
+    static final int NAME = 1;
+    static final int LASTNAME = 2;
+    static final int EMAIL = 3;
+    static final int MAX_TOKENS = 8;
+    static final int SPARSE_LIMIT = 4096;
+    static final int VERIFY_LIMIT = 256;
+
+    private static final int[] WEIGHTS = {0, 3, 2, 1};
+    private static final char SEPARATOR = '\u001F';
+    private static final char START = '\0';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final GramPostings postings;
+
+    private int[] ids;
+    private byte[] types;
+    private int[] lengths;
+    private String[] displays;
+    private String[] keys;
+    private int[] table;
+    private int[] free = new int[16];
+    private int freeCount;
+    private int slots;
+    private int size;
+
+    public TypeaheadIndex() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize el número de contactos esperado, para dimensionar los arrays de una vez.
+     */
+    public TypeaheadIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        ids = new int[capacity * 3];
+        types = new byte[capacity];
+        lengths = new int[capacity];
+        displays = new String[capacity];
+        keys = new String[capacity];
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        // El número de n-gramas distintos no crece con los contactos: está acotado por el alfabeto.
+        postings = new GramPostings(1 << 12);
+    }
+
+    /**
+     * Añade un contacto o actualiza el que tiene el mismo ID.
+     *
+     * @param type     el tipo de contacto.
+     * @param id       el ID.
+     * @param name     el nombre, o {@code null}.
+     * @param lastname el apellido, o {@code null}.
+     * @param email    el correo electrónico, o {@code null}.
+     */
+    public void put(SearchType type, ObjectId id, String name, String lastname, String email) {
+        String display = join(name, lastname, email);
+        String key = join(SearchKeys.normalize(name), SearchKeys.normalize(lastname), SearchKeys.normalize(email));
+        byte typeCode = (byte) (type.ordinal() + 1);
+        int[] parts = partsOf(id);
+        lock.writeLock().lock();
+        try {
+            int position = find(parts);
+            int slot;
+            if (table[position] != 0) {
+                slot = table[position] - 1;
+                if (types[slot] == typeCode && display.equals(displays[slot])) {
+                    return;
+                }
+                unindex(slot);
+            } else {
+                slot = allocate();
+                System.arraycopy(parts, 0, ids, slot * 3, 3);
+                table[position] = slot + 1;
+                if (++size * 2 > table.length) {
+                    rehash(table.length << 1);
+                }
+            }
+            types[slot] = typeCode;
+            lengths[slot] = display.length();
+            displays[slot] = display;
+            keys[slot] = key;
+            index(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un contacto.
+     *
+     * @param id el ID.
+     * @return {@code true} si el contacto estaba en el índice.
+     */
+    public boolean remove(ObjectId id) {
+        int[] parts = partsOf(id);
+        lock.writeLock().lock();
+        try {
+            int position = find(parts);
+            if (table[position] == 0) {
+                return false;
+            }
+            int slot = table[position] - 1;
+            unindex(slot);
+            types[slot] = 0;
+            displays[slot] = null;
+            keys[slot] = null;
+            deleteAt(position);
+            size--;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount << 1);
+            }
+            free[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return el número de contactos indexados.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los mejores contactos para un texto.
+     *
+     * @param query el texto tecleado; no distingue mayúsculas ni acentos.
+     * @param types los tipos de contacto incluidos.
+     * @param limit el número máximo de sugerencias.
+     * @return las sugerencias ordenadas de mejor a peor; vacía si el texto no tiene letras ni dígitos.
+     */
+    public List<Suggestion> suggest(String query, Set<SearchType> types, int limit) {
+        List<String> tokens = tokensOf(query);
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        int typeMask = 0;
+        for (SearchType type : types) {
+            typeMask |= 1 << (type.ordinal() + 1);
+        }
+        lock.readLock().lock();
+        try {
+            Top top = new Top(limit);
+            collect(tokens, typeMask, top);
+            return top.toSuggestions();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas.
+     *
+     * @param query el texto.
+     * @return las palabras sin repetir, como máximo {@value #MAX_TOKENS}.
+     */
+    static List<String> tokensOf(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = SearchKeys.normalize(query);
+        if (normalized == null) {
+            return List.of();
+        }
+        int start = -1;
+        for (int i = 0; i <= normalized.length() && tokens.size() < MAX_TOKENS; i++) {
+            if (i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private void collect(List<String> tokens, int typeMask, Top top) {
+        int[][] starts = new int[tokens.size()][];
+        List<int[]> first = new ArrayList<>();
+        List<int[]> rest = new ArrayList<>();
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            starts[t] = new int[EMAIL];
+            for (int field = NAME; field <= EMAIL; field++) {
+                starts[t][field - 1] = postings.indexOf(startGram(field, token));
+            }
+            List<int[]> constraints = new ArrayList<>();
+            constraints.add(Arrays.stream(starts[t]).filter(i -> i >= 0).toArray());
+            for (int i = 1; i + 3 <= token.length(); i++) {
+                constraints.add(new int[]{postings.indexOf(trigram(token, i))});
+            }
+            constraints.sort(Comparator.comparingInt(this::sizeOf));
+            if (sizeOf(constraints.get(0)) == 0) {
+                return;
+            }
+            first.add(constraints.get(0));
+            rest.addAll(constraints.subList(1, constraints.size()));
+        }
+        first.sort(Comparator.comparingInt(this::sizeOf));
+        rest.sort(Comparator.comparingInt(this::sizeOf));
+        List<int[]> constraints = new ArrayList<>(first);
+        constraints.addAll(rest);
+        if (sizeOf(constraints.get(0)) <= SPARSE_LIMIT) {
+            int[] candidates = intersectSparse(constraints, first.size(), typeMask);
+            int[][] cursors = new int[tokens.size()][EMAIL];
+            rank(candidates, tokens, top, slot -> boundOf(slot, starts, cursors));
+        } else if (tokens.size() == 1 && tokens.get(0).length() <= 3) {
+            collectByField(tokens.get(0), typeMask, top);
+        } else {
+            long[][][] bits = fieldBitsOf(starts);
+            rank(intersectDense(bits, typeMask), tokens, top, slot -> boundOf(slot, bits));
+        }
+    }
+
+    /**
+     * Recorre los contactos cuyo nombre empieza por la palabra buscada, luego los del apellido y luego los del correo,
+     * y se detiene al completar el límite. Se usa para una sola palabra de hasta tres caracteres muy frecuente, cuyas
+     * listas de inicio de palabra ya son las coincidencias exactas; dentro de cada campo el orden es el de inserción.
+     */
+    private void collectByField(String token, int typeMask, Top top) {
+        for (int field = NAME; field <= EMAIL && !top.isFull(); field++) {
+            int i = postings.indexOf(startGram(field, token));
+            if (i < 0) {
+                continue;
+            }
+            int[] list = postings.list(i);
+            int count = postings.size(i);
+            for (int j = 0; j < count && !top.isFull(); j++) {
+                int slot = list[j];
+                if ((typeMask & 1 << types[slot]) != 0 && !top.contains(slot)) {
+                    top.append(slot, WEIGHTS[field]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Interseca listas cortas: parte de la unión de la primera y filtra con las demás avanzando por ellas. Las
+     * {@code required} primeras (una por palabra) se aplican siempre; el resto solo mientras queden más de
+     * {@value #VERIFY_LIMIT} candidatos, ya que {@link #rank} comprueba cada uno de todas formas.
+     */
+    private int[] intersectSparse(List<int[]> constraints, int required, int typeMask) {
+        int[] candidates = new int[0];
+        for (int i : constraints.get(0)) {
+            candidates = union(candidates, postings.list(i), postings.size(i));
+        }
+        int count = 0;
+        for (int slot : candidates) {
+            if ((typeMask & 1 << types[slot]) != 0) {
+                candidates[count++] = slot;
+            }
+        }
+        for (int c = 1; c < constraints.size() && count > 0 && (c < required || count > VERIFY_LIMIT); c++) {
+            count = retain(candidates, count, constraints.get(c));
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Convierte las listas de inicio de palabra de cada palabra buscada y campo en mapas de bits de un bit por slot,
+     * o {@code null} si el campo no tiene lista.
+     */
+    private long[][][] fieldBitsOf(int[][] starts) {
+        long[][][] bits = new long[starts.length][EMAIL][];
+        for (int t = 0; t < starts.length; t++) {
+            for (int field = NAME; field <= EMAIL; field++) {
+                int i = starts[t][field - 1];
+                if (i >= 0) {
+                    long[] fieldBits = bits[t][field - 1] = new long[(slots + 63) >>> 6];
+                    int[] list = postings.list(i);
+                    for (int j = 0, size = postings.size(i); j < size; j++) {
+                        fieldBits[list[j] >>> 6] |= 1L << list[j];
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Interseca listas largas como mapas de bits, palabra a palabra de 64 bits: los contactos en los que cada palabra
+     * buscada empieza una palabra de algún campo. Los trigramas no se aplican, ya que construir el mapa de una lista
+     * cuesta tanto como recorrerla, y {@link #rank} descarta sin leerlos los candidatos que no pueden entrar entre los
+     * mejores.
+     */
+    private int[] intersectDense(long[][][] bits, int typeMask) {
+        int words = (slots + 63) >>> 6;
+        int[] candidates = new int[0];
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long word = -1L;
+            for (long[][] fields : bits) {
+                long any = 0;
+                for (long[] fieldBits : fields) {
+                    any |= fieldBits == null ? 0 : fieldBits[w];
+                }
+                word &= any;
+            }
+            for (; word != 0; word &= word - 1) {
+                int slot = w << 6 | Long.numberOfTrailingZeros(word);
+                if ((typeMask & 1 << types[slot]) != 0) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, Math.max(64, count << 1));
+                    }
+                    candidates[count++] = slot;
+                }
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Ordena los candidatos sin leer la clave de cada uno: la cota de su puntuación sale de las listas de inicio de
+     * palabra por campo (en qué campo empieza una palabra con los tres primeros caracteres de cada palabra buscada), y
+     * solo se comprueba con {@link #score} el candidato cuya cota todavía le permite entrar entre los mejores.
+     */
+    private void rank(int[] candidates, List<String> tokens, Top top, IntUnaryOperator bound) {
+        int[] scratch = new int[tokens.size()];
+        for (int slot : candidates) {
+            int limit = bound.applyAsInt(slot);
+            if (limit > 0 && top.admits(slot, limit)) {
+                int score = score(keys[slot], tokens, scratch);
+                if (score > 0) {
+                    top.offer(slot, score);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return la cota de la puntuación de un slot según los mapas de bits por campo, o {@code 0} si alguna palabra
+     * buscada no empieza ninguna palabra del contacto.
+     */
+    private static int boundOf(int slot, long[][][] bits) {
+        int bound = 0;
+        for (long[][] fields : bits) {
+            int best = 0;
+            for (int field = NAME; field <= EMAIL && best == 0; field++) {
+                long[] fieldBits = fields[field - 1];
+                if (fieldBits != null && (fieldBits[slot >>> 6] & 1L << slot) != 0) {
+                    best = WEIGHTS[field];
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            bound += best;
+        }
+        return bound;
+    }
+
+    /**
+     * Igual que {@link #boundOf(int, long[][][])} con las listas ordenadas; los slots deben llegar en orden creciente,
+     * ya que cada lista se recorre con su cursor.
+     */
+    private int boundOf(int slot, int[][] starts, int[][] cursors) {
+        int bound = 0;
+        for (int t = 0; t < starts.length; t++) {
+            int best = 0;
+            for (int field = NAME; field <= EMAIL && best == 0; field++) {
+                int i = starts[t][field - 1];
+                if (i >= 0) {
+                    int[] list = postings.list(i);
+                    int size = postings.size(i);
+                    int cursor = cursors[t][field - 1] = advance(list, size, cursors[t][field - 1], slot);
+                    best = cursor < size && list[cursor] == slot ? WEIGHTS[field] : 0;
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            bound += best;
+        }
+        return bound;
+    }
+
+    private int sizeOf(int[] positions) {
+        int size = 0;
+        for (int i : positions) {
+            size += i < 0 ? 0 : postings.size(i);
+        }
+        return size;
+    }
+
+    /**
+     * Deja al principio de {@code candidates} los que aparecen en alguna de las listas. Como los candidatos y las
+     * listas están ordenados, cada lista se recorre una sola vez avanzando con búsqueda exponencial.
+     *
+     * @return el número de candidatos que quedan.
+     */
+    private int retain(int[] candidates, int count, int[] positions) {
+        int[] cursors = new int[positions.length];
+        int kept = 0;
+        for (int j = 0; j < count; j++) {
+            int slot = candidates[j];
+            for (int p = 0; p < positions.length; p++) {
+                int[] list = postings.list(positions[p]);
+                int size = postings.size(positions[p]);
+                int cursor = cursors[p] = advance(list, size, cursors[p], slot);
+                if (cursor < size && list[cursor] == slot) {
+                    candidates[kept++] = slot;
+                    break;
+                }
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return la primera posición desde {@code from} cuyo valor es mayor o igual que {@code target}.
+     */
+    private static int advance(int[] list, int size, int from, int target) {
+        if (from >= size || list[from] >= target) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        while (low + step < size && list[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(list, low + 1, Math.min(low + step + 1, size), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Puntúa un contacto: cada palabra buscada suma el peso del mejor campo en el que empieza una palabra del contacto.
+     *
+     * @return la puntuación, o {@code 0} si alguna palabra buscada no aparece.
+     */
+    static int score(String key, List<String> tokens, int[] scratch) {
+        Arrays.fill(scratch, 0);
+        int field = NAME;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == SEPARATOR) {
+                field++;
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            int end = i + 1;
+            while (end < key.length() && Character.isLetterOrDigit(key.charAt(end))) {
+                end++;
+            }
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                if (token.length() <= end - i && key.startsWith(token, i)) {
+                    scratch[t] = Math.max(scratch[t], WEIGHTS[field]);
+                }
+            }
+            i = end - 1;
+        }
+        int score = 0;
+        for (int t = 0; t < tokens.size(); t++) {
+            if (scratch[t] == 0) {
+                return 0;
+            }
+            score += scratch[t];
+        }
+        return score;
+    }
+
+    private void index(int slot) {
+        forEachGram(keys[slot], gram -> postings.add(gram, slot));
+    }
+
+    private void unindex(int slot) {
+        forEachGram(keys[slot], gram -> postings.remove(gram, slot));
+    }
+
+    /**
+     * Recorre los n-gramas de una clave: los prefijos de uno a tres caracteres de cada palabra, con su campo, y los
+     * demás trigramas de la palabra, sin campo.
+     */
+    static void forEachGram(String key, LongConsumer consumer) {
+        int field = NAME;
+        int start = -1;
+        for (int i = 0; i <= key.length(); i++) {
+            char c = i < key.length() ? key.charAt(i) : SEPARATOR;
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+                continue;
+            }
+            if (start >= 0) {
+                consumer.accept(gram(field, START, START, key.charAt(start)));
+                if (i - start >= 2) {
+                    consumer.accept(gram(field, START, key.charAt(start), key.charAt(start + 1)));
+                }
+                if (i - start >= 3) {
+                    consumer.accept(gram(field, key.charAt(start), key.charAt(start + 1), key.charAt(start + 2)));
+                }
+                for (int j = start + 1; j + 3 <= i; j++) {
+                    consumer.accept(trigram(key, j));
+                }
+                start = -1;
+            }
+            if (c == SEPARATOR) {
+                field++;
+            }
+        }
+    }
+
+    private static long startGram(int field, String token) {
+        return switch (token.length()) {
+            case 1 -> gram(field, START, START, token.charAt(0));
+            case 2 -> gram(field, START, token.charAt(0), token.charAt(1));
+            default -> gram(field, token.charAt(0), token.charAt(1), token.charAt(2));
+        };
+    }
+
+    private static long trigram(String text, int start) {
+        return gram(0, text.charAt(start), text.charAt(start + 1), text.charAt(start + 2));
+    }
+
+    private static long gram(int field, char a, char b, char c) {
+        return (long) field << 48 | (long) a << 32 | (long) b << 16 | c;
+    }
+
+    private static int[] union(int[] a, int[] b, int bSize) {
+        int[] merged = new int[a.length + bSize];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < bSize) {
+            if (j == bSize || (i < a.length && a[i] < b[j])) {
+                merged[k++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                merged[k++] = b[j++];
+            } else {
+                merged[k++] = a[i++];
+                j++;
+            }
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    private static String join(String name, String lastname, String email) {
+        return (name == null ? "" : name) + SEPARATOR + (lastname == null ? "" : lastname) + SEPARATOR
+                + (email == null ? "" : email);
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return free[--freeCount];
+        }
+        if (slots == types.length) {
+            int capacity = slots + (slots >> 1);
+            ids = Arrays.copyOf(ids, capacity * 3);
+            types = Arrays.copyOf(types, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            displays = Arrays.copyOf(displays, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        return slots++;
+    }
+
+    private static int[] partsOf(ObjectId id) {
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        return new int[]{bytes.getInt(), bytes.getInt(), bytes.getInt()};
+    }
+
+    private ObjectId idOf(int slot) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt(ids[slot * 3]).putInt(ids[slot * 3 + 1]).putInt(ids[slot * 3 + 2]);
+        return new ObjectId(bytes.array());
+    }
+
+    private static int hash(int a, int b, int c) {
+        int h = (a * 31 + b) * 31 + c;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int hashOf(int slot) {
+        return hash(ids[slot * 3], ids[slot * 3 + 1], ids[slot * 3 + 2]);
+    }
+
+    /**
+     * @return la posición de la tabla que ocupa el ID, o la posición libre donde iría.
+     */
+    private int find(int[] parts) {
+        int mask = table.length - 1;
+        int i = hash(parts[0], parts[1], parts[2]) & mask;
+        while (table[i] != 0) {
+            int slot = table[i] - 1;
+            if (ids[slot * 3] == parts[0] && ids[slot * 3 + 1] == parts[1] && ids[slot * 3 + 2] == parts[2]) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int length) {
+        int[] old = table;
+        table = new int[length];
+        int mask = length - 1;
+        for (int entry : old) {
+            if (entry != 0) {
+                int i = hashOf(entry - 1) & mask;
+                while (table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = entry;
+            }
+        }
+    }
+
+    /**
+     * Borra una posición de la tabla desplazando hacia atrás las entradas que la sondearon, sin dejar marcas de borrado.
+     */
+    private void deleteAt(int position) {
+        int mask = table.length - 1;
+        int hole = position;
+        table[hole] = 0;
+        for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int home = hashOf(table[i] - 1) & mask;
+            boolean reachable = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+            if (!reachable) {
+                table[hole] = table[i];
+                table[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * Los mejores slots encontrados, ordenados de mejor a peor.
+     */
+    private final class Top {
+
+        private final int[] slots;
+        private final int[] scores;
+        private int count;
+
+        Top(int limit) {
+            slots = new int[limit];
+            scores = new int[limit];
+        }
+
+        boolean isFull() {
+            return count == slots.length;
+        }
+
+        boolean contains(int slot) {
+            for (int i = 0; i < count; i++) {
+                if (slots[i] == slot) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void append(int slot, int score) {
+            slots[count] = slot;
+            scores[count++] = score;
+        }
+
+        boolean admits(int slot, int score) {
+            return !isFull() || better(slot, score, slots[count - 1], scores[count - 1]);
+        }
+
+        void offer(int slot, int score) {
+            if (!admits(slot, score)) {
+                return;
+            }
+            int i = isFull() ? count - 1 : count++;
+            while (i > 0 && better(slot, score, slots[i - 1], scores[i - 1])) {
+                slots[i] = slots[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            slots[i] = slot;
+            scores[i] = score;
+        }
+
+        private boolean better(int slot, int score, int otherSlot, int otherScore) {
+            if (score != otherScore) {
+                return score > otherScore;
+            }
+            return lengths[slot] != lengths[otherSlot] ? lengths[slot] < lengths[otherSlot] : slot < otherSlot;
+        }
+
+        List<Suggestion> toSuggestions() {
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            SearchType[] values = SearchType.values();
+            for (int i = 0; i < count; i++) {
+                int slot = slots[i];
+                String[] fields = displays[slot].split(String.valueOf(SEPARATOR), -1);
+                suggestions.add(new Suggestion(values[types[slot] - 1], idOf(slot), emptyToNull(fields[0]),
+                        emptyToNull(fields[1]), emptyToNull(fields[2]), scores[i]));
+            }
+            return suggestions;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package peppertech.crm.api.Security.Concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de concurrencia adaptativo basado en el gradiente de latencia.
+ * <p>
+ * En cada ventana se compara la latencia media reciente con una media de largo plazo. Mientras la latencia se
+ * mantiene, el límite crece en {@code sqrt(limite)}; cuando la latencia sube (por ejemplo, porque MongoDB o el SMTP
+ * se vuelven lentos) el límite se reduce en proporción. Las solicitudes que superan el límite se rechazan de
+ * inmediato en lugar de acumularse en los hilos de Tomcat.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 20;
+    private static final int MIN_SAMPLES = 10;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sampleRttNanos = new LongAdder();
+    private final LongAdder sampleCount = new LongAdder();
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile double limit;
+    private volatile double longRttNanos;
+    private volatile double lastRttNanos;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${concurrency.limit.initial:50}") int initialLimit,
+                                      @Value("${concurrency.limit.min:10}") int minLimit,
+                                      @Value("${concurrency.limit.max:200}") int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("http.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently in flight")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("http.concurrency.rejected")
+                    .description("Requests rejected by the adaptive concurrency limiter")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Intenta admitir una solicitud de la prioridad indicada.
+     *
+     * @param priority la clase de la solicitud.
+     * @return {@code true} si la solicitud fue admitida; en ese caso se debe llamar a {@link #release(long)} o a
+     * {@link #release()} al terminar.
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int threshold = Math.max(1, (int) (limit * priority.share()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= threshold) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera una solicitud admitida y registra su latencia.
+     *
+     * @param rttNanos la duración de la solicitud en nanosegundos.
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        sampleRttNanos.add(rttNanos);
+        sampleCount.increment();
+    }
+
+    /**
+     * Libera una solicitud admitida sin registrar su latencia. Se usa para las respuestas asíncronas o en streaming,
+     * como las exportaciones, cuya duración depende del tamaño de la descarga y no de la carga del servidor: una sola
+     * muestra de minutos elevaría la media de la ventana y reduciría el límite del resto de las solicitudes.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Recalcula el límite a partir de las latencias registradas durante la última ventana.
+     */
+    @Scheduled(fixedRateString = "${concurrency.limit.window:1000}")
+    public void updateLimit() {
+        long count = sampleCount.sum();
+        if (count < MIN_SAMPLES) {
+            return;
+        }
+        double shortRtt = (double) sampleRttNanos.sumThenReset() / sampleCount.sumThenReset();
+        lastRttNanos = shortRtt;
+
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos;
+        longRtt = longRtt + (shortRtt - longRtt) / LONG_WINDOWS;
+        if (longRtt / shortRtt > 2.0) {
+            // La latencia mejoró de forma notable: se olvida antes la media de largo plazo.
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+
+        double current = limit;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        if (inFlight.get() < current / 2) {
+            // Con poca carga la latencia no dice nada del límite real; no se deja crecer.
+            newLimit = Math.min(newLimit, current);
+        }
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        if ((int) limit != (int) current) {
+            log.debug("Concurrency limit changed from {} to {} (rtt {} ms, long rtt {} ms)",
+                    (int) current, (int) limit, toMillis(shortRtt), toMillis(longRtt));
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Resume el estado del limitador para el endpoint de actuator.
+     *
+     * @return un mapa con el límite, las solicitudes en curso, las latencias y los rechazos por prioridad.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> rejections = new LinkedHashMap<>();
+        rejected.forEach((priority, counter) -> rejections.put(priority.name().toLowerCase(), (long) counter.count()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("limit", getLimit());
+        snapshot.put("minLimit", minLimit);
+        snapshot.put("maxLimit", maxLimit);
+        snapshot.put("inFlight", getInFlight());
+        snapshot.put("rttMillis", toMillis(lastRttNanos));
+        snapshot.put("longRttMillis", toMillis(longRttNanos));
+        snapshot.put("rejected", rejections);
+        return snapshot;
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,28 @@
+package peppertech.crm.api.Security.Concurrency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de actuator ({@code /actuator/concurrency}) con el estado del limitador de concurrencia adaptativo.
+ */
+@Component
+@Endpoint(id = "concurrency")
+public class ConcurrencyLimitEndpoint {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Autowired
+    public ConcurrencyLimitEndpoint(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> concurrency() {
+        return limiter.snapshot();
+    }
+}
@@ -0,0 +1,30 @@
+package peppertech.crm.api.Security.Concurrency;
+
+/**
+ * Clases de solicitud para el descarte de carga, de mayor a menor prioridad.
+ * <p>Cada clase solo es admitida mientras las solicitudes en curso no superen su fracción del límite actual,
+ * de modo que ante una saturación se descartan primero las escrituras y por último la autenticación.</p>
+ */
+public enum RequestPriority {
+    /** Rutas críticas, como {@code /auth/**}: pueden usar todo el límite. */
+    CRITICAL(1.0),
+    /** Lecturas ({@code GET}, {@code HEAD}, {@code OPTIONS}). */
+    READ(0.9),
+    /** Escrituras y el resto de solicitudes. */
+    WRITE(0.75);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * Fracción del límite de concurrencia que puede ocupar esta clase.
+     *
+     * @return un valor entre 0 y 1.
+     */
+    public double share() {
+        return share;
+    }
+}
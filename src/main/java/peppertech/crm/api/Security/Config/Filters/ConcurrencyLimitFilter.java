@@ -0,0 +1,137 @@
+package peppertech.crm.api.Security.Config.Filters;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import peppertech.crm.api.Security.Concurrency.AdaptiveConcurrencyLimiter;
+import peppertech.crm.api.Security.Concurrency.RequestPriority;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtro de descarte de carga que se ejecuta antes de la cadena de Spring Security.
+ * <p>Admite cada solicitud según su prioridad y el límite adaptativo actual; las que lo superan reciben
+ * {@code 503} con {@code Retry-After} sin ocupar un hilo en los servicios.</p>
+ * <p>Si la solicitud continúa de forma asíncrona (p. ej. las exportaciones con {@code StreamingResponseBody}), el
+ * permiso se libera cuando termina la respuesta y no al volver el hilo de Tomcat, para que el límite cuente el
+ * trabajo en curso. Su duración no se registra como latencia: depende del tamaño de la descarga y reduciría el límite
+ * de las solicitudes normales.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${concurrency.limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency.limit.retry-after:1}")
+    private long retryAfter;
+
+    private final List<String> criticalRoutes;
+
+    @Autowired
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  @Value("${concurrency.limit.critical-routes:/auth}") String criticalRoutes) {
+        this.limiter = limiter;
+        this.criticalRoutes = Arrays.stream(criticalRoutes.split(","))
+                .map(String::trim)
+                .filter(route -> !route.isEmpty())
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!limiter.tryAcquire(priorityOf(request))) {
+            response.setHeader("Retry-After", Long.toString(retryAfter));
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.getWriter().write("The server is overloaded, please try again later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+            } else {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private RequestPriority priorityOf(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (String route : criticalRoutes) {
+            if (uri.startsWith(route)) {
+                return RequestPriority.CRITICAL;
+            }
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return RequestPriority.READ;
+        }
+        return RequestPriority.WRITE;
+    }
+
+    /**
+     * Libera el permiso una sola vez al terminar la solicitud asíncrona, ya sea con éxito, error o tiempo agotado.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        }
+    }
+}
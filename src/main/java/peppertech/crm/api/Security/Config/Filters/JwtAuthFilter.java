@@ -1,21 +1,27 @@
 package peppertech.crm.api.Security.Config.Filters;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import peppertech.crm.api.Exceptions.InvalidTokenException;
 import peppertech.crm.api.Security.Service.JwtService;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 
 import java.io.IOException;
+import java.util.List;
 
+@Slf4j
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
@@ -37,10 +43,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             UserDTO user = jwtService.validateAuthHeader(authHeader);
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    user, user.getPassword(), null /* user.getAuthorities() */);
+                    user, user.getPassword(), user.getRole() != null
+                    ? List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
+                    : List.of());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
-        } catch (Exception ignored) {
+        } catch (InvalidTokenException | JwtException e) {
+            log.debug("Rejected JWT for {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+        } catch (Exception e) {
+            if (authHeader != null && !authHeader.startsWith("Bearer ")) {
+                log.debug("Ignored non-Bearer Authorization header for {} {}", request.getMethod(), request.getRequestURI());
+            } else if (authHeader != null) {
+                log.warn("Could not authenticate {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            }
         }
         filterChain.doFilter(request, response);
     }
@@ -3,63 +3,59 @@ package peppertech.crm.api.Security.Config.Filters;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import peppertech.crm.api.Security.RateLimit.RateLimitDecision;
+import peppertech.crm.api.Security.RateLimit.RateLimitRules;
+import peppertech.crm.api.Security.RateLimit.RateLimiterI;
+import peppertech.crm.api.Security.Routes.RouteRegistry;
+import peppertech.crm.api.Security.Service.AuthMetrics;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
+// Antes de la caché de respuestas, para que los aciertos también consuman cuota
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
 public class RateLimitingFilter implements Filter {
 
-    private final Map<String, AtomicInteger> requestsCount = new ConcurrentHashMap<>();
-
-    @Value("${rate.limiting.max-requests}")
-    private int MAX_REQUESTS;
-
-    @Value("${rate.limiting.time-window}")
-    private long TIME_WINDOW;
-
-    @Value("${rate.limiting.public-routes}")
-    private String publicRoutes;
-
-    private long windowStart = System.currentTimeMillis();
-
-    private List<String> publicRoutesList;
-
-    @Override
-    public void init(FilterConfig filterConfig) throws ServletException {
-        if (publicRoutes != null && !publicRoutes.isEmpty()) {
-            publicRoutesList = Arrays.asList(publicRoutes.split(","));
-        }
+    private final RateLimiterI rateLimiter;
+    private final RateLimitRules rateLimitRules;
+    private final RouteRegistry routeRegistry;
+    private final AuthMetrics authMetrics;
+
+    @Autowired
+    public RateLimitingFilter(RateLimiterI rateLimiter, RateLimitRules rateLimitRules, RouteRegistry routeRegistry,
+                              AuthMetrics authMetrics) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitRules = rateLimitRules;
+        this.routeRegistry = routeRegistry;
+        this.authMetrics = authMetrics;
     }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-        if (isPublicRoute(httpRequest.getRequestURI())) {
+        if (routeRegistry.isRateLimitExempt(httpRequest)) {
             chain.doFilter(request, response);
             return;
         }
 
-        String clientIP = request.getRemoteAddr();
-        long currentTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+        RateLimitRules.Resolution resolution = rateLimitRules.resolve(httpRequest);
+        RateLimitDecision decision = rateLimiter.tryAcquire(resolution.key(), resolution.rule());
+        authMetrics.recordStage(AuthMetrics.Stage.RATE_LIMIT, System.nanoTime() - start);
 
-        if (currentTime - windowStart > TIME_WINDOW) {
-            windowStart = currentTime;
-            requestsCount.clear();
-        }
+        httpResponse.setHeader("X-RateLimit-Limit", Long.toString(decision.limit()));
+        httpResponse.setHeader("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+        httpResponse.setHeader("X-RateLimit-Reset", Long.toString(toSeconds(decision.resetMillis())));
 
-        requestsCount.putIfAbsent(clientIP, new AtomicInteger(0));
-        int currentCount = requestsCount.get(clientIP).incrementAndGet();
-
-        if (currentCount >= MAX_REQUESTS) {
-            ((HttpServletResponse) response).setStatus(429);
+        if (!decision.allowed()) {
+            httpResponse.setHeader("Retry-After", Long.toString(toSeconds(decision.retryAfterMillis())));
+            httpResponse.setStatus(429);
             response.getWriter().write("You have sent too many requests, please try again later");
             return;
         }
@@ -67,12 +63,7 @@ public class RateLimitingFilter implements Filter {
         chain.doFilter(request, response);
     }
 
-    private boolean isPublicRoute(String uri) {
-        for (String route : publicRoutesList) {
-            if (uri.startsWith(route)) {
-                return true;
-            }
-        }
-        return false;
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
     }
 }
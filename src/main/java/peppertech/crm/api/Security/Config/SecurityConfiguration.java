@@ -1,9 +1,8 @@
 package peppertech.crm.api.Security.Config;
 
-
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
@@ -11,17 +10,15 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import peppertech.crm.api.Security.Config.Filters.JwtAuthFilter;
 import peppertech.crm.api.Security.Config.headers.CorsConfig;
+import peppertech.crm.api.Security.Routes.RouteRegistry;
+import peppertech.crm.api.Security.Service.PasswordHashingServiceI;
 import peppertech.crm.api.Users.Service.UserService;
 
-import java.util.Arrays;
-import java.util.List;
-
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true, jsr250Enabled = true)
@@ -30,18 +27,23 @@ public class SecurityConfiguration {
     private final CorsConfig corsConfig;
     private final JwtAuthFilter jwtAuthFilter;
     private final UserService serviceUser;
-    @Value("${application.security.public.routes}")
-    private String publicRoutes;
+    private final PasswordHashingServiceI passwordHasher;
+    private final RouteRegistry routeRegistry;
 
-    public SecurityConfiguration(CorsConfig corsConfig, JwtAuthFilter jwtAuthFilter, UserService serviceUser) {
+    public SecurityConfiguration(CorsConfig corsConfig, JwtAuthFilter jwtAuthFilter, UserService serviceUser,
+                                 PasswordHashingServiceI passwordHasher, RouteRegistry routeRegistry) {
         this.corsConfig = corsConfig;
         this.jwtAuthFilter = jwtAuthFilter;
         this.serviceUser = serviceUser;
+        this.passwordHasher = passwordHasher;
+        this.routeRegistry = routeRegistry;
     }
 
     /**
      * Configura la seguridad de las solicitudes HTTP para la aplicación.
      * Este bean define las políticas de autorización, autenticación y manejo de sesiones.
+     * Las rutas públicas se consultan en {@link RouteRegistry}, por lo que una recarga del registro se aplica sin
+     * reconstruir la cadena de filtros.
      *
      * @param httpSec La configuración de seguridad HTTP.
      * @return Un objeto {@link SecurityFilterChain} configurado con las políticas de seguridad.
@@ -50,18 +52,19 @@ public class SecurityConfiguration {
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSec) throws Exception {
 
-        List<String> publicRoutesList;
-        if (publicRoutes.contains(",")) {
-            publicRoutesList = Arrays.asList(publicRoutes.split(","));
-        } else {
-            publicRoutesList = List.of(publicRoutes);
-        }
-
         return httpSec
                 .csrf(Customizer.withDefaults()) // Enable default CSRF protection
                 .cors(c -> c.configurationSource(corsConfig))
                 .authorizeHttpRequests(authorizationManagerRequestMatcherRegistry -> {
-                    authorizationManagerRequestMatcherRegistry.requestMatchers(publicRoutesList.toArray(new String[0])).permitAll();
+                    authorizationManagerRequestMatcherRegistry.requestMatchers(routeRegistry::isPublic).permitAll();
+                    // Las operaciones de escritura de actuator (p. ej. recargar rutas) quedan reservadas a administradores
+                    authorizationManagerRequestMatcherRegistry.requestMatchers(HttpMethod.POST, "/actuator/**").hasRole("ADMIN");
+                    // Las estadísticas de caché muestran claves con correos y nombres
+                    authorizationManagerRequestMatcherRegistry.requestMatchers("/actuator/cachestats/**").hasRole("ADMIN");
+                    // La exportación de usuarios incluye los correos y roles de todas las cuentas
+                    authorizationManagerRequestMatcherRegistry.requestMatchers(HttpMethod.GET, "/Users/export").hasRole("ADMIN");
+                    // El rol solo se cambia por su propia ruta, que no pueden usar los usuarios sobre sí mismos
+                    authorizationManagerRequestMatcherRegistry.requestMatchers(HttpMethod.PATCH, "/Users/*/role").hasRole("ADMIN");
                     authorizationManagerRequestMatcherRegistry.anyRequest().authenticated();
                 })
                 .httpBasic(Customizer.withDefaults())
@@ -85,13 +88,13 @@ public class SecurityConfiguration {
     }
 
     /**
-     * Configura un codificador de contraseñas utilizando {@link BCryptPasswordEncoder}.
+     * Expone el codificador BCrypt de {@link PasswordHashingServiceI}, con el coste calibrado al iniciar.
      * Este bean es responsable de encriptar las contraseñas de los usuarios.
      *
      * @return Un objeto {@link PasswordEncoder} que usa BCrypt para encriptar las contraseñas.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return passwordHasher.getEncoder();
     }
 }
\ No newline at end of file
@@ -2,43 +2,29 @@ package peppertech.crm.api.Security.Config.headers;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.NonNull;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
-
-import java.util.Arrays;
-import java.util.List;
+import peppertech.crm.api.Security.Routes.RouteRegistry;
 
 
 @Component
 public class CorsConfig implements CorsConfigurationSource {
 
-    private static final List<String> ALLOWED_METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
-    private static final List<String> ALLOWED_HEADERS = List.of("Content-Type", "Authorization", "X-Requested-With");
-    private static final List<String> EXPOSED_HEADERS = List.of("Authorization", "X-Total-Count");
-    @Value("${http.header.cors.allowedOrigins}")
-    private String allowedOrigins;
+    private final RouteRegistry routeRegistry;
+
+    @Autowired
+    public CorsConfig(RouteRegistry routeRegistry) {
+        this.routeRegistry = routeRegistry;
+    }
 
+    /**
+     * Devuelve la configuración CORS precalculada por {@link RouteRegistry}, sin construirla en cada solicitud.
+     */
     @Override
     public CorsConfiguration getCorsConfiguration(@NonNull HttpServletRequest request) {
-        CorsConfiguration config = new CorsConfiguration();
-
-        List<String> originsList = allowedOrigins.contains(",")
-                ? Arrays.stream(allowedOrigins.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .toList()
-                : List.of(allowedOrigins.trim());
-
-        config.setAllowedOrigins(originsList);
-        config.setAllowedMethods(ALLOWED_METHODS);
-        config.setAllowedHeaders(ALLOWED_HEADERS);
-        config.setExposedHeaders(EXPOSED_HEADERS);
-        config.setAllowCredentials(true);
-        config.setMaxAge(3600L);
-
-        return config;
+        return routeRegistry.getCorsConfiguration();
     }
 
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package peppertech.crm.api.Security.Controller;
 
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,8 +11,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import peppertech.crm.api.Exceptions.InvalidTokenException;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
 import peppertech.crm.api.Responses.ErrorResponse;
 import peppertech.crm.api.Responses.TokenResponse;
+import peppertech.crm.api.Security.Model.DTO.RefreshTokenDTO;
 import peppertech.crm.api.Security.Service.JwtServiceI;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 
@@ -48,7 +51,9 @@ public class AuthController {
     )
     public ResponseEntity<?> login(@RequestBody UserDTO reqUser) {
         try {
-            return new ResponseEntity<>(new TokenResponse(jwtService.Login(reqUser)), HttpStatus.OK);
+            return new ResponseEntity<>(jwtService.Login(reqUser), HttpStatus.OK);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("Error logging in: " + e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         }
@@ -73,7 +78,9 @@ public class AuthController {
     )
     public ResponseEntity<?> register(@RequestBody UserDTO reqUser) {
         try {
-            return new ResponseEntity<>(new TokenResponse(jwtService.Register(reqUser)), HttpStatus.OK);
+            return new ResponseEntity<>(jwtService.Register(reqUser), HttpStatus.OK);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return new ResponseEntity<>(
                     new ErrorResponse("Error registering user: " + e.getMessage(), HttpStatus.BAD_REQUEST.value()),
@@ -83,6 +90,59 @@ public class AuthController {
     }
 
 
+    @PostMapping("/refresh")
+    @Operation(
+            summary = "Renovar el token",
+            description = "Entrega un nuevo JWT y un nuevo refresh token a cambio de un refresh token vigente, sin verificar la contraseña. Cada refresh token solo puede usarse una vez.",
+            responses = {
+                    @ApiResponse(
+                            description = "Token renovado",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponse.class))
+                    ),
+                    @ApiResponse(
+                            description = "Refresh token inválido, expirado o revocado",
+                            responseCode = "401",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenDTO body) {
+        try {
+            return new ResponseEntity<>(jwtService.refresh(body.getRefreshToken()), HttpStatus.OK);
+        } catch (InvalidTokenException e) {
+            return new ResponseEntity<>(new ErrorResponse("Error refreshing token: " + e.getMessage(), HttpStatus.UNAUTHORIZED.value()), HttpStatus.UNAUTHORIZED);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ErrorResponse("Error refreshing token: " + e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/logout")
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca el token JWT enviado en el header Authorization para que no vuelva a ser aceptado hasta su expiración. Si se envía el refresh token, también se revoca su familia.",
+            responses = {
+                    @ApiResponse(
+                            description = "Sesión cerrada correctamente",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Boolean.class))
+                    ),
+                    @ApiResponse(
+                            description = "Token inválido o error en el proceso",
+                            responseCode = "400",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) RefreshTokenDTO body) {
+        try {
+            return new ResponseEntity<>(jwtService.logout(authHeader, body != null ? body.getRefreshToken() : null), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ErrorResponse("Error logging out: " + e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("/password/forgot")
     @Operation(
             summary = "Solicitud de recuperación de contraseña",
@@ -111,7 +171,7 @@ public class AuthController {
     @PutMapping("/password/reset")
     @Operation(
             summary = "Restablecer contraseña",
-            description = "Recibe una nueva contraseña y un token de recuperación en los headers (Authorization). Si el token es válido, actualiza la contraseña del usuario.",
+            description = "Recibe una nueva contraseña y el token de recuperación enviado por correo en el header Authorization. El usuario se obtiene del token, que solo puede usarse una vez; al cambiar la contraseña se revocan todas las sesiones.",
             responses = {
                     @ApiResponse(
                             description = "Contraseña actualizada correctamente",
@@ -119,15 +179,23 @@ public class AuthController {
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponse.class))
                     ),
                     @ApiResponse(
-                            description = "Token inválido o error en el proceso",
+                            description = "Token de recuperación ausente, inválido, expirado, ya usado o de otra cuenta",
+                            responseCode = "401",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            description = "Contraseña inválida o error en el proceso",
                             responseCode = "400",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
                     )
             }
     )
-    public ResponseEntity<?> resetPassword(@RequestBody UserDTO reqUser, @RequestHeader("Authorization") String resetToken) {
+    public ResponseEntity<?> resetPassword(@RequestBody UserDTO reqUser,
+                                           @RequestHeader(value = "Authorization", required = false) String resetToken) {
         try {
-            return new ResponseEntity<>(new TokenResponse(jwtService.resetPassword(reqUser)), HttpStatus.OK);
+            return new ResponseEntity<>(new TokenResponse(jwtService.resetPassword(resetToken, reqUser)), HttpStatus.OK);
+        } catch (InvalidTokenException | JwtException e) {
+            return new ResponseEntity<>(new ErrorResponse("Error resetting password: " + e.getMessage(), HttpStatus.UNAUTHORIZED.value()), HttpStatus.UNAUTHORIZED);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("Error resetting password: " + e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         }
@@ -166,4 +234,10 @@ public class AuthController {
         }
 
     }
+
+    private ResponseEntity<ErrorResponse> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(new ErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package peppertech.crm.api.Security.Model.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class RefreshTokenDTO implements Serializable {
+
+    @Schema(description = "Refresh token recibido en el último inicio de sesión o renovación.",
+            example = "b3JfZmFtaWx5X2lk.c2VjcmV0X3Rva2VuX3ZhbHVl")
+    private String refreshToken;
+}
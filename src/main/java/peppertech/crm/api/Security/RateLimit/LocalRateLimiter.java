@@ -0,0 +1,137 @@
+package peppertech.crm.api.Security.RateLimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de tasa en memoria, sin bloqueos, para el modo de un solo nodo.
+ * <p>
+ * Cada cliente tiene un token bucket representado con GCRA: un único {@link AtomicLong} con el
+ * "theoretical arrival time" que se actualiza mediante CAS. No hay una ventana global que reiniciar ni
+ * bloqueos compartidos entre clientes, y el mismo algoritmo se usa en el modo Redis.
+ * </p>
+ * <p>
+ * Un bucket cuyo TAT ya pasó está lleno, y es indistinguible de uno inexistente; por eso las entradas inactivas se
+ * pueden descartar sin perder estado. Una limpieza periódica las elimina y, si se supera el máximo de entradas,
+ * se descartan además las más próximas a llenarse para mantener acotada la memoria. Esa selección usa un heap
+ * acotado al número de entradas a descartar en lugar de ordenar todos los buckets, y deja un margen del 10% para que
+ * la limpieza que dispara un cliente nuevo no se repita en cada solicitud.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rate.limiting.mode", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiterI {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final int maxEntries;
+
+    @Autowired
+    public LocalRateLimiter(@Value("${rate.limiting.local.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        long now = System.nanoTime();
+        long interval = Math.max(1L, TimeUnit.MILLISECONDS.toNanos(rule.windowMillis()) / Math.max(1L, rule.limit()));
+        long tolerance = interval * rule.limit();
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) {
+                sweep();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + interval;
+            long allowAt = newTat - tolerance;
+            if (allowAt > now) {
+                return new RateLimitDecision(false, rule.limit(), 0L, toMillis(tat - now), toMillis(allowAt - now));
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return new RateLimitDecision(true, rule.limit(), (now - allowAt) / interval, toMillis(newTat - now), 0L);
+            }
+        }
+    }
+
+    /**
+     * Número de clientes con estado en memoria.
+     *
+     * @return el número de buckets activos.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Descarta los buckets llenos y, si aún se supera el máximo, los más próximos a llenarse.
+     * Solo un hilo realiza la limpieza a la vez; el resto continúa sin esperar.
+     */
+    @Scheduled(fixedDelayString = "${rate.limiting.local.sweep-interval:60000}")
+    public void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() <= now);
+
+            int excess = buckets.size() - (maxEntries - maxEntries / 10);
+            if (excess > 0) {
+                evictClosestToFull(excess);
+                log.debug("Local rate limiter reached {} clients; evicted {} buckets.", maxEntries, excess);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * Elimina los {@code count} buckets con el TAT más bajo. Mantiene un heap de máximos con como mucho
+     * {@code count} candidatos, por lo que el coste es O(n log count) y no el de ordenar todos los buckets.
+     */
+    private void evictClosestToFull(int count) {
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(count,
+                Comparator.comparingLong(Candidate::tat).reversed());
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            long tat = entry.getValue().get();
+            if (candidates.size() < count) {
+                candidates.add(new Candidate(entry.getKey(), tat));
+            } else if (tat < candidates.peek().tat()) {
+                candidates.poll();
+                candidates.add(new Candidate(entry.getKey(), tat));
+            }
+        }
+        candidates.forEach(candidate -> buckets.remove(candidate.key()));
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0L, nanos));
+    }
+
+    /**
+     * Bucket candidato a descartarse, con el TAT leído al recorrer el mapa.
+     *
+     * @param key clave del cliente.
+     * @param tat theoretical arrival time en el momento de la lectura.
+     */
+    private record Candidate(String key, long tat) {
+    }
+}
@@ -0,0 +1,23 @@
+package peppertech.crm.api.Security.RateLimit;
+
+/**
+ * Resultado de evaluar una solicitud contra una regla de limitación de tasa.
+ *
+ * @param allowed          indica si la solicitud puede continuar.
+ * @param limit            límite de la regla aplicada ({@code X-RateLimit-Limit}).
+ * @param remaining        solicitudes restantes en la ventana ({@code X-RateLimit-Remaining}).
+ * @param resetMillis      milisegundos hasta que la cuota se recupere por completo ({@code X-RateLimit-Reset}).
+ * @param retryAfterMillis milisegundos que el cliente debe esperar antes de reintentar ({@code Retry-After}).
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetMillis, long retryAfterMillis) {
+
+    /**
+     * Decisión que deja pasar la solicitud sin información de cuota, usada cuando el limitador no está disponible.
+     *
+     * @param rule la regla que se intentó aplicar.
+     * @return una decisión permisiva.
+     */
+    public static RateLimitDecision allow(RateLimitRule rule) {
+        return new RateLimitDecision(true, rule.limit(), rule.limit(), 0L, 0L);
+    }
+}
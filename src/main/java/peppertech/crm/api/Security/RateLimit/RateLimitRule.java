@@ -0,0 +1,30 @@
+package peppertech.crm.api.Security.RateLimit;
+
+/**
+ * Regla de limitación de tasa: como máximo {@code limit} solicitudes cada {@code windowMillis} milisegundos.
+ *
+ * @param name         nombre de la regla (prefijo de ruta o {@code default}), usado como parte de la clave.
+ * @param limit        número máximo de solicitudes permitidas en la ventana.
+ * @param windowMillis duración de la ventana en milisegundos.
+ */
+public record RateLimitRule(String name, long limit, long windowMillis) {
+
+    /**
+     * Devuelve la misma regla con otro límite, conservando el nombre y la ventana.
+     *
+     * @param newLimit el nuevo límite.
+     * @return una nueva {@link RateLimitRule}.
+     */
+    public RateLimitRule withLimit(long newLimit) {
+        return new RateLimitRule(name, newLimit, windowMillis);
+    }
+
+    /**
+     * Intervalo mínimo entre solicitudes cuando el cliente consume la cuota de forma uniforme.
+     *
+     * @return el intervalo de emisión en milisegundos (al menos 1).
+     */
+    public long emissionIntervalMillis() {
+        return Math.max(1L, windowMillis / Math.max(1L, limit));
+    }
+}
@@ -0,0 +1,138 @@
+package peppertech.crm.api.Security.RateLimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resuelve qué regla de limitación de tasa y qué clave de cliente corresponden a cada solicitud.
+ * <p>
+ * Las reglas por ruta se configuran como {@code prefijo:limite[:ventanaMs]} separadas por comas y se aplica la de
+ * prefijo más largo. Las solicitudes autenticadas se identifican por el ID del usuario y el resto por la IP remota;
+ * además, es posible asignar límites propios a usuarios concretos con {@code idUsuario:limite}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RateLimitRules {
+
+    private static final String DEFAULT_RULE = "default";
+
+    @Value("${rate.limiting.max-requests}")
+    private long maxRequests;
+
+    @Value("${rate.limiting.time-window}")
+    private long timeWindow;
+
+    @Value("${rate.limiting.routes:}")
+    private String routes;
+
+    @Value("${rate.limiting.user.max-requests:0}")
+    private long userMaxRequests;
+
+    @Value("${rate.limiting.users:}")
+    private String users;
+
+    private RateLimitRule defaultRule;
+    private List<RateLimitRule> routeRules = List.of();
+    private Map<String, Long> userLimits = Map.of();
+
+    @PostConstruct
+    void init() {
+        defaultRule = new RateLimitRule(DEFAULT_RULE, maxRequests, timeWindow);
+
+        List<RateLimitRule> parsedRoutes = new ArrayList<>();
+        for (String spec : split(routes)) {
+            String[] parts = spec.split(":");
+            try {
+                long window = parts.length > 2 ? Long.parseLong(parts[2].trim()) : timeWindow;
+                parsedRoutes.add(new RateLimitRule(parts[0].trim(), Long.parseLong(parts[1].trim()), window));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring invalid rate limiting route rule '{}'. Expected 'prefix:limit[:windowMs]'.", spec);
+            }
+        }
+        parsedRoutes.sort(Comparator.comparingInt((RateLimitRule rule) -> rule.name().length()).reversed());
+        routeRules = List.copyOf(parsedRoutes);
+
+        Map<String, Long> parsedUsers = new HashMap<>();
+        for (String spec : split(users)) {
+            String[] parts = spec.split(":");
+            try {
+                parsedUsers.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring invalid rate limiting user rule '{}'. Expected 'userId:limit'.", spec);
+            }
+        }
+        userLimits = Map.copyOf(parsedUsers);
+    }
+
+    /**
+     * Determina la regla y la clave de cliente de una solicitud.
+     *
+     * @param request la solicitud HTTP.
+     * @return la regla a aplicar y la clave con la que se contabiliza.
+     */
+    public Resolution resolve(HttpServletRequest request) {
+        RateLimitRule rule = routeRule(request.getRequestURI());
+        String userId = authenticatedUserId();
+
+        if (userId == null) {
+            return new Resolution("ip:" + request.getRemoteAddr() + "|" + rule.name(), rule);
+        }
+        Long userLimit = userLimits.get(userId);
+        if (userLimit != null) {
+            rule = rule.withLimit(userLimit);
+        } else if (userMaxRequests > 0 && rule == defaultRule) {
+            rule = rule.withLimit(userMaxRequests);
+        }
+        return new Resolution("user:" + userId + "|" + rule.name(), rule);
+    }
+
+    private RateLimitRule routeRule(String uri) {
+        for (RateLimitRule rule : routeRules) {
+            if (uri.startsWith(rule.name())) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private static String authenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDTO user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Regla y clave resueltas para una solicitud.
+     *
+     * @param key  clave del cliente (usuario o IP) combinada con el nombre de la regla.
+     * @param rule regla que se debe aplicar.
+     */
+    public record Resolution(String key, RateLimitRule rule) {
+    }
+}
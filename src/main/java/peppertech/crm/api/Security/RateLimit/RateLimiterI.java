@@ -0,0 +1,17 @@
+package peppertech.crm.api.Security.RateLimit;
+
+/**
+ * Define el contrato de un limitador de tasa.
+ * <p>Las implementaciones deciden si una solicitud identificada por {@code key} puede continuar según la regla indicada.</p>
+ */
+public interface RateLimiterI {
+
+    /**
+     * Intenta consumir un permiso para la clave indicada.
+     *
+     * @param key  la clave del cliente (usuario o IP) y la ruta a la que se aplica la regla.
+     * @param rule la regla de límite que se debe aplicar.
+     * @return la decisión, con los datos necesarios para las cabeceras {@code X-RateLimit-*}.
+     */
+    RateLimitDecision tryAcquire(String key, RateLimitRule rule);
+}
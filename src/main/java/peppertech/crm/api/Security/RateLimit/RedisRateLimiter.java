@@ -0,0 +1,64 @@
+package peppertech.crm.api.Security.RateLimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Limitador de tasa distribuido sobre Redis, basado en GCRA (Generic Cell Rate Algorithm).
+ * <p>
+ * Cada clave guarda un único valor, el "theoretical arrival time", que se actualiza de forma atómica mediante un
+ * script Lua ejecutado en el servidor, con la hora del propio Redis. Así el límite es global para todos los nodos y
+ * no existe un reinicio de ventana que un cliente pueda aprovechar para duplicar su tasa.
+ * </p>
+ * <p>Si Redis no está disponible la solicitud se deja pasar, para no convertir una caída de Redis en una caída de la API.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rate.limiting.mode", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiterI {
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GCRA_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/gcra_rate_limit.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public RedisRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        try {
+            List<?> result = redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                    Long.toString(rule.emissionIntervalMillis()), Long.toString(rule.limit()));
+            if (result == null || result.size() < 4) {
+                return RateLimitDecision.allow(rule);
+            }
+            return new RateLimitDecision(
+                    toLong(result.get(0)) == 1L,
+                    rule.limit(),
+                    toLong(result.get(1)),
+                    toLong(result.get(2)),
+                    toLong(result.get(3)));
+        } catch (RuntimeException e) {
+            log.warn("Redis rate limiter unavailable, allowing request: {}", e.getMessage());
+            return RateLimitDecision.allow(rule);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,203 @@
+package peppertech.crm.api.Security.Routes;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro inmutable de rutas públicas y orígenes CORS, compartido por la cadena de seguridad, el filtro de
+ * limitación de tasa y la configuración CORS.
+ * <p>
+ * Las propiedades se leen y se compilan una única vez en un {@link Snapshot}: un trie para las rutas públicas, otro
+ * para las rutas exentas de limitación de tasa y un conjunto de orígenes con su {@link CorsConfiguration} ya
+ * construida. Recargar el registro reemplaza el snapshot completo de forma atómica, de modo que las solicitudes en
+ * curso nunca ven un estado a medias.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RouteRegistry {
+
+    static final String PUBLIC_ROUTES = "application.security.public.routes";
+    static final String RATE_LIMIT_PUBLIC_ROUTES = "rate.limiting.public-routes";
+    static final String ALLOWED_ORIGINS = "http.header.cors.allowedOrigins";
+
+    private static final List<String> ALLOWED_METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
+    private static final List<String> ALLOWED_HEADERS = List.of("Content-Type", "Authorization", "X-Requested-With");
+    private static final List<String> EXPOSED_HEADERS = List.of("Authorization", "X-Total-Count", "X-Next-Cursor", "X-Page-Limit");
+
+    private final Environment environment;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public RouteRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    /**
+     * Vuelve a leer las rutas y orígenes desde la configuración y reemplaza el snapshot vigente.
+     *
+     * @return el nuevo snapshot.
+     */
+    public Snapshot reload() {
+        return reload(environment.getProperty(PUBLIC_ROUTES, ""),
+                environment.getProperty(RATE_LIMIT_PUBLIC_ROUTES, ""),
+                environment.getProperty(ALLOWED_ORIGINS, ""));
+    }
+
+    /**
+     * Compila las rutas y orígenes indicados y reemplaza el snapshot vigente.
+     *
+     * @param publicRoutes          rutas públicas separadas por comas.
+     * @param rateLimitPublicRoutes prefijos exentos de limitación de tasa separados por comas.
+     * @param allowedOrigins        orígenes CORS permitidos separados por comas.
+     * @return el nuevo snapshot.
+     */
+    public Snapshot reload(String publicRoutes, String rateLimitPublicRoutes, String allowedOrigins) {
+        Set<String> origins = new LinkedHashSet<>(split(allowedOrigins));
+        Snapshot next = new Snapshot(
+                RouteTrie.compile(split(publicRoutes), false),
+                RouteTrie.compile(split(rateLimitPublicRoutes), true),
+                Set.copyOf(origins),
+                corsConfiguration(List.copyOf(origins)));
+        snapshot = next;
+        log.info("Route registry loaded: {} public routes, {} rate limit exempt routes, {} CORS origins.",
+                next.publicRoutes().getPatterns().size(), next.rateLimitExempt().getPatterns().size(), origins.size());
+        return next;
+    }
+
+    /**
+     * Indica si la solicitud se dirige a una ruta pública, que no requiere autenticación.
+     *
+     * @param request la solicitud HTTP.
+     * @return {@code true} si la ruta es pública.
+     */
+    public boolean isPublic(HttpServletRequest request) {
+        return snapshot.publicRoutes().matches(pathWithinApplication(request));
+    }
+
+    /**
+     * Indica si la solicitud está exenta de la limitación de tasa.
+     *
+     * @param request la solicitud HTTP.
+     * @return {@code true} si la ruta no se limita.
+     */
+    public boolean isRateLimitExempt(HttpServletRequest request) {
+        return snapshot.rateLimitExempt().matches(pathWithinApplication(request));
+    }
+
+    /**
+     * Indica si un origen está permitido por la configuración CORS.
+     *
+     * @param origin el valor del header {@code Origin}.
+     * @return {@code true} si el origen está en la lista de permitidos.
+     */
+    public boolean isAllowedOrigin(String origin) {
+        return origin != null && snapshot.origins().contains(origin);
+    }
+
+    /**
+     * Configuración CORS precalculada; se comparte entre solicitudes y no debe modificarse.
+     *
+     * @return la configuración CORS vigente.
+     */
+    public CorsConfiguration getCorsConfiguration() {
+        return snapshot.cors();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Resume el estado del registro para el endpoint de actuator.
+     *
+     * @return un mapa con las rutas y orígenes vigentes.
+     */
+    public Map<String, Object> describe() {
+        Snapshot current = snapshot;
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("publicRoutes", current.publicRoutes().getPatterns());
+        description.put("rateLimitExemptRoutes", current.rateLimitExempt().getPatterns());
+        description.put("allowedOrigins", current.origins());
+        return description;
+    }
+
+    private CorsConfiguration corsConfiguration(List<String> origins) {
+        CorsConfiguration config = new SetCorsConfiguration(Set.copyOf(origins));
+        config.setAllowedOrigins(origins);
+        config.setAllowedMethods(ALLOWED_METHODS);
+        config.setAllowedHeaders(ALLOWED_HEADERS);
+        config.setExposedHeaders(EXPOSED_HEADERS);
+        config.setAllowCredentials(true);
+        config.setMaxAge(3600L);
+        return config;
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)
+                ? uri.substring(contextPath.length())
+                : uri;
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Estado compilado del registro.
+     *
+     * @param publicRoutes    rutas que no requieren autenticación.
+     * @param rateLimitExempt rutas exentas de limitación de tasa.
+     * @param origins         orígenes CORS permitidos.
+     * @param cors            configuración CORS precalculada.
+     */
+    public record Snapshot(RouteTrie publicRoutes, RouteTrie rateLimitExempt, Set<String> origins,
+                           CorsConfiguration cors) {
+    }
+
+    /**
+     * {@link CorsConfiguration} que resuelve los orígenes exactos con una búsqueda en un conjunto en lugar de
+     * recorrer la lista; los comodines y patrones siguen el comportamiento por defecto.
+     */
+    private static final class SetCorsConfiguration extends CorsConfiguration {
+
+        private final Set<String> origins;
+
+        private SetCorsConfiguration(Set<String> origins) {
+            this.origins = origins;
+        }
+
+        @Override
+        public String checkOrigin(String origin) {
+            if (origin != null && origins.contains(origin)) {
+                return origin;
+            }
+            return super.checkOrigin(origin);
+        }
+    }
+}
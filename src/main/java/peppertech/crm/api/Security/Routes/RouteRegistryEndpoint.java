@@ -0,0 +1,49 @@
+package peppertech.crm.api.Security.Routes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint de actuator ({@code /actuator/routes}) para consultar y recargar el {@link RouteRegistry}.
+ * <p>
+ * Un {@code POST} sin parámetros vuelve a leer la configuración; si se indican parámetros, estos reemplazan los
+ * valores de la configuración hasta la próxima recarga.
+ * </p>
+ */
+@Component
+@Endpoint(id = "routes")
+public class RouteRegistryEndpoint {
+
+    private final RouteRegistry registry;
+
+    @Autowired
+    public RouteRegistryEndpoint(RouteRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> routes() {
+        return registry.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload(@Nullable String publicRoutes, @Nullable String rateLimitPublicRoutes,
+                                      @Nullable String allowedOrigins) {
+        if (publicRoutes == null && rateLimitPublicRoutes == null && allowedOrigins == null) {
+            registry.reload();
+        } else {
+            RouteRegistry.Snapshot current = registry.getSnapshot();
+            registry.reload(
+                    publicRoutes != null ? publicRoutes : String.join(",", current.publicRoutes().getPatterns()),
+                    rateLimitPublicRoutes != null ? rateLimitPublicRoutes : String.join(",", current.rateLimitExempt().getPatterns()),
+                    allowedOrigins != null ? allowedOrigins : String.join(",", current.origins()));
+        }
+        return registry.describe();
+    }
+}
@@ -0,0 +1,130 @@
+package peppertech.crm.api.Security.Routes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie inmutable de rutas por segmentos, compilado una sola vez.
+ * <p>
+ * Cada patrón se divide en segmentos separados por {@code /}. Un patrón coincide exactamente con su ruta, salvo que
+ * termine en {@code /**}, en cuyo caso coincide también con cualquier ruta bajo ese prefijo. El segmento {@code *}
+ * coincide con un único segmento cualquiera. Comprobar una ruta cuesta un recorrido proporcional a su número de
+ * segmentos, sin importar cuántos patrones haya.
+ * </p>
+ */
+public final class RouteTrie {
+
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SUFFIX = "**";
+
+    private final Node root;
+    private final List<String> patterns;
+
+    private RouteTrie(Node root, List<String> patterns) {
+        this.root = root;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Compila los patrones indicados.
+     *
+     * @param patterns los patrones de ruta.
+     * @param prefix   si es {@code true}, cada patrón se trata como un prefijo aunque no termine en {@code /**}.
+     * @return el trie compilado.
+     */
+    public static RouteTrie compile(Collection<String> patterns, boolean prefix) {
+        Node root = new Node();
+        List<String> compiled = new ArrayList<>();
+        for (String raw : patterns) {
+            String pattern = raw.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            List<String> segments = segments(pattern);
+            boolean subtree = prefix;
+            if (!segments.isEmpty() && segments.get(segments.size() - 1).equals(ANY_SUFFIX)) {
+                segments.remove(segments.size() - 1);
+                subtree = true;
+            }
+            Node node = root;
+            for (String segment : segments) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            if (subtree) {
+                node.subtree = true;
+            } else {
+                node.terminal = true;
+            }
+            compiled.add(pattern);
+        }
+        return new RouteTrie(root, List.copyOf(compiled));
+    }
+
+    /**
+     * Indica si la ruta coincide con alguno de los patrones.
+     *
+     * @param path la ruta de la solicitud, sin el context path.
+     * @return {@code true} si algún patrón coincide.
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        return matches(root, path, skipSlashes(path, 0));
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    private static boolean matches(Node node, String path, int start) {
+        if (node.subtree) {
+            return true;
+        }
+        if (start >= path.length()) {
+            return node.terminal;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int next = skipSlashes(path, end);
+
+        Node child = node.children.get(path.substring(start, end));
+        if (child != null && matches(child, path, next)) {
+            return true;
+        }
+        Node wildcard = node.children.get(ANY_SEGMENT);
+        return wildcard != null && matches(wildcard, path, next);
+    }
+
+    private static int skipSlashes(String path, int index) {
+        while (index < path.length() && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    private static List<String> segments(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean terminal;
+        private boolean subtree;
+    }
+}
@@ -0,0 +1,105 @@
+package peppertech.crm.api.Security.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de Micrometer de la ruta de autenticación.
+ * <p>
+ * Cada etapa (lectura del header, caché de tokens, verificación de la firma, búsqueda del usuario, versión del token
+ * y limitación de tasa) tiene su propio timer {@code auth.stage}, y cada validación termina en un resultado que se
+ * registra en {@code auth.request}. Ambos publican un histograma de percentiles para que la latencia de cola sea
+ * visible en {@code /actuator/metrics} y en Prometheus.
+ * </p>
+ */
+@Component
+public class AuthMetrics {
+
+    /**
+     * Etapas medidas de la autenticación.
+     */
+    public enum Stage {
+        HEADER, TOKEN_CACHE, VERIFY, USER_LOOKUP, VERSION_CHECK, RATE_LIMIT
+    }
+
+    /**
+     * Resultado de la validación de un token.
+     */
+    public enum Outcome {
+        VALID, MISSING, MALFORMED, INVALID_SIGNATURE, EXPIRED, REVOKED, UNKNOWN_USER, ERROR
+    }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Timer> outcomes = new EnumMap<>(Outcome.class);
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    @Autowired
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("auth.stage")
+                    .description("Latency of each stage of the authentication pipeline")
+                    .tag("stage", tagValue(stage))
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Timer.builder("auth.request")
+                    .description("Total JWT validation latency by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        cacheHits = Counter.builder("auth.token.cache")
+                .description("Verified token cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("auth.token.cache")
+                .description("Verified token cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta y mide una etapa de la autenticación.
+     *
+     * @param stage la etapa.
+     * @param task  el trabajo de la etapa.
+     * @return el resultado de la etapa.
+     * @throws Exception la excepción lanzada por la etapa, sin modificar.
+     */
+    public <T> T time(Stage stage, Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            stages.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(Outcome outcome, long nanos) {
+        outcomes.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+}
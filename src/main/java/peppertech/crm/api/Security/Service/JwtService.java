@@ -1,21 +1,26 @@
 package peppertech.crm.api.Security.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import peppertech.crm.api.Exceptions.InvalidTokenException;
 import peppertech.crm.api.Mails.Model.DTO.EmailDTO;
 import peppertech.crm.api.Mails.Service.EmailService;
 import peppertech.crm.api.Mails.Validator.EmailValidatorI;
+import peppertech.crm.api.Responses.TokenResponse;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 import peppertech.crm.api.Users.Service.UserServiceI;
+import peppertech.crm.api.Users.Validator.UserValidatorI;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
@@ -26,95 +31,268 @@ import java.util.Optional;
 @Service
 public class JwtService implements JwtServiceI {
 
+    private static final String PURPOSE = "purpose";
+    private static final String PASSWORD_RESET = "password_reset";
+
     private final UserServiceI serviceUser;
     private final EmailService emailService;
     private final EmailValidatorI emailValidator;
+    private final UserValidatorI userValidator;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenVersionService tokenVersionService;
+    private final PasswordHashingServiceI passwordHasher;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthMetrics authMetrics;
 
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
     @Value("${application.security.jwt.expiration}")
     private long expiration;
+    @Value("${application.security.jwt.reset.expiration:900000}")
+    private long resetExpiration;
+    @Value("${application.security.jwt.stateless:false}")
+    private boolean stateless;
+
+    private SecretKey signKey;
+    private JwtParser parser;
 
     /**
      * Constructor que inyecta las dependencias del servicio.
      *
      * @param serviceUser servicio que maneja las operaciones de base de datos.
+     * @param userValidator       validador de la nueva contraseña al restablecerla.
+     * @param tokenCache          caché de tokens ya verificados.
+     * @param tokenVersionService servicio que mantiene la versión de token de cada usuario.
+     * @param passwordHasher      servicio que verifica las contraseñas en un pool dedicado.
+     * @param refreshTokenService servicio que emite y rota los refresh tokens.
+     * @param authMetrics         métricas de cada etapa de la autenticación.
      */
     @Autowired
-    public JwtService(UserServiceI serviceUser, EmailService emailService, EmailValidatorI emailValidator) {
+    public JwtService(UserServiceI serviceUser, EmailService emailService, EmailValidatorI emailValidator,
+                      UserValidatorI userValidator, VerifiedTokenCache tokenCache, TokenVersionService tokenVersionService,
+                      PasswordHashingServiceI passwordHasher, RefreshTokenService refreshTokenService,
+                      AuthMetrics authMetrics) {
         this.serviceUser = serviceUser;
         this.emailService = emailService;
         this.emailValidator = emailValidator;
+        this.userValidator = userValidator;
+        this.tokenCache = tokenCache;
+        this.tokenVersionService = tokenVersionService;
+        this.passwordHasher = passwordHasher;
+        this.refreshTokenService = refreshTokenService;
+        this.authMetrics = authMetrics;
+    }
+
+    /**
+     * Decodifica la clave de firma y construye el parser una única vez, en lugar de hacerlo en cada verificación.
+     */
+    @PostConstruct
+    void init() {
+        this.signKey = getSignKey();
+        this.parser = Jwts.parser().verifyWith(signKey).build();
     }
 
     @Override
-    public String Login(UserDTO reqUser) throws Exception {
+    public TokenResponse Login(UserDTO reqUser) throws Exception {
         return Optional.of(serviceUser.getUserByEmail(reqUser.getEmail()))
-                .filter(userDTO -> new BCryptPasswordEncoder().matches(reqUser.getPassword(), userDTO.getPassword()))
-                .map(validUser -> generateToken(validUser.getId(), validUser.getEmail()))
+                .filter(userDTO -> passwordHasher.matches(reqUser.getPassword(), userDTO.getPassword()))
+                .map(this::generateTokens)
                 .orElseThrow(() -> new Exception("Invalid credentials."));
 
     }
 
     @Override
-    public String Register(UserDTO reqUser) throws Exception {
+    public TokenResponse Register(UserDTO reqUser) throws Exception {
         return Optional.ofNullable(serviceUser.CreateUser(reqUser))
-                .map(user -> generateToken(reqUser.getId(), user.getEmail()))
+                .map(this::generateTokens)
                 .orElseThrow(() -> new Exception("User already registered."));
     }
 
+    /**
+     * Renueva el access token a partir de un refresh token, rotándolo.
+     * No verifica la contraseña ni consulta la base de datos: basta con el script de Redis y una firma HMAC.
+     */
+    @Override
+    public TokenResponse refresh(String refreshToken) throws Exception {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        return new TokenResponse(createAccessToken(rotation.user(), rotation.version()), rotation.refreshToken());
+    }
+
+    private TokenResponse generateTokens(UserDTO user) {
+        long version = tokenVersionService.currentVersion(user.getId());
+        return new TokenResponse(createAccessToken(user, version), refreshTokenService.issue(user, version));
+    }
+
+
+    /**
+     * Genera un JWT con el ID, correo, rol y versión de token del usuario.
+     * Con estos claims el filtro puede construir el principal sin consultar la base de datos (modo stateless).
+     */
+    private String generateToken(UserDTO user) {
+        return createAccessToken(user, tokenVersionService.currentVersion(user.getId()));
+    }
 
-    private String generateToken(String id, String email) {
+    private String createAccessToken(UserDTO user, long version) {
         // TODO: Refine token (email != subject)
         Map<String, Object> claims = new HashMap<>();
-        claims.put("id", id);
-        claims.put("email", email);
-        // claims.put("roles", user.getAuthorities());
-        return createToken(claims, email);
-        // createToken (CustomClaims, subjectClaim)
+        claims.put("id", user.getId());
+        claims.put("email", user.getEmail());
+        claims.put("role", user.getRole());
+        claims.put("ver", version);
+        return createToken(claims, user.getEmail(), expiration);
+    }
+
+    /**
+     * Genera el token de recuperación de contraseña: solo sirve para {@link #resetPassword(String, UserDTO)}, caduca
+     * antes que un access token y lleva la versión de token vigente, de modo que deja de ser válido en cuanto se usa.
+     */
+    private String createResetToken(UserDTO user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", user.getId());
+        claims.put("ver", tokenVersionService.currentVersion(user.getId()));
+        claims.put(PURPOSE, PASSWORD_RESET);
+        return createToken(claims, user.getEmail(), resetExpiration);
     }
 
+    /**
+     * Valida el header Authorization y devuelve el usuario autenticado.
+     * Cada etapa se mide por separado y el resultado final se registra en {@link AuthMetrics}.
+     */
     @Override
     public UserDTO validateAuthHeader(String authHeader) throws Exception {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new Exception("Invalid authorization header. Expected format: 'Bearer <token>'.");
-        }
+        long start = System.nanoTime();
+        AuthMetrics.Outcome outcome = AuthMetrics.Outcome.ERROR;
+        try {
+            outcome = authHeader == null ? AuthMetrics.Outcome.MISSING : AuthMetrics.Outcome.MALFORMED;
+            String token = authMetrics.time(AuthMetrics.Stage.HEADER, () -> extractToken(authHeader));
 
-        String token = authHeader.split(" ")[1];
-        String email = extractEmail(token);
-        UserDetails user = serviceUser.loadUserByUsername(email);
-        if (email == null) {
-            throw new InvalidTokenException("Email not found.");
-        }
+            outcome = AuthMetrics.Outcome.REVOKED;
+            VerifiedTokenCache.VerifiedPrincipal cached = authMetrics.time(AuthMetrics.Stage.TOKEN_CACHE, () -> tokenCache.get(token));
+            authMetrics.recordCacheLookup(cached != null);
+            if (cached != null) {
+                if (cached.version() != currentVersion(cached.user().getId())) {
+                    throw new InvalidTokenException("Token has been revoked.");
+                }
+                outcome = AuthMetrics.Outcome.VALID;
+                return cached.user();
+            }
 
-        if (!validateToken(token, user)) {
-            throw new InvalidTokenException("Token has expired.");
+            outcome = AuthMetrics.Outcome.ERROR;
+            Claims claims = authMetrics.time(AuthMetrics.Stage.VERIFY, () -> extractAllClaims(token));
+            String email = claims.get("email", String.class);
+            if (email == null || claims.get(PURPOSE) != null) {
+                outcome = AuthMetrics.Outcome.MALFORMED;
+                throw new InvalidTokenException("Email not found.");
+            }
+
+            if (!validateToken(claims, email)) {
+                outcome = AuthMetrics.Outcome.EXPIRED;
+                throw new InvalidTokenException("Token has expired.");
+            }
+
+            UserDTO finalUser;
+            if (stateless) {
+                finalUser = userFromClaims(claims);
+            } else {
+                outcome = AuthMetrics.Outcome.UNKNOWN_USER;
+                // El DTO puede ser la instancia compartida de la caché local: se copia antes de modificarlo.
+                finalUser = principalOf(authMetrics.time(AuthMetrics.Stage.USER_LOOKUP, () -> serviceUser.getUserByEmail(email)));
+            }
+            finalUser.setPassword("");
+            outcome = AuthMetrics.Outcome.REVOKED;
+            if (authMetrics.time(AuthMetrics.Stage.VERSION_CHECK, () -> tokenCache.isRevoked(token))) {
+                throw new InvalidTokenException("Token has been revoked.");
+            }
+            if (finalUser.getId() == null || tokenVersion(claims) != currentVersion(finalUser.getId())) {
+                throw new InvalidTokenException("Token has been revoked.");
+            }
+            tokenCache.put(token, finalUser, claims.getExpiration(), tokenVersion(claims));
+            outcome = AuthMetrics.Outcome.VALID;
+            return finalUser;
+        } catch (ExpiredJwtException e) {
+            outcome = AuthMetrics.Outcome.EXPIRED;
+            throw e;
+        } catch (SignatureException e) {
+            outcome = AuthMetrics.Outcome.INVALID_SIGNATURE;
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = AuthMetrics.Outcome.MALFORMED;
+            throw e;
+        } finally {
+            authMetrics.recordOutcome(outcome, System.nanoTime() - start);
         }
+    }
 
-        UserDTO finalUser = serviceUser.getUserByEmail(email);
-        finalUser.setPassword("");
-        return finalUser;
+    private static UserDTO principalOf(UserDTO user) {
+        UserDTO principal = new UserDTO();
+        principal.setId(user.getId());
+        principal.setName(user.getName());
+        principal.setLastname(user.getLastname());
+        principal.setEmail(user.getEmail());
+        principal.setCreateAt(user.getCreateAt());
+        principal.setRole(user.getRole());
+        return principal;
+    }
 
+    private long currentVersion(String userId) throws Exception {
+        return authMetrics.time(AuthMetrics.Stage.VERSION_CHECK, () -> tokenVersionService.currentVersion(userId));
     }
 
     @Override
-    public String resetPassword(UserDTO reqUser) throws Exception {
-        return Optional.of(serviceUser.getUserByEmail(reqUser.getEmail()))
-                .map(validUser -> {
-                    try {
-                        return serviceUser.UpdateUser(validUser.getId(), validUser);
-                    } catch (Exception e) {
-                        throw new ValidationException("Failed to update user." + e.getMessage());
-                    }
-                })
-                .map(validUser -> generateToken(validUser.getId(), validUser.getEmail()))
-                .orElseThrow(() -> new Exception("Invalid credentials."));
+    public Boolean logout(String authHeader, String refreshToken) throws Exception {
+        String token = extractToken(authHeader);
+        tokenCache.revoke(token, extractAllClaims(token).getExpiration());
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        return true;
+    }
+
+    /**
+     * Restablece la contraseña con el token enviado por {@link #forgotPassword(String)}.
+     * El usuario se obtiene del token y no del cuerpo; el token se consume incrementando la versión de token del
+     * usuario, que además revoca todas sus sesiones. Si el incremento no parte de la versión del token, el token ya
+     * se había usado (o las sesiones se revocaron después de emitirlo) y se rechaza. La nueva contraseña se valida
+     * antes de consumir el token, de modo que una contraseña inválida no obliga a pedir otro correo.
+     */
+    @Override
+    public String resetPassword(String authHeader, UserDTO reqUser) throws Exception {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Missing password reset token.");
+        }
+        Claims claims = extractAllClaims(extractToken(authHeader));
+        String userId = claims.get("id", String.class);
+        if (!PASSWORD_RESET.equals(claims.get(PURPOSE)) || userId == null || claims.getSubject() == null) {
+            throw new InvalidTokenException("Invalid password reset token.");
+        }
+        if (reqUser.getEmail() != null && !reqUser.getEmail().equalsIgnoreCase(claims.getSubject())) {
+            throw new InvalidTokenException("The password reset token does not belong to this account.");
+        }
+        userValidator.validatePassword(reqUser.getPassword());
+        if (!userValidator.isValid()) {
+            throw new ValidationException(userValidator.getErrors().toString());
+        }
+        userValidator.Reset();
+        UserDTO user = serviceUser.getUserById(userId);
+        if (!claims.getSubject().equalsIgnoreCase(user.getEmail())) {
+            throw new InvalidTokenException("The password reset token does not belong to this account.");
+        }
+        long version = tokenVersion(claims);
+        if (version != tokenVersionService.currentVersion(userId)
+                || tokenVersionService.revokeAll(userId) != version + 1) {
+            throw new InvalidTokenException("Password reset token has already been used.");
+        }
+        tokenCache.invalidateUser(user.getEmail());
+
+        UserDTO changes = new UserDTO();
+        changes.setPassword(reqUser.getPassword());
+        return generateToken(serviceUser.PatchUser(userId, changes));
     }
 
     @Override
     public Boolean forgotPassword(String email) throws Exception {
         return Optional.of(serviceUser.getUserByEmail(email))
-                .map(validUser -> generateToken(validUser.getId(), validUser.getEmail()))
+                .map(this::createResetToken)
                 .map(token -> new EmailDTO(null, email, "Password recovery token: " + token, "Password Recovery", "", null, "true"))
                 .map(emailService::sendSimpleMail)
                 .map(ValidDTO -> {
@@ -130,24 +308,41 @@ public class JwtService implements JwtServiceI {
                 .orElseThrow(() -> new IllegalStateException("No user is associated with this email address."));
     }
 
-    private Boolean validateToken(String token, UserDetails userDetails) {
-        Date expirationDate = extractExpiration(token);
-        if (expirationDate.before(new Date())) {
-            return false;
+    private String extractToken(String authHeader) throws Exception {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new Exception("Invalid authorization header. Expected format: 'Bearer <token>'.");
         }
-        String username = extractUsername(token);
-        return userDetails.getUsername().equals(username) && !expirationDate.before(new Date());
+        return authHeader.substring(7);
+    }
 
+    private Boolean validateToken(Claims claims, String email) {
+        Date expirationDate = claims.getExpiration();
+        return expirationDate != null && !expirationDate.before(new Date()) && email.equals(claims.getSubject());
+    }
 
+    /**
+     * Construye el principal directamente desde los claims ya verificados, sin consultar la base de datos.
+     */
+    private UserDTO userFromClaims(Claims claims) {
+        UserDTO user = new UserDTO();
+        user.setId(claims.get("id", String.class));
+        user.setEmail(claims.get("email", String.class));
+        user.setRole(claims.get("role", String.class));
+        return user;
     }
 
-    private String createToken(Map<String, Object> claims, String username) {
+    private long tokenVersion(Claims claims) {
+        Number version = claims.get("ver", Number.class);
+        return version != null ? version.longValue() : 0L;
+    }
+
+    private String createToken(Map<String, Object> claims, String username, long lifetime) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .expiration(new Date(System.currentTimeMillis() + lifetime))
+                .signWith(signKey)
                 //.signWith(getSignKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -158,23 +353,7 @@ public class JwtService implements JwtServiceI {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
-    }
-
-    private String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    private String extractEmail(String token) {
-        return extractAllClaims(token).get("email", String.class);
+        return parser.parseSignedClaims(token).getPayload();
     }
 
 }
\ No newline at end of file
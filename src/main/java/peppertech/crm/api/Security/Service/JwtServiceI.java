@@ -1,15 +1,20 @@
 package peppertech.crm.api.Security.Service;
 
+import peppertech.crm.api.Responses.TokenResponse;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 
 public interface JwtServiceI {
-    String Login(UserDTO reqUser) throws Exception;
+    TokenResponse Login(UserDTO reqUser) throws Exception;
 
-    String Register(UserDTO reqUser) throws Exception;
+    TokenResponse Register(UserDTO reqUser) throws Exception;
+
+    TokenResponse refresh(String refreshToken) throws Exception;
 
     UserDTO validateAuthHeader(String token) throws Exception;
 
-    String resetPassword(UserDTO reqUser) throws Exception;
+    Boolean logout(String authHeader, String refreshToken) throws Exception;
+
+    String resetPassword(String authHeader, UserDTO reqUser) throws Exception;
 
     Boolean forgotPassword(String email) throws Exception;
 }
@@ -0,0 +1,180 @@
+package peppertech.crm.api.Security.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de cifrado de contraseñas con un pool de hilos dedicado y acotado.
+ * <p>
+ * BCrypt es deliberadamente costoso: ejecutarlo en los hilos de Tomcat permite que una ráfaga de inicios de sesión
+ * bloquee endpoints que no tienen relación con la autenticación. Aquí el trabajo se delega a un pool del tamaño del
+ * número de núcleos con una cola acotada; cuando la cola está llena la solicitud se rechaza de inmediato con
+ * {@link ServiceOverloadedException} en lugar de esperar.
+ * </p>
+ * <p>
+ * Al iniciar, si no se configura un coste fijo, se calibra el coste de BCrypt para que un cifrado tarde
+ * aproximadamente la latencia objetivo en este hardware, sin bajar del coste mínimo configurado.
+ * </p>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements PasswordHashingServiceI {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.security.password.bcrypt.strength:0}")
+    private int strength;
+    @Value("${application.security.password.bcrypt.min-strength:10}")
+    private int minStrength;
+    @Value("${application.security.password.bcrypt.max-strength:14}")
+    private int maxStrength;
+    @Value("${application.security.password.bcrypt.target-latency:250}")
+    private long targetLatency;
+    @Value("${application.security.password.hashing.threads:0}")
+    private int threads;
+    @Value("${application.security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${application.security.password.hashing.timeout:5000}")
+    private long timeout;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter rejected;
+
+    @Autowired
+    public PasswordHashingService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Password-Hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        int cost = strength > 0 ? strength : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+        log.info("Password hashing uses BCrypt cost {} with {} threads and a queue of {}.", cost, poolSize, queueCapacity);
+
+        encodeTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        matchesTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(String rawPassword) throws ServiceOverloadedException {
+        if (rawPassword == null || rawPassword.isEmpty()) {
+            return null;
+        }
+        return submit(() -> encodeTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) throws ServiceOverloadedException {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        Boolean result = submit(() -> matchesTimer.record(() -> encoder.matches(rawPassword, encodedPassword)));
+        return Boolean.TRUE.equals(result);
+    }
+
+    @Override
+    public PasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many authentication requests, please try again later.");
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceOverloadedException("Authentication is taking too long, please try again later.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Password hashing was interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Busca el mayor coste de BCrypt cuyo tiempo de cifrado no supere la latencia objetivo.
+     * Cada incremento de coste duplica el tiempo, por lo que basta medir un cifrado por nivel.
+     */
+    private int calibrate() {
+        int cost = minStrength;
+        measure(cost); // calentamiento del JIT antes de medir
+        long elapsed = measure(cost);
+        while (cost < maxStrength && elapsed * 2 <= targetLatency) {
+            cost++;
+            elapsed = measure(cost);
+        }
+        log.debug("BCrypt calibration: cost {} takes {} ms (target {} ms).", cost, elapsed, targetLatency);
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        candidate.encode("calibration-sample");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
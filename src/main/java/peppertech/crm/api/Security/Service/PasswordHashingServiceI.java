@@ -0,0 +1,32 @@
+package peppertech.crm.api.Security.Service;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
+
+public interface PasswordHashingServiceI {
+    /**
+     * Cifra una contraseña en texto plano con BCrypt.
+     *
+     * @param rawPassword la contraseña en texto plano.
+     * @return el hash BCrypt, o {@code null} si la contraseña es nula o vacía.
+     * @throws ServiceOverloadedException si no hay capacidad para atender la solicitud.
+     */
+    String encode(String rawPassword) throws ServiceOverloadedException;
+
+    /**
+     * Verifica una contraseña en texto plano contra un hash BCrypt.
+     *
+     * @param rawPassword     la contraseña en texto plano.
+     * @param encodedPassword el hash almacenado.
+     * @return {@code true} si la contraseña coincide.
+     * @throws ServiceOverloadedException si no hay capacidad para atender la solicitud.
+     */
+    boolean matches(String rawPassword, String encodedPassword) throws ServiceOverloadedException;
+
+    /**
+     * Codificador BCrypt con el coste calibrado, para los componentes de Spring Security.
+     *
+     * @return el {@link PasswordEncoder} compartido.
+     */
+    PasswordEncoder getEncoder();
+}
@@ -0,0 +1,218 @@
+package peppertech.crm.api.Security.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import peppertech.crm.api.Exceptions.InvalidTokenException;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Emite y rota refresh tokens agrupados en familias almacenadas en Redis.
+ * <p>
+ * Un refresh token tiene la forma {@code <usuario>.<familia>.<secreto>}. La familia
+ * ({@code refresh:family:{<usuario>}:<id>}) guarda el hash del único secreto vigente junto con los datos necesarios
+ * para firmar un nuevo access token, de modo que una renovación cuesta un script Lua en Redis y una firma HMAC, sin
+ * BCrypt ni consultas a MongoDB. El ID del usuario va entre llaves para que la familia, el conjunto de familias del
+ * usuario ({@code refresh:families:{<usuario>}}) y su versión de token compartan slot en Redis Cluster.
+ * </p>
+ * <p>
+ * Cada renovación reemplaza el secreto. Si se presenta un secreto que ya fue rotado, se asume que el token fue robado
+ * y se revoca la familia completa. La familia también se invalida cuando cambia la versión de token del usuario
+ * (por ejemplo, al restablecer la contraseña) y al cumplir su duración máxima, que las renovaciones no extienden.
+ * </p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final String KEY_PREFIX = "refresh:family:";
+    private static final String FAMILIES_PREFIX = "refresh:families:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/refresh_token_rotate.lua"), List.class);
+    private static final RedisScript<Long> UPDATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/refresh_token_update.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${application.security.jwt.refresh.expiration:1209600000}")
+    private long refreshExpiration;
+
+    @Value("${application.security.jwt.refresh.max-lifetime:2592000000}")
+    private long refreshMaxLifetime;
+
+    @Autowired
+    public RefreshTokenService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Crea una nueva familia de refresh tokens para el usuario.
+     *
+     * @param user    el usuario autenticado.
+     * @param version la versión de token vigente del usuario.
+     * @return el primer refresh token de la familia.
+     */
+    public String issue(UserDTO user, long version) {
+        String familyId = randomToken(16);
+        String secret = randomToken(32);
+        String key = familyKey(user.getId(), familyId);
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "cur", hash(secret),
+                "uid", user.getId(),
+                "email", user.getEmail(),
+                "role", user.getRole() != null ? user.getRole() : "",
+                "ver", Long.toString(version),
+                "exp", Long.toString(System.currentTimeMillis() + refreshMaxLifetime)));
+        redisTemplate.expire(key, Duration.ofMillis(Math.min(refreshExpiration, refreshMaxLifetime)));
+        String families = familiesKey(user.getId());
+        redisTemplate.opsForSet().add(families, familyId);
+        redisTemplate.expire(families, Duration.ofMillis(refreshMaxLifetime));
+        return user.getId() + "." + familyId + "." + secret;
+    }
+
+    /**
+     * Valida un refresh token y lo reemplaza por uno nuevo de la misma familia.
+     *
+     * @param refreshToken el refresh token presentado por el cliente.
+     * @return el usuario de la familia, su versión de token y el nuevo refresh token.
+     * @throws InvalidTokenException si el token no es válido, expiró, ya fue usado o fue revocado.
+     */
+    public Rotation rotate(String refreshToken) throws InvalidTokenException {
+        String[] parts = parse(refreshToken);
+        if (parts == null) {
+            throw new InvalidTokenException("Invalid refresh token.");
+        }
+        String userId = parts[0];
+        String familyId = parts[1];
+        String newSecret = randomToken(32);
+
+        List<?> result = redisTemplate.execute(ROTATE_SCRIPT,
+                List.of(familyKey(userId, familyId), TokenVersionService.key(userId)),
+                hash(parts[2]), hash(newSecret), Long.toString(refreshExpiration),
+                Long.toString(System.currentTimeMillis()));
+        long status = result != null && !result.isEmpty() ? toLong(result.get(0)) : 0L;
+        if (status == -1L) {
+            throw new InvalidTokenException("Refresh token reuse detected, the session has been revoked.");
+        }
+        if (status == -2L) {
+            throw new InvalidTokenException("Refresh token has been revoked.");
+        }
+        if (status != 1L) {
+            throw new InvalidTokenException("Refresh token has expired.");
+        }
+
+        UserDTO user = new UserDTO();
+        user.setId(result.get(1).toString());
+        user.setEmail(result.get(2).toString());
+        String role = result.get(3).toString();
+        user.setRole(role.isEmpty() ? null : role);
+        return new Rotation(user, toLong(result.get(4)), userId + "." + familyId + "." + newSecret);
+    }
+
+    /**
+     * Revoca la familia a la que pertenece un refresh token.
+     *
+     * @param refreshToken el refresh token presentado por el cliente.
+     */
+    public void revoke(String refreshToken) {
+        String[] parts = parse(refreshToken);
+        if (parts != null) {
+            redisTemplate.delete(familyKey(parts[0], parts[1]));
+            redisTemplate.opsForSet().remove(familiesKey(parts[0]), parts[1]);
+        }
+    }
+
+    /**
+     * Actualiza el correo y el rol guardados en las familias vigentes de un usuario, para que los access tokens
+     * emitidos al renovar lleven sus datos actuales.
+     *
+     * @param user el usuario con sus datos actuales.
+     */
+    public void updateUser(UserDTO user) {
+        String families = familiesKey(user.getId());
+        Set<String> familyIds = redisTemplate.opsForSet().members(families);
+        if (familyIds == null || familyIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(familyIds.size() + 1);
+        List<String> args = new ArrayList<>(familyIds.size() + 2);
+        keys.add(families);
+        args.add(user.getEmail());
+        args.add(user.getRole() != null ? user.getRole() : "");
+        for (String familyId : familyIds) {
+            keys.add(familyKey(user.getId(), familyId));
+            args.add(familyId);
+        }
+        redisTemplate.execute(UPDATE_SCRIPT, keys, args.toArray());
+    }
+
+    private static String familyKey(String userId, String familyId) {
+        return KEY_PREFIX + "{" + userId + "}:" + familyId;
+    }
+
+    private static String familiesKey(String userId) {
+        return FAMILIES_PREFIX + "{" + userId + "}";
+    }
+
+    private static String[] parse(String refreshToken) {
+        if (refreshToken == null) {
+            return null;
+        }
+        String[] parts = refreshToken.split("\\.", -1);
+        if (parts.length != 3) {
+            return null;
+        }
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                return null;
+            }
+        }
+        return parts;
+    }
+
+    private String randomToken(int bytes) {
+        byte[] buffer = new byte[bytes];
+        random.nextBytes(buffer);
+        return ENCODER.encodeToString(buffer);
+    }
+
+    private static String hash(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    /**
+     * Resultado de una renovación.
+     *
+     * @param user         el usuario dueño de la familia.
+     * @param version      la versión de token con la que se emitió la familia.
+     * @param refreshToken el nuevo refresh token.
+     */
+    public record Rotation(UserDTO user, long version, String refreshToken) {
+    }
+}
@@ -0,0 +1,158 @@
+package peppertech.crm.api.Security.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene la versión de token de cada usuario, usada para revocar todos sus JWT emitidos.
+ * <p>
+ * La versión vive en Redis ({@code token_version:{<userId>}}) para que la revocación sea visible en todos los nodos,
+ * y se guarda una copia local durante un intervalo corto para que la validación de un token no requiera
+ * una consulta a Redis en cada solicitud.
+ * </p>
+ * <p>
+ * Al iniciar, las versiones guardadas con la clave anterior ({@code token_version:<userId>}) se copian una única vez
+ * a la nueva y se eliminan, para que los tokens ya revocados no vuelvan a ser válidos sin que cada lectura tenga que
+ * consultar también la clave anterior.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TokenVersionService implements ApplicationRunner {
+
+    private static final String KEY_PREFIX = "token_version:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    @Value("${application.security.jwt.version-cache.ttl:5000}")
+    private long cacheTtl;
+
+    @Value("${application.security.jwt.version-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${application.security.jwt.version-migration:true}")
+    private boolean migrateLegacyKeys;
+
+    @Autowired
+    public TokenVersionService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrateLegacyKeys) {
+            return;
+        }
+        try {
+            long migrated = migrateLegacyKeys();
+            if (migrated > 0) {
+                log.info("Migrated {} token versions to hash-tagged keys.", migrated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not migrate the legacy token version keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene la versión vigente de los tokens de un usuario.
+     *
+     * @param userId el ID del usuario.
+     * @return la versión vigente; {@code 0} si el usuario nunca revocó sus tokens.
+     */
+    public long currentVersion(String userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.fetchedAt() < cacheTtl) {
+            return cached.version();
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(key(userId));
+            long version = value != null ? Long.parseLong(value) : 0L;
+            remember(userId, version, now);
+            return version;
+        } catch (RuntimeException e) {
+            if (cached != null) {
+                log.warn("Could not refresh token version for user {}, using last known value: {}", userId, e.getMessage());
+                return cached.version();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Incrementa la versión de los tokens de un usuario, invalidando todos los emitidos hasta ahora.
+     *
+     * @param userId el ID del usuario.
+     * @return la nueva versión.
+     */
+    public long revokeAll(String userId) {
+        Long version = redisTemplate.opsForValue().increment(key(userId));
+        long newVersion = version != null ? version : 0L;
+        remember(userId, newVersion, System.currentTimeMillis());
+        return newVersion;
+    }
+
+    /**
+     * Clave de la versión de un usuario. El ID va entre llaves (hash tag) para que Redis Cluster la asigne al mismo
+     * slot que las familias de refresh tokens del usuario y un script pueda leer ambas.
+     *
+     * @param userId el ID del usuario.
+     * @return la clave en Redis.
+     */
+    static String key(String userId) {
+        return KEY_PREFIX + "{" + userId + "}";
+    }
+
+    /**
+     * Copia cada versión guardada con la clave anterior a su clave con hash tag, conservando la mayor si ambas
+     * existen, y elimina la anterior.
+     *
+     * @return el número de claves migradas.
+     */
+    long migrateLegacyKeys() {
+        long migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String legacyKey = keys.next();
+                if (legacyKey.contains("{")) {
+                    continue;
+                }
+                String legacy = redisTemplate.opsForValue().get(legacyKey);
+                if (legacy != null) {
+                    String current = key(legacyKey.substring(KEY_PREFIX.length()));
+                    if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(current, legacy))) {
+                        String value = redisTemplate.opsForValue().get(current);
+                        if (value == null || Long.parseLong(value) < Long.parseLong(legacy)) {
+                            redisTemplate.opsForValue().set(current, legacy);
+                        }
+                    }
+                    migrated++;
+                }
+                redisTemplate.delete(legacyKey);
+            }
+        }
+        return migrated;
+    }
+
+    private void remember(String userId, long version, long now) {
+        if (versions.size() >= maxSize && !versions.containsKey(userId)) {
+            versions.clear();
+        }
+        versions.put(userId, new CachedVersion(version, now));
+    }
+
+    private record CachedVersion(long version, long fetchedAt) {
+    }
+}
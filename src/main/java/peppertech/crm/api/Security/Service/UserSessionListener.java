@@ -0,0 +1,43 @@
+package peppertech.crm.api.Security.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Users.Service.UserChangedEvent;
+
+import java.util.Objects;
+
+/**
+ * Mantiene las sesiones de un usuario coherentes con sus datos cuando {@code UserService} lo modifica.
+ * <p>
+ * Un cambio de rol revoca todos los tokens del usuario, porque los access tokens y los principales en caché llevan el
+ * rol anterior; cualquier otro cambio descarta los principales en caché para que se vuelvan a leer. Un cambio de
+ * correo o de rol también se copia en las familias de refresh tokens, de las que se firman los access tokens al renovar.
+ * </p>
+ */
+@Component
+public class UserSessionListener {
+
+    private final TokenVersionService tokenVersionService;
+    private final VerifiedTokenCache tokenCache;
+    private final RefreshTokenService refreshTokenService;
+
+    @Autowired
+    public UserSessionListener(TokenVersionService tokenVersionService, VerifiedTokenCache tokenCache,
+                               RefreshTokenService refreshTokenService) {
+        this.tokenVersionService = tokenVersionService;
+        this.tokenCache = tokenCache;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.roleChanged()) {
+            tokenVersionService.revokeAll(event.current().getId());
+        }
+        if (event.roleChanged() || !Objects.equals(event.previous().getEmail(), event.current().getEmail())) {
+            refreshTokenService.updateUser(event.current());
+        }
+        tokenCache.invalidateUser(event.previous().getEmail());
+    }
+}
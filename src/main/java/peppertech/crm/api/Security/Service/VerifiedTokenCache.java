@@ -0,0 +1,246 @@
+package peppertech.crm.api.Security.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import peppertech.crm.api.Exceptions.InvalidTokenException;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de principales ya verificados, indexada por el digest SHA-256 del JWT.
+ * <p>
+ * Cada entrada vive hasta el instante {@code exp} del token que la generó, de modo que un token "caliente"
+ * cuesta una búsqueda en un mapa en lugar de verificar la firma HMAC y consultar la base de datos.
+ * </p>
+ * <p>
+ * Como cada nodo tiene su propia caché, las revocaciones se comparten por Redis: un token revocado (logout) se guarda
+ * en {@code revoked_token:<digest>} hasta su expiración, y tanto las revocaciones como las invalidaciones de un
+ * usuario se publican por pub/sub para que los demás nodos descarten sus entradas. Antes de verificar un token que no
+ * está en caché se consulta {@link #isRevoked(String)}, de modo que un nodo que no recibió el mensaje (o que descartó
+ * la marca local por falta de espacio) tampoco vuelve a aceptarlo.
+ * </p>
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache implements MessageListener {
+
+    static final String REVOKED_PREFIX = "revoked_token:";
+    private static final String REVOKE = "revoke";
+    private static final String USER = "user";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${application.security.jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${application.security.jwt.cache.revocation-channel:auth:revocations}")
+    private String channel;
+
+    @Autowired
+    public VerifiedTokenCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Obtiene el principal asociado a un token previamente verificado.
+     *
+     * @param token el JWT sin el prefijo {@code Bearer}.
+     * @return una copia del principal verificado y la versión de token con la que se emitió,
+     * o {@code null} si el token no está en caché o ya expiró.
+     * @throws InvalidTokenException si el token fue revocado explícitamente.
+     */
+    public VerifiedPrincipal get(String token) {
+        String digest = digest(token);
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        if (entry.principal() == null) {
+            throw new InvalidTokenException("Token has been revoked.");
+        }
+        return new VerifiedPrincipal(copyOf(entry.principal()), entry.version());
+    }
+
+    /**
+     * Almacena el principal verificado de un token hasta su fecha de expiración.
+     *
+     * @param token      el JWT sin el prefijo {@code Bearer}.
+     * @param principal  el usuario autenticado (sin contraseña).
+     * @param expiration la fecha {@code exp} del token.
+     * @param version    la versión de token del usuario contenida en el JWT.
+     */
+    public void put(String token, UserDTO principal, Date expiration, long version) {
+        store(digest(token), new Entry(copyOf(principal), expiration.getTime(), version));
+    }
+
+    /**
+     * Revoca un token hasta su expiración en todos los nodos. Se utiliza en el cierre de sesión.
+     *
+     * @param token      el JWT sin el prefijo {@code Bearer}.
+     * @param expiration la fecha {@code exp} del token.
+     */
+    public void revoke(String token, Date expiration) {
+        String digest = digest(token);
+        long expiresAt = expiration.getTime();
+        long remaining = expiresAt - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_PREFIX + digest, "1", Duration.ofMillis(remaining));
+        markRevoked(digest, expiresAt);
+        publish(REVOKE + "|" + digest + "|" + expiresAt);
+    }
+
+    /**
+     * Indica si un token fue revocado en cualquier nodo. Se consulta antes de verificar un token que no está en caché.
+     *
+     * @param token el JWT sin el prefijo {@code Bearer}.
+     * @return {@code true} si el token figura como revocado en Redis.
+     */
+    public boolean isRevoked(String token) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_PREFIX + digest(token)));
+    }
+
+    /**
+     * Descarta en todos los nodos los principales en caché de un usuario, obligando a verificar de nuevo sus tokens.
+     * Se utiliza tras restablecer la contraseña o modificar los datos del usuario.
+     *
+     * @param email el correo electrónico del usuario.
+     */
+    public void invalidateUser(String email) {
+        if (email == null) {
+            return;
+        }
+        removeUser(email);
+        publish(USER + "|" + email);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        try {
+            if (parts.length == 3 && REVOKE.equals(parts[0])) {
+                markRevoked(parts[1], Long.parseLong(parts[2]));
+            } else if (parts.length == 2 && USER.equals(parts[0])) {
+                removeUser(parts[1]);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina periódicamente las entradas cuyo token ya expiró.
+     */
+    @Scheduled(fixedDelayString = "${application.security.jwt.cache.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private void markRevoked(String digest, long expiresAt) {
+        if (expiresAt > System.currentTimeMillis()) {
+            store(digest, new Entry(null, expiresAt, 0L));
+        }
+    }
+
+    private void removeUser(String email) {
+        entries.values().removeIf(entry -> entry.principal() != null
+                && email.equalsIgnoreCase(entry.principal().getEmail()));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish token revocation: {}", e.getMessage());
+        }
+    }
+
+    private void store(String digest, Entry entry) {
+        if (entries.size() >= maxSize && !entries.containsKey(digest)) {
+            purgeExpired();
+            if (entries.size() >= maxSize) {
+                evictSoonestToExpire(Math.max(1, maxSize / 10));
+            }
+        }
+        entries.put(digest, entry);
+    }
+
+    /**
+     * Libera espacio descartando, en bloque, las entradas más próximas a expirar.
+     * Las marcas de revocación también pueden descartarse: el token sigue revocado en Redis y se rechaza al verificarlo.
+     */
+    private void evictSoonestToExpire(int count) {
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+        log.debug("Verified token cache reached {} entries; evicted {} entries.", maxSize, count);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static UserDTO copyOf(UserDTO source) {
+        UserDTO copy = new UserDTO();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setLastname(source.getLastname());
+        copy.setEmail(source.getEmail());
+        copy.setCreateAt(source.getCreateAt());
+        copy.setPassword(source.getPassword());
+        copy.setRole(source.getRole());
+        return copy;
+    }
+
+    /**
+     * Principal verificado junto con la versión de token con la que se emitió el JWT.
+     *
+     * @param user    copia del usuario autenticado.
+     * @param version versión de token contenida en el JWT.
+     */
+    public record VerifiedPrincipal(UserDTO user, long version) {
+    }
+
+    private record Entry(UserDTO principal, long expiresAt, long version) {
+    }
+}
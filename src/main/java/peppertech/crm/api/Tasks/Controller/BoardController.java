@@ -13,6 +13,7 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Responses.ErrorResponse;
 import peppertech.crm.api.Tasks.Model.DTO.BoardDTO;
 import peppertech.crm.api.Tasks.Service.BoardServiceI;
@@ -75,13 +76,25 @@ public class BoardController {
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = UserDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El cursor, el límite o el orden no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron tableros registrados.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página; se limita a pagination.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Clave de orden (id por defecto); con - delante para orden descendente.")
+            @RequestParam(required = false) String sort) {
         try {
-            return new ResponseEntity<>(serviceBoard.getAllBoards(), HttpStatus.OK);
+            CursorPage<BoardDTO> page = serviceBoard.getBoardsPage(cursor, limit, sort);
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("Error searching for boards. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
@@ -13,6 +13,7 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Responses.DeleteResponse;
 import peppertech.crm.api.Responses.ErrorResponse;
 import peppertech.crm.api.Tasks.Model.DTO.ColumnDTO;
@@ -72,13 +73,25 @@ public class ColumnController {
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = ColumnDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El cursor, el límite o el orden no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron columnas registradas.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getAllColumns() {
+    public ResponseEntity<?> getAllColumns(
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página; se limita a pagination.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Clave de orden (id por defecto); con - delante para orden descendente.")
+            @RequestParam(required = false) String sort) {
         try {
-            return new ResponseEntity<>(serviceColumn.getAllColumns(), HttpStatus.OK);
+            CursorPage<ColumnDTO> page = serviceColumn.getColumnsPage(cursor, limit, sort);
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("Error buscando columnas. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
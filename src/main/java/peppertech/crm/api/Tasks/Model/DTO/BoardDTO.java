@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import peppertech.crm.api.Cache.Tags.Identifiable;
 
 import java.io.Serializable;
 import java.util.List;
@@ -20,7 +21,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class BoardDTO implements Serializable {
+public class BoardDTO implements Serializable, Identifiable {
 
     @Schema(description = "Unique ID of the board, automatically generated by the database.",
             example = "64a1f9b5e4b0f23d4c8a7e12", accessMode = Schema.AccessMode.READ_ONLY)
@@ -9,38 +9,55 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import peppertech.crm.api.Cache.Hydration.EntityBatchLoader;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.Service.GlobalSearchServiceI;
 import peppertech.crm.api.Tasks.Mapper.BoardMapper;
 import peppertech.crm.api.Tasks.Model.DTO.BoardDTO;
+import peppertech.crm.api.Tasks.Model.Entity.Board;
 import peppertech.crm.api.Tasks.Repository.BoardRepository;
 import peppertech.crm.api.Tasks.Validator.BoardValidatorI;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Data
-@Builder
 @Service
-public class BoardService implements BoardServiceI {
+public class BoardService implements BoardServiceI, EntityBatchLoader {
     private final BoardRepository boardRepository;
     private final BoardMapper boardMapper;
     private final BoardValidatorI validatorBoard;
+    private final EntityPager<Board> boardPager;
+    private final GlobalSearchServiceI searchBoard;
 
     @Autowired
-    public BoardService(BoardRepository boardRepository, BoardMapper boardMapper, BoardValidatorI validatorBoard) {
+    @Builder
+    public BoardService(BoardRepository boardRepository, BoardMapper boardMapper, BoardValidatorI validatorBoard, KeysetPager keysetPager, GlobalSearchServiceI searchBoard) {
         this.boardRepository = boardRepository;
         this.boardMapper = boardMapper;
         this.validatorBoard = validatorBoard;
+        this.boardPager = keysetPager.forEntity(Board.class, "name", "createdAt");
+        this.searchBoard = searchBoard;
     }
 
     @Override
     @Transactional
-    @CachePut(value = "boards", key = "#result.id")
+    @Caching(put = @CachePut(value = "boards", key = "'id_'+#result.id"),
+            evict = @CacheEvict(value = "boards", key = "'tag:lists'"))
     public BoardDTO createBoard(BoardDTO boardDTO) throws ValidationException, IllegalStateException {
         return Optional.of(boardDTO)
                 .map(dto -> {
@@ -70,7 +87,7 @@ public class BoardService implements BoardServiceI {
     }
 
     @Override
-    @Cacheable(value = "boards", key = "'all_boards'")
+    @Cacheable(value = "boards", key = "'all_boards'", sync = true)
     public List<BoardDTO> getAllBoards() throws Exception {
         return Optional.of(boardRepository.findAll())
                 .filter(boards -> !boards.isEmpty())
@@ -80,6 +97,14 @@ public class BoardService implements BoardServiceI {
                 .orElseThrow(() -> new Exception("There is no board."));
     }
 
+    @Override
+    public CursorPage<BoardDTO> getBoardsPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(boardPager.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(boardMapper::toDTO))
+                .orElseThrow(() -> new Exception("There is no board."));
+    }
+
     /**
      * Obtiene un tablero de la base de datos a partir de su ID.
      * <br><br>
@@ -96,7 +121,7 @@ public class BoardService implements BoardServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "boards", key = "'id_'+#id")
+    @Cacheable(value = "boards", key = "'id_'+#id", sync = true)
     public BoardDTO getBoardById(String id) throws Exception {
         return Optional.of(id)
                 .map(validId -> {
@@ -114,7 +139,14 @@ public class BoardService implements BoardServiceI {
 
     @Override
     public List<BoardDTO> getBoardsByTitle(String title) throws Exception {
-        return List.of();
+        List<ObjectId> ids = searchBoard.findIds(SearchType.BOARD, title);
+        Map<ObjectId, Board> found = boardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Board::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(boardMapper::toDTO)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -144,7 +176,10 @@ public class BoardService implements BoardServiceI {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "boards", key = "'id_'+#id")
+    @Caching(evict = {
+            @CacheEvict(value = "boards", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "boards", key = "'tag:lists'")
+    })
     public String deleteBoard(String id) throws Exception {
         return Optional.of(getBoardById(id))
                 .map(board -> {
@@ -153,4 +188,23 @@ public class BoardService implements BoardServiceI {
                 })
                 .orElseThrow(() -> new Exception("Board not found."));
     }
+
+    @Override
+    public String getCacheName() {
+        return "boards";
+    }
+
+    /**
+     * Busca varios tableros por ID en una sola consulta, para reconstruir las listas guardadas en caché como IDs.
+     *
+     * @param ids los IDs de los tableros.
+     * @return los tableros encontrados; los IDs inválidos o inexistentes se omiten.
+     */
+    @Override
+    public List<BoardDTO> findAllByIds(Collection<String> ids) {
+        return boardRepository.findAllById(ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList())
+                .stream()
+                .map(boardMapper::toDTO)
+                .collect(Collectors.toList());
+    }
 }
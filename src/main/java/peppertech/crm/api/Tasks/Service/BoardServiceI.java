@@ -1,6 +1,7 @@
 package peppertech.crm.api.Tasks.Service;
 
 import jakarta.validation.ValidationException;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Tasks.Model.DTO.BoardDTO;
 
 import java.util.List;
@@ -10,6 +11,8 @@ public interface BoardServiceI {
 
     List<BoardDTO> getAllBoards() throws Exception;
 
+    CursorPage<BoardDTO> getBoardsPage(String cursor, Integer limit, String sort) throws Exception;
+
     BoardDTO getBoardById(String id) throws Exception;
 
     List<BoardDTO> getBoardsByTitle(String title) throws Exception;
@@ -4,12 +4,21 @@ import jakarta.validation.ValidationException;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.Service.GlobalSearchServiceI;
 import peppertech.crm.api.Tasks.Mapper.CardMapper;
 import peppertech.crm.api.Tasks.Model.DTO.CardDTO;
+import peppertech.crm.api.Tasks.Model.Entity.Card;
 import peppertech.crm.api.Tasks.Repository.CardRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,11 +26,15 @@ public class CardService implements CardServiceI {
 
     private final CardRepository cardRepository;
     private final CardMapper cardMapper;
+    private final EntityPager<Card> cardPager;
+    private final GlobalSearchServiceI searchCard;
 
     @Autowired
-    public CardService(CardRepository cardRepository, CardMapper cardMapper) {
+    public CardService(CardRepository cardRepository, CardMapper cardMapper, KeysetPager keysetPager, GlobalSearchServiceI searchCard) {
         this.cardRepository = cardRepository;
         this.cardMapper = cardMapper;
+        this.cardPager = keysetPager.forEntity(Card.class, "title", "createdAt", "dueDate");
+        this.searchCard = searchCard;
     }
 
     @Override
@@ -39,6 +52,14 @@ public class CardService implements CardServiceI {
                 .orElseThrow(() -> new Exception("There is no card."));
     }
 
+    @Override
+    public CursorPage<CardDTO> getCardsPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(cardPager.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(cardMapper::toDTO))
+                .orElseThrow(() -> new Exception("There is no card."));
+    }
+
     @Override
     public CardDTO getCardById(String id) throws Exception {
         return Optional.of(id)
@@ -50,7 +71,14 @@ public class CardService implements CardServiceI {
 
     @Override
     public List<CardDTO> getCardsByTitle(String title) throws Exception {
-        return List.of();
+        List<ObjectId> ids = searchCard.findIds(SearchType.CARD, title);
+        Map<ObjectId, Card> found = cardRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(cardMapper::toDTO)
+                .collect(Collectors.toList());
     }
 
     @Override
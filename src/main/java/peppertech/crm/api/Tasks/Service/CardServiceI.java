@@ -1,6 +1,7 @@
 package peppertech.crm.api.Tasks.Service;
 
 import jakarta.validation.ValidationException;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Tasks.Model.DTO.CardDTO;
 
 import java.util.List;
@@ -10,6 +11,8 @@ public interface CardServiceI {
 
     List<CardDTO> getAllCards() throws Exception;
 
+    CursorPage<CardDTO> getCardsPage(String cursor, Integer limit, String sort) throws Exception;
+
     CardDTO getCardById(String id) throws Exception;
 
     List<CardDTO> getCardsByTitle(String title) throws Exception;
@@ -3,8 +3,12 @@ package peppertech.crm.api.Tasks.Service;
 import jakarta.validation.ValidationException;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
 import peppertech.crm.api.Tasks.Mapper.ColumnMapper;
 import peppertech.crm.api.Tasks.Model.DTO.ColumnDTO;
+import peppertech.crm.api.Tasks.Model.Entity.Column;
 import peppertech.crm.api.Tasks.Repository.ColumnRepository;
 
 import java.util.List;
@@ -15,10 +19,12 @@ import java.util.stream.Collectors;
 public class ColumnService implements ColumnServiceI {
     private final ColumnRepository columnRepository;
     private final ColumnMapper columnMapper;
+    private final EntityPager<Column> columnPager;
 
-    public ColumnService(ColumnRepository columnRepository, ColumnMapper columnMapper) {
+    public ColumnService(ColumnRepository columnRepository, ColumnMapper columnMapper, KeysetPager keysetPager) {
         this.columnMapper = columnMapper;
         this.columnRepository = columnRepository;
+        this.columnPager = keysetPager.forEntity(Column.class, "name");
     }
 
     @Override
@@ -36,6 +42,14 @@ public class ColumnService implements ColumnServiceI {
                 .orElseThrow(() -> new Exception("There is no column."));
     }
 
+    @Override
+    public CursorPage<ColumnDTO> getColumnsPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(columnPager.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(columnMapper::toDTO))
+                .orElseThrow(() -> new Exception("There is no column."));
+    }
+
     @Override
     public ColumnDTO getColumnById(String id) throws Exception {
         return Optional.of(id)
@@ -1,6 +1,7 @@
 package peppertech.crm.api.Tasks.Service;
 
 import jakarta.validation.ValidationException;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Tasks.Model.DTO.ColumnDTO;
 
 import java.util.List;
@@ -10,6 +11,8 @@ public interface ColumnServiceI {
 
     List<ColumnDTO> getAllColumns() throws Exception;
 
+    CursorPage<ColumnDTO> getColumnsPage(String cursor, Integer limit, String sort) throws Exception;
+
     ColumnDTO getColumnById(String id) throws Exception;
 
     List<ColumnDTO> getColumnByName(String name) throws Exception;
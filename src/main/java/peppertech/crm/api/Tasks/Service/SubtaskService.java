@@ -4,23 +4,36 @@ import jakarta.validation.ValidationException;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.Service.GlobalSearchServiceI;
 import peppertech.crm.api.Tasks.Mapper.SubtaskMapper;
 import peppertech.crm.api.Tasks.Model.DTO.SubtaskDTO;
+import peppertech.crm.api.Tasks.Model.Entity.Subtask;
 import peppertech.crm.api.Tasks.Repository.SubtaskRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class SubtaskService implements SubtaskServiceI {
     private final SubtaskRepository subtaskRepository;
     private final SubtaskMapper subtaskMapper;
+    private final EntityPager<Subtask> subtaskPager;
+    private final GlobalSearchServiceI searchSubtask;
 
     @Autowired
-    public SubtaskService(SubtaskRepository subtaskRepository, SubtaskMapper subtaskMapper) {
+    public SubtaskService(SubtaskRepository subtaskRepository, SubtaskMapper subtaskMapper, KeysetPager keysetPager, GlobalSearchServiceI searchSubtask) {
         this.subtaskRepository = subtaskRepository;
         this.subtaskMapper = subtaskMapper;
+        this.subtaskPager = keysetPager.forEntity(Subtask.class, "title", "createdAt");
+        this.searchSubtask = searchSubtask;
     }
 
 
@@ -39,6 +52,14 @@ public class SubtaskService implements SubtaskServiceI {
                 .orElseThrow(() -> new Exception("There is no subtask."));
     }
 
+    @Override
+    public CursorPage<SubtaskDTO> getSubtasksPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(subtaskPager.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(subtaskMapper::toDTO))
+                .orElseThrow(() -> new Exception("There is no subtask."));
+    }
+
     @Override
     public SubtaskDTO getSubtaskById(String id) throws Exception {
         return Optional.of(id)
@@ -50,7 +71,14 @@ public class SubtaskService implements SubtaskServiceI {
 
     @Override
     public List<SubtaskDTO> getSubtasksByTitle(String title) throws Exception {
-        return List.of();
+        List<ObjectId> ids = searchSubtask.findIds(SearchType.SUBTASK, title);
+        Map<ObjectId, Subtask> found = subtaskRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Subtask::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(subtaskMapper::toDTO)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -1,6 +1,7 @@
 package peppertech.crm.api.Tasks.Service;
 
 import jakarta.validation.ValidationException;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Tasks.Model.DTO.SubtaskDTO;
 
 import java.util.List;
@@ -10,6 +11,8 @@ public interface SubtaskServiceI {
 
     List<SubtaskDTO> getAllSubtasks() throws Exception;
 
+    CursorPage<SubtaskDTO> getSubtasksPage(String cursor, Integer limit, String sort) throws Exception;
+
     SubtaskDTO getSubtaskById(String id) throws Exception;
 
     List<SubtaskDTO> getSubtasksByTitle(String title) throws Exception;
@@ -13,8 +13,13 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import peppertech.crm.api.Exceptions.ServiceOverloadedException;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Responses.DeleteResponse;
 import peppertech.crm.api.Responses.ErrorResponse;
+import peppertech.crm.api.Search.SearchMode;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 import peppertech.crm.api.Users.Service.UserServiceI;
 
@@ -122,18 +127,77 @@ public class UserController {
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = UserDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El cursor, el límite o el orden no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron usuarios registrados.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(
+            @Parameter(description = "Cursor X-Next-Cursor de la página anterior; se omite para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página; se limita a pagination.max-limit.")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Clave de orden (id por defecto); con - delante para orden descendente.")
+            @RequestParam(required = false) String sort) {
         try {
-            return new ResponseEntity<>(serviceUser.getAllUsers(), HttpStatus.OK);
+            CursorPage<UserDTO> page = serviceUser.getUsersPage(cursor, limit, sort);
+            return ResponseEntity.ok().headers(page.headers()).body(page.items());
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("An error occurred while retrieving users." + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
     }
 
+    /**
+     * Exporta todos los usuarios como archivo NDJSON o CSV.
+     * <p>Los documentos se leen de MongoDB con un cursor y se escriben en la respuesta a medida que llegan, por lo que
+     * la memoria usada no depende del tamaño de la colección. La exportación no pasa por la caché.</p>
+     *
+     * @param fields las propiedades a exportar separadas por comas (id, name, lastname, email, createAt, userRole); por defecto todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si la descarga se comprime con gzip.
+     * @return Un objeto {@link ResponseEntity} cuyo cuerpo se escribe de forma asíncrona.
+     *
+     * <p><b>Respuestas posibles:</b></p>
+     * <ul>
+     *   <li><b>200 OK</b>: El archivo con los usuarios.</li>
+     *   <li><b>400 Bad Request</b>: El formato o algún campo no son válidos.</li>
+     *   <li><b>503 Service Unavailable</b>: Hay demasiadas exportaciones en curso.</li>
+     * </ul>
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Exportar usuarios",
+            description = "Descarga todos los usuarios en NDJSON o CSV, leídos con un cursor de MongoDB.",
+            responses = {
+                    @ApiResponse(description = "Archivo con los usuarios",
+                            responseCode = "200",
+                            content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+                    @ApiResponse(responseCode = "400",
+                            description = "El formato o algún campo no son válidos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "503",
+                            description = "Hay demasiadas exportaciones en curso.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Propiedades a exportar separadas por comas; por defecto todas.")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Formato de salida: ndjson (por defecto) o csv.")
+            @RequestParam(required = false) String format,
+            @Parameter(description = "Comprimir la descarga con gzip.")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            return serviceUser.exportUsers(fields, format, gzip).response();
+        } catch (ValidationException e) {
+            return DocumentExport.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ServiceOverloadedException e) {
+            return DocumentExport.error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
     /**
      * Busca un usuario utilizando su ID único.
      * <p>Este método recupera un usuario de la base de datos utilizando su identificador único. Si el usuario con el ID proporcionado existe, se devolverá un objeto {@link UserDTO} con la información del usuario.</p>
@@ -213,11 +277,13 @@ public class UserController {
 
     /**
      * Busca todos los usuarios cuyo nombre coincida con el proporcionado.
-     * <p>Este método recupera una lista de usuarios que coinciden con el nombre proporcionado. Puede ser el primer nombre o cualquier parte del nombre del usuario.</p>
+     * <p>Este método recupera una lista de usuarios cuyo nombre empieza por el texto proporcionado o, con {@code match=exact}, es igual a él.
+     * La comparación no distingue mayúsculas ni acentos y se resuelve con el índice de claves de búsqueda.</p>
      * <p>Si no se encuentran usuarios con el nombre proporcionado, se devolverá una lista vacía con el código HTTP 200.</p>
      *
-     * @param name El nombre del usuario a buscar. Este parámetro puede ser el primer nombre o cualquier parte del nombre completo del usuario.
-     *             El nombre es obligatorio para realizar la búsqueda.
+     * @param name  El nombre del usuario a buscar, completo o su comienzo.
+     *              El nombre es obligatorio para realizar la búsqueda.
+     * @param match {@code prefix} (por defecto) o {@code exact}.
      * @return Un objeto {@link ResponseEntity} que contiene:
      *         <ul>
      *           <li>Una lista de objetos {@link UserDTO} con los usuarios que coinciden con el nombre proporcionado (código HTTP 200).</li>
@@ -227,25 +293,35 @@ public class UserController {
      * <p><b>Respuestas posibles:</b></p>
      * <ul>
      *   <li><b>200 OK</b>: Si se encuentran usuarios con el nombre proporcionado, se retorna una lista de objetos {@link UserDTO} con la información de los usuarios.<br></li>
+     *   <li><b>400 Bad Request</b>: El modo de búsqueda no es válido.<br></li>
      *   <li><b>404 Not Found</b>: Si no se encuentran usuarios con el nombre proporcionado, se retorna un objeto {@link ErrorResponse} con un mensaje de error.<br></li>
      * </ul>
      */
     @GetMapping("/name/{name}")
     @Operation(summary = "Buscar usuarios por nombre",
-            description = "Recupera usuarios cuyo nombre coincide con el proporcionado. "
-                    + "Si no se encuentran usuarios, se devolverá una lista vacía.",
+            description = "Recupera usuarios cuyo nombre empieza por el texto indicado (o es igual a él con match=exact), "
+                    + "sin distinguir mayúsculas ni acentos. Si no se encuentran usuarios, se devolverá una lista vacía.",
             responses = {
                     @ApiResponse(description = "Usuarios encontrados",
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = UserDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El modo de búsqueda no es válido.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron usuarios con el nombre proporcionado.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getUsersByName(@Parameter(description = "Nombre del usuario a buscar.", required = true) @PathVariable String name) {
+    public ResponseEntity<?> getUsersByName(@Parameter(description = "Nombre del usuario a buscar.", required = true) @PathVariable String name,
+                                            @Parameter(description = "Modo de búsqueda: prefix (por defecto) o exact.")
+                                            @RequestParam(required = false) String match) {
         try {
-            return new ResponseEntity<>(serviceUser.getUsersByName(name), HttpStatus.OK);
+            return new ResponseEntity<>(SearchMode.of(match) == SearchMode.EXACT
+                    ? serviceUser.getUsersByExactName(name)
+                    : serviceUser.getUsersByName(name), HttpStatus.OK);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("An error occurred while searching for users with name '" + name + "'. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
@@ -253,11 +329,13 @@ public class UserController {
 
     /**
      * Busca todos los usuarios cuyo apellido coincida con el proporcionado.
-     * <p>Este método recupera una lista de usuarios que coinciden con el apellido proporcionado. Puede ser el apellido completo o parte de él.</p>
+     * <p>Este método recupera una lista de usuarios cuyo apellido empieza por el texto proporcionado o, con {@code match=exact}, es igual a él.
+     * La comparación no distingue mayúsculas ni acentos y se resuelve con el índice de claves de búsqueda.</p>
      * <p>Si no se encuentran usuarios con el apellido proporcionado, se devolverá una lista vacía con el código HTTP 200.</p>
      *
-     * @param lastname El apellido del usuario a buscar. Este parámetro puede ser el apellido completo o parte de él.
+     * @param lastname El apellido del usuario a buscar, completo o su comienzo.
      *                 El apellido es obligatorio para realizar la búsqueda.
+     * @param match    {@code prefix} (por defecto) o {@code exact}.
      * @return Un objeto {@link ResponseEntity} que contiene:
      *         <ul>
      *           <li>Una lista de objetos {@link UserDTO} con los usuarios cuyo apellido coincide con el proporcionado (código HTTP 200).</li>
@@ -267,25 +345,35 @@ public class UserController {
      * <p><b>Respuestas posibles:</b></p>
      * <ul>
      *   <li><b>200 OK</b>: Si se encuentran usuarios con el apellido proporcionado, se retorna una lista de objetos {@link UserDTO} con la información de los usuarios.<br></li>
+     *   <li><b>400 Bad Request</b>: El modo de búsqueda no es válido.<br></li>
      *   <li><b>404 Not Found</b>: Si no se encuentran usuarios con el apellido proporcionado, se retorna un objeto {@link ErrorResponse} con un mensaje de error.<br></li>
      * </ul>
      */
     @GetMapping("/lastname/{lastname}")
     @Operation(summary = "Buscar usuarios por apellido",
-            description = "Recupera usuarios cuyo apellido coincide con el proporcionado. "
-                    + "Si no se encuentran usuarios, se devolverá una lista vacía.",
+            description = "Recupera usuarios cuyo apellido empieza por el texto indicado (o es igual a él con match=exact), "
+                    + "sin distinguir mayúsculas ni acentos. Si no se encuentran usuarios, se devolverá una lista vacía.",
             responses = {
                     @ApiResponse(description = "Usuarios encontrados",
                             responseCode = "200",
                             content = @Content(mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = UserDTO.class)))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El modo de búsqueda no es válido.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
                     @ApiResponse(responseCode = "404",
                             description = "No se encontraron usuarios con el apellido proporcionado.",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             })
-    public ResponseEntity<?> getUsersByLastname(@Parameter(description = "Apellido del usuario a buscar", required = true) @PathVariable String lastname) {
+    public ResponseEntity<?> getUsersByLastname(@Parameter(description = "Apellido del usuario a buscar", required = true) @PathVariable String lastname,
+                                                @Parameter(description = "Modo de búsqueda: prefix (por defecto) o exact.")
+                                                @RequestParam(required = false) String match) {
         try {
-            return new ResponseEntity<>(serviceUser.getUsersByLastname(lastname), HttpStatus.OK);
+            return new ResponseEntity<>(SearchMode.of(match) == SearchMode.EXACT
+                    ? serviceUser.getUsersByExactLastname(lastname)
+                    : serviceUser.getUsersByLastname(lastname), HttpStatus.OK);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(new ErrorResponse("An error occurred while searching for users with last name '" + lastname + "'. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         }
@@ -410,6 +498,85 @@ public class UserController {
         }
     }
 
+    /**
+     * Actualiza parcialmente un usuario existente.
+     * <p>Solo se modifican los campos enviados en el cuerpo; los campos omitidos conservan su valor. La contraseña
+     * solo se vuelve a cifrar si se envía una nueva.</p>
+     *
+     * @param id      El identificador único del usuario que se desea actualizar.
+     * @param changes El objeto {@link UserDTO} con los campos a modificar.
+     * @return Un objeto {@link ResponseEntity} con:
+     *         <ul>
+     *           <li>El usuario actualizado con el código HTTP 200 si la actualización es exitosa.</li>
+     *           <li>Un mensaje de error con el código HTTP 409 si el correo electrónico ya está en uso.</li>
+     *           <li>Un mensaje de error con el código HTTP 404 si no se encuentra el usuario o si ocurre un error.</li>
+     *         </ul>
+     */
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente un usuario",
+            description = "Modifica solo los campos enviados de un usuario existente utilizando su ID.",
+            responses = {
+                    @ApiResponse(description = "Usuario actualizado",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDTO.class))),
+                    @ApiResponse(responseCode = "409",
+                            description = "El correo electrónico ya pertenece a otro usuario.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404",
+                            description = "No se pudo actualizar el usuario. El usuario puede no existir o los datos pueden ser incorrectos.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<?> patchUser(
+            @Parameter(description = "ID único del usuario que se desea actualizar.", required = true) @PathVariable String id,
+            @Parameter(description = "Campos del usuario a modificar.") @RequestBody UserDTO changes) {
+        try {
+            return new ResponseEntity<>(serviceUser.PatchUser(id, changes), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.CONFLICT.value()), HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ErrorResponse("An error occurred while updating the user with ID '" + id + "'. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Cambia el rol de un usuario existente. Solo los administradores pueden usar esta ruta.
+     * <p>Las sesiones abiertas del usuario se revocan para que no conserven el rol anterior.</p>
+     *
+     * @param id      El identificador único del usuario.
+     * @param changes El objeto {@link UserDTO} con el nuevo rol; el resto de campos se ignoran.
+     * @return Un objeto {@link ResponseEntity} con:
+     *         <ul>
+     *           <li>El usuario actualizado con el código HTTP 200.</li>
+     *           <li>Un mensaje de error con el código HTTP 400 si el rol no es válido.</li>
+     *           <li>Un mensaje de error con el código HTTP 404 si no se encuentra el usuario o si ocurre un error.</li>
+     *         </ul>
+     */
+    @PatchMapping("/{id}/role")
+    @Operation(summary = "Cambiar el rol de un usuario",
+            description = "Asigna un nuevo rol a un usuario existente y revoca sus sesiones. Reservado a administradores.",
+            responses = {
+                    @ApiResponse(description = "Rol actualizado",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDTO.class))),
+                    @ApiResponse(responseCode = "400",
+                            description = "El rol no es válido.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404",
+                            description = "No se pudo actualizar el usuario. El usuario puede no existir.",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    public ResponseEntity<?> changeRole(
+            @Parameter(description = "ID único del usuario.", required = true) @PathVariable String id,
+            @Parameter(description = "Usuario con el nuevo rol.") @RequestBody UserDTO changes) {
+        try {
+            return new ResponseEntity<>(serviceUser.ChangeRole(id, changes.getRole()), HttpStatus.OK);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(new ErrorResponse("An error occurred while changing the role of the user with ID '" + id + "'. " + e.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
+        }
+    }
+
     /**
      * Elimina un usuario existente por su ID.
      * <p>Este método permite eliminar a un usuario de la base de datos utilizando su ID único.
@@ -3,7 +3,6 @@ package peppertech.crm.api.Users.Mapper;
 import org.bson.types.ObjectId;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 import peppertech.crm.api.Users.Model.Entity.User;
 
@@ -14,13 +13,14 @@ import java.util.Date;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     @Mapping(source = "id", target = "id", qualifiedByName = "stringToObjectId")
-    @Mapping(source = "password", target = "password", qualifiedByName = "encodePassword")
     @Mapping(source = "createAt", target = "createAt", qualifiedByName = "stringToDate")
+    @Mapping(source = "role", target = "userRole")
     User toEntity(UserDTO userDTO);
 
     @Mapping(source = "id", target = "id", qualifiedByName = "objectIdToString")
     @Mapping(source = "password", target = "password", qualifiedByName = "decodePassword")
     @Mapping(source = "createAt", target = "createAt", qualifiedByName = "dateToString")
+    @Mapping(source = "userRole", target = "role")
     UserDTO toDTO(User user);
 
     @org.mapstruct.Named("objectIdToString")
@@ -33,15 +33,6 @@ public interface UserMapper {
         return id != null ? new ObjectId(id) : null;
     }
 
-    @org.mapstruct.Named("encodePassword")
-    default String encodePassword(String password) {
-        if (password == null || password.isEmpty()) {
-            return null;
-        }
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        return passwordEncoder.encode(password);
-    }
-
     @org.mapstruct.Named("decodePassword")
     default String decodePassword(String encodedPassword) {
         return encodedPassword;
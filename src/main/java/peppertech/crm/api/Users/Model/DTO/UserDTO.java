@@ -3,12 +3,13 @@ package peppertech.crm.api.Users.Model.DTO;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import peppertech.crm.api.Cache.Tags.Identifiable;
 
 import java.io.Serializable;
 
 @Data
 @RequiredArgsConstructor
-public class UserDTO implements Serializable {
+public class UserDTO implements Serializable, Identifiable {
     @Schema(description = "ID único del usuario, generado automáticamente por la base de datos.",
             example = "676ae2a9b909de5f9607fcb6", hidden = true)
     private String id = null;
@@ -33,7 +34,8 @@ public class UserDTO implements Serializable {
             example = "Password123@")
     private String password;
 
-    @Schema(description = "Rol asignado al usuario. Este campo define los permisos del usuario en el sistema. Ejemplo de valores: 'USER', 'ADMIN'.",
+    @Schema(description = "Rol asignado al usuario. Este campo define los permisos del usuario en el sistema. Ejemplo de valores: 'USER', 'ADMIN'. "
+                    + "Se ignora al crear o actualizar un usuario; solo un administrador puede cambiarlo con PATCH /Users/{id}/role.",
             example = "USER")
     private String role;
 }
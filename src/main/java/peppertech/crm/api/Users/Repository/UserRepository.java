@@ -4,6 +4,8 @@ import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
+import peppertech.crm.api.Search.SearchKeys;
+import peppertech.crm.api.Search.SearchMode;
 import peppertech.crm.api.Users.Model.Entity.User;
 
 import java.util.List;
@@ -17,43 +19,101 @@ import java.util.List;
  * como nombre, apellido, correo electrónico y rol.
  * <p>
  * Las consultas personalizadas están anotadas con {@link Query}, las cuales utilizan
- * la sintaxis de MongoDB para realizar búsquedas más específicas, incluyendo búsquedas
- * insensibles a mayúsculas y minúsculas (gracias a la opción "$options: 'i'").
+ * la sintaxis de MongoDB para realizar búsquedas más específicas. Las búsquedas por nombre y apellido
+ * comparan las claves normalizadas ({@link SearchKeys}), insensibles a mayúsculas y acentos, con igualdad o con
+ * un rango de prefijo, para que se resuelvan con los índices.
  */
 
 @Repository
-public interface UserRepository extends MongoRepository<User, ObjectId> {
+public interface UserRepository extends MongoRepository<User, ObjectId>, UserRepositoryCustom {
 
     /**
-     * Busca una lista de usuarios cuyo nombre coincida con el patrón proporcionado,
-     * realizando una búsqueda insensible a mayúsculas/minúsculas.
+     * Busca los usuarios cuya clave de nombre normalizada ({@code name_key}) es igual a la indicada.
      *
-     * @param name El nombre o patrón a buscar en el campo 'name' de los usuarios.
-     * @return Una lista de usuarios cuyo nombre coincida con el patrón.
+     * @param nameKey el nombre normalizado con {@link SearchKeys#normalize(String)}.
+     * @return los usuarios con ese nombre.
      */
-    @Query("{ 'name' : { $regex: ?0, $options: 'i' } }")
-    List<User> findByName(String name);
+    @Query("{ 'name_key' : ?0 }")
+    List<User> findByNameKey(String nameKey);
 
     /**
-     * Busca una lista de usuarios cuyo apellido coincida con el patrón proporcionado,
-     * realizando una búsqueda insensible a mayúsculas/minúsculas.
+     * Busca los usuarios cuya clave de nombre normalizada está en el rango {@code [from, to)}.
      *
-     * @param lastname El apellido o patrón a buscar en el campo 'lastname' de los usuarios.
-     * @return Una lista de usuarios cuyo apellido coincida con el patrón.
+     * @param from el límite inferior, incluido.
+     * @param to   el límite superior, excluido.
+     * @return los usuarios con un nombre en el rango.
      */
-    @Query("{ 'lastname' : { $regex: ?0, $options: 'i' } }")
-    List<User> findByLastname(String lastname);
+    @Query("{ 'name_key' : { $gte: ?0, $lt: ?1 } }")
+    List<User> findByNameKeyRange(String from, String to);
 
     /**
-     * Busca una lista de usuarios cuyo nombre y apellido coincidan con los patrones
-     * proporcionados, realizando una búsqueda insensible a mayúsculas/minúsculas.
+     * Busca los usuarios cuya clave de apellido normalizada ({@code lastname_key}) es igual a la indicada.
      *
-     * @param name     El nombre o patrón a buscar en el campo 'name' de los usuarios.
-     * @param lastname El apellido o patrón a buscar en el campo 'lastname' de los usuarios.
-     * @return Una lista de usuarios cuyo nombre y apellido coincidan con los patrones.
+     * @param lastnameKey el apellido normalizado con {@link SearchKeys#normalize(String)}.
+     * @return los usuarios con ese apellido.
      */
-    @Query("{ 'name' : { $regex: ?0, $options: 'i' }, 'lastname' : { $regex: ?1, $options: 'i' } }")
-    List<User> findByFullName(String name, String lastname);
+    @Query("{ 'lastname_key' : ?0 }")
+    List<User> findByLastnameKey(String lastnameKey);
+
+    /**
+     * Busca los usuarios cuya clave de apellido normalizada está en el rango {@code [from, to)}.
+     *
+     * @param from el límite inferior, incluido.
+     * @param to   el límite superior, excluido.
+     * @return los usuarios con un apellido en el rango.
+     */
+    @Query("{ 'lastname_key' : { $gte: ?0, $lt: ?1 } }")
+    List<User> findByLastnameKeyRange(String from, String to);
+
+    /**
+     * Busca los usuarios por nombre, sin distinguir mayúsculas ni acentos, usando el índice de {@code name_key}.
+     *
+     * @param name el nombre o el comienzo del nombre.
+     * @param mode si el nombre debe coincidir completo o solo empezar por el texto.
+     * @return los usuarios encontrados.
+     */
+    default List<User> findByName(String name, SearchMode mode) {
+        String key = SearchKeys.normalize(name);
+        return mode == SearchMode.EXACT ? findByNameKey(key) : findByNameKeyRange(key, SearchKeys.upperBound(key));
+    }
+
+    /**
+     * Busca los usuarios por apellido, sin distinguir mayúsculas ni acentos, usando el índice de {@code lastname_key}.
+     *
+     * @param lastname el apellido o el comienzo del apellido.
+     * @param mode     si el apellido debe coincidir completo o solo empezar por el texto.
+     * @return los usuarios encontrados.
+     */
+    default List<User> findByLastname(String lastname, SearchMode mode) {
+        String key = SearchKeys.normalize(lastname);
+        return mode == SearchMode.EXACT
+                ? findByLastnameKey(key)
+                : findByLastnameKeyRange(key, SearchKeys.upperBound(key));
+    }
+
+    /**
+     * Busca los usuarios con el nombre indicado cuyo apellido empieza por el texto indicado, sin distinguir
+     * mayúsculas ni acentos, usando el índice {@code (name_key, lastname_key)}.
+     *
+     * @param name     el nombre completo.
+     * @param lastname el apellido o el comienzo del apellido.
+     * @return los usuarios encontrados.
+     */
+    default List<User> findByFullName(String name, String lastname) {
+        String lastnameKey = SearchKeys.normalize(lastname);
+        return findByFullNameKeys(SearchKeys.normalize(name), lastnameKey, SearchKeys.upperBound(lastnameKey));
+    }
+
+    /**
+     * Busca los usuarios con la clave de nombre indicada y una clave de apellido en el rango {@code [from, to)}.
+     *
+     * @param nameKey el nombre normalizado.
+     * @param from    el límite inferior del apellido, incluido.
+     * @param to      el límite superior del apellido, excluido.
+     * @return los usuarios encontrados.
+     */
+    @Query("{ 'name_key' : ?0, 'lastname_key' : { $gte: ?1, $lt: ?2 } }")
+    List<User> findByFullNameKeys(String nameKey, String from, String to);
 
     /**
      * Busca una lista de usuarios cuyo correo electrónico coincida exactamente
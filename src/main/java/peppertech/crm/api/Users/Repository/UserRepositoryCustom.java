@@ -0,0 +1,23 @@
+package peppertech.crm.api.Users.Repository;
+
+import org.bson.types.ObjectId;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operaciones de {@link UserRepository} que no se pueden expresar como métodos derivados.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Actualiza únicamente los campos indicados de un usuario mediante {@code $set}, junto con sus claves de búsqueda y
+     * su entrada de la búsqueda global.
+     *
+     * @param id      el identificador del usuario.
+     * @param changes los campos a modificar y sus nuevos valores.
+     * @return el usuario actualizado, o vacío si no existe.
+     */
+    Optional<User> updateFields(ObjectId id, Map<String, Object> changes);
+}
@@ -0,0 +1,47 @@
+package peppertech.crm.api.Users.Repository;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import peppertech.crm.api.Search.SearchIndexer;
+import peppertech.crm.api.Search.SearchKeys;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link UserRepositoryCustom} basada en {@link MongoTemplate}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final SearchIndexer searchIndexer;
+
+    @Autowired
+    public UserRepositoryImpl(MongoTemplate mongoTemplate, SearchIndexer searchIndexer) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndexer = searchIndexer;
+    }
+
+    @Override
+    public Optional<User> updateFields(ObjectId id, Map<String, Object> changes) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (changes.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+        }
+        Map<String, Object> fields = new LinkedHashMap<>(changes);
+        SearchKeys.apply(fields);
+        Update update = new Update();
+        fields.forEach(update::set);
+        User updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+        // findAndModify no publica eventos de guardado; la entrada de la búsqueda global se actualiza aquí.
+        searchIndexer.index(updated);
+        return Optional.ofNullable(updated);
+    }
+}
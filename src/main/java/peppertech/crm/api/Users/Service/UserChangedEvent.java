@@ -0,0 +1,20 @@
+package peppertech.crm.api.Users.Service;
+
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+/**
+ * Evento publicado por {@link UserService} después de modificar un usuario, para que la seguridad actualice las
+ * sesiones que guardan datos del usuario (principales en caché, claims y familias de refresh tokens).
+ *
+ * @param previous el usuario antes del cambio.
+ * @param current  el usuario después del cambio.
+ */
+public record UserChangedEvent(UserDTO previous, UserDTO current) {
+
+    /**
+     * @return {@code true} si cambió el rol.
+     */
+    public boolean roleChanged() {
+        return previous.getRole() == null ? current.getRole() != null : !previous.getRole().equals(current.getRole());
+    }
+}
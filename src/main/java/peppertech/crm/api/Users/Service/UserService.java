@@ -9,12 +9,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import peppertech.crm.api.Cache.Hydration.EntityBatchLoader;
+import peppertech.crm.api.Cache.Negative.NegativeLookupCache;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Export.DocumentExporter;
+import peppertech.crm.api.Pagination.CursorPage;
+import peppertech.crm.api.Pagination.EntityPager;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+import peppertech.crm.api.Search.SearchMode;
+import peppertech.crm.api.Search.Service.TypeaheadServiceI;
+import peppertech.crm.api.Security.Service.PasswordHashingServiceI;
 import peppertech.crm.api.Users.Mapper.UserMapper;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
+import peppertech.crm.api.Users.Model.Entity.User;
 import peppertech.crm.api.Users.Model.Entity.UserRole;
 import peppertech.crm.api.Users.Repository.UserRepository;
 import peppertech.crm.api.Users.Validator.UserValidatorI;
@@ -22,7 +36,10 @@ import peppertech.crm.api.Users.Validator.UserValidatorI;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,26 +49,49 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Data
-@Builder
 @Service
-public class UserService implements UserServiceI {
+public class UserService implements UserServiceI, EntityBatchLoader {
+
+    // La contraseña nunca se exporta.
+    private static final List<String> EXPORT_FIELDS = List.of("id", "name", "lastname", "email", "createAt", "userRole");
 
     private final UserRepository repositoryUser;
     private final UserMapper mapperUser;
     private final UserValidatorI validatorUser;
+    private final PasswordHashingServiceI passwordHasher;
+    private final NegativeLookupCache negativeLookups;
+    private final EntityPager<User> pagerUser;
+    private final DocumentExporter exporterUser;
+    private final TypeaheadServiceI typeaheadUser;
+    private final ApplicationEventPublisher events;
 
     /**
      * Constructor que inyecta las dependencias del servicio.
      *
-     * @param repositoryUser repositorio que maneja las operaciones de base de datos.
-     * @param mapperUser     convertidor que convierte entidades User a UserDTO.
-     * @param validatorUser  validador que valida los datos de usuario.
+     * @param repositoryUser  repositorio que maneja las operaciones de base de datos.
+     * @param mapperUser      convertidor que convierte entidades User a UserDTO.
+     * @param validatorUser   validador que valida los datos de usuario.
+     * @param passwordHasher  servicio que cifra las contraseñas fuera de los hilos de Tomcat.
+     * @param negativeLookups caché de las búsquedas por ID o correo que no encontraron al usuario.
+     * @param keysetPager     paginador por cursor de las colecciones.
+     * @param exporterUser    exportador de colecciones completas con memoria constante.
+     * @param typeaheadUser   índice en memoria del autocompletado de contactos.
+     * @param events          publicador del {@link UserChangedEvent} tras modificar un usuario.
      */
     @Autowired
-    public UserService(UserRepository repositoryUser, UserMapper mapperUser, UserValidatorI validatorUser) {
+    @Builder
+    public UserService(UserRepository repositoryUser, UserMapper mapperUser, UserValidatorI validatorUser, PasswordHashingServiceI passwordHasher,
+                       NegativeLookupCache negativeLookups, KeysetPager keysetPager, DocumentExporter exporterUser,
+                       TypeaheadServiceI typeaheadUser, ApplicationEventPublisher events) {
         this.repositoryUser = repositoryUser;
         this.mapperUser = mapperUser;
         this.validatorUser = validatorUser;
+        this.passwordHasher = passwordHasher;
+        this.negativeLookups = negativeLookups;
+        this.pagerUser = keysetPager.forEntity(User.class, "name", "lastname", "email", "createAt");
+        this.exporterUser = exporterUser;
+        this.typeaheadUser = typeaheadUser;
+        this.events = events;
     }
 
     /**
@@ -59,10 +99,13 @@ public class UserService implements UserServiceI {
      * <br><br>
      * Este método valida que el usuario no exista previamente en la base de datos mediante su email.
      * Luego, realiza una serie de validaciones sobre los datos del usuario, como el nombre, apellido,
-     * correo electrónico, contraseña y rol. Si las validaciones son exitosas, el usuario se crea y
+     * correo electrónico y contraseña. Si las validaciones son exitosas, el usuario se crea y
      * se guarda en la base de datos. Si el usuario ya existe o si las validaciones fallan, se lanza una
      * excepción correspondiente.
      * <br><br>
+     * El rol enviado se ignora: todo usuario nuevo se crea con {@link UserRole#USER}, porque este método atiende el
+     * registro público y la creación por cualquier usuario autenticado.
+     * <br><br>
      * **Transacciones (Spring Boot):** Este método está marcado con `@Transactional` de Spring, lo que significa
      * que la operación de base de datos se ejecuta dentro de una transacción. Si ocurre alguna excepción durante el
      * proceso (por ejemplo, si el usuario ya existe o alguna validación falla), la transacción será revertida
@@ -83,7 +126,12 @@ public class UserService implements UserServiceI {
      */
     @Override
     @Transactional
-    @CachePut(value = "users", key = "#result.id")
+    @Caching(put = @CachePut(value = "users", key = "'id_'+#result.id"),
+            evict = {
+                    @CacheEvict(value = "users", key = "'tag:lists'"),
+                    @CacheEvict(value = "missing", key = "'users:id_'+#result.id"),
+                    @CacheEvict(value = "missing", key = "'users:email_'+#result.email")
+            })
     public UserDTO CreateUser(UserDTO userDTO) throws ValidationException, IllegalStateException {
         return Optional.of(userDTO)
                 .filter(dto -> !repositoryUser.existsByEmail(dto.getEmail()))
@@ -92,7 +140,6 @@ public class UserService implements UserServiceI {
                     validatorUser.validateLastname(ValidDTO.getLastname());
                     validatorUser.validateEmail(ValidDTO.getEmail());
                     validatorUser.validatePassword(ValidDTO.getPassword());
-                    validatorUser.validateRole(ValidDTO.getRole());
                     if (!validatorUser.isValid()) {
                         throw new ValidationException(validatorUser.getErrors().toString());
                     }
@@ -102,11 +149,14 @@ public class UserService implements UserServiceI {
                 .map(dto -> {
                     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
                     dto.setCreateAt(LocalDateTime.now().format(formatter));
+                    dto.setPassword(passwordHasher.encode(dto.getPassword()));
+                    dto.setRole(UserRole.USER.name());
                     return dto;
                 })
                 .map(mapperUser::toEntity)
                 .map(repositoryUser::save)
                 .map(mapperUser::toDTO)
+                .map(this::indexSuggestion)
                 .orElseThrow(() -> new IllegalStateException("User already exists."));
     }
 
@@ -123,7 +173,7 @@ public class UserService implements UserServiceI {
      * @see UserDTO
      */
     @Override
-    @Cacheable(value = "users", key = "'all_users'")
+    @Cacheable(value = "users", key = "'all_users'", sync = true)
     public List<UserDTO> getAllUsers() throws Exception {
         return Optional.of(repositoryUser.findAll())
                 .filter(users -> !users.isEmpty())
@@ -133,6 +183,40 @@ public class UserService implements UserServiceI {
                 .orElseThrow(() -> new Exception("No users found."));
     }
 
+    /**
+     * Obtiene una página de usuarios ordenada por ID o por una clave secundaria, sin cargar la colección completa.
+     *
+     * @param cursor el cursor de la página anterior, o {@code null} para la primera.
+     * @param limit  el tamaño de página, o {@code null} para el valor por defecto.
+     * @param sort   la clave de orden ({@code name}, {@code lastname}, {@code email}, {@code createAt} o {@code id}), con {@code -} delante para orden descendente.
+     * @return la página de objetos {@link UserDTO}.
+     * @throws ValidationException si el cursor, el límite o el orden no son válidos.
+     * @throws Exception           si no hay usuarios registrados.
+     */
+    @Override
+    public CursorPage<UserDTO> getUsersPage(String cursor, Integer limit, String sort) throws Exception {
+        return Optional.of(pagerUser.find(cursor, limit, sort))
+                .filter(page -> !page.items().isEmpty() || cursor != null)
+                .map(page -> page.map(mapperUser::toDTO))
+                .orElseThrow(() -> new Exception("No users found."));
+    }
+
+    /**
+     * Prepara la exportación completa de los usuarios en NDJSON o CSV, leída con un cursor de MongoDB sin pasar por la
+     * caché.
+     *
+     * @param fields las propiedades a exportar separadas por comas, o {@code null} para todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si el cuerpo se comprime con gzip.
+     * @return la exportación, que se escribe al enviarse.
+     * @throws ValidationException        si el formato o algún campo no son válidos.
+     * @throws ServiceOverloadedException si hay demasiadas exportaciones en curso.
+     */
+    @Override
+    public DocumentExport exportUsers(String fields, String format, boolean gzip) {
+        return exporterUser.export(User.class, EXPORT_FIELDS, fields, format, gzip);
+    }
+
     /**
      * Obtiene un usuario de la base de datos a partir de su ID.
      * *
@@ -149,7 +233,7 @@ public class UserService implements UserServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "users", key = "'id_'+#id")
+    @Cacheable(value = "users", key = "'id_'+#id", sync = true)
     public UserDTO getUserById(String id) throws Exception {
         return Optional.of(id)
                 .map(ValidId -> {
@@ -160,9 +244,10 @@ public class UserService implements UserServiceI {
                     validatorUser.Reset();
                     return new ObjectId(ValidId);
                 })
+                .filter(objectId -> !negativeLookups.isMissing("users", "id_" + id))
                 .flatMap(repositoryUser::findById)
                 .map(mapperUser::toDTO)
-                .orElseThrow(() -> new Exception("User does not exist."));
+                .orElseThrow(() -> negativeLookups.markMissing("users", "id_" + id, new Exception("User does not exist.")));
     }
 
     /**
@@ -182,7 +267,7 @@ public class UserService implements UserServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "users", key = "'email_'+#email")
+    @Cacheable(value = "users", key = "'email_'+#email", sync = true)
     public UserDTO getUserByEmail(String email) throws Exception {
         return Optional.of(email)
                 .map(ValidEmail -> {
@@ -193,11 +278,13 @@ public class UserService implements UserServiceI {
                     validatorUser.Reset();
                     return ValidEmail;
                 })
+                .filter(validEmail -> !negativeLookups.isMissing("users", "email_" + validEmail))
                 .map(repositoryUser::findByEmail)
                 .filter(users -> !users.isEmpty())
                 .map(users -> users.get(0))
                 .map(mapperUser::toDTO)
-                .orElseThrow(() -> new Exception("No users found with the specified email."));
+                .orElseThrow(() -> negativeLookups.markMissing("users", "email_" + email,
+                        new Exception("No users found with the specified email.")));
     }
 
     /**
@@ -217,8 +304,26 @@ public class UserService implements UserServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "users", key = "'name_'+#name")
+    @Cacheable(value = "users", key = "'name_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#name)", sync = true)
     public List<UserDTO> getUsersByName(String name) throws Exception {
+        return findUsersByName(name, SearchMode.PREFIX);
+    }
+
+    /**
+     * Obtiene los usuarios cuyo nombre es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param name el nombre completo.
+     * @return una lista de objetos {@link UserDTO} que representan a los usuarios encontrados.
+     * @throws Exception           si no existen usuarios con ese nombre o si no es válido.
+     * @throws ValidationException si el nombre no es válido según las reglas de validación.
+     */
+    @Override
+    @Cacheable(value = "users", key = "'exactname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#name)", sync = true)
+    public List<UserDTO> getUsersByExactName(String name) throws Exception {
+        return findUsersByName(name, SearchMode.EXACT);
+    }
+
+    private List<UserDTO> findUsersByName(String name, SearchMode mode) throws Exception {
         return Optional.of(name)
                 .map(ValidName -> {
                     validatorUser.validateName(ValidName);
@@ -228,7 +333,7 @@ public class UserService implements UserServiceI {
                     validatorUser.Reset();
                     return ValidName;
                 })
-                .map(repositoryUser::findByName)
+                .map(valid -> repositoryUser.findByName(valid, mode))
                 .filter(users -> !users.isEmpty())
                 .map(users -> users.stream()
                         .map(mapperUser::toDTO)
@@ -253,8 +358,26 @@ public class UserService implements UserServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "users", key = "'lastname_'+#lastname")
+    @Cacheable(value = "users", key = "'lastname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#lastname)", sync = true)
     public List<UserDTO> getUsersByLastname(String lastname) throws Exception {
+        return findUsersByLastname(lastname, SearchMode.PREFIX);
+    }
+
+    /**
+     * Obtiene los usuarios cuyo apellido es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param lastname el apellido completo.
+     * @return una lista de objetos {@link UserDTO} que representan a los usuarios encontrados.
+     * @throws Exception           si no existen usuarios con ese apellido o si no es válido.
+     * @throws ValidationException si el apellido no es válido según las reglas de validación.
+     */
+    @Override
+    @Cacheable(value = "users", key = "'exactlastname_'+T(peppertech.crm.api.Search.SearchKeys).normalize(#lastname)", sync = true)
+    public List<UserDTO> getUsersByExactLastname(String lastname) throws Exception {
+        return findUsersByLastname(lastname, SearchMode.EXACT);
+    }
+
+    private List<UserDTO> findUsersByLastname(String lastname, SearchMode mode) throws Exception {
         return Optional.of(lastname)
                 .map(ValidLastname -> {
                     validatorUser.validateLastname(ValidLastname);
@@ -264,7 +387,7 @@ public class UserService implements UserServiceI {
                     validatorUser.Reset();
                     return ValidLastname;
                 })
-                .map(repositoryUser::findByLastname)
+                .map(valid -> repositoryUser.findByLastname(valid, mode))
                 .filter(users -> !users.isEmpty())
                 .map(users -> users.stream()
                         .map(mapperUser::toDTO)
@@ -289,7 +412,7 @@ public class UserService implements UserServiceI {
      * @see ValidationException
      */
     @Override
-    @Cacheable(value = "users", key = "'role:'+#role")
+    @Cacheable(value = "users", key = "'role:'+#role", sync = true)
     public List<UserDTO> getUsersByRole(String role) throws Exception {
         return Optional.of(role)
                 .map(ValidRole -> {
@@ -319,7 +442,7 @@ public class UserService implements UserServiceI {
      * @see UserRole
      */
     @Override
-    @Cacheable(value = "users", key = "'all_rols'")
+    @Cacheable(value = "users", key = "'all_rols'", sync = true)
     public List<String> getAllRoles() throws Exception {
         return Optional.of(
                         Arrays.stream(UserRole.values())
@@ -333,59 +456,131 @@ public class UserService implements UserServiceI {
     /**
      * Actualiza la información de un usuario en la base de datos.
      * <br><br>
-     * Este método permite actualizar los detalles de un usuario existente en la base de datos. Primero,
-     * se busca el usuario por su ID. Si el usuario existe, se actualizan los campos del usuario con los
-     * valores proporcionados en el objeto {@link UserDTO}. Luego, se validan los nuevos valores antes de
-     * guardar el usuario actualizado. Si alguno de los valores es inválido, se lanza una excepción de validación.
+     * Este método permite actualizar los detalles de un usuario existente en la base de datos. Los campos nulos del
+     * objeto {@link UserDTO} se conservan, y solo los campos que cambian se validan y se escriben con {@code $set}.
+     * La contraseña únicamente se cifra cuando se envía una nueva contraseña en texto plano; editar el perfil no
+     * vuelve a cifrar el hash almacenado. El rol enviado se ignora; solo se cambia con {@link #ChangeRole(String, String)}.
      * <br><br>
-     * **Transacciones (Spring Boot):** Al igual que el método `CreateUser`, este método está marcado con la anotación
-     * `@Transactional`, lo que significa que la operación de actualización se ejecutará dentro de una transacción de Spring.
-     * Si ocurre algún error, la transacción se revertirá, asegurando que los cambios no se apliquen si algo falla en el proceso.
-     * <br><br>
-     * **Rollback:** Las excepciones que extienden `RuntimeException` causarán un rollback automático, mientras que
-     * las excepciones comprobadas, como `ValidationException`, no harán que la transacción se revierta a menos que se
-     * indique explícitamente lo contrario.
+     * **Caché:** Como el correo electrónico o el nombre pueden cambiar, se invalidan todas las entradas de la
+     * caché de usuarios en lugar de actualizar solo la entrada por ID.
      *
      * @param id          el identificador del usuario a actualizar.
      * @param updatedUser el objeto {@link UserDTO} que contiene los nuevos valores para el usuario.
      * @return un objeto {@link UserDTO} con la información actualizada del usuario.
      * @throws Exception           si el usuario no se pudo actualizar debido a algún error general.
      * @throws ValidationException si alguno de los campos del usuario proporcionado no es válido según las reglas de validación.
-     * @see UserDTO
-     * @see ValidationException
-     * @see Transactional
+     * @see #PatchUser(String, UserDTO)
      */
     @Override
     @Transactional
-    @CachePut(value = "users", key = "'id:'+#id")
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "users", key = "'tag:lists'"),
+            @CacheEvict(value = "missing", key = "'users:email_'+#result.email")
+    })
     public UserDTO UpdateUser(String id, UserDTO updatedUser) throws Exception {
+        return applyChanges(id, updatedUser);
+    }
+
+    /**
+     * Actualiza parcialmente un usuario, escribiendo únicamente los campos que cambian.
+     * <br><br>
+     * Los campos nulos se ignoran y los que coinciden con el valor almacenado no se escriben. Si no hay cambios,
+     * se devuelve el usuario sin acceder a la base de datos para escribir. El rol no se modifica por aquí: cualquier
+     * usuario autenticado puede usar este método, así que el rol solo cambia con {@link #ChangeRole(String, String)}.
+     *
+     * @param id      el identificador del usuario a actualizar.
+     * @param changes el objeto {@link UserDTO} con los campos a modificar.
+     * @return un objeto {@link UserDTO} con la información actualizada del usuario.
+     * @throws Exception             si el usuario no existe o no se pudo actualizar.
+     * @throws ValidationException   si alguno de los campos modificados no es válido.
+     * @throws IllegalStateException si el nuevo correo electrónico ya pertenece a otro usuario.
+     */
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "users", key = "'tag:lists'"),
+            @CacheEvict(value = "missing", key = "'users:email_'+#result.email")
+    })
+    public UserDTO PatchUser(String id, UserDTO changes) throws Exception {
+        return applyChanges(id, changes);
+    }
+
+    private UserDTO applyChanges(String id, UserDTO changes) throws Exception {
         UserDTO existingUser = getUserById(id);
-        return Optional.of(updatedUser)
-                .map(dto -> {
-                    existingUser.setName(dto.getName() != null ? dto.getName() : existingUser.getName());
-                    existingUser.setLastname(dto.getLastname() != null ? dto.getLastname() : existingUser.getLastname());
-                    existingUser.setEmail(dto.getEmail() != null ? dto.getEmail() : existingUser.getEmail());
-                    existingUser.setPassword(dto.getPassword() != null ? dto.getPassword() : existingUser.getPassword());
-                    existingUser.setRole(dto.getRole() != null ? dto.getRole() : existingUser.getRole());
-                    return existingUser;
-                })
-                .map(dto -> {
-                    validatorUser.validateName(dto.getName());
-                    validatorUser.validateLastname(dto.getLastname());
-                    validatorUser.validateEmail(dto.getEmail());
-                    validatorUser.validatePassword(dto.getPassword());
-                    validatorUser.validateRole(dto.getRole());
-                    if (!validatorUser.isValid()) {
-                        throw new ValidationException(validatorUser.getErrors().toString());
-                    }
+        Map<String, Object> fields = new LinkedHashMap<>();
 
-                    validatorUser.Reset();
-                    return dto;
-                })
-                .map(mapperUser::toEntity)
-                .map(repositoryUser::save)
+        if (changes.getName() != null && !changes.getName().equals(existingUser.getName())) {
+            validatorUser.validateName(changes.getName());
+            fields.put("name", changes.getName());
+        }
+        if (changes.getLastname() != null && !changes.getLastname().equals(existingUser.getLastname())) {
+            validatorUser.validateLastname(changes.getLastname());
+            fields.put("lastname", changes.getLastname());
+        }
+        if (changes.getEmail() != null && !changes.getEmail().equals(existingUser.getEmail())) {
+            validatorUser.validateEmail(changes.getEmail());
+            fields.put("email", changes.getEmail());
+        }
+        if (changes.getPassword() != null) {
+            validatorUser.validatePassword(changes.getPassword());
+        }
+        if (!validatorUser.isValid()) {
+            throw new ValidationException(validatorUser.getErrors().toString());
+        }
+        validatorUser.Reset();
+
+        if (fields.containsKey("email") && repositoryUser.existsByEmail(changes.getEmail())) {
+            throw new IllegalStateException("Email is already in use.");
+        }
+        if (changes.getPassword() != null) {
+            fields.put("password", passwordHasher.encode(changes.getPassword()));
+        }
+        if (fields.isEmpty()) {
+            return existingUser;
+        }
+        return writeFields(existingUser, fields);
+    }
+
+    /**
+     * Cambia el rol de un usuario. Solo los administradores pueden llamarlo (ver {@code SecurityConfiguration}).
+     * <br><br>
+     * Tras el cambio se publica un {@link UserChangedEvent}, que revoca los tokens del usuario para que sus sesiones
+     * no conserven el rol anterior.
+     *
+     * @param id   el identificador del usuario.
+     * @param role el nuevo rol, uno de {@link UserRole}.
+     * @return un objeto {@link UserDTO} con la información actualizada del usuario.
+     * @throws Exception           si el usuario no existe o no se pudo actualizar.
+     * @throws ValidationException si el rol no es válido.
+     */
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "users", key = "'tag:lists'")
+    })
+    public UserDTO ChangeRole(String id, String role) throws Exception {
+        UserDTO existingUser = getUserById(id);
+        validatorUser.validateRole(role);
+        if (!validatorUser.isValid()) {
+            throw new ValidationException(validatorUser.getErrors().toString());
+        }
+        validatorUser.Reset();
+        if (role.equals(existingUser.getRole())) {
+            return existingUser;
+        }
+        return writeFields(existingUser, Map.of("role", role));
+    }
+
+    private UserDTO writeFields(UserDTO existingUser, Map<String, Object> fields) throws Exception {
+        UserDTO updated = repositoryUser.updateFields(new ObjectId(existingUser.getId()), fields)
                 .map(mapperUser::toDTO)
+                .map(this::indexSuggestion)
                 .orElseThrow(() -> new Exception("The user could not be updated."));
+        events.publishEvent(new UserChangedEvent(existingUser, updated));
+        return updated;
     }
 
     /**
@@ -410,11 +605,15 @@ public class UserService implements UserServiceI {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "'id_'+#id")
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "'tag:id:'+#id"),
+            @CacheEvict(value = "users", key = "'tag:lists'")
+    })
     public String DeleteUser(String id) throws Exception {
         return Optional.of(getUserById(id))
                 .map(user -> {
                     repositoryUser.deleteById(new ObjectId(user.getId()));
+                    typeaheadUser.remove(SearchType.USER, user.getId());
                     return "The user with ID '" + id + "' has been deleted.";
                 })
                 .orElseThrow(() -> new Exception("User not found."));
@@ -443,5 +642,28 @@ public class UserService implements UserServiceI {
                         .build())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
     }
-}
 
+    @Override
+    public String getCacheName() {
+        return "users";
+    }
+
+    private UserDTO indexSuggestion(UserDTO user) {
+        typeaheadUser.put(SearchType.USER, user.getId(), user.getName(), user.getLastname(), user.getEmail());
+        return user;
+    }
+
+    /**
+     * Busca varios usuarios por ID en una sola consulta, para reconstruir las listas guardadas en caché como IDs.
+     *
+     * @param ids los IDs de los usuarios.
+     * @return los usuarios encontrados; los IDs inválidos o inexistentes se omiten.
+     */
+    @Override
+    public List<UserDTO> findAllByIds(Collection<String> ids) {
+        return repositoryUser.findAllById(ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList())
+                .stream()
+                .map(mapperUser::toDTO)
+                .collect(Collectors.toList());
+    }
+}
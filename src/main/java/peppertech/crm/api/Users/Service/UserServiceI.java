@@ -2,6 +2,8 @@ package peppertech.crm.api.Users.Service;
 
 import jakarta.validation.ValidationException;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Pagination.CursorPage;
 import peppertech.crm.api.Users.Model.DTO.UserDTO;
 
 import java.util.List;
@@ -32,6 +34,27 @@ public interface UserServiceI extends UserDetailsService {
      */
     List<UserDTO> getAllUsers() throws Exception;
 
+    /**
+     * Obtiene una página de usuarios paginada por cursor.
+     *
+     * @param cursor el cursor {@code X-Next-Cursor} de la página anterior, o {@code null} para la primera.
+     * @param limit  el tamaño de página, o {@code null} para el valor por defecto.
+     * @param sort   la clave de orden, con {@code -} delante para orden descendente, o {@code null} para ordenar por ID.
+     * @return la página de objetos {@link UserDTO}.
+     * @throws Exception si los parámetros no son válidos o no hay usuarios registrados.
+     */
+    CursorPage<UserDTO> getUsersPage(String cursor, Integer limit, String sort) throws Exception;
+
+    /**
+     * Prepara la exportación completa de los usuarios.
+     *
+     * @param fields las propiedades a exportar separadas por comas, o {@code null} para todas.
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param gzip   si el cuerpo se comprime con gzip.
+     * @return la exportación, que se escribe al enviarse.
+     */
+    DocumentExport exportUsers(String fields, String format, boolean gzip);
+
     /**
      * Obtiene un usuario por su ID.
      *
@@ -51,7 +74,7 @@ public interface UserServiceI extends UserDetailsService {
     UserDTO getUserByEmail(String email) throws Exception;
 
     /**
-     * Obtiene una lista de usuarios que coinciden con un nombre.
+     * Obtiene una lista de usuarios cuyo nombre empieza por el texto indicado, sin distinguir mayúsculas ni acentos.
      *
      * @param name el nombre del usuario a buscar.
      * @return una lista de objetos {@link UserDTO} que coinciden con el nombre proporcionado.
@@ -60,7 +83,16 @@ public interface UserServiceI extends UserDetailsService {
     List<UserDTO> getUsersByName(String name) throws Exception;
 
     /**
-     * Obtiene una lista de usuarios que coinciden con un apellido.
+     * Obtiene una lista de usuarios cuyo nombre es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param name el nombre completo del usuario a buscar.
+     * @return una lista de objetos {@link UserDTO} con ese nombre.
+     * @throws Exception si no se encuentran usuarios o si ocurre un error durante la búsqueda.
+     */
+    List<UserDTO> getUsersByExactName(String name) throws Exception;
+
+    /**
+     * Obtiene una lista de usuarios cuyo apellido empieza por el texto indicado, sin distinguir mayúsculas ni acentos.
      *
      * @param lastname el apellido del usuario a buscar.
      * @return una lista de objetos {@link UserDTO} que coinciden con el apellido proporcionado.
@@ -68,6 +100,15 @@ public interface UserServiceI extends UserDetailsService {
      */
     List<UserDTO> getUsersByLastname(String lastname) throws Exception;
 
+    /**
+     * Obtiene una lista de usuarios cuyo apellido es igual al indicado, sin distinguir mayúsculas ni acentos.
+     *
+     * @param lastname el apellido completo del usuario a buscar.
+     * @return una lista de objetos {@link UserDTO} con ese apellido.
+     * @throws Exception si no se encuentran usuarios o si ocurre un error durante la búsqueda.
+     */
+    List<UserDTO> getUsersByExactLastname(String lastname) throws Exception;
+
     /**
      * Obtiene una lista de usuarios que coinciden con un rol específico.
      *
@@ -95,6 +136,29 @@ public interface UserServiceI extends UserDetailsService {
      */
     UserDTO UpdateUser(String id, UserDTO updatedUser) throws Exception;
 
+    /**
+     * Actualiza parcialmente un usuario: solo se escriben los campos enviados que cambian. El rol no se modifica.
+     *
+     * @param id      el identificador único del usuario a actualizar.
+     * @param changes un objeto {@link UserDTO} con los campos a modificar; los campos nulos se ignoran.
+     * @return el objeto {@link UserDTO} con los datos del usuario actualizado.
+     * @throws ValidationException   si alguno de los campos modificados no es válido.
+     * @throws IllegalStateException si el nuevo correo electrónico ya pertenece a otro usuario.
+     * @throws Exception             si no se encuentra el usuario o si ocurre un error durante la actualización.
+     */
+    UserDTO PatchUser(String id, UserDTO changes) throws Exception;
+
+    /**
+     * Cambia el rol de un usuario. Reservado a administradores.
+     *
+     * @param id   el identificador único del usuario.
+     * @param role el nuevo rol.
+     * @return el objeto {@link UserDTO} con los datos del usuario actualizado.
+     * @throws ValidationException si el rol no es válido.
+     * @throws Exception           si no se encuentra el usuario o si ocurre un error durante la actualización.
+     */
+    UserDTO ChangeRole(String id, String role) throws Exception;
+
     /**
      * Elimina un usuario del sistema.
      *
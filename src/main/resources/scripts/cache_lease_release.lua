@@ -0,0 +1,8 @@
+-- Libera el lease de recarga de una clave de caché solo si sigue perteneciendo a este nodo.
+-- KEYS[1]: clave del lease (<version>:lease:<caché>:<clave>)
+-- ARGV[1]: identificador del dueño del lease
+-- Devuelve 1 si se liberó y 0 si ya había expirado o pertenece a otro nodo.
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
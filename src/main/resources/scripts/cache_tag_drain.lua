@@ -0,0 +1,7 @@
+-- Obtiene y elimina las claves asociadas a una etiqueta de caché en una sola operación atómica, para que una clave
+-- etiquetada entre la lectura y el borrado no se pierda del índice.
+-- KEYS[1]: conjunto de la etiqueta (<version>:tags:<caché>:<etiqueta>)
+-- Devuelve los miembros que tenía el conjunto.
+local members = redis.call('SMEMBERS', KEYS[1])
+redis.call('DEL', KEYS[1])
+return members
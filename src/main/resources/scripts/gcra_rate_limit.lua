@@ -0,0 +1,24 @@
+-- GCRA (Generic Cell Rate Algorithm) para limitación de tasa distribuida.
+-- KEYS[1] : clave del cliente
+-- ARGV[1] : intervalo de emisión en ms (ventana / límite)
+-- ARGV[2] : límite de solicitudes (ráfaga permitida)
+-- Retorna {permitido, restantes, ms hasta recuperar la cuota, ms para reintentar}
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local interval = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local tolerance = interval * limit
+
+local tat = tonumber(redis.call('GET', KEYS[1]))
+if tat == nil or tat < now then
+    tat = now
+end
+
+local new_tat = tat + interval
+local allow_at = new_tat - tolerance
+if allow_at > now then
+    return {0, 0, tat - now, allow_at - now}
+end
+
+redis.call('SET', KEYS[1], new_tat, 'PX', new_tat - now)
+return {1, math.floor((now - allow_at) / interval), new_tat - now, 0}
@@ -0,0 +1,35 @@
+-- Rota un refresh token de forma atómica.
+-- KEYS[1]: clave de la familia (refresh:family:{<uid>}:<id>)
+-- KEYS[2]: clave de la versión de token del usuario (token_version:{<uid>}), en el mismo slot que la familia
+-- ARGV[1]: hash del token presentado
+-- ARGV[2]: hash del nuevo token
+-- ARGV[3]: tiempo (ms) de inactividad tras el cual expira la familia
+-- ARGV[4]: instante actual (ms desde epoch)
+-- Devuelve {1, uid, email, role, ver} si se rotó, {0} si la familia no existe o superó su duración máxima,
+-- {-1} si el token ya fue usado (la familia se revoca) y {-2} si los tokens del usuario fueron revocados.
+local family = redis.call('HMGET', KEYS[1], 'cur', 'uid', 'email', 'role', 'ver', 'exp')
+if not family[1] then
+    return {0}
+end
+local now = tonumber(ARGV[4])
+local expiresAt = tonumber(family[6])
+if expiresAt and expiresAt <= now then
+    redis.call('DEL', KEYS[1])
+    return {0}
+end
+if family[1] ~= ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return {-1}
+end
+local version = redis.call('GET', KEYS[2]) or '0'
+if version ~= family[5] then
+    redis.call('DEL', KEYS[1])
+    return {-2}
+end
+local ttl = tonumber(ARGV[3])
+if expiresAt and expiresAt - now < ttl then
+    ttl = expiresAt - now
+end
+redis.call('HSET', KEYS[1], 'cur', ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ttl)
+return {1, family[2], family[3], family[4] or '', family[5]}
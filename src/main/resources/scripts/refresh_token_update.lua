@@ -0,0 +1,17 @@
+-- Actualiza el correo y el rol guardados en las familias de refresh tokens de un usuario.
+-- KEYS[1]: conjunto de familias del usuario (refresh:families:{<uid>})
+-- KEYS[2..n]: claves de las familias (refresh:family:{<uid>}:<id>), en el mismo slot que el conjunto
+-- ARGV[1]: nuevo correo electrónico
+-- ARGV[2]: nuevo rol ('' si no tiene)
+-- ARGV[3..n+1]: ID de la familia de cada clave, en el mismo orden
+-- Las familias que ya expiraron se quitan del conjunto en lugar de recrearse. Devuelve el número de familias actualizadas.
+local updated = 0
+for i = 2, #KEYS do
+    if redis.call('EXISTS', KEYS[i]) == 1 then
+        redis.call('HSET', KEYS[i], 'email', ARGV[1], 'role', ARGV[2])
+        updated = updated + 1
+    else
+        redis.call('SREM', KEYS[1], ARGV[i + 1])
+    end
+end
+return updated
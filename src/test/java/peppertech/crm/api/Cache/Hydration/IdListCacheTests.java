@@ -0,0 +1,37 @@
+package peppertech.crm.api.Cache.Hydration;
+
+import org.junit.jupiter.api.Test;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdListCacheTests {
+
+    @Test
+    void storesEntityListsAsOrderedIds() {
+        Object stored = IdListCache.toStored(List.of(user("b"), user("a"), user("c")));
+
+        assertEquals(new CachedIdList(List.of("b", "a", "c")), stored);
+    }
+
+    @Test
+    void keepsOtherValuesUnchanged() {
+        UserDTO single = user("a");
+        List<String> roles = List.of("ADMIN", "USER");
+        List<UserDTO> withoutIds = List.of(user("a"), new UserDTO());
+
+        assertSame(single, IdListCache.toStored(single));
+        assertSame(roles, IdListCache.toStored(roles));
+        assertSame(withoutIds, IdListCache.toStored(withoutIds));
+        assertTrue(((List<?>) IdListCache.toStored(new ArrayList<>())).isEmpty());
+    }
+
+    private static UserDTO user(String id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        return user;
+    }
+}
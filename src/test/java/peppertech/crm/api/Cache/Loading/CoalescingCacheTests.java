@@ -0,0 +1,69 @@
+package peppertech.crm.api.Cache.Loading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCacheTests {
+
+    private final CoalescingCache cache = new CoalescingCache(new ConcurrentMapCache("leads", false), null,
+            Duration.ZERO, Duration.ofMinutes(10), 0.0, Runnable::run, new SimpleMeterRegistry());
+
+    @Test
+    void runsASingleLoaderForConcurrentMisses() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("all_leads", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("value", cache.get("all_leads").get());
+    }
+
+    @Test
+    void propagatesLoaderFailuresWithoutCaching() {
+        Cache.ValueRetrievalException error = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("id_1", () -> {
+                    throw new Exception("El lead no existe.");
+                }));
+        assertEquals("El lead no existe.", error.getCause().getMessage());
+        assertNull(cache.get("id_1"));
+    }
+
+    @Test
+    void refreshesEarlierWhenCloserToExpiryOrMoreExpensive() {
+        long ttl = 60_000;
+        assertFalse(CoalescingCache.shouldRefreshEarly(1_000, 0, 50, ttl, 1.0, 0.5));
+        assertTrue(CoalescingCache.shouldRefreshEarly(59_990, 0, 50, ttl, 1.0, 0.5));
+        assertTrue(CoalescingCache.shouldRefreshEarly(55_000, 0, 10_000, ttl, 1.0, 0.5));
+        assertFalse(CoalescingCache.shouldRefreshEarly(59_990, 0, 50, ttl, 0.0, 0.5));
+    }
+}
@@ -0,0 +1,40 @@
+package peppertech.crm.api.Cache.Metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheStatisticsTests {
+
+    @Test
+    void groupsKeysByShortPrefix() {
+        assertEquals("id_", CacheKeyPrefix.of("id_64f0c2"));
+        assertEquals("email_", CacheKeyPrefix.of("email_ana@example.com"));
+        assertEquals("all_", CacheKeyPrefix.of("all_users"));
+        assertEquals("role:", CacheKeyPrefix.of("role:ADMIN"));
+        assertEquals("other", CacheKeyPrefix.of("averyveryverylongkey_x"));
+    }
+
+    @Test
+    void summarizesPerPrefixAndKeepsTheLargestKeys() {
+        CacheStatistics statistics = new CacheStatistics(new SimpleMeterRegistry(), 2);
+        statistics.recordGet("users", "id_1", true);
+        statistics.recordGet("users", "id_2", false);
+        statistics.recordPut("users", "id_2", 100);
+        statistics.recordPut("users", "all_users", 5000);
+        statistics.recordPut("users", "email_a", 300);
+        statistics.recordEvict("users", "all_users");
+
+        Map<String, Object> snapshot = statistics.snapshot("users");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> prefixes = (Map<String, Map<String, Object>>) snapshot.get("prefixes");
+        assertEquals(0.5, prefixes.get("id_").get("hitRatio"));
+        assertEquals(1L, prefixes.get("all_").get("evictions"));
+        assertEquals(List.of("email_a"), List.copyOf(((Map<?, ?>) snapshot.get("largestKeys")).keySet()));
+        assertEquals(List.of("users"), statistics.getCacheNames());
+    }
+}
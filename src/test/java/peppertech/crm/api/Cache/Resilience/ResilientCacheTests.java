@@ -0,0 +1,226 @@
+package peppertech.crm.api.Cache.Resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import peppertech.crm.api.Cache.Hydration.IdListCache;
+import peppertech.crm.api.Cache.Metrics.CacheStatistics;
+import peppertech.crm.api.Cache.Metrics.InstrumentedCache;
+import peppertech.crm.api.Cache.Serializer.CompactCacheSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientCacheTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(2, 10_000, now::get, meterRegistry);
+    private final ConcurrentMapCacheManager application = new ConcurrentMapCacheManager("leads");
+    private final DeferredEvictions evictions = deferredEvictions(application);
+    private final FlakyCache redis = new FlakyCache();
+    private final ThreadPoolTaskExecutor executor = executor();
+    private final ResilientCache cache = new ResilientCache(redis, breaker, evictions, executor,
+            Duration.ofMillis(50), Duration.ofMillis(50), new ResilientCacheManager.Meters(meterRegistry));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndProbesOnceAfterTheOpenDuration() {
+        breaker.onFailure();
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(10_000);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only one probe while half-open");
+        breaker.onFailure();
+        assertTrue(breaker.isOpen());
+
+        now.addAndGet(10_000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void anInterruptedProbeLetsTheCircuitCloseAgain() throws InterruptedException {
+        ResilientCache patient = new ResilientCache(redis, breaker, evictions, executor,
+                Duration.ofSeconds(5), Duration.ofSeconds(5), new ResilientCacheManager.Meters(meterRegistry));
+        breaker.onFailure();
+        breaker.onFailure();
+        now.addAndGet(10_000);
+        redis.slow.set(true);
+
+        Thread probe = new Thread(() -> patient.get("id_1"));
+        probe.start();
+        while (breaker.getState() != RedisCircuitBreaker.State.HALF_OPEN) {
+            Thread.sleep(1);
+        }
+        probe.interrupt();
+        probe.join();
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+
+        redis.slow.set(false);
+        patient.put("id_2", "value");
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void treatsSlowReadsAsMissesAndLoadsFromTheDatabase() {
+        redis.put("id_1", "stale");
+        redis.slow.set(true);
+
+        long start = System.nanoTime();
+        assertEquals("fresh", cache.get("id_1", () -> "fresh"));
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(500).toNanos());
+        assertEquals(1.0, meterRegistry.get("cache.redis.failures").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void bypassesRedisWhileOpenAndReplaysDeferredEvictionsOnRecovery() {
+        redis.failing.set(true);
+        cache.evict("id_1");
+        cache.evict("id_2");
+        assertTrue(breaker.isOpen());
+        assertNull(cache.get("id_3"));
+        assertEquals(1.0, meterRegistry.get("cache.redis.bypassed").counter().count());
+        assertEquals(2, evictions.size());
+
+        application.getCache("leads").put("id_1", "stale");
+        redis.failing.set(false);
+        now.addAndGet(10_000);
+        cache.put("id_4", "value");
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, evictions.size());
+        assertNull(application.getCache("leads").get("id_1"));
+    }
+
+    @Test
+    void hydratesIdListsOutsideTheReadTimeout() {
+        IdListCache lists = Mockito.mock(IdListCache.class);
+        Cache.ValueWrapper read = new SimpleValueWrapper("ids");
+        Thread caller = Thread.currentThread();
+        Mockito.when(lists.read("all_leads")).thenAnswer(invocation -> {
+            assertNotSame(caller, Thread.currentThread());
+            return read;
+        });
+        Mockito.when(lists.complete("all_leads", read)).thenAnswer(invocation -> {
+            assertSame(caller, Thread.currentThread());
+            Thread.sleep(200);
+            return new SimpleValueWrapper(List.of("lead"));
+        });
+        ResilientCache resilient = new ResilientCache(lists, breaker, evictions, executor,
+                Duration.ofMillis(50), Duration.ofMillis(50), new ResilientCacheManager.Meters(meterRegistry));
+
+        assertEquals(List.of("lead"), resilient.get("all_leads", List.class));
+        assertTrue(meterRegistry.find("cache.redis.failures").counters().isEmpty());
+    }
+
+    @Test
+    void reportsTheSerializedSizeOfWritesMadeInThePool() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(0, 0);
+        ConcurrentMapCache serializing = new ConcurrentMapCache("leads", false) {
+            @Override
+            public void put(Object key, Object value) {
+                assertTrue(Thread.currentThread().getName().startsWith("Cache-Redis-"));
+                super.put(key, serializer.serialize(value));
+            }
+        };
+        CacheStatistics statistics = new CacheStatistics(meterRegistry, 5);
+        InstrumentedCache instrumented = new InstrumentedCache(new ResilientCache(serializing, breaker, evictions,
+                executor, Duration.ofMillis(500), Duration.ofMillis(500),
+                new ResilientCacheManager.Meters(meterRegistry)), statistics);
+
+        instrumented.put("id_1", "value");
+        instrumented.get("id_2", () -> "another value");
+
+        Map<?, ?> largest = (Map<?, ?>) statistics.snapshot("leads").get("largestKeys");
+        assertEquals(serializer.serialize("value").length, ((Number) largest.get("id_1")).intValue());
+        assertEquals(serializer.serialize("another value").length, ((Number) largest.get("id_2")).intValue());
+    }
+
+    @Test
+    void propagatesErrorsThatAreNotFromRedis() {
+        redis.put("id_1", "value");
+        assertThrows(IllegalStateException.class, () -> cache.get("id_1", Integer.class));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private DeferredEvictions deferredEvictions(CacheManager cacheManager) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheManager", cacheManager);
+        TaskExecutor inline = Runnable::run;
+        return new DeferredEvictions(breaker, beanFactory.getBeanProvider(CacheManager.class), inline, 100, meterRegistry);
+    }
+
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setThreadNamePrefix("Cache-Redis-");
+        executor.initialize();
+        return executor;
+    }
+
+    private static class FlakyCache extends ConcurrentMapCache {
+
+        final AtomicBoolean failing = new AtomicBoolean();
+        final AtomicBoolean slow = new AtomicBoolean();
+
+        FlakyCache() {
+            super("leads", false);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            check();
+            return super.lookup(key);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            check();
+            super.put(key, value);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            check();
+            return super.evictIfPresent(key);
+        }
+
+        private void check() {
+            if (failing.get()) {
+                throw new RedisConnectionFailureException("Connection refused");
+            }
+            if (slow.get()) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
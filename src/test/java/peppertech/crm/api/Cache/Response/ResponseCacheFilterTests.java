@@ -0,0 +1,40 @@
+package peppertech.crm.api.Cache.Response;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTests {
+
+    @Test
+    void compressesLargeBodiesAndKeepsTheEtagOfThePlainBody() throws IOException {
+        byte[] body = "[{\"id\":\"1\",\"name\":\"Lead\"}]".repeat(100).getBytes();
+
+        RenderedResponse compressed = ResponseCacheFilter.render(body, Map.of(), 1024);
+        RenderedResponse plain = ResponseCacheFilter.render(body, Map.of(), 0);
+
+        assertTrue(compressed.isGzipped());
+        assertTrue(compressed.getBody().length < body.length);
+        assertArrayEquals(body, new GZIPInputStream(new ByteArrayInputStream(compressed.getBody())).readAllBytes());
+        assertFalse(plain.isGzipped());
+        assertEquals(plain.getEtag(), compressed.getEtag());
+        assertTrue(plain.getEtag().startsWith("W/\""));
+        assertNotEquals(plain.getEtag(), ResponseCacheFilter.render("[]".getBytes(), Map.of(), 0).getEtag());
+    }
+
+    @Test
+    void matchesIfNoneMatchWithWeakComparison() {
+        String etag = "W/\"abc\"";
+
+        assertTrue(ResponseCacheFilter.matches("W/\"abc\"", etag));
+        assertTrue(ResponseCacheFilter.matches("\"xyz\", \"abc\"", etag));
+        assertTrue(ResponseCacheFilter.matches("*", etag));
+        assertFalse(ResponseCacheFilter.matches("W/\"xyz\"", etag));
+        assertFalse(ResponseCacheFilter.matches(null, etag));
+    }
+}
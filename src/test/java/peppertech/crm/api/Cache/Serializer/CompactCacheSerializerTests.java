@@ -0,0 +1,105 @@
+package peppertech.crm.api.Cache.Serializer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import peppertech.crm.api.Cache.Response.RenderedResponse;
+import peppertech.crm.api.Search.Model.DTO.SearchHitDTO;
+import peppertech.crm.api.Search.Service.SearchResults;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheSerializerTests {
+
+    @Test
+    void roundTripsSingleDtosWithoutCompression() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(2048, 0);
+        UserDTO user = user(1);
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertEquals(0, bytes[0]);
+        assertEquals(user, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void compressesLargeListsAndBeatsJdkSerialization() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(2048, 0);
+        List<UserDTO> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            users.add(user(i));
+        }
+
+        byte[] compact = serializer.serialize(users);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(users);
+
+        assertEquals(1, compact[0]);
+        assertTrue(compact.length < jdk.length / 2,
+                "compact " + compact.length + " bytes vs JDK " + jdk.length + " bytes");
+        assertEquals(users, serializer.deserialize(compact));
+    }
+
+    @Test
+    void storesRenderedResponsesWithoutJson() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(16, 0);
+        byte[] body = "[{\"id\":\"1\"},{\"id\":\"2\"}]".getBytes();
+
+        byte[] bytes = serializer.serialize(new RenderedResponse(body, "W/\"abc\"", true));
+        RenderedResponse read = (RenderedResponse) serializer.deserialize(bytes);
+
+        assertEquals(2, bytes[0]);
+        assertArrayEquals(body, read.getBody());
+        assertEquals("W/\"abc\"", read.getEtag());
+        assertTrue(read.isGzipped());
+        assertTrue(read.getHeaders().isEmpty());
+    }
+
+    @Test
+    void storesThePaginationHeadersOfRenderedResponses() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(16, 0);
+        byte[] body = "[{\"id\":\"1\"}]".getBytes();
+        Map<String, String> headers = Map.of("X-Next-Cursor", "aWQKNjU", "X-Total-Count", "120");
+
+        RenderedResponse read = (RenderedResponse) serializer.deserialize(
+                serializer.serialize(new RenderedResponse(body, "W/\"abc\"", false, headers)));
+
+        assertArrayEquals(body, read.getBody());
+        assertEquals("W/\"abc\"", read.getEtag());
+        assertFalse(read.isGzipped());
+        assertEquals(headers, read.getHeaders());
+    }
+
+    @Test
+    void roundTripsSearchResults() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(2048, 0);
+        SearchHitDTO hit = new SearchHitDTO("lead", "65f000000000000000000001", "Ana Núñez", "ana@example.com", 10.5,
+                new LinkedHashMap<>(Map.of("title", "<em>Ana</em> Núñez")));
+        SearchResults results = new SearchResults(new ArrayList<>(List.of(hit)), "cursor", 20, 1);
+
+        assertEquals(results, serializer.deserialize(serializer.serialize(results)));
+    }
+
+    @Test
+    void rejectsEntriesAboveTheMaximumSize() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(0, 64);
+
+        assertThrows(CacheEntryTooLargeException.class, () -> serializer.serialize(user(1)));
+    }
+
+    private static UserDTO user(int i) {
+        UserDTO user = new UserDTO();
+        user.setId(String.format("%024x", i));
+        user.setName("Name" + i);
+        user.setLastname("Lastname" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv" + i);
+        user.setRole("USER");
+        user.setCreateAt("2024-12-24 11:34:49");
+        return user;
+    }
+}
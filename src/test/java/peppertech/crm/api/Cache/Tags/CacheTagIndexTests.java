@@ -0,0 +1,41 @@
+package peppertech.crm.api.Cache.Tags;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+import peppertech.crm.api.Cache.Resilience.RedisUnavailableException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheTagIndexTests {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 60_000, new SimpleMeterRegistry());
+    private final CacheTagIndex index = new CacheTagIndex(redisTemplate, "v1", breaker);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsAndDeletesTheTagInOneScript() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("v1:tags:leads:lists"))))
+                .thenReturn(List.of("all", "page_1"));
+
+        assertEquals(Set.of("all", "page_1"), index.drain("leads", "lists"));
+        verify(redisTemplate, never()).opsForSet();
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void refusesToDrainWhileTheCircuitIsOpen() {
+        breaker.onFailure();
+
+        assertThrows(RedisUnavailableException.class, () -> index.drain("leads", "lists"));
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,40 @@
+package peppertech.crm.api.Cache.Tags;
+
+import org.junit.jupiter.api.Test;
+import peppertech.crm.api.Leads.Model.DTO.LeadDTO;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaggingCacheTests {
+
+    @Test
+    void tagsSingleEntitiesByTheirId() {
+        UserDTO user = new UserDTO();
+        user.setId("a1");
+
+        assertEquals(Set.of("id:a1"), TaggingCache.tagsOf(user));
+    }
+
+    @Test
+    void tagsListsWithEveryContainedId() {
+        LeadDTO first = new LeadDTO();
+        first.setId("l1");
+        LeadDTO second = new LeadDTO();
+        second.setId("l2");
+
+        assertEquals(Set.of("lists", "id:l1", "id:l2"), TaggingCache.tagsOf(List.of(first, second)));
+        assertEquals(Set.of("lists"), TaggingCache.tagsOf(List.of("ADMIN", "USER")));
+    }
+
+    @Test
+    void ignoresValuesWithoutIds() {
+        assertTrue(TaggingCache.tagsOf(new UserDTO()).isEmpty());
+        assertTrue(TaggingCache.tagsOf("value").isEmpty());
+        assertTrue(CacheTags.isTag("tag:id:a1"));
+        assertFalse(CacheTags.isTag("id_a1"));
+    }
+}
@@ -0,0 +1,57 @@
+package peppertech.crm.api.Cache.Tiered;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTests {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 60_000, new SimpleMeterRegistry());
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    @Test
+    void publishesOnTheExecutorInsteadOfTheCallerThread() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(redisTemplate, "cache:invalidations", breaker, submitted::add);
+
+        bus.publish("leads", "id_1");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+        verify(redisTemplate).convertAndSend(eq("cache:invalidations"), endsWith("|leads|id_1"));
+    }
+
+    @Test
+    void skipsPublishingWhileTheCircuitIsOpen() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(redisTemplate, "cache:invalidations", breaker, submitted::add);
+        breaker.onFailure();
+
+        bus.publish("leads", "id_1");
+
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void dropsThePublicationWhenThePoolIsSaturated() {
+        Executor saturated = task -> {
+            throw new TaskRejectedException("full");
+        };
+        CacheInvalidationBus bus = new CacheInvalidationBus(redisTemplate, "cache:invalidations", breaker, saturated);
+
+        assertDoesNotThrow(() -> bus.publish("leads", "id_1"));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+}
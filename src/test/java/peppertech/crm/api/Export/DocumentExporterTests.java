@@ -0,0 +1,111 @@
+package peppertech.crm.api.Export;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentExporterTests {
+
+    private static final List<String> FIELDS = List.of("_id", "name", "email", "create_at");
+    private static final List<String> COLUMNS = List.of("id", "name", "email", "createAt");
+
+    @Test
+    void streamsAMillionLeadsWithoutBufferingTheExport() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+
+        long count = DocumentExporter.write(leads(1_000_000), FIELDS, COLUMNS, ExportFormat.NDJSON, false, output);
+
+        assertEquals(1_000_000, count);
+        assertEquals(1_000_000, output.lines);
+        // La salida llega en bloques del tamaño del buffer mientras se leen los documentos, no al final.
+        assertTrue(output.writes > 1_000, "writes: " + output.writes);
+        assertTrue(output.largestWrite <= 64 * 1024, "largest write: " + output.largestWrite);
+    }
+
+    @Test
+    void writesCsvWithQuotingAndWithoutFormulas() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Document lead = new Document("_id", new ObjectId("65f000000000000000000001"))
+                .append("name", "=HYPERLINK(\"x\")")
+                .append("email", "a,b@example.com")
+                .append("create_at", new Date(0));
+
+        DocumentExporter.write(List.of(lead).iterator(), FIELDS, COLUMNS, ExportFormat.CSV, false, output);
+
+        assertEquals("id,name,email,createAt\r\n"
+                        + "65f000000000000000000001,\"'=HYPERLINK(\"\"x\"\")\",\"a,b@example.com\",1970-01-01T00:00:00Z\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compressesWithGzipAndWritesMissingFieldsAsNull() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Document lead = new Document("_id", new ObjectId("65f000000000000000000001")).append("name", "Ana");
+
+        DocumentExporter.write(List.of(lead).iterator(), FIELDS, COLUMNS, ExportFormat.NDJSON, true, output);
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals("{\"id\":\"65f000000000000000000001\",\"name\":\"Ana\",\"email\":null,\"createAt\":null}\n",
+                    new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Iterator<Document> leads(int total) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < total;
+            }
+
+            @Override
+            public Document next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = next++;
+                return new Document("_id", new ObjectId())
+                        .append("name", "Lead" + i)
+                        .append("email", "lead" + i + "@example.com")
+                        .append("create_at", new Date(1_700_000_000_000L + i));
+            }
+        };
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long lines;
+        private long writes;
+        private int largestWrite;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            writes++;
+            largestWrite = Math.max(largestWrite, length);
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
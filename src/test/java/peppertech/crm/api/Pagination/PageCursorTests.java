@@ -0,0 +1,37 @@
+package peppertech.crm.api.Pagination;
+
+import jakarta.validation.ValidationException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTests {
+
+    @Test
+    void roundTripsTextDateAndNullValues() {
+        ObjectId id = new ObjectId();
+
+        for (Object value : new Object[]{"Pérez\nLópez", new Date(1_700_000_000_000L), null}) {
+            PageCursor cursor = new PageCursor("-name", id, value);
+
+            assertEquals(cursor, PageCursor.decode(cursor.encode(), "-name"));
+        }
+    }
+
+    @Test
+    void rejectsCursorsCreatedWithAnotherSort() {
+        String token = new PageCursor("name", new ObjectId(), "Ana").encode();
+
+        assertThrows(ValidationException.class, () -> PageCursor.decode(token, "-name"));
+        assertThrows(ValidationException.class, () -> PageCursor.decode(token, "id"));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThrows(ValidationException.class, () -> PageCursor.decode("not a cursor!", "id"));
+        assertThrows(ValidationException.class, () -> PageCursor.decode("aWQKMTIzCm4", "id"));
+    }
+}
@@ -0,0 +1,148 @@
+package peppertech.crm.api.Search;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba sobre una colección de 1.000.000 de documentos que las búsquedas por nombre usan el índice de claves de
+ * búsqueda (IXSCAN) y solo examinan los documentos devueltos, frente al recorrido completo del {@code $regex} anterior.
+ * <p>
+ * Necesita un MongoDB real, por lo que solo se ejecuta al indicarlo:
+ * {@code mvn test -Dtest=SearchIndexBenchmarkTests -Dsearch.benchmark.uri=mongodb://localhost:27017}.
+ * Los documentos se crean en una colección temporal que se elimina al terminar.
+ * </p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "search.benchmark.uri", matches = ".+")
+class SearchIndexBenchmarkTests {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final String[] NAMES = {"Álvaro", "María", "José", "Søren", "Zoë", "Ana", "Óscar", "Inés"};
+    private static final String[] LASTNAMES = {"García", "Núñez", "Østergaard", "Peña", "López", "Müller"};
+
+    private MongoClient client;
+    private MongoCollection<Document> leads;
+
+    @BeforeAll
+    void fillCollection() {
+        client = MongoClients.create(System.getProperty("search.benchmark.uri"));
+        MongoDatabase database = client.getDatabase(System.getProperty("search.benchmark.database", "search_benchmark"));
+        leads = database.getCollection("lead_" + System.nanoTime());
+
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document lead = new Document("name", NAMES[i % NAMES.length] + i)
+                    .append("lastname", LASTNAMES[i % LASTNAMES.length])
+                    .append("email", "lead" + i + "@example.com");
+            SearchKeys.apply(lead);
+            batch.add(lead);
+            if (batch.size() == 10_000) {
+                leads.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        leads.createIndexes(List.of(
+                new IndexModel(Indexes.ascending(SearchKeys.NAME, SearchKeys.LASTNAME)),
+                new IndexModel(Indexes.ascending(SearchKeys.LASTNAME))));
+    }
+
+    @AfterAll
+    void dropCollection() {
+        if (leads != null) {
+            leads.drop();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    void exactNameUsesTheIndex() {
+        assertIndexScan(new Document(SearchKeys.NAME, SearchKeys.normalize("ÁLVARO0")), 1);
+    }
+
+    @Test
+    void namePrefixUsesTheIndex() {
+        assertIndexScan(range(SearchKeys.NAME, SearchKeys.normalize("Alvaro99")), -1);
+    }
+
+    @Test
+    void lastnamePrefixUsesTheIndex() {
+        assertIndexScan(range(SearchKeys.LASTNAME, SearchKeys.normalize("ØSTER")), DOCUMENTS / LASTNAMES.length + 1);
+    }
+
+    @Test
+    void fullNameUsesTheCompoundIndex() {
+        Document filter = range(SearchKeys.LASTNAME, SearchKeys.normalize("garc"))
+                .append(SearchKeys.NAME, SearchKeys.normalize("Ana5"));
+        assertIndexScan(filter, -1);
+    }
+
+    @Test
+    void theOldRegexScannedTheWholeCollection() {
+        Document filter = new Document("name", Pattern.compile(".*alvaro99.*", Pattern.CASE_INSENSITIVE));
+        Document stats = explain(filter);
+
+        assertTrue(stages(stats.get("executionStages", Document.class)).contains("COLLSCAN"));
+        assertEquals(DOCUMENTS, stats.getInteger("totalDocsExamined"));
+    }
+
+    private static Document range(String field, String prefix) {
+        return new Document(field, new Document("$gte", prefix).append("$lt", SearchKeys.upperBound(prefix)));
+    }
+
+    /**
+     * @param expected los documentos que debe devolver la consulta, o un número negativo para no comprobarlo.
+     */
+    private void assertIndexScan(Document filter, int expected) {
+        Document stats = explain(filter);
+        List<String> stages = stages(stats.get("executionStages", Document.class));
+        int returned = stats.getInteger("nReturned");
+
+        System.out.printf("%s -> %s, %d returned, %d keys and %d documents examined, %d ms%n", filter.toJson(), stages,
+                returned, stats.getInteger("totalKeysExamined"), stats.getInteger("totalDocsExamined"),
+                stats.getInteger("executionTimeMillis"));
+        assertTrue(stages.contains("IXSCAN"), "stages: " + stages);
+        assertFalse(stages.contains("COLLSCAN"), "stages: " + stages);
+        assertTrue(returned > 0);
+        assertEquals(returned, stats.getInteger("totalDocsExamined"));
+        if (expected >= 0) {
+            assertEquals(expected, returned);
+        }
+    }
+
+    private Document explain(Document filter) {
+        Document command = new Document("explain", new Document("find", leads.getNamespace().getCollectionName())
+                .append("filter", filter))
+                .append("verbosity", "executionStats");
+        return client.getDatabase(leads.getNamespace().getDatabaseName())
+                .runCommand(command)
+                .get("executionStats", Document.class);
+    }
+
+    private static List<String> stages(Document stage) {
+        List<String> names = new ArrayList<>();
+        while (stage != null) {
+            names.add(stage.getString("stage"));
+            stage = stage.get("inputStage", Document.class);
+        }
+        return names;
+    }
+}
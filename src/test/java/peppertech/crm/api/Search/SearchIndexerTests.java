@@ -0,0 +1,50 @@
+package peppertech.crm.api.Search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import peppertech.crm.api.Cache.Resilience.DeferredEvictions;
+import peppertech.crm.api.Cache.Resilience.RedisCircuitBreaker;
+import peppertech.crm.api.Cache.Tags.CacheTagIndex;
+import peppertech.crm.api.Cache.Tags.TaggingCache;
+import peppertech.crm.api.Leads.Model.Entity.Lead;
+import peppertech.crm.api.Search.Model.Entity.SearchEntry;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchIndexerTests {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 60_000, new SimpleMeterRegistry());
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void defersTheResultsEvictionWhileTheCircuitIsOpen() {
+        DeferredEvictions evictions = new DeferredEvictions(breaker, mock(ObjectProvider.class), Runnable::run,
+                100, new SimpleMeterRegistry());
+        CacheTagIndex index = new CacheTagIndex(mock(StringRedisTemplate.class), "v1", breaker);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(SearchIndexer.CACHE_NAME))
+                .thenReturn(new TaggingCache(mock(Cache.class), index, Duration.ofMinutes(5)));
+        SearchIndexer indexer = new SearchIndexer(mongoTemplate, cacheManager, evictions);
+        breaker.onFailure();
+
+        indexer.onAfterDelete(new AfterDeleteEvent<Object>(new Document("_id", new ObjectId()), (Class) Lead.class, "leads"));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(SearchEntry.class));
+        assertEquals(1, evictions.size());
+    }
+}
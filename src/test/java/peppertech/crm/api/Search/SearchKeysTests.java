@@ -0,0 +1,53 @@
+package peppertech.crm.api.Search;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchKeysTests {
+
+    @Test
+    void foldsCaseAndTheAccentsAllowedByTheValidators() {
+        assertEquals("alvaro oster", SearchKeys.normalize(" Álvaro Øster "));
+        assertEquals("nunez", SearchKeys.normalize("NÚÑEZ"));
+        assertEquals("aeble strasse", SearchKeys.normalize("Æble Straße"));
+        assertEquals("thordis", SearchKeys.normalize("Þórðis"));
+        assertEquals("y", SearchKeys.normalize("ÿ"));
+        assertNull(SearchKeys.normalize(null));
+    }
+
+    @Test
+    void addsTheKeysOfTheNamesPresentInTheFields() {
+        Map<String, Object> fields = new HashMap<>(Map.of("name", "José", "email", "jose@example.com"));
+
+        SearchKeys.apply(fields);
+
+        assertEquals("jose", fields.get(SearchKeys.NAME));
+        assertFalse(fields.containsKey(SearchKeys.LASTNAME));
+    }
+
+    @Test
+    void upperBoundLimitsTheRangeToKeysStartingWithThePrefix() {
+        String prefix = SearchKeys.normalize("Ma");
+        String upper = SearchKeys.upperBound(prefix);
+
+        for (String key : new String[]{"ma", "maria", "mazzz"}) {
+            assertTrue(key.compareTo(prefix) >= 0 && key.compareTo(upper) < 0, key);
+        }
+        for (String key : new String[]{"m", "lucia", "mb", "nadia"}) {
+            assertFalse(key.compareTo(prefix) >= 0 && key.compareTo(upper) < 0, key);
+        }
+    }
+
+    @Test
+    void parsesTheMatchMode() {
+        assertEquals(SearchMode.PREFIX, SearchMode.of(null));
+        assertEquals(SearchMode.PREFIX, SearchMode.of(" "));
+        assertEquals(SearchMode.EXACT, SearchMode.of("Exact"));
+        assertThrows(ValidationException.class, () -> SearchMode.of("contains"));
+    }
+}
@@ -0,0 +1,42 @@
+package peppertech.crm.api.Search.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchHighlighterTests {
+
+    @Test
+    void marksTheMatchingWordsIgnoringCaseAndAccents() {
+        assertEquals("<em>José</em> <em>Pérez</em>",
+                SearchHighlighter.highlight("José Pérez", List.of("jose", "perez"), 160));
+        assertEquals("<em>clientes</em>@example.com",
+                SearchHighlighter.highlight("clientes@example.com", List.of("cliente"), 160));
+    }
+
+    @Test
+    void returnsNullWhenNothingMatches() {
+        assertNull(SearchHighlighter.highlight("Kanban Project", List.of("crm"), 160));
+        assertNull(SearchHighlighter.highlight(null, List.of("crm"), 160));
+    }
+
+    @Test
+    void escapesHtml() {
+        assertEquals("&lt;b&gt;<em>Tom</em> &amp; Jerry&lt;/b&gt;",
+                SearchHighlighter.highlight("<b>Tom & Jerry</b>", List.of("tom"), 160));
+    }
+
+    @Test
+    void cutsLongTextsAroundTheFirstMatch() {
+        String text = "word ".repeat(100) + "migración de datos " + "more ".repeat(100);
+
+        String fragment = SearchHighlighter.highlight(text, List.of("migracion"), 80);
+
+        assertTrue(fragment.startsWith(SearchHighlighter.ELLIPSIS + "word "), fragment);
+        assertTrue(fragment.contains("<em>migración</em> de datos"), fragment);
+        assertTrue(fragment.endsWith(SearchHighlighter.ELLIPSIS), fragment);
+        assertTrue(fragment.length() < 80 + 30, fragment);
+    }
+}
@@ -0,0 +1,71 @@
+package peppertech.crm.api.Search.Service;
+
+import jakarta.validation.ValidationException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import peppertech.crm.api.Search.Model.Entity.SearchEntry;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueryTests {
+
+    @Test
+    void normalizesTheTextAndDropsTextOperators() {
+        SearchQuery query = SearchQuery.of("  \"José\"  -PÉREZ josé ", null, null, null, 20, 100);
+
+        assertEquals(List.of("jose", "perez"), query.terms());
+        assertEquals(EnumSet.allOf(SearchType.class), query.types());
+        assertEquals(20, query.limit());
+    }
+
+    @Test
+    void equivalentSearchesShareTheCacheKey() {
+        assertEquals(SearchQuery.keyOf("José  PÉREZ", "lead, card", 10, null),
+                SearchQuery.keyOf("jose perez", "CARD,lead", 10, null));
+        assertNotEquals(SearchQuery.keyOf("jose", "lead", 10, null), SearchQuery.keyOf("jose", "user", 10, null));
+    }
+
+    @Test
+    void rejectsInvalidSearches() {
+        assertThrows(ValidationException.class, () -> SearchQuery.of(" ", null, null, null, 20, 100));
+        assertThrows(ValidationException.class, () -> SearchQuery.of("--", null, null, null, 20, 100));
+        assertThrows(ValidationException.class, () -> SearchQuery.of("crm", "deal", null, null, 20, 100));
+        assertThrows(ValidationException.class, () -> SearchQuery.of("crm", null, 0, null, 20, 100));
+        assertEquals(100, SearchQuery.of("crm", null, 5000, null, 20, 100).limit());
+    }
+
+    @Test
+    void cursorsOnlyContinueTheSameSearch() {
+        SearchQuery query = SearchQuery.of("kanban", "board", 10, null, 20, 100);
+        String token = new SearchCursor(query.fingerprint(), 10.75, "board:65f000000000000000000001", 42).encode();
+
+        SearchCursor cursor = SearchCursor.decode(token, query);
+
+        assertEquals(10.75, cursor.score());
+        assertEquals("board:65f000000000000000000001", cursor.id());
+        assertEquals(42, cursor.total());
+        assertThrows(ValidationException.class,
+                () -> SearchCursor.decode(token, SearchQuery.of("kanban", "card", 10, null, 20, 100)));
+        assertThrows(ValidationException.class, () -> SearchCursor.decode("not a cursor", query));
+    }
+
+    @Test
+    void indexesTheVisibleTextOfEachType() {
+        ObjectId id = new ObjectId("65f000000000000000000001");
+        Document user = new Document("_id", id).append("name", "Ana").append("lastname", "Núñez")
+                .append("email", "ana@example.com").append("password", "$2a$10$hash");
+
+        SearchEntry entry = SearchType.USER.toEntry(user);
+
+        assertEquals("user:65f000000000000000000001", entry.getId());
+        assertEquals("Ana Núñez", entry.getTitle());
+        assertEquals("ana@example.com", entry.getSubtitle());
+        assertNull(entry.getBody());
+        assertNull(SearchType.BOARD.toEntry(new Document("_id", id)));
+    }
+}
@@ -0,0 +1,141 @@
+package peppertech.crm.api.Search.Typeahead;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import peppertech.crm.api.Search.Model.Entity.SearchType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadIndexTests {
+
+    private static final Set<SearchType> CONTACTS = EnumSet.of(SearchType.LEAD, SearchType.USER);
+
+    @Test
+    void matchesWordPrefixesWithoutCaseOrAccents() {
+        TypeaheadIndex index = new TypeaheadIndex();
+        ObjectId jose = new ObjectId();
+        index.put(SearchType.LEAD, jose, "José", "Pérez", "jose.perez@acme.com");
+        index.put(SearchType.USER, new ObjectId(), "Ana", "López", "ana@acme.com");
+
+        assertEquals(List.of(jose), ids(index.suggest("PÉR", CONTACTS, 10)));
+        assertEquals(List.of(jose), ids(index.suggest("jo pe", CONTACTS, 10)));
+        assertEquals(List.of(jose), ids(index.suggest("perez@acme", CONTACTS, 10)));
+        assertEquals(2, index.suggest("acm", CONTACTS, 10).size());
+        assertTrue(index.suggest("erez", CONTACTS, 10).isEmpty());
+        assertTrue(index.suggest("jose ana", CONTACTS, 10).isEmpty());
+        assertTrue(index.suggest("--", CONTACTS, 10).isEmpty());
+
+        Suggestion suggestion = index.suggest("jos", CONTACTS, 10).get(0);
+        assertEquals(SearchType.LEAD, suggestion.type());
+        assertEquals("José", suggestion.name());
+        assertEquals("jose.perez@acme.com", suggestion.email());
+    }
+
+    @Test
+    void ranksNameMatchesFirstAndFiltersByType() {
+        TypeaheadIndex index = new TypeaheadIndex();
+        ObjectId byEmail = new ObjectId();
+        ObjectId byLastname = new ObjectId();
+        ObjectId byName = new ObjectId();
+        index.put(SearchType.USER, byEmail, "Ana", "Ruiz", "mar@acme.com");
+        index.put(SearchType.LEAD, byLastname, "Luis", "Martín", null);
+        index.put(SearchType.LEAD, byName, "Marta", "Gil", null);
+
+        assertEquals(List.of(byName, byLastname, byEmail), ids(index.suggest("mar", CONTACTS, 10)));
+        assertEquals(List.of(byName, byLastname, byEmail), ids(index.suggest("m", CONTACTS, 10)));
+        assertEquals(List.of(byName, byLastname), ids(index.suggest("mar", EnumSet.of(SearchType.LEAD), 10)));
+        assertEquals(List.of(byName), ids(index.suggest("ma", CONTACTS, 1)));
+    }
+
+    @Test
+    void updatesAndRemovesContacts() {
+        TypeaheadIndex index = new TypeaheadIndex(16);
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ObjectId id = new ObjectId();
+            ids.add(id);
+            index.put(SearchType.LEAD, id, "Name" + i, "Lastname", null);
+        }
+        index.put(SearchType.LEAD, ids.get(7), "Carmen", "Lastname", null);
+        for (int i = 50; i < 100; i++) {
+            assertTrue(index.remove(ids.get(i)));
+        }
+
+        assertEquals(50, index.size());
+        assertFalse(index.remove(ids.get(99)));
+        assertEquals(List.of(ids.get(7)), ids(index.suggest("carm", CONTACTS, 10)));
+        assertTrue(index.suggest("name7", CONTACTS, 10).isEmpty());
+        assertEquals(List.of(ids.get(8)), ids(index.suggest("name8", CONTACTS, 10)));
+        assertTrue(index.suggest("name60", CONTACTS, 10).isEmpty());
+        assertEquals(49, index.suggest("nam", CONTACTS, 100).size());
+
+        ObjectId again = ids.get(60);
+        index.put(SearchType.USER, again, "Name60", null, null);
+        assertEquals(List.of(again), ids(index.suggest("name60", CONTACTS, 10)));
+    }
+
+    @Test
+    void findsContactsInALargeIndex() {
+        TypeaheadIndex index = populate(20_000);
+
+        assertEquals(10, index.suggest("mar", CONTACTS, 10).size());
+        assertTrue(index.suggest("user12345", CONTACTS, 10).stream()
+                .anyMatch(suggestion -> "user12345@example.com".equals(suggestion.email())));
+        assertTrue(index.suggest("xyz", CONTACTS, 10).isEmpty());
+    }
+
+    /**
+     * Mide tiempos de reloj, por lo que solo se ejecuta al indicarlo:
+     * {@code mvn test -Dtest=TypeaheadIndexTests -Dtypeahead.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "typeahead.benchmark", matches = "true")
+    void answersWithinAMillisecondForHundredsOfThousandsOfContacts() {
+        TypeaheadIndex index = populate(300_000);
+        String[] queries = {"j", "ma", "mar", "carmen go", "lucia fern", "user12345", "diaz 7", "alv", "pa mu", "xyz"};
+
+        for (int warmup = 0; warmup < 200; warmup++) {
+            for (String query : queries) {
+                index.suggest(query, CONTACTS, 10);
+            }
+        }
+        int rounds = 200;
+        long started = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                index.suggest(query, CONTACTS, 10);
+            }
+        }
+        double averageMillis = (System.nanoTime() - started) / 1e6 / (rounds * queries.length);
+
+        System.out.printf("%d contacts: %.3f ms per suggestion%n", index.size(), averageMillis);
+        assertTrue(averageMillis < 1, "average suggest time " + averageMillis + " ms");
+    }
+
+    private static TypeaheadIndex populate(int contacts) {
+        String[] names = {"Ana", "José", "María", "Luis", "Carmen", "Javier", "Lucía", "Pablo", "Elena", "Diego",
+                "Sofía", "Andrés", "Paula", "Miguel", "Laura", "Álvaro", "Marta", "Jorge", "Irene", "Raúl"};
+        String[] lastnames = {"García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez",
+                "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero"};
+        Random random = new Random(42);
+        TypeaheadIndex index = new TypeaheadIndex(contacts);
+        for (int i = 0; i < contacts; i++) {
+            String name = names[random.nextInt(names.length)];
+            String lastname = lastnames[random.nextInt(lastnames.length)] + " " + Integer.toString(i, 36);
+            index.put(i % 2 == 0 ? SearchType.LEAD : SearchType.USER, new ObjectId(), name, lastname,
+                    "user" + i + "@example.com");
+        }
+        return index;
+    }
+
+    private static List<ObjectId> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::id).toList();
+    }
+}
@@ -0,0 +1,123 @@
+package peppertech.crm.api.Security.Config;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import peppertech.crm.api.Export.DocumentExport;
+import peppertech.crm.api.Security.Config.Filters.JwtAuthFilter;
+import peppertech.crm.api.Security.Config.headers.CorsConfig;
+import peppertech.crm.api.Security.Routes.RouteRegistry;
+import peppertech.crm.api.Security.Service.JwtService;
+import peppertech.crm.api.Security.Service.PasswordHashingServiceI;
+import peppertech.crm.api.Users.Controller.UserController;
+import peppertech.crm.api.Users.Mapper.UserMapper;
+import peppertech.crm.api.Users.Mapper.UserMapperImpl;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+import peppertech.crm.api.Users.Model.Entity.User;
+import peppertech.crm.api.Users.Model.Entity.UserRole;
+import peppertech.crm.api.Users.Service.UserService;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que el rol guardado en MongoDB llega al principal autenticado y abre las rutas reservadas a ADMIN, entre
+ * ellas la única que cambia roles.
+ */
+@SpringJUnitWebConfig(AdminRouteAccessTests.Config.class)
+class AdminRouteAccessTests {
+
+    private static final UserMapper MAPPER = new UserMapperImpl();
+
+    @Autowired
+    private WebApplicationContext context;
+    @MockitoBean
+    private JwtService jwtService;
+    @MockitoBean
+    private UserService userService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        Mockito.when(jwtService.validateAuthHeader("Bearer admin")).thenReturn(MAPPER.toDTO(user(UserRole.ADMIN)));
+        Mockito.when(jwtService.validateAuthHeader("Bearer user")).thenReturn(MAPPER.toDTO(user(UserRole.USER)));
+        Mockito.when(userService.exportUsers(null, null, false))
+                .thenReturn(new DocumentExport("users.ndjson", "application/x-ndjson", out -> out.write('\n')));
+    }
+
+    @Test
+    void mapsTheStoredRoleInBothDirections() {
+        UserDTO dto = MAPPER.toDTO(user(UserRole.ADMIN));
+        assertEquals("ADMIN", dto.getRole());
+        assertEquals(UserRole.ADMIN, MAPPER.toEntity(dto).getUserRole());
+    }
+
+    @Test
+    void onlyAdminTokensReachTheUserExport() throws Exception {
+        mvc.perform(get("/Users/export").header("Authorization", "Bearer admin")).andExpect(status().isOk());
+        mvc.perform(get("/Users/export").header("Authorization", "Bearer user")).andExpect(status().isForbidden());
+        mvc.perform(get("/Users/export")).andExpect(status().is(HttpStatus.UNAUTHORIZED.value()));
+    }
+
+    @Test
+    void onlyAdminTokensChangeRoles() throws Exception {
+        String id = new ObjectId().toHexString();
+        Mockito.when(userService.ChangeRole(id, "ADMIN")).thenReturn(MAPPER.toDTO(user(UserRole.ADMIN)));
+
+        mvc.perform(patch("/Users/" + id + "/role").with(csrf()).header("Authorization", "Bearer user")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(userService, Mockito.never()).ChangeRole(id, "ADMIN");
+
+        mvc.perform(patch("/Users/" + id + "/role").with(csrf()).header("Authorization", "Bearer admin")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private static User user(UserRole role) {
+        return User.builder()
+                .id(new ObjectId())
+                .name("Admin")
+                .lastname("Istrator")
+                .email(role.name().toLowerCase() + "@example.com")
+                .createAt(new Date())
+                .password("hash")
+                .userRole(role)
+                .build();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfiguration.class, JwtAuthFilter.class, CorsConfig.class, RouteRegistry.class, UserController.class})
+    static class Config {
+
+        @Bean
+        PasswordHashingServiceI passwordHasher() {
+            PasswordHashingServiceI hasher = Mockito.mock(PasswordHashingServiceI.class);
+            Mockito.when(hasher.getEncoder()).thenReturn(new BCryptPasswordEncoder(4));
+            return hasher;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package peppertech.crm.api.Security.Config.Filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import peppertech.crm.api.Security.Concurrency.AdaptiveConcurrencyLimiter;
+import peppertech.crm.api.Security.Concurrency.RequestPriority;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTests {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), 50, 10, 200);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, "/auth");
+
+    @Test
+    void releasesSynchronousRequestsWhenTheChainReturns() throws Exception {
+        filter.doFilterInternal(new MockHttpServletRequest("GET", "/Leads/All"), new MockHttpServletResponse(),
+                (request, response) -> assertEquals(1, limiter.getInFlight()));
+
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void keepsAsyncRequestsInFlightUntilTheResponseCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Leads/export");
+        request.setAsyncSupported(true);
+
+        filter.doFilterInternal(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1, limiter.getInFlight());
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void longAsyncResponsesDoNotLowerTheLimit() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(RequestPriority.READ);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        limiter.updateLimit();
+        int limit = limiter.getLimit();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Leads/export");
+        request.setAsyncSupported(true);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(RequestPriority.READ);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Thread.sleep(200);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        limiter.updateLimit();
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(limit, limiter.getLimit());
+    }
+}
@@ -0,0 +1,48 @@
+package peppertech.crm.api.Security.RateLimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterTests {
+
+    private final RateLimitRule rule = new RateLimitRule("default", 5, 60_000);
+
+    @Test
+    void allowsUpToTheLimitThenRejects() {
+        LocalRateLimiter limiter = new LocalRateLimiter(1_000);
+
+        for (int i = 0; i < 5; i++) {
+            RateLimitDecision decision = limiter.tryAcquire("ip:127.0.0.1|default", rule);
+            assertTrue(decision.allowed());
+            assertEquals(4 - i, decision.remaining());
+        }
+
+        RateLimitDecision rejected = limiter.tryAcquire("ip:127.0.0.1|default", rule);
+        assertFalse(rejected.allowed());
+        assertTrue(rejected.retryAfterMillis() > 0);
+    }
+
+    @Test
+    void clientsAreLimitedIndependently() {
+        LocalRateLimiter limiter = new LocalRateLimiter(1_000);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user:a|default", rule);
+        }
+
+        assertFalse(limiter.tryAcquire("user:a|default", rule).allowed());
+        assertTrue(limiter.tryAcquire("user:b|default", rule).allowed());
+    }
+
+    @Test
+    void stateStaysBoundedWithManyDistinctClients() {
+        LocalRateLimiter limiter = new LocalRateLimiter(1_000);
+
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(limiter.tryAcquire("ip:10.0." + i + "|default", rule).allowed());
+        }
+
+        assertTrue(limiter.size() <= 1_000);
+    }
+}
@@ -0,0 +1,140 @@
+package peppertech.crm.api.Security.RateLimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import peppertech.crm.api.Security.Config.Filters.RateLimitingFilter;
+import peppertech.crm.api.Security.Routes.RouteRegistry;
+import peppertech.crm.api.Security.Service.AuthMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide el coste por solicitud de {@link RateLimitingFilter} con {@link LocalRateLimiter}, usando una solicitud y una
+ * cadena de filtros simuladas, con 1, 10.000 y 100.000 clientes distintos, y comprueba que el coste con muchos
+ * clientes no supere en más de un factor acotado al de un único cliente.
+ * <p>
+ * Mide tiempos de reloj, por lo que solo se ejecuta al indicarlo:
+ * {@code mvn test -Dtest=RateLimitingFilterBenchmarkTests -Drate.limiting.benchmark=true}.
+ * Opcionalmente {@code -Drate.limiting.benchmark.threads=<n>}, {@code -Drate.limiting.benchmark.operations=<n>} y
+ * {@code -Drate.limiting.benchmark.max-ratio=<factor>}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "rate.limiting.benchmark", matches = "true")
+class RateLimitingFilterBenchmarkTests {
+
+    private static final int THREADS = Integer.getInteger("rate.limiting.benchmark.threads",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final int OPERATIONS = Integer.getInteger("rate.limiting.benchmark.operations", 1_000_000);
+    private static final double MAX_RATIO = Double.parseDouble(
+            System.getProperty("rate.limiting.benchmark.max-ratio", "3.0"));
+    // Por debajo de 100.000 para que ese escenario también mida las limpiezas que dispara el filtro
+    private static final int MAX_ENTRIES = 50_000;
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Test
+    void costPerRequestStaysBoundedAsClientsGrow() throws Exception {
+        run(1);
+        run(10_000);
+        run(100_000);
+
+        Result one = run(1);
+        Result tenThousand = run(10_000);
+        Result hundredThousand = run(100_000);
+
+        for (Result result : List.of(one, tenThousand, hundredThousand)) {
+            System.out.printf("%d clients, %d threads x %d requests: %.1f ns/request, %d buckets%n",
+                    result.clients(), THREADS, OPERATIONS, result.nanosPerOperation(), result.buckets());
+            assertEquals((long) THREADS * OPERATIONS, result.allowed());
+            assertTrue(result.buckets() <= MAX_ENTRIES);
+        }
+        assertTrue(tenThousand.nanosPerOperation() <= one.nanosPerOperation() * MAX_RATIO,
+                "10000 clients cost more than " + MAX_RATIO + "x a single client");
+        assertTrue(hundredThousand.nanosPerOperation() <= one.nanosPerOperation() * MAX_RATIO,
+                "100000 clients cost more than " + MAX_RATIO + "x a single client");
+    }
+
+    private static Result run(int clients) throws Exception {
+        LocalRateLimiter limiter = new LocalRateLimiter(MAX_ENTRIES);
+        RateLimitingFilter filter = new RateLimitingFilter(limiter, rules(),
+                routeRegistry(), new AuthMetrics(new SimpleMeterRegistry()));
+        String[] addresses = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            addresses[i] = "10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong allowed = new AtomicLong();
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * 7919;
+            Thread thread = new Thread(() -> {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/Leads");
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                long count = 0;
+                try {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        request.setRemoteAddr(addresses[(i + offset) % clients]);
+                        response.setStatus(200);
+                        filter.doFilter(request, response, CHAIN);
+                        if (response.getStatus() != 429) {
+                            count++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                allowed.addAndGet(count);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(clients, (System.nanoTime() - started) / (double) OPERATIONS, allowed.get(), limiter.size());
+    }
+
+    private static RateLimitRules rules() {
+        // Una cuota que nunca se agota, para medir siempre el camino de una solicitud permitida
+        RateLimitRules rules = new RateLimitRules();
+        ReflectionTestUtils.setField(rules, "maxRequests", 1_000_000_000L);
+        ReflectionTestUtils.setField(rules, "timeWindow", 60_000L);
+        ReflectionTestUtils.setField(rules, "routes", "");
+        ReflectionTestUtils.setField(rules, "users", "");
+        rules.init();
+        return rules;
+    }
+
+    private static RouteRegistry routeRegistry() {
+        RouteRegistry registry = new RouteRegistry(new MockEnvironment());
+        registry.reload("", "", "");
+        return registry;
+    }
+
+    /**
+     * @param clients           clientes distintos del escenario.
+     * @param nanosPerOperation tiempo de reloj por solicitud y por hilo.
+     * @param allowed           solicitudes permitidas en total.
+     * @param buckets           buckets en memoria al terminar.
+     */
+    private record Result(int clients, double nanosPerOperation, long allowed, int buckets) {
+    }
+}
@@ -0,0 +1,41 @@
+package peppertech.crm.api.Security.Routes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTrieTests {
+
+    @Test
+    void exactPatternsOnlyMatchTheirOwnPath() {
+        RouteTrie trie = RouteTrie.compile(List.of("/auth/login", " /auth/register "), false);
+
+        assertTrue(trie.matches("/auth/login"));
+        assertTrue(trie.matches("/auth/register/"));
+        assertFalse(trie.matches("/auth/login/extra"));
+        assertFalse(trie.matches("/auth"));
+        assertFalse(trie.matches("/Users/all"));
+    }
+
+    @Test
+    void doubleWildcardMatchesTheWholeSubtree() {
+        RouteTrie trie = RouteTrie.compile(List.of("/swagger-ui/**", "/v3/*/docs"), false);
+
+        assertTrue(trie.matches("/swagger-ui"));
+        assertTrue(trie.matches("/swagger-ui/index.html"));
+        assertTrue(trie.matches("/v3/api/docs"));
+        assertFalse(trie.matches("/v3/api/other"));
+        assertFalse(trie.matches("/swagger"));
+    }
+
+    @Test
+    void prefixModeTreatsEveryPatternAsASubtree() {
+        RouteTrie trie = RouteTrie.compile(List.of("/auth"), true);
+
+        assertTrue(trie.matches("/auth"));
+        assertTrue(trie.matches("/auth/login"));
+        assertFalse(trie.matches("/authors"));
+    }
+}
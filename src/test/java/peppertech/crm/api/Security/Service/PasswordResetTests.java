@@ -0,0 +1,139 @@
+package peppertech.crm.api.Security.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import peppertech.crm.api.Exceptions.InvalidTokenException;
+import peppertech.crm.api.Mails.Model.DTO.EmailDTO;
+import peppertech.crm.api.Mails.Service.EmailService;
+import peppertech.crm.api.Mails.Validator.EmailValidatorI;
+import peppertech.crm.api.Security.Controller.AuthController;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+import peppertech.crm.api.Users.Service.UserServiceI;
+import peppertech.crm.api.Users.Validator.UserValidator;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordResetTests {
+
+    private static final String OWNER_ID = "676ae2a9b909de5f9607fcb6";
+
+    private final UserServiceI users = mock(UserServiceI.class);
+    private final EmailService emails = mock(EmailService.class);
+    private final TokenVersionService versions = mock(TokenVersionService.class);
+    private final JwtService jwtService = new JwtService(users, emails, mock(EmailValidatorI.class), new UserValidator(),
+            mock(VerifiedTokenCache.class), versions, mock(PasswordHashingServiceI.class),
+            mock(RefreshTokenService.class), new AuthMetrics(new SimpleMeterRegistry()));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(jwtService, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "resetExpiration", 60_000L);
+        jwtService.init();
+
+        UserDTO owner = user(OWNER_ID, "owner@example.com");
+        when(users.getUserByEmail("owner@example.com")).thenReturn(owner);
+        when(users.getUserById(OWNER_ID)).thenReturn(owner);
+        when(users.PatchUser(eq(OWNER_ID), any())).thenReturn(owner);
+        when(emails.sendSimpleMail(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(versions.currentVersion(OWNER_ID)).thenReturn(3L);
+        when(versions.revokeAll(OWNER_ID)).thenReturn(4L, 5L);
+    }
+
+    @Test
+    void rejectsARequestWithoutToken() {
+        assertThrows(InvalidTokenException.class, () -> jwtService.resetPassword(null, body("owner@example.com")));
+        verifyNoPasswordChange();
+    }
+
+    @Test
+    void rejectsATokenForAnotherAccount() throws Exception {
+        String token = requestResetToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> jwtService.resetPassword("Bearer " + token, body("victim@example.com")));
+        verifyNoPasswordChange();
+    }
+
+    @Test
+    void rejectsAnAccessTokenInsteadOfAResetToken() throws Exception {
+        when(versions.revokeAll(anyString())).thenReturn(4L);
+        String accessToken = jwtService.resetPassword("Bearer " + requestResetToken(), body(null));
+        reset(users);
+
+        assertThrows(InvalidTokenException.class,
+                () -> jwtService.resetPassword("Bearer " + accessToken, body("owner@example.com")));
+        verifyNoPasswordChange();
+    }
+
+    @Test
+    void acceptsTheResetTokenOnlyOnce() throws Exception {
+        String token = requestResetToken();
+
+        assertNotNull(jwtService.resetPassword("Bearer " + token, body("owner@example.com")));
+        verify(users).PatchUser(eq(OWNER_ID), argThat(changes -> "NewPassword1@".equals(changes.getPassword())));
+
+        reset(users);
+        when(users.getUserById(OWNER_ID)).thenReturn(user(OWNER_ID, "owner@example.com"));
+        assertThrows(InvalidTokenException.class,
+                () -> jwtService.resetPassword("Bearer " + token, body("owner@example.com")));
+        verifyNoPasswordChange();
+    }
+
+    @Test
+    void keepsTheResetTokenWhenTheNewPasswordIsInvalid() throws Exception {
+        String token = requestResetToken();
+        AuthController controller = new AuthController(jwtService);
+        UserDTO weak = body("owner@example.com");
+        weak.setPassword("weak");
+
+        ResponseEntity<?> rejected = controller.resetPassword(weak, "Bearer " + token);
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        verify(versions, never()).revokeAll(anyString());
+        verifyNoPasswordChange();
+        assertEquals(HttpStatus.OK, controller.resetPassword(body("owner@example.com"), "Bearer " + token).getStatusCode());
+        verify(users).PatchUser(eq(OWNER_ID), argThat(changes -> "NewPassword1@".equals(changes.getPassword())));
+    }
+
+    private String requestResetToken() throws Exception {
+        jwtService.forgotPassword("owner@example.com");
+        ArgumentCaptor<EmailDTO> mail = ArgumentCaptor.forClass(EmailDTO.class);
+        verify(emails, atLeastOnce()).sendSimpleMail(mail.capture());
+        return mail.getValue().getMsgBody().substring("Password recovery token: ".length());
+    }
+
+    private void verifyNoPasswordChange() {
+        try {
+            verify(users, never()).PatchUser(anyString(), any());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private static UserDTO body(String email) {
+        UserDTO body = new UserDTO();
+        body.setEmail(email);
+        body.setPassword("NewPassword1@");
+        return body;
+    }
+
+    private static UserDTO user(String id, String email) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole("USER");
+        return user;
+    }
+}
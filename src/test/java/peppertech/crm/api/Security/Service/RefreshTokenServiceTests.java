@@ -0,0 +1,106 @@
+package peppertech.crm.api.Security.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import peppertech.crm.api.Exceptions.InvalidTokenException;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba que las claves de cada script se declaran en {@code KEYS} y comparten hash tag, y que la duración máxima
+ * de una familia acota su expiración.
+ */
+class RefreshTokenServiceTests {
+
+    private static final String USER_ID = "676ae2a9b909de5f9607fcb6";
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashes = mock(HashOperations.class);
+    @SuppressWarnings("unchecked")
+    private final SetOperations<String, String> sets = mock(SetOperations.class);
+    private final RefreshTokenService service = new RefreshTokenService(redisTemplate);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "refreshExpiration", 1_209_600_000L);
+        ReflectionTestUtils.setField(service, "refreshMaxLifetime", 600_000L);
+        when(redisTemplate.opsForHash()).thenReturn(hashes);
+        when(redisTemplate.opsForSet()).thenReturn(sets);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issuesFamiliesBoundedByTheirMaximumLifetime() {
+        long before = System.currentTimeMillis();
+        String token = service.issue(user("ADMIN"), 2L);
+
+        String[] parts = token.split("\\.");
+        assertEquals(3, parts.length);
+        assertEquals(USER_ID, parts[0]);
+        String familyKey = "refresh:family:{" + USER_ID + "}:" + parts[1];
+
+        ArgumentCaptor<Map<String, String>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(hashes).putAll(eq(familyKey), fields.capture());
+        assertTrue(Long.parseLong(fields.getValue().get("exp")) >= before + 600_000L);
+        verify(redisTemplate).expire(familyKey, Duration.ofMillis(600_000L));
+        verify(sets).add("refresh:families:{" + USER_ID + "}", parts[1]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rotatesWithTheFamilyAndVersionKeysInTheSameSlot() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, USER_ID, "owner@example.com", "USER", 3L));
+
+        RefreshTokenService.Rotation rotation = service.rotate(USER_ID + ".family.secret");
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        assertEquals(List.of("refresh:family:{" + USER_ID + "}:family", "token_version:{" + USER_ID + "}"),
+                keys.getValue());
+        assertEquals(3L, rotation.version());
+        assertTrue(rotation.refreshToken().startsWith(USER_ID + ".family."));
+    }
+
+    @Test
+    void rejectsTokensWithoutUserFamilyAndSecret() {
+        assertThrows(InvalidTokenException.class, () -> service.rotate("family.secret"));
+        assertThrows(InvalidTokenException.class, () -> service.rotate(USER_ID + "..secret"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void copiesTheNewEmailAndRoleIntoEveryFamily() {
+        when(sets.members("refresh:families:{" + USER_ID + "}")).thenReturn(Set.of("a"));
+
+        service.updateUser(user("ADMIN"));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("refresh:families:{" + USER_ID + "}", "refresh:family:{" + USER_ID + "}:a")),
+                eq("owner@example.com"), eq("ADMIN"), eq("a"));
+    }
+
+    private static UserDTO user(String role) {
+        UserDTO user = new UserDTO();
+        user.setId(USER_ID);
+        user.setEmail("owner@example.com");
+        user.setRole(role);
+        return user;
+    }
+}
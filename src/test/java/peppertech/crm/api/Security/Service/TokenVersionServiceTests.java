@@ -0,0 +1,82 @@
+package peppertech.crm.api.Security.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba que leer una versión cuesta una sola consulta a Redis y que las claves anteriores se migran al iniciar.
+ */
+class TokenVersionServiceTests {
+
+    private static final String USER_ID = "676ae2a9b909de5f9607fcb6";
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final TokenVersionService service = new TokenVersionService(redisTemplate);
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    void readsOnlyTheHashTaggedKeyOnACacheMiss() {
+        assertEquals(0L, service.currentVersion(USER_ID));
+
+        verify(values).get("token_version:{" + USER_ID + "}");
+        verify(values, never()).get("token_version:" + USER_ID);
+    }
+
+    @Test
+    void migratesLegacyKeysOnceKeepingTheHighestVersion() {
+        scanReturns("token_version:a", "token_version:b", "token_version:{c}");
+        when(values.get("token_version:a")).thenReturn("3");
+        when(values.get("token_version:b")).thenReturn("2");
+        when(values.setIfAbsent("token_version:{a}", "3")).thenReturn(true);
+        when(values.setIfAbsent("token_version:{b}", "2")).thenReturn(false);
+        when(values.get("token_version:{b}")).thenReturn("1");
+
+        assertEquals(2, service.migrateLegacyKeys());
+
+        verify(values).set("token_version:{b}", "2");
+        verify(redisTemplate).delete("token_version:a");
+        verify(redisTemplate).delete("token_version:b");
+        verify(redisTemplate, never()).delete("token_version:{c}");
+        verify(values, never()).get("token_version:{c}");
+    }
+
+    @Test
+    void keepsANewerVersionWrittenAfterTheLegacyOne() {
+        scanReturns("token_version:a");
+        when(values.get("token_version:a")).thenReturn("3");
+        when(values.setIfAbsent("token_version:{a}", "3")).thenReturn(false);
+        when(values.get("token_version:{a}")).thenReturn("4");
+
+        service.migrateLegacyKeys();
+
+        verify(values, never()).set(anyString(), anyString());
+        verify(redisTemplate).delete("token_version:a");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanReturns(String... keys) {
+        Iterator<String> iterator = List.of(keys).iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+}
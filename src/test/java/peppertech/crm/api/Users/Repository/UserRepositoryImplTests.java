@@ -0,0 +1,47 @@
+package peppertech.crm.api.Users.Repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import peppertech.crm.api.Search.SearchIndexer;
+import peppertech.crm.api.Users.Model.Entity.User;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserRepositoryImplTests {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final UserRepositoryImpl repository = new UserRepositoryImpl(mongoTemplate, mock(SearchIndexer.class));
+
+    @Test
+    void setsOnlyTheChangedFieldsAndTheirSearchKeys() {
+        ObjectId id = new ObjectId();
+
+        repository.updateFields(id, Map.of("lastname", "Gómez"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(User.class));
+        assertEquals(new Document("$set", new Document("lastname", "Gómez").append("lastname_key", "gomez")),
+                update.getValue().getUpdateObject());
+    }
+
+    @Test
+    void readsWithoutWritingWhenThereAreNoChanges() {
+        repository.updateFields(new ObjectId(), Map.of());
+
+        verify(mongoTemplate).findOne(any(Query.class), eq(User.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(User.class));
+    }
+}
@@ -0,0 +1,121 @@
+package peppertech.crm.api.Users.Service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import peppertech.crm.api.Cache.Negative.NegativeLookupCache;
+import peppertech.crm.api.Export.DocumentExporter;
+import peppertech.crm.api.Pagination.KeysetPager;
+import peppertech.crm.api.Search.Service.TypeaheadServiceI;
+import peppertech.crm.api.Security.Service.PasswordHashingServiceI;
+import peppertech.crm.api.Users.Controller.UserController;
+import peppertech.crm.api.Users.Mapper.UserMapperImpl;
+import peppertech.crm.api.Users.Model.DTO.UserDTO;
+import peppertech.crm.api.Users.Model.Entity.User;
+import peppertech.crm.api.Users.Model.Entity.UserRole;
+import peppertech.crm.api.Users.Repository.UserRepository;
+import peppertech.crm.api.Users.Validator.UserValidator;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que las actualizaciones de usuarios escriben con {@code $set} solo los campos que cambian y que la
+ * contraseña solo se vuelve a cifrar cuando se envía una nueva.
+ */
+class UserServiceTests {
+
+    private static final String STORED_HASH = "$2a$10$storedhashstoredhashstoredhashstoredhashstoredhashsto";
+
+    private final UserRepository repository = mock(UserRepository.class);
+    private final PasswordHashingServiceI passwordHasher = mock(PasswordHashingServiceI.class);
+    private final User stored = User.builder()
+            .id(new ObjectId())
+            .name("Ana")
+            .lastname("Ruiz")
+            .email("ana@example.com")
+            .createAt(new Date())
+            .password(STORED_HASH)
+            .userRole(UserRole.USER)
+            .build();
+    private final String id = stored.getId().toHexString();
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserService(repository, new UserMapperImpl(), new UserValidator(), passwordHasher,
+                mock(NegativeLookupCache.class), mock(KeysetPager.class), mock(DocumentExporter.class),
+                mock(TypeaheadServiceI.class), mock(ApplicationEventPublisher.class));
+        when(repository.findById(stored.getId())).thenReturn(Optional.of(stored));
+        when(repository.updateFields(eq(stored.getId()), anyMap())).thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    void editsTheProfileWithoutRehashingThePassword() throws Exception {
+        UserDTO changes = new UserDTO();
+        changes.setName("Mariana");
+
+        service.PatchUser(id, changes);
+
+        verify(repository).updateFields(stored.getId(), Map.of("name", "Mariana"));
+        verify(passwordHasher, never()).encode(anyString());
+        assertEquals(STORED_HASH, stored.getPassword());
+    }
+
+    @Test
+    void rehashesOnlyANewPlaintextPassword() throws Exception {
+        when(passwordHasher.encode("NewPassword1@")).thenReturn("new-hash");
+        UserDTO changes = new UserDTO();
+        changes.setPassword("NewPassword1@");
+
+        service.PatchUser(id, changes);
+
+        verify(passwordHasher).encode("NewPassword1@");
+        verify(repository).updateFields(stored.getId(), Map.of("password", "new-hash"));
+    }
+
+    @Test
+    void skipsTheWriteWhenNothingChanges() throws Exception {
+        UserDTO changes = new UserDTO();
+        changes.setName("Ana");
+        changes.setEmail("ana@example.com");
+
+        assertEquals(id, service.PatchUser(id, changes).getId());
+        verify(repository, never()).updateFields(any(), anyMap());
+        verify(passwordHasher, never()).encode(anyString());
+    }
+
+    @Test
+    void rejectsAnEmailThatBelongsToAnotherUser() {
+        when(repository.existsByEmail("taken@example.com")).thenReturn(true);
+        UserDTO changes = new UserDTO();
+        changes.setEmail("taken@example.com");
+
+        assertThrows(IllegalStateException.class, () -> service.PatchUser(id, changes));
+        verify(repository, never()).updateFields(any(), anyMap());
+    }
+
+    @Test
+    void patchWritesOnlyTheFieldsInTheRequestBody() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new UserController(service)).build();
+
+        mvc.perform(patch("/Users/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"lastname\":\"Gimenez\"}"))
+                .andExpect(status().isOk());
+
+        verify(repository).updateFields(stored.getId(), Map.of("lastname", "Gimenez"));
+        verify(passwordHasher, never()).encode(anyString());
+    }
+}